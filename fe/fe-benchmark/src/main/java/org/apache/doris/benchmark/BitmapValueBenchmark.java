@@ -0,0 +1,143 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.benchmark;
+
+import org.apache.doris.common.io.BitmapValue;
+import org.apache.doris.common.io.Roaring64Map;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Set operations and serialization of BitmapValue and Roaring64Map, with values beyond the 32 bits range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BitmapValueBenchmark {
+
+    @Param({"1000", "100000"})
+    public int valueNum;
+
+    private long[] values;
+    private BitmapValue bitmap1;
+    private BitmapValue bitmap2;
+    private Roaring64Map roaring1;
+    private Roaring64Map roaring2;
+    private byte[] serializedBitmap;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(0);
+        values = new long[valueNum];
+        bitmap1 = new BitmapValue();
+        bitmap2 = new BitmapValue();
+        roaring1 = new Roaring64Map();
+        roaring2 = new Roaring64Map();
+        for (int i = 0; i < valueNum; i++) {
+            // two overlapping dense ranges, across the 32 bits boundary
+            values[i] = Integer.MAX_VALUE - valueNum / 2 + random.nextInt(valueNum * 2);
+            long other = values[i] + valueNum / 2;
+            bitmap1.add(values[i]);
+            bitmap2.add(other);
+            roaring1.addLong(values[i]);
+            roaring2.addLong(other);
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        bitmap1.serialize(new DataOutputStream(bos));
+        serializedBitmap = bos.toByteArray();
+    }
+
+    @Benchmark
+    public BitmapValue add() {
+        BitmapValue bitmap = new BitmapValue();
+        for (long value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    @Benchmark
+    public long or() {
+        BitmapValue bitmap = copy(bitmap1);
+        bitmap.or(bitmap2);
+        return bitmap.cardinality();
+    }
+
+    @Benchmark
+    public long and() {
+        BitmapValue bitmap = copy(bitmap1);
+        bitmap.and(bitmap2);
+        return bitmap.cardinality();
+    }
+
+    @Benchmark
+    public BitmapValue deserialize() throws IOException {
+        BitmapValue bitmap = new BitmapValue();
+        bitmap.deserialize(new DataInputStream(new ByteArrayInputStream(serializedBitmap)));
+        return bitmap;
+    }
+
+    @Benchmark
+    public long roaringOr() {
+        Roaring64Map roaring = new Roaring64Map();
+        roaring.or(roaring1);
+        roaring.or(roaring2);
+        return roaring.getLongCardinality();
+    }
+
+    @Benchmark
+    public long roaringAnd() {
+        Roaring64Map roaring = new Roaring64Map();
+        roaring.or(roaring1);
+        roaring.and(roaring2);
+        return roaring.getLongCardinality();
+    }
+
+    @Benchmark
+    public long roaringSerializedSize() {
+        return roaring1.serializedSizeInBytes();
+    }
+
+    private static BitmapValue copy(BitmapValue bitmap) {
+        BitmapValue copy = new BitmapValue();
+        copy.or(bitmap);
+        return copy;
+    }
+}
@@ -0,0 +1,76 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.benchmark;
+
+import org.apache.doris.analysis.Analyzer;
+import org.apache.doris.analysis.StatementBase;
+import org.apache.doris.planner.OriginalPlanner;
+import org.apache.doris.qe.ConnectContext;
+import org.apache.doris.qe.Coordinator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator.computeScanRangeAssignment() of a query scanning all tablets of a table.
+ * The number of scan ranges is controlled by the "bucketNum" and "backendNum" parameters of MockedClusterState.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CoordinatorBenchmark {
+    private Analyzer analyzer;
+    private OriginalPlanner planner;
+    private Coordinator coordinator;
+
+    @Setup(Level.Trial)
+    public void setUpPlan(MockedClusterState cluster) throws Exception {
+        StatementBase stmt = cluster.parse(cluster.getScanQuery());
+        analyzer = cluster.newAnalyzer();
+        stmt.analyze(analyzer);
+        planner = new OriginalPlanner(analyzer);
+        planner.plan(stmt, cluster.getContext().getSessionVariable().toThrift());
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpCoordinator(MockedClusterState cluster) throws Exception {
+        ConnectContext ctx = cluster.getContext();
+        coordinator = new Coordinator(ctx, analyzer, planner);
+        coordinator.prepare();
+    }
+
+    @Benchmark
+    public Coordinator computeScanRangeAssignment() throws Exception {
+        coordinator.computeScanRangeAssignment();
+        return coordinator;
+    }
+}
@@ -0,0 +1,98 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.benchmark;
+
+import org.apache.doris.catalog.Column;
+import org.apache.doris.catalog.HashDistributionInfo;
+import org.apache.doris.catalog.MaterializedIndex;
+import org.apache.doris.catalog.MaterializedIndex.IndexState;
+import org.apache.doris.catalog.Partition;
+import org.apache.doris.catalog.PrimitiveType;
+import org.apache.doris.catalog.Replica;
+import org.apache.doris.catalog.Replica.ReplicaState;
+import org.apache.doris.catalog.Tablet;
+import org.apache.doris.catalog.TabletMeta;
+import org.apache.doris.persist.gson.GsonUtils;
+import org.apache.doris.thrift.TStorageMedium;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize and deserialize a synthetic partition with GsonUtils, as done for the image and edit log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class GsonUtilsBenchmark {
+
+    @Param({"16", "1024"})
+    public int tabletNum;
+
+    @Param({"3"})
+    public int replicaNum;
+
+    private Partition partition;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MaterializedIndex baseIndex = new MaterializedIndex(1, IndexState.NORMAL);
+        TabletMeta tabletMeta = new TabletMeta(1, 2, 3, 1, 0, TStorageMedium.HDD);
+        for (long tabletId = 100; tabletId < 100 + tabletNum; tabletId++) {
+            List<Replica> replicas = Lists.newArrayList();
+            for (long backendId = 1; backendId <= replicaNum; backendId++) {
+                replicas.add(new Replica(tabletId * replicaNum + backendId, backendId, 2L, 0,
+                        1024L, 0, 100L, ReplicaState.NORMAL, 0, 2));
+            }
+            // restore mode, so the synthetic tablets are not added to the inverted index of catalog
+            baseIndex.addTablet(new Tablet(tabletId, replicas), tabletMeta, true);
+        }
+        HashDistributionInfo distributionInfo = new HashDistributionInfo(tabletNum,
+                Lists.newArrayList(new Column("k1", PrimitiveType.INT)));
+        partition = new Partition(3, "p1", baseIndex, distributionInfo);
+        json = GsonUtils.GSON.toJson(partition);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return GsonUtils.GSON.toJson(partition);
+    }
+
+    @Benchmark
+    public Partition fromJson() {
+        return GsonUtils.GSON.fromJson(json, Partition.class);
+    }
+}
@@ -0,0 +1,125 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.benchmark;
+
+import org.apache.doris.analysis.Analyzer;
+import org.apache.doris.analysis.CreateDbStmt;
+import org.apache.doris.analysis.CreateTableStmt;
+import org.apache.doris.analysis.SqlParser;
+import org.apache.doris.analysis.SqlScanner;
+import org.apache.doris.analysis.StatementBase;
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.common.FeConstants;
+import org.apache.doris.common.util.SqlParserUtils;
+import org.apache.doris.qe.ConnectContext;
+import org.apache.doris.thrift.TUniqueId;
+import org.apache.doris.utframe.UtFrameUtils;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.StringReader;
+import java.util.UUID;
+
+/**
+ * A mocked FE with mocked BEs and a synthetic catalog, shared by the benchmarks of analysis and planning.
+ *
+ * The catalog has one database "bench" with tables "t0" ~ "t{tableNum - 1}", each table has
+ * "bucketNum" tablets. These numbers can be overwritten by JMH parameters, eg:
+ *     java -jar fe-benchmark-jar-with-dependencies.jar PlannerBenchmark -p tableNum=100 -p bucketNum=64
+ */
+@State(Scope.Benchmark)
+public class MockedClusterState {
+    public static final String DB = "bench";
+
+    private static final String RUNNING_DIR_BASE = "fe";
+
+    @Param({"2"})
+    public int tableNum;
+
+    @Param({"16"})
+    public int bucketNum;
+
+    @Param({"3"})
+    public int backendNum;
+
+    private ConnectContext ctx;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        FeConstants.runningUnitTest = true;
+        String runningDir = RUNNING_DIR_BASE + "/mocked/" + getClass().getSimpleName() + "/" + UUID.randomUUID() + "/";
+        UtFrameUtils.createDorisClusterWithMultiTag(runningDir, backendNum);
+
+        ctx = UtFrameUtils.createDefaultCtx();
+        CreateDbStmt createDbStmt = (CreateDbStmt) UtFrameUtils.parseAndAnalyzeStmt("create database " + DB, ctx);
+        Catalog.getCurrentCatalog().createDb(createDbStmt);
+        int replicationNum = Math.min(3, backendNum);
+        for (int i = 0; i < tableNum; i++) {
+            String createTableSql = "create table " + DB + ".t" + i + " (k1 int, k2 bigint, k3 varchar(32),"
+                    + " k4 date, v1 bigint) duplicate key(k1, k2) distributed by hash(k1) buckets " + bucketNum
+                    + " properties('replication_num' = '" + replicationNum + "')";
+            CreateTableStmt createTableStmt = (CreateTableStmt) UtFrameUtils.parseAndAnalyzeStmt(createTableSql, ctx);
+            Catalog.getCurrentCatalog().createTable(createTableStmt);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        UtFrameUtils.cleanDorisFeDir(RUNNING_DIR_BASE);
+    }
+
+    // JMH may run setup and benchmark methods in different threads, so the context is bound on each call
+    public ConnectContext getContext() {
+        ctx.setThreadLocalInfo();
+        UUID uuid = UUID.randomUUID();
+        ctx.setQueryId(new TUniqueId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        return ctx;
+    }
+
+    public Analyzer newAnalyzer() {
+        return new Analyzer(Catalog.getCurrentCatalog(), getContext());
+    }
+
+    public StatementBase parse(String sql) throws Exception {
+        SqlScanner input = new SqlScanner(new StringReader(sql), ctx.getSessionVariable().getSqlMode());
+        return SqlParserUtils.getFirstStmt(new SqlParser(input));
+    }
+
+    /**
+     * A typical report query: join of the first and the last table, with aggregation, sort
+     * and predicates which can be rewritten.
+     */
+    public String getJoinQuery() {
+        return "select a.k3, sum(a.v1), count(distinct b.k2) from " + DB + ".t0 a join " + DB + ".t" + (tableNum - 1)
+                + " b on a.k1 = b.k1 where a.k4 >= '2022-01-01' and a.k4 < date_add('2022-01-01', 30)"
+                + " and a.k2 in (1, 2, 3) and (b.k3 = 'x' or b.k3 = 'y') and 1 + 1 = 2"
+                + " group by a.k3 order by a.k3 limit 100";
+    }
+
+    /**
+     * A scan of all tablets of the first table.
+     */
+    public String getScanQuery() {
+        return "select k1, k2, v1 from " + DB + ".t0 where k1 > 0";
+    }
+}
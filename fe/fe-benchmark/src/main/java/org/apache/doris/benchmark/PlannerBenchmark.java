@@ -0,0 +1,79 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.benchmark;
+
+import org.apache.doris.analysis.Analyzer;
+import org.apache.doris.analysis.QueryStmt;
+import org.apache.doris.analysis.StatementBase;
+import org.apache.doris.planner.OriginalPlanner;
+import org.apache.doris.planner.PlanNode;
+import org.apache.doris.planner.PlannerContext;
+import org.apache.doris.planner.SingleNodePlanner;
+import org.apache.doris.thrift.TQueryOptions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plan an analyzed join query.
+ * singleNodePlan() only runs SingleNodePlanner, plan() runs the whole OriginalPlanner,
+ * so the cost of DistributedPlanner and plan finalization is the difference of the two.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PlannerBenchmark {
+    private StatementBase stmt;
+    private Analyzer analyzer;
+    private TQueryOptions queryOptions;
+
+    @Setup(Level.Invocation)
+    public void setUp(MockedClusterState cluster) throws Exception {
+        stmt = cluster.parse(cluster.getJoinQuery());
+        analyzer = cluster.newAnalyzer();
+        stmt.analyze(analyzer);
+        queryOptions = cluster.getContext().getSessionVariable().toThrift();
+    }
+
+    @Benchmark
+    public PlanNode singleNodePlan() throws Exception {
+        PlannerContext plannerContext = new PlannerContext(analyzer, (QueryStmt) stmt, queryOptions, stmt);
+        return new SingleNodePlanner(plannerContext).createSingleNodePlan();
+    }
+
+    @Benchmark
+    public OriginalPlanner plan() throws Exception {
+        OriginalPlanner planner = new OriginalPlanner(analyzer);
+        planner.plan(stmt, queryOptions);
+        return planner;
+    }
+}
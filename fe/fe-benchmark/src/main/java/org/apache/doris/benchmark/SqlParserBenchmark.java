@@ -0,0 +1,84 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.benchmark;
+
+import org.apache.doris.analysis.SqlParser;
+import org.apache.doris.analysis.SqlScanner;
+import org.apache.doris.analysis.StatementBase;
+import org.apache.doris.common.util.SqlParserUtils;
+import org.apache.doris.qe.SqlModeHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse a wide select statement, no catalog is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SqlParserBenchmark {
+
+    // number of select items and of predicates
+    @Param({"10", "100"})
+    public int columnNum;
+
+    private String sql;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("select ");
+        for (int i = 0; i < columnNum; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("sum(c").append(i).append(" * 2 + 1) as s").append(i);
+        }
+        sb.append(" from db.tbl where ");
+        for (int i = 0; i < columnNum; i++) {
+            if (i > 0) {
+                sb.append(" and ");
+            }
+            sb.append("(c").append(i).append(" in (1, 2, 3) or c").append(i).append(" between 10 and 20)");
+        }
+        sb.append(" group by k1, k2 order by k1 limit 100");
+        sql = sb.toString();
+    }
+
+    @Benchmark
+    public StatementBase parse() throws Exception {
+        SqlScanner input = new SqlScanner(new StringReader(sql), SqlModeHelper.MODE_DEFAULT);
+        return SqlParserUtils.getFirstStmt(new SqlParser(input));
+    }
+}
@@ -0,0 +1,120 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.benchmark;
+
+import org.apache.doris.catalog.Replica;
+import org.apache.doris.catalog.Replica.ReplicaState;
+import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletMeta;
+import org.apache.doris.thrift.TPartitionVersionInfo;
+import org.apache.doris.thrift.TStorageMedium;
+import org.apache.doris.thrift.TTablet;
+import org.apache.doris.thrift.TTabletInfo;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.lang3.tuple.Triple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TabletInvertedIndex.tabletReport() of one backend, on a synthetic inverted index where every tablet
+ * has a replica on each backend. Half of the reported tablets have a newer version and need sync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TabletReportBenchmark {
+    private static final long BACKEND_ID = 1;
+    private static final int SCHEMA_HASH = 1;
+
+    @Param({"100000", "1000000"})
+    public int tabletNum;
+
+    @Param({"3"})
+    public int replicaNum;
+
+    @Param({"16"})
+    public int shardNum;
+
+    @Param({"true"})
+    public boolean compactReplicaRow;
+
+    private TabletInvertedIndex invertedIndex;
+    private Map<Long, TTablet> backendTablets;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        invertedIndex = new TabletInvertedIndex(shardNum, compactReplicaRow);
+        backendTablets = Maps.newHashMapWithExpectedSize(tabletNum);
+        // 100 tablets per partition
+        for (long tabletId = 1; tabletId <= tabletNum; tabletId++) {
+            long partitionId = tabletId / 100;
+            invertedIndex.addTablet(tabletId, new TabletMeta(1, 2, partitionId, 3, SCHEMA_HASH, TStorageMedium.HDD));
+            for (long backendId = BACKEND_ID; backendId < BACKEND_ID + replicaNum; backendId++) {
+                Replica replica = new Replica(tabletId * replicaNum + backendId, backendId, 2L, SCHEMA_HASH,
+                        0L, 0, 0L, ReplicaState.NORMAL, 0, 0);
+                invertedIndex.addReplica(tabletId, replica);
+            }
+
+            TTabletInfo tabletInfo = new TTabletInfo(tabletId, SCHEMA_HASH, tabletId % 2 == 0 ? 2L : 3L, 0L, 0L, 0L);
+            tabletInfo.setPartitionId(partitionId);
+            tabletInfo.setStorageMedium(TStorageMedium.HDD);
+            tabletInfo.setVersionCount(1);
+            backendTablets.put(tabletId, new TTablet(Lists.newArrayList(tabletInfo)));
+        }
+    }
+
+    @Benchmark
+    public ListMultimap<Long, Long> tabletReport() {
+        ListMultimap<Long, Long> tabletSyncMap = ArrayListMultimap.create();
+        ListMultimap<Long, Long> tabletDeleteFromMeta = ArrayListMultimap.create();
+        Set<Long> tabletFoundInMeta = Sets.newConcurrentHashSet();
+        ListMultimap<TStorageMedium, Long> tabletMigrationMap = ArrayListMultimap.create();
+        Map<Long, ListMultimap<Long, TPartitionVersionInfo>> transactionsToPublish = Maps.newHashMap();
+        ListMultimap<Long, Long> transactionsToClear = ArrayListMultimap.create();
+        ListMultimap<Long, Long> tabletRecoveryMap = ArrayListMultimap.create();
+        List<Triple<Long, Integer, Boolean>> tabletToInMemory = Lists.newArrayList();
+        invertedIndex.tabletReport(BACKEND_ID, backendTablets, new HashMap<>(), tabletSyncMap, tabletDeleteFromMeta,
+                tabletFoundInMeta, tabletMigrationMap, transactionsToPublish, transactionsToClear, tabletRecoveryMap,
+                tabletToInMemory);
+        return tabletSyncMap;
+    }
+}
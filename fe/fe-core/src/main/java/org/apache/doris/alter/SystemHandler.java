@@ -151,6 +151,7 @@ public class SystemHandler extends AlterHandler {
                 backend.setDecommissioned(true);
                 Catalog.getCurrentCatalog().getEditLog().logBackendStateChange(backend);
                 LOG.info("set backend {} to decommission", backend.getId());
+                Catalog.getCurrentCatalog().getTabletChecker().markBackendDirty(backend.getId());
             }
 
         } else if (alterClause instanceof AddObserverClause) {
@@ -54,6 +54,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
@@ -62,6 +63,7 @@ import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
@@ -95,6 +97,9 @@ public class CreateFunctionStmt extends DdlStmt {
     public static final String SERIALIZE_METHOD_NAME = "serialize";
     public static final String MERGE_METHOD_NAME = "merge";
     public static final String GETVALUE_METHOD_NAME = "getValue";
+    public static final String DESERIALIZE_METHOD_NAME = "deserialize";
+    public static final String BATCH_ADD_METHOD_NAME = "batchAdd";
+    public static final String STATE_SIZE_METHOD_NAME = "stateSize";
     public static final String STATE_CLASS_NAME = "State";
     private static final Logger LOG = LogManager.getLogger(CreateFunctionStmt.class);
 
@@ -337,8 +342,6 @@ public class CreateFunctionStmt extends DdlStmt {
             URLClassLoader cl = URLClassLoader.newInstance(urls);
             Class udfClass = cl.loadClass(clazz);
             String udfClassName = udfClass.getCanonicalName();
-            String stateClassName = udfClassName + "$" + STATE_CLASS_NAME;
-            Class stateClass = cl.loadClass(stateClassName);
 
             for (Method m : udfClass.getMethods()) {
                 if (!m.getDeclaringClass().equals(udfClass)) {
@@ -352,6 +355,14 @@ public class CreateFunctionStmt extends DdlStmt {
                 allMethods.put(name, m);
             }
 
+            if (allMethods.containsKey(STATE_SIZE_METHOD_NAME)) {
+                analyzeJavaUdafWithPrimitiveState(udfClass, allMethods);
+                return;
+            }
+
+            String stateClassName = udfClassName + "$" + STATE_CLASS_NAME;
+            Class stateClass = cl.loadClass(stateClassName);
+
             if (allMethods.get(CREATE_METHOD_NAME) == null) {
                 throw new AnalysisException(
                         String.format("No method '%s' in class '%s'!", CREATE_METHOD_NAME, udfClassName));
@@ -370,9 +381,17 @@ public class CreateFunctionStmt extends DdlStmt {
                 checkReturnJavaType(udfClassName, allMethods.get(DESTROY_METHOD_NAME), void.class);
             }
 
+            // 'add' is optional if the rows are added by 'batchAdd'
+            if (allMethods.get(BATCH_ADD_METHOD_NAME) != null) {
+                checkBatchAdd(udfClass, allMethods.get(BATCH_ADD_METHOD_NAME), Array.newInstance(stateClass, 0)
+                        .getClass());
+            }
             if (allMethods.get(ADD_METHOD_NAME) == null) {
-                throw new AnalysisException(
-                        String.format("No method '%s' in class '%s'!", ADD_METHOD_NAME, udfClassName));
+                if (allMethods.get(BATCH_ADD_METHOD_NAME) == null) {
+                    throw new AnalysisException(
+                            String.format("No method '%s' or '%s' in class '%s'!", ADD_METHOD_NAME,
+                                    BATCH_ADD_METHOD_NAME, udfClassName));
+                }
             } else {
                 checkMethodNonStaticAndPublic(ADD_METHOD_NAME, allMethods.get(ADD_METHOD_NAME), udfClassName);
                 checkArgumentCount(allMethods.get(ADD_METHOD_NAME), argsDef.getArgTypes().length + 1, udfClassName);
@@ -424,6 +443,92 @@ public class CreateFunctionStmt extends DdlStmt {
         }
     }
 
+    /**
+     * A UDAF declaring 'int stateSize()' keeps its fixed width state in a buffer managed by the backend,
+     * at an offset of the buffer, instead of in 'State' objects. It has no 'State' class, the rows are
+     * added by 'batchAdd' and the state is serialized as its raw bytes, so the methods working on 'State'
+     * objects are not used and not allowed.
+     */
+    private void analyzeJavaUdafWithPrimitiveState(Class udfClass, Map<String, Method> allMethods)
+            throws AnalysisException {
+        String udfClassName = udfClass.getCanonicalName();
+        for (String name : new String[] {CREATE_METHOD_NAME, DESTROY_METHOD_NAME, ADD_METHOD_NAME,
+                SERIALIZE_METHOD_NAME, DESERIALIZE_METHOD_NAME}) {
+            if (allMethods.containsKey(name)) {
+                throw new AnalysisException(String.format("UDAF '%s' with method '%s' should not have method '%s'",
+                        udfClassName, STATE_SIZE_METHOD_NAME, name));
+            }
+        }
+
+        Method stateSize = allMethods.get(STATE_SIZE_METHOD_NAME);
+        checkMethodNonStaticAndPublic(STATE_SIZE_METHOD_NAME, stateSize, udfClassName);
+        checkArgumentCount(stateSize, 0, udfClassName);
+        checkReturnJavaType(udfClassName, stateSize, int.class);
+
+        if (allMethods.get(BATCH_ADD_METHOD_NAME) == null) {
+            throw new AnalysisException(
+                    String.format("No method '%s' in class '%s'!", BATCH_ADD_METHOD_NAME, udfClassName));
+        }
+        checkBatchAdd(udfClass, allMethods.get(BATCH_ADD_METHOD_NAME), ByteBuffer.class, int[].class);
+
+        Method merge = allMethods.get(MERGE_METHOD_NAME);
+        if (merge == null) {
+            throw new AnalysisException(
+                    String.format("No method '%s' in class '%s'!", MERGE_METHOD_NAME, udfClassName));
+        }
+        checkMethodNonStaticAndPublic(MERGE_METHOD_NAME, merge, udfClassName);
+        checkParameterJavaTypes(udfClassName, merge, ByteBuffer.class, int.class, ByteBuffer.class, int.class);
+        checkReturnJavaType(udfClassName, merge, void.class);
+
+        Method getValue = allMethods.get(GETVALUE_METHOD_NAME);
+        if (getValue == null) {
+            throw new AnalysisException(
+                    String.format("No method '%s' in class '%s'!", GETVALUE_METHOD_NAME, udfClassName));
+        }
+        checkMethodNonStaticAndPublic(GETVALUE_METHOD_NAME, getValue, udfClassName);
+        checkParameterJavaTypes(udfClassName, getValue, ByteBuffer.class, int.class);
+        checkReturnUdfType(udfClass, getValue, returnType.getType());
+    }
+
+    /**
+     * Check 'void batchAdd(int numRows, <stateTypes>, A1[] arg1, byte[] arg1Nulls, ...)', the arguments
+     * are passed as arrays of primitive types with their null maps.
+     */
+    private void checkBatchAdd(Class udfClass, Method batchAdd, Class... stateTypes) throws AnalysisException {
+        String udfClassName = udfClass.getCanonicalName();
+        Type[] argTypes = argsDef.getArgTypes();
+        checkMethodNonStaticAndPublic(BATCH_ADD_METHOD_NAME, batchAdd, udfClassName);
+        checkArgumentCount(batchAdd, 1 + stateTypes.length + 2 * argTypes.length, udfClassName);
+        checkReturnJavaType(udfClassName, batchAdd, void.class);
+        Parameter[] params = batchAdd.getParameters();
+        checkJavaType(udfClassName, batchAdd, int.class, params[0].getType(), params[0].getName());
+        for (int i = 0; i < stateTypes.length; i++) {
+            Parameter p = params[1 + i];
+            checkJavaType(udfClassName, batchAdd, stateTypes[i], p.getType(), p.getName());
+        }
+        for (int i = 0; i < argTypes.length; i++) {
+            Class columnType = PrimitiveTypeToJavaArrayType.get(argTypes[i].getPrimitiveType());
+            if (columnType == null) {
+                throw new AnalysisException(
+                        String.format("Method '%s' in class '%s' does not support type '%s'",
+                                BATCH_ADD_METHOD_NAME, udfClassName, argTypes[i]));
+            }
+            Parameter column = params[1 + stateTypes.length + 2 * i];
+            Parameter nullMap = params[1 + stateTypes.length + 2 * i + 1];
+            checkJavaType(udfClassName, batchAdd, columnType, column.getType(), column.getName());
+            checkJavaType(udfClassName, batchAdd, byte[].class, nullMap.getType(), nullMap.getName());
+        }
+    }
+
+    private void checkParameterJavaTypes(String udfClassName, Method method, Class... expTypes)
+            throws AnalysisException {
+        checkArgumentCount(method, expTypes.length, udfClassName);
+        Parameter[] params = method.getParameters();
+        for (int i = 0; i < expTypes.length; i++) {
+            checkJavaType(udfClassName, method, expTypes[i], params[i].getType(), params[i].getName());
+        }
+    }
+
     private void checkMethodNonStaticAndPublic(String methoName, Method method, String udfClassName)
             throws AnalysisException {
         if (Modifier.isStatic(method.getModifiers())) {
@@ -536,6 +641,18 @@ public class CreateFunctionStmt extends DdlStmt {
                     .put(PrimitiveType.DECIMAL128, Sets.newHashSet(BigDecimal.class))
                     .build();
 
+    // the column types of batchAdd() of UDAF
+    private static final ImmutableMap<PrimitiveType, Class> PrimitiveTypeToJavaArrayType =
+            new ImmutableMap.Builder<PrimitiveType, Class>()
+                    .put(PrimitiveType.BOOLEAN, boolean[].class)
+                    .put(PrimitiveType.TINYINT, byte[].class)
+                    .put(PrimitiveType.SMALLINT, short[].class)
+                    .put(PrimitiveType.INT, int[].class)
+                    .put(PrimitiveType.BIGINT, long[].class)
+                    .put(PrimitiveType.FLOAT, float[].class)
+                    .put(PrimitiveType.DOUBLE, double[].class)
+                    .build();
+
     private void checkUdfType(Class clazz, Method method, Type expType, Class pType, String pname)
             throws AnalysisException {
         if (!(expType instanceof ScalarType)) {
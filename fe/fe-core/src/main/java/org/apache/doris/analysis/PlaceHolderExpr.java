@@ -0,0 +1,178 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.analysis;
+
+import org.apache.doris.catalog.PrimitiveType;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.common.AnalysisException;
+import org.apache.doris.thrift.TExprNode;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The '?' parameter marker of a server side prepared statement.
+ *
+ * It behaves as the literal bound to it by COM_STMT_EXECUTE. The placeholder and all its clones
+ * share one {@link Binding}, so a value bound after the statement is analyzed and planned is seen
+ * by the copies of the placeholder in the plan, and the plan can be executed again with new values.
+ */
+public class PlaceHolderExpr extends LiteralExpr {
+    private final Binding binding;
+
+    public PlaceHolderExpr(int index) {
+        this.binding = new Binding(index);
+    }
+
+    protected PlaceHolderExpr(PlaceHolderExpr other) {
+        super(other);
+        this.binding = other.binding;
+    }
+
+    @Override
+    public Expr clone() {
+        return new PlaceHolderExpr(this);
+    }
+
+    public int getIndex() {
+        return binding.index;
+    }
+
+    public void bind(LiteralExpr value) {
+        Preconditions.checkNotNull(value);
+        binding.value = value;
+    }
+
+    public boolean isBound() {
+        return binding.value != null;
+    }
+
+    public LiteralExpr getValue() {
+        Preconditions.checkState(binding.value != null, "placeholder %s is not bound", binding.index);
+        return binding.value;
+    }
+
+    // Whether the value has been converted into another expr during analysis, if so, a plan
+    // containing this placeholder can not be executed with other values.
+    public boolean isValueFolded() {
+        return binding.isValueFolded;
+    }
+
+    // Returns the bound value if expr is a placeholder, otherwise expr itself.
+    public static LiteralExpr unwrap(LiteralExpr expr) {
+        return expr instanceof PlaceHolderExpr ? ((PlaceHolderExpr) expr).getValue() : expr;
+    }
+
+    @Override
+    protected void analyzeImpl(Analyzer analyzer) throws AnalysisException {
+        if (binding.value == null) {
+            throw new AnalysisException("Placeholder '?' is only supported in prepared statements");
+        }
+        type = binding.value.getType();
+    }
+
+    @Override
+    protected Expr uncheckedCastTo(Type targetType) throws AnalysisException {
+        binding.isValueFolded = true;
+        return getValue().uncheckedCastTo(targetType);
+    }
+
+    @Override
+    public Object getRealValue() {
+        return getValue().getRealValue();
+    }
+
+    @Override
+    public boolean isMinValue() {
+        return getValue().isMinValue();
+    }
+
+    @Override
+    public int compareLiteral(LiteralExpr expr) {
+        return getValue().compareLiteral(unwrap(expr));
+    }
+
+    @Override
+    public String getStringValue() {
+        return getValue().getStringValue();
+    }
+
+    @Override
+    public long getLongValue() {
+        return getValue().getLongValue();
+    }
+
+    @Override
+    public double getDoubleValue() {
+        return getValue().getDoubleValue();
+    }
+
+    @Override
+    public ByteBuffer getHashValue(PrimitiveType type) {
+        return getValue().getHashValue(type);
+    }
+
+    @Override
+    public boolean isNullable() {
+        return getValue().isNullable();
+    }
+
+    @Override
+    public boolean supportSerializable() {
+        return false;
+    }
+
+    @Override
+    protected String toSqlImpl() {
+        return binding.value == null ? "?" : binding.value.toSql();
+    }
+
+    @Override
+    protected void toThrift(TExprNode msg) {
+        getValue().toThrift(msg);
+    }
+
+    // Placeholders are equal only if they are the same parameter, no matter what value is bound,
+    // so that analysis does not merge or drop predicates depending on the values of the first execution.
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PlaceHolderExpr)) {
+            return false;
+        }
+        return binding == ((PlaceHolderExpr) obj).binding;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(binding.index);
+    }
+
+    private static class Binding {
+        private final int index;
+        private LiteralExpr value;
+        private boolean isValueFolded = false;
+
+        private Binding(int index) {
+            this.index = index;
+        }
+    }
+}
@@ -22,10 +22,11 @@ import org.apache.doris.common.AnalysisException;
 import org.apache.doris.common.ErrorCode;
 import org.apache.doris.common.ErrorReport;
 import org.apache.doris.common.UserException;
-import org.apache.doris.common.util.Util;
+import org.apache.doris.datasource.InternalDataSource;
 import org.apache.doris.mysql.privilege.PrivPredicate;
 import org.apache.doris.qe.ConnectContext;
 
+import com.google.common.base.Strings;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -38,6 +39,10 @@ public class RefreshTableStmt extends DdlStmt {
         this.tableName = tableName;
     }
 
+    public String getCtl() {
+        return tableName.getCtl();
+    }
+
     public String getDbName() {
         return tableName.getDb();
     }
@@ -54,8 +59,14 @@ public class RefreshTableStmt extends DdlStmt {
     public void analyze(Analyzer analyzer) throws AnalysisException, UserException {
         super.analyze(analyzer);
         tableName.analyze(analyzer);
-        // disallow external catalog
-        Util.prohibitExternalCatalog(tableName.getCtl(), this.getClass().getSimpleName());
+        if (isExternalCatalog(tableName.getCtl())) {
+            // refreshing a table of external catalog only drops its cached meta
+            if (!Catalog.getCurrentCatalog().getAuth().checkTblPriv(ConnectContext.get(), tableName.getCtl(),
+                    tableName.getDb(), tableName.getTbl(), PrivPredicate.SELECT)) {
+                ErrorReport.reportAnalysisException(ErrorCode.ERR_SPECIFIC_ACCESS_DENIED_ERROR, "SELECT");
+            }
+            return;
+        }
 
         // check access
         if (!Catalog.getCurrentCatalog().getAuth().checkTblPriv(ConnectContext.get(), tableName.getDb(),
@@ -69,6 +80,19 @@ public class RefreshTableStmt extends DdlStmt {
         }
     }
 
+    private static boolean isExternalCatalog(String ctl) {
+        return !Strings.isNullOrEmpty(ctl) && !ctl.equals(InternalDataSource.INTERNAL_DS_NAME);
+    }
+
+    @Override
+    public RedirectStatus getRedirectStatus() {
+        // the meta of external catalog is cached by every FE, refresh it on the FE the statement is sent to
+        if (isExternalCatalog(tableName.getCtl())) {
+            return RedirectStatus.NO_FORWARD;
+        }
+        return super.getRedirectStatus();
+    }
+
     @Override
     public String toSql() {
         StringBuilder sb = new StringBuilder();
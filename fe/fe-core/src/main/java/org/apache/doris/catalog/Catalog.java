@@ -187,6 +187,7 @@ import org.apache.doris.persist.TableInfo;
 import org.apache.doris.persist.TablePropertyInfo;
 import org.apache.doris.persist.TruncateTableInfo;
 import org.apache.doris.persist.meta.MetaHeader;
+import org.apache.doris.persist.meta.MetaPersistWorker;
 import org.apache.doris.persist.meta.MetaReader;
 import org.apache.doris.persist.meta.MetaWriter;
 import org.apache.doris.plugin.PluginInfo;
@@ -698,7 +699,10 @@ public class Catalog {
     }
 
     public static final boolean isCheckpointThread() {
-        return Thread.currentThread().getId() == checkpointThreadId;
+        Thread thread = Thread.currentThread();
+        // workers of the checkpoint thread which save or load image modules in parallel
+        return thread.getId() == checkpointThreadId
+                || (thread instanceof MetaPersistWorker && ((MetaPersistWorker) thread).isCheckpointWorker());
     }
 
     public static PluginMgr getCurrentPluginMgr() {
@@ -4805,6 +4809,7 @@ public class Catalog {
                         }
                         LOG.info("set replica {} of tablet {} on backend {} as {}. is replay: {}", replica.getId(),
                                 tabletId, backendId, status, isReplay);
+                        getTabletChecker().markTabletDirty(tabletId);
                     }
                 }
             } finally {
@@ -84,6 +84,8 @@ public class Database extends MetaObject implements Writable, DatabaseIf<Table>
 
     // user define function
     private ConcurrentMap<String, ImmutableList<Function>> name2Function = Maps.newConcurrentMap();
+    // memoized result of getFunction(), invalidated when user define function is created or dropped
+    private final FunctionResolveCache functionResolveCache = new FunctionResolveCache();
     // user define encryptKey for current db
     private DatabaseEncryptKey dbEncryptKey;
 
@@ -703,6 +705,7 @@ public class Database extends MetaObject implements Writable, DatabaseIf<Table>
         }
         builder.add(function);
         name2Function.put(functionName, builder.build());
+        functionResolveCache.invalidate();
     }
 
     public synchronized void dropFunction(FunctionSearchDesc function) throws UserException {
@@ -742,14 +745,17 @@ public class Database extends MetaObject implements Writable, DatabaseIf<Table>
         } else {
             name2Function.put(functionName, newFunctions);
         }
+        functionResolveCache.invalidate();
     }
 
     public synchronized Function getFunction(Function desc, Function.CompareMode mode) {
-        List<Function> fns = name2Function.get(desc.getFunctionName().getFunction());
-        if (fns == null) {
-            return null;
-        }
-        return Function.getFunction(fns, desc, mode);
+        return functionResolveCache.resolve(desc, mode, false, () -> {
+            List<Function> fns = name2Function.get(desc.getFunctionName().getFunction());
+            if (fns == null) {
+                return null;
+            }
+            return Function.getFunction(fns, desc, mode);
+        });
     }
 
     public synchronized Function getFunction(FunctionSearchDesc function) throws AnalysisException {
@@ -0,0 +1,113 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.catalog;
+
+import org.apache.doris.analysis.FunctionName;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Memoize the result of function resolution, keyed by the exact signature of the searched function
+ * (name, argument types, var args), the compare mode and the kind of function set.
+ * Resolving a function walks all the overloads of the name up to four times, which is noticeable
+ * for heavily overloaded functions in queries with a lot of expressions.
+ *
+ * The owner of the functions must call invalidate() after adding or dropping any function,
+ * and resolve() must not run concurrently with such changes.
+ */
+public class FunctionResolveCache {
+    // clear the cache when it is too large, in case of too many different signatures
+    private static final int MAX_CACHE_SIZE = 100000;
+
+    private final Map<String, Optional<Function>> cache = Maps.newConcurrentMap();
+
+    public Function resolve(Function desc, Function.CompareMode mode, boolean isTableFunction,
+            Supplier<Function> resolver) {
+        String key = getKey(desc, mode, isTableFunction);
+        if (key == null) {
+            return resolver.get();
+        }
+        Optional<Function> fn = cache.get(key);
+        if (fn == null) {
+            fn = Optional.ofNullable(resolver.get());
+            if (cache.size() >= MAX_CACHE_SIZE) {
+                cache.clear();
+            }
+            cache.put(key, fn);
+        }
+        return fn.orElse(null);
+    }
+
+    public void invalidate() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    // Return null if the signature can not be represented exactly, and the function should not be cached.
+    static String getKey(Function desc, Function.CompareMode mode, boolean isTableFunction) {
+        StringBuilder sb = new StringBuilder();
+        FunctionName name = desc.getFunctionName();
+        if (name.getDb() != null) {
+            sb.append(name.getDb()).append('.');
+        }
+        sb.append(name.getFunction()).append('(');
+        for (Type type : desc.getArgs()) {
+            if (!appendTypeKey(sb, type)) {
+                return null;
+            }
+            sb.append(',');
+        }
+        sb.append(')');
+        if (desc.hasVarArgs()) {
+            sb.append("...");
+        }
+        sb.append('|').append(mode.name());
+        sb.append('|').append(desc.isVectorized() ? 'V' : 'R');
+        sb.append('|').append(isTableFunction ? 'T' : 'S');
+        return sb.toString();
+    }
+
+    // The equals() of types is not precise enough for resolution (eg, nullable of array item is ignored),
+    // so build the key from all the fields which take part in resolution.
+    private static boolean appendTypeKey(StringBuilder sb, Type type) {
+        if (type instanceof ScalarType) {
+            ScalarType scalarType = (ScalarType) type;
+            sb.append(scalarType.getPrimitiveType()).append(':').append(scalarType.getLength())
+                    .append(':').append(scalarType.getScalarPrecision())
+                    .append(':').append(scalarType.getScalarScale());
+            return true;
+        } else if (type instanceof ArrayType) {
+            ArrayType arrayType = (ArrayType) type;
+            sb.append("ARRAY<");
+            if (!appendTypeKey(sb, arrayType.getItemType())) {
+                return false;
+            }
+            sb.append(':').append(arrayType.getContainsNull()).append('>');
+            return true;
+        }
+        // map, struct and other complex types are rare in function call, do not cache them
+        return false;
+    }
+}
@@ -53,6 +53,8 @@ public class FunctionSet<T> {
     private final HashMap<String, List<Function>> functions;
     private final HashMap<String, List<Function>> vectorizedFunctions;
     private final HashMap<String, List<Function>> tableFunctions;
+    // memoized result of getFunction(), invalidated when any function is added
+    private final FunctionResolveCache resolveCache = new FunctionResolveCache();
     // For most build-in functions, it will return NullLiteral when params contain NullLiteral.
     // But a few functions need to handle NullLiteral differently, such as "if". It need to add
     // an attribute to LiteralExpr to mark null and check the attribute to decide whether to
@@ -1135,6 +1137,10 @@ public class FunctionSet<T> {
     }
 
     public Function getFunction(Function desc, Function.CompareMode mode, boolean isTableFunction) {
+        return resolveCache.resolve(desc, mode, isTableFunction, () -> resolveFunction(desc, mode, isTableFunction));
+    }
+
+    private Function resolveFunction(Function desc, Function.CompareMode mode, boolean isTableFunction) {
         List<Function> fns;
         if (isTableFunction) {
             fns = tableFunctions.get(desc.functionName());
@@ -1233,7 +1239,7 @@ public class FunctionSet<T> {
 
     private boolean addFunction(Function fn, boolean isBuiltin) {
         // TODO: add this to persistent store
-        if (getFunction(fn, Function.CompareMode.IS_INDISTINGUISHABLE) != null) {
+        if (resolveFunction(fn, Function.CompareMode.IS_INDISTINGUISHABLE, false) != null) {
             return false;
         }
         List<Function> fns = fn.isVectorized() ? vectorizedFunctions.get(fn.functionName()) : functions.get(fn.functionName());
@@ -1246,6 +1252,7 @@ public class FunctionSet<T> {
             }
         }
         fns.add(fn);
+        resolveCache.invalidate();
         return true;
     }
 
@@ -1295,7 +1302,7 @@ public class FunctionSet<T> {
      * The function must not already exist and need to be not vectorized
      */
     public void addBuiltinBothScalaAndVectorized(Function fn) {
-        if (getFunction(fn, Function.CompareMode.IS_INDISTINGUISHABLE) != null) {
+        if (resolveFunction(fn, Function.CompareMode.IS_INDISTINGUISHABLE, false) != null) {
             return;
         }
         Preconditions.checkState(!fn.isVectorized());
@@ -1320,6 +1327,7 @@ public class FunctionSet<T> {
                     Lists.newArrayList(scalarFunction.getArgs()), scalarFunction.hasVarArgs(),
                     scalarFunction.getReturnType(), scalarFunction.isUserVisible(),
                     scalarFunction.getNullableMode()));
+        resolveCache.invalidate();
     }
 
 
@@ -2686,6 +2694,7 @@ public class FunctionSet<T> {
         List<Function> functionList = tableFunctions.get(name);
         functionList.add(ScalarFunction.createBuiltin(name, retType, nullableMode, argTypes, hasVarArgs, symbol, null,
                 null, true));
+        resolveCache.invalidate();
     }
 
     private void addTableFunctionWithCombinator(String name, Type retType, NullableMode nullableMode,
@@ -23,15 +23,14 @@ import org.apache.doris.persist.gson.GsonPostProcessable;
 
 import com.google.common.collect.Lists;
 import com.google.gson.annotations.SerializedName;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * The OlapTraditional table is a materialized table which stored as rowcolumnar file or columnar file
@@ -63,7 +62,8 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
     @SerializedName(value = "rowCount")
     private long rowCount;
 
-    private Map<Long, Tablet> idToTablets;
+    // primitive keyed to avoid a boxed Long and a map entry per tablet
+    private Long2ObjectOpenHashMap<Tablet> idToTablets;
     @SerializedName(value = "tablets")
     // this is for keeping tablet order
     private List<Tablet> tablets;
@@ -76,7 +76,7 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
 
     public MaterializedIndex() {
         this.state = IndexState.NORMAL;
-        this.idToTablets = new HashMap<>();
+        this.idToTablets = new Long2ObjectOpenHashMap<>();
         this.tablets = new ArrayList<>();
     }
 
@@ -88,7 +88,7 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
             this.state = IndexState.NORMAL;
         }
 
-        this.idToTablets = new HashMap<>();
+        this.idToTablets = new Long2ObjectOpenHashMap<>();
         this.tablets = new ArrayList<>();
 
         this.rowCount = 0;
@@ -261,8 +261,8 @@ public class MaterializedIndex extends MetaObject implements Writable, GsonPostP
         if (idToTablets.size() != table.idToTablets.size()) {
             return false;
         }
-        for (Entry<Long, Tablet> entry : idToTablets.entrySet()) {
-            long key = entry.getKey();
+        for (Long2ObjectMap.Entry<Tablet> entry : idToTablets.long2ObjectEntrySet()) {
+            long key = entry.getLongKey();
             if (!table.idToTablets.containsKey(key)) {
                 return false;
             }
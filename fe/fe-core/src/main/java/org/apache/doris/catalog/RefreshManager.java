@@ -19,11 +19,18 @@ package org.apache.doris.catalog;
 
 import org.apache.doris.analysis.CreateTableStmt;
 import org.apache.doris.analysis.DropTableStmt;
+import org.apache.doris.analysis.RefreshCatalogStmt;
 import org.apache.doris.analysis.RefreshDbStmt;
 import org.apache.doris.analysis.RefreshTableStmt;
 import org.apache.doris.analysis.TableName;
+import org.apache.doris.catalog.external.ExternalDatabase;
+import org.apache.doris.catalog.external.HMSExternalTable;
+import org.apache.doris.cluster.ClusterNamespace;
 import org.apache.doris.common.DdlException;
 import org.apache.doris.common.UserException;
+import org.apache.doris.datasource.DataSourceIf;
+import org.apache.doris.datasource.HMSExternalDataSource;
+import org.apache.doris.datasource.InternalDataSource;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -39,6 +46,11 @@ public class RefreshManager {
         String tableName = stmt.getTblName();
         Catalog catalog = Catalog.getCurrentCatalog();
 
+        if (!InternalDataSource.INTERNAL_DS_NAME.equals(stmt.getCtl())) {
+            refreshExternalTable(getHmsDataSource(stmt.getCtl()), dbName, tableName);
+            return;
+        }
+
         // 0. check table type
         Database db = catalog.getInternalDataSource().getDbOrDdlException(dbName);
         Table table = db.getTableNullable(tableName);
@@ -63,6 +75,33 @@ public class RefreshManager {
         LOG.info("Successfully refresh table: {} from db: {}", tableName, dbName);
     }
 
+    private void refreshExternalTable(HMSExternalDataSource ds, String dbName, String tableName) {
+        ExternalDatabase<?> db = ds.getDbNullable(dbName);
+        Object table = db == null ? null : db.getTableNullable(tableName);
+        if (table instanceof HMSExternalTable) {
+            ((HMSExternalTable) table).refresh();
+        } else {
+            // the table may be unknown to this FE yet, drop its cached meta anyway
+            ds.getMetaCache().invalidateTable(ClusterNamespace.getNameFromFullName(dbName), tableName);
+        }
+        LOG.info("Successfully refresh table: {} from db: {} of catalog: {}", tableName, dbName, ds.getName());
+    }
+
+    public void handleRefreshCatalog(RefreshCatalogStmt stmt) throws DdlException {
+        HMSExternalDataSource ds = getHmsDataSource(stmt.getCatalogName());
+        ds.refresh();
+        LOG.info("Successfully refresh catalog: {}", ds.getName());
+    }
+
+    private HMSExternalDataSource getHmsDataSource(String catalogName) throws DdlException {
+        DataSourceIf ds = Catalog.getCurrentCatalog().getDataSourceMgr().getCatalogOrException(catalogName,
+                name -> new DdlException("No catalog found with name: " + name));
+        if (!(ds instanceof HMSExternalDataSource)) {
+            throw new DdlException("Only support refresh hms catalog.");
+        }
+        return (HMSExternalDataSource) ds;
+    }
+
     public void handleRefreshDb(RefreshDbStmt stmt) throws DdlException {
         String dbName = stmt.getDbName();
         Catalog catalog = Catalog.getCurrentCatalog();
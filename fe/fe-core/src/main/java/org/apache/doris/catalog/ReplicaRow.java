@@ -0,0 +1,189 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.catalog;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ * Replicas of one tablet in TabletInvertedIndex, keyed by backend id.
+ *
+ * A tablet usually has only a few replicas, while an FE may hold tens of millions of tablets, so the per tablet
+ * container overhead dominates the heap usage of the inverted index. The compact row keeps the replicas in an
+ * exactly sized array and looks them up by linear scan, which costs a few dozen bytes per tablet instead of the
+ * two backing arrays and the map object of a hash map.
+ *
+ * Not thread safe, guarded by the shard lock of TabletInvertedIndex.
+ */
+abstract class ReplicaRow implements Iterable<Replica> {
+
+    // estimated shallow sizes with compressed oops, used for the heap usage metrics only
+    private static final long OBJECT_HEADER_BYTES = 16;
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long REFERENCE_BYTES = 4;
+    private static final long HASH_MAP_SHALLOW_BYTES = 56;
+
+    public static ReplicaRow create(boolean compact) {
+        return compact ? new CompactReplicaRow() : new HashReplicaRow();
+    }
+
+    public abstract Replica get(long backendId);
+
+    // return the replica previously on the same backend, or null
+    public abstract Replica put(Replica replica);
+
+    // return the removed replica, or null
+    public abstract Replica remove(long backendId);
+
+    public abstract int size();
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /*
+     * Estimate the heap bytes used by the replica rows of the given layout, excluding the Replica objects
+     * themselves, which are shared with Tablet.
+     */
+    public static long estimateHeapBytes(boolean compact, long rowNum, long replicaNum) {
+        if (rowNum <= 0) {
+            return 0;
+        }
+        if (compact) {
+            // row object + array header + one reference per replica
+            return rowNum * (OBJECT_HEADER_BYTES + ARRAY_HEADER_BYTES) + replicaNum * REFERENCE_BYTES;
+        }
+        // row object + map object + long key array + object value array, sized by the fastutil load factor
+        long avgReplicaNum = Math.max(1, (replicaNum + rowNum - 1) / rowNum);
+        long capacity = HashCommon.arraySize((int) Math.max(4, avgReplicaNum),
+                Hash.DEFAULT_LOAD_FACTOR) + 1;
+        long perRow = OBJECT_HEADER_BYTES + HASH_MAP_SHALLOW_BYTES
+                + ARRAY_HEADER_BYTES + capacity * Long.BYTES
+                + ARRAY_HEADER_BYTES + capacity * REFERENCE_BYTES;
+        return rowNum * perRow;
+    }
+
+    private static class CompactReplicaRow extends ReplicaRow {
+        private static final Replica[] EMPTY = new Replica[0];
+
+        private Replica[] replicas = EMPTY;
+
+        private int indexOf(long backendId) {
+            for (int i = 0; i < replicas.length; i++) {
+                if (replicas[i].getBackendId() == backendId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Replica get(long backendId) {
+            int idx = indexOf(backendId);
+            return idx < 0 ? null : replicas[idx];
+        }
+
+        @Override
+        public Replica put(Replica replica) {
+            int idx = indexOf(replica.getBackendId());
+            if (idx >= 0) {
+                Replica old = replicas[idx];
+                replicas[idx] = replica;
+                return old;
+            }
+            replicas = Arrays.copyOf(replicas, replicas.length + 1);
+            replicas[replicas.length - 1] = replica;
+            return null;
+        }
+
+        @Override
+        public Replica remove(long backendId) {
+            int idx = indexOf(backendId);
+            if (idx < 0) {
+                return null;
+            }
+            Replica old = replicas[idx];
+            Replica[] newReplicas = replicas.length == 1 ? EMPTY : new Replica[replicas.length - 1];
+            System.arraycopy(replicas, 0, newReplicas, 0, idx);
+            System.arraycopy(replicas, idx + 1, newReplicas, idx, replicas.length - idx - 1);
+            replicas = newReplicas;
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return replicas.length;
+        }
+
+        @Override
+        public Iterator<Replica> iterator() {
+            final Replica[] snapshot = replicas;
+            return new Iterator<Replica>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < snapshot.length;
+                }
+
+                @Override
+                public Replica next() {
+                    if (next >= snapshot.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return snapshot[next++];
+                }
+            };
+        }
+    }
+
+    private static class HashReplicaRow extends ReplicaRow {
+        // backend id -> replica
+        private final Long2ObjectOpenHashMap<Replica> replicas = new Long2ObjectOpenHashMap<>(4);
+
+        @Override
+        public Replica get(long backendId) {
+            return replicas.get(backendId);
+        }
+
+        @Override
+        public Replica put(Replica replica) {
+            return replicas.put(replica.getBackendId(), replica);
+        }
+
+        @Override
+        public Replica remove(long backendId) {
+            return replicas.remove(backendId);
+        }
+
+        @Override
+        public int size() {
+            return replicas.size();
+        }
+
+        @Override
+        public Iterator<Replica> iterator() {
+            return replicas.values().iterator();
+        }
+    }
+}
@@ -39,6 +39,9 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Table;
 import com.google.common.collect.TreeMultimap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.logging.log4j.LogManager;
@@ -49,6 +52,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
@@ -57,6 +61,12 @@ import java.util.stream.Collectors;
  * key is tablet id. value is the related ids of this tablet
  * Checkpoint thread is no need to modify this inverted index, because this inverted index will not be wrote
  * into images, all meta data are in catalog, and the inverted index will be rebuild when FE restart.
+ *
+ * The index is split into Config.tablet_inverted_index_shard_num shards by tablet id, each shard has its own
+ * lock, so that a tablet report which traverses all replicas of one backend only blocks writers of the shard
+ * being diffed, instead of all DDL and balance operations.
+ * Lock order: shard lock -> replica to tablet map of a shard -> tabletMetaTable.
+ * The latter two are leaf locks, never hold them while acquiring a shard lock.
  */
 public class TabletInvertedIndex {
     private static final Logger LOG = LogManager.getLogger(TabletInvertedIndex.class);
@@ -66,13 +76,51 @@ public class TabletInvertedIndex {
     public static final TabletMeta NOT_EXIST_TABLET_META = new TabletMeta(NOT_EXIST_VALUE, NOT_EXIST_VALUE,
             NOT_EXIST_VALUE, NOT_EXIST_VALUE, NOT_EXIST_VALUE, TStorageMedium.HDD);
 
-    private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static class Shard {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // time spent in waiting for the lock, only counted when the lock is not acquired immediately
+        private final LongAdder readLockWaitNs = new LongAdder();
+        private final LongAdder writeLockWaitNs = new LongAdder();
+
+        // tablet id -> tablet meta
+        private final Long2ObjectOpenHashMap<TabletMeta> tabletMetaMap = new Long2ObjectOpenHashMap<>();
+        // tablet id -> (backend id -> replica)
+        private final Long2ObjectOpenHashMap<ReplicaRow> replicaMetaTable = new Long2ObjectOpenHashMap<>();
+        // backing replica table, for visiting backend replicas faster.
+        // backend id -> (tablet id -> replica)
+        private final Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<Replica>> backingReplicaMetaTable
+                = new Long2ObjectOpenHashMap<>();
+
+        // replica id -> tablet id, the shard of this map is decided by replica id instead of tablet id.
+        // guarded by itself.
+        private final Long2LongOpenHashMap replicaToTabletMap = new Long2LongOpenHashMap();
+
+        private void readLock() {
+            if (!lock.readLock().tryLock()) {
+                long start = System.nanoTime();
+                lock.readLock().lock();
+                readLockWaitNs.add(System.nanoTime() - start);
+            }
+        }
 
-    // tablet id -> tablet meta
-    private Map<Long, TabletMeta> tabletMetaMap = Maps.newHashMap();
+        private void readUnlock() {
+            lock.readLock().unlock();
+        }
 
-    // replica id -> tablet id
-    private Map<Long, Long> replicaToTabletMap = Maps.newHashMap();
+        private void writeLock() {
+            if (!lock.writeLock().tryLock()) {
+                long start = System.nanoTime();
+                lock.writeLock().lock();
+                writeLockWaitNs.add(System.nanoTime() - start);
+            }
+        }
+
+        private void writeUnlock() {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private final Shard[] shards;
 
     /*
      *  we use this to save memory.
@@ -82,34 +130,71 @@ public class TabletInvertedIndex {
      *  we use 'tabletMetaTable' to do the update things
      *      (eg. update schema hash in TabletMeta)
      *  partition id -> (index id -> tablet meta)
+     *  guarded by itself.
      */
-    private Table<Long, Long, TabletMeta> tabletMetaTable = HashBasedTable.create();
-
-    // tablet id -> (backend id -> replica)
-    private Table<Long, Long, Replica> replicaMetaTable = HashBasedTable.create();
-    // backing replica table, for visiting backend replicas faster.
-    // backend id -> (tablet id -> replica)
-    private Table<Long, Long, Replica> backingReplicaMetaTable = HashBasedTable.create();
+    private final Table<Long, Long, TabletMeta> tabletMetaTable = HashBasedTable.create();
 
     private volatile ImmutableSet<Long> partitionIdInMemorySet = ImmutableSet.of();
 
+    // whether to keep the replicas of a tablet in a compact array instead of a hash map, see ReplicaRow
+    private final boolean compactReplicaRow;
+
     public TabletInvertedIndex() {
+        this(Config.tablet_inverted_index_shard_num, Config.enable_compact_replica_row);
     }
 
-    private void readLock() {
-        this.lock.readLock().lock();
+    public TabletInvertedIndex(int shardNum) {
+        this(shardNum, Config.enable_compact_replica_row);
     }
 
-    private void readUnlock() {
-        this.lock.readLock().unlock();
+    public TabletInvertedIndex(int shardNum, boolean compactReplicaRow) {
+        Preconditions.checkArgument(shardNum > 0, "invalid shard num: " + shardNum);
+        this.compactReplicaRow = compactReplicaRow;
+        shards = new Shard[shardNum];
+        for (int i = 0; i < shardNum; i++) {
+            shards[i] = new Shard();
+            shards[i].replicaToTabletMap.defaultReturnValue(NOT_EXIST_VALUE);
+        }
+    }
+
+    private Shard getShard(long id) {
+        return shards[(int) Math.floorMod(id, (long) shards.length)];
     }
 
-    private void writeLock() {
-        this.lock.writeLock().lock();
+    public int getShardNum() {
+        return shards.length;
     }
 
-    private void writeUnlock() {
-        this.lock.writeLock().unlock();
+    public boolean isCompactReplicaRow() {
+        return compactReplicaRow;
+    }
+
+    // estimated heap bytes of the replica rows of all tablets if they were kept in the given layout
+    public long getEstimatedReplicaRowBytes(boolean compact) {
+        long rowNum = 0;
+        long replicaNum = 0;
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                rowNum += shard.replicaMetaTable.size();
+            } finally {
+                shard.readUnlock();
+            }
+            synchronized (shard.replicaToTabletMap) {
+                replicaNum += shard.replicaToTabletMap.size();
+            }
+        }
+        return ReplicaRow.estimateHeapBytes(compact, rowNum, replicaNum);
+    }
+
+    // total time in ms waiting for the read lock of the given shard
+    public long getReadLockWaitMs(int shardIdx) {
+        return shards[shardIdx].readLockWaitNs.sum() / 1000000;
+    }
+
+    // total time in ms waiting for the write lock of the given shard
+    public long getWriteLockWaitMs(int shardIdx) {
+        return shards[shardIdx].writeLockWaitNs.sum() / 1000000;
     }
 
     public void tabletReport(long backendId, Map<Long, TTablet> backendTablets,
@@ -122,17 +207,21 @@ public class TabletInvertedIndex {
                              ListMultimap<Long, Long> transactionsToClear,
                              ListMultimap<Long, Long> tabletRecoveryMap,
                              List<Triple<Long, Integer, Boolean>> tabletToInMemory) {
-        readLock();
         long start = System.currentTimeMillis();
-        try {
-            LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
+        LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
+        // diff shard by shard, only the shard being diffed is read locked.
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                Long2ObjectOpenHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend == null) {
+                    continue;
+                }
                 // traverse replicas in meta with this backend
-                replicaMetaWithBackend.entrySet().parallelStream().forEach(entry -> {
-                    long tabletId = entry.getKey();
-                    Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-                    TabletMeta tabletMeta = tabletMetaMap.get(tabletId);
+                replicaMetaWithBackend.long2ObjectEntrySet().parallelStream().forEach(entry -> {
+                    long tabletId = entry.getLongKey();
+                    Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId));
+                    TabletMeta tabletMeta = shard.tabletMetaMap.get(tabletId);
 
                     if (backendTablets.containsKey(tabletId)) {
                         TTablet backendTablet = backendTablets.get(tabletId);
@@ -250,9 +339,9 @@ public class TabletInvertedIndex {
                         }
                     }
                 });
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
 
         long end = System.currentTimeMillis();
@@ -266,34 +355,35 @@ public class TabletInvertedIndex {
     }
 
     public Long getTabletIdByReplica(long replicaId) {
-        readLock();
-        try {
-            return replicaToTabletMap.get(replicaId);
-        } finally {
-            readUnlock();
+        Long2LongOpenHashMap replicaToTabletMap = getShard(replicaId).replicaToTabletMap;
+        synchronized (replicaToTabletMap) {
+            long tabletId = replicaToTabletMap.get(replicaId);
+            return tabletId == NOT_EXIST_VALUE ? null : tabletId;
         }
     }
 
     public TabletMeta getTabletMeta(long tabletId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        shard.readLock();
         try {
-            return tabletMetaMap.get(tabletId);
+            return shard.tabletMetaMap.get(tabletId);
         } finally {
-            readUnlock();
+            shard.readUnlock();
         }
     }
 
     public List<TabletMeta> getTabletMetaList(List<Long> tabletIdList) {
         List<TabletMeta> tabletMetaList = new ArrayList<>(tabletIdList.size());
-        readLock();
-        try {
-            for (Long tabletId : tabletIdList) {
-                tabletMetaList.add(tabletMetaMap.getOrDefault(tabletId, NOT_EXIST_TABLET_META));
+        for (Long tabletId : tabletIdList) {
+            Shard shard = getShard(tabletId);
+            shard.readLock();
+            try {
+                tabletMetaList.add(shard.tabletMetaMap.getOrDefault(tabletId.longValue(), NOT_EXIST_TABLET_META));
+            } finally {
+                shard.readUnlock();
             }
-            return tabletMetaList;
-        } finally {
-            readUnlock();
         }
+        return tabletMetaList;
     }
 
     private boolean needSync(Replica replicaInFe, TTabletInfo backendTabletInfo) {
@@ -362,20 +452,23 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            if (tabletMetaMap.containsKey(tabletId)) {
+            if (shard.tabletMetaMap.containsKey(tabletId)) {
                 return;
             }
-            tabletMetaMap.put(tabletId, tabletMeta);
-            if (!tabletMetaTable.contains(tabletMeta.getPartitionId(), tabletMeta.getIndexId())) {
-                tabletMetaTable.put(tabletMeta.getPartitionId(), tabletMeta.getIndexId(), tabletMeta);
-                LOG.debug("add tablet meta: {}", tabletId);
+            shard.tabletMetaMap.put(tabletId, tabletMeta);
+            synchronized (tabletMetaTable) {
+                if (!tabletMetaTable.contains(tabletMeta.getPartitionId(), tabletMeta.getIndexId())) {
+                    tabletMetaTable.put(tabletMeta.getPartitionId(), tabletMeta.getIndexId(), tabletMeta);
+                    LOG.debug("add tablet meta: {}", tabletId);
+                }
             }
 
             LOG.debug("add tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
         }
     }
 
@@ -383,27 +476,27 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            Map<Long, Replica> replicas = replicaMetaTable.rowMap().remove(tabletId);
+            ReplicaRow replicas = shard.replicaMetaTable.remove(tabletId);
             if (replicas != null) {
-                for (Replica replica : replicas.values()) {
-                    replicaToTabletMap.remove(replica.getId());
-                }
-
-                for (long backendId : replicas.keySet()) {
-                    backingReplicaMetaTable.remove(backendId, tabletId);
+                for (Replica replica : replicas) {
+                    removeReplicaToTablet(replica.getId());
+                    removeBackingReplica(shard, replica.getBackendId(), tabletId);
                 }
             }
-            TabletMeta tabletMeta = tabletMetaMap.remove(tabletId);
+            TabletMeta tabletMeta = shard.tabletMetaMap.remove(tabletId);
             if (tabletMeta != null) {
-                tabletMetaTable.remove(tabletMeta.getPartitionId(), tabletMeta.getIndexId());
+                synchronized (tabletMetaTable) {
+                    tabletMetaTable.remove(tabletMeta.getPartitionId(), tabletMeta.getIndexId());
+                }
                 LOG.debug("delete tablet meta: {}", tabletId);
             }
 
             LOG.debug("delete tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
         }
     }
 
@@ -411,16 +504,21 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            replicaMetaTable.put(tabletId, replica.getBackendId(), replica);
-            replicaToTabletMap.put(replica.getId(), tabletId);
-            backingReplicaMetaTable.put(replica.getBackendId(), tabletId, replica);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId));
+            shard.replicaMetaTable.computeIfAbsent(tabletId, k -> ReplicaRow.create(compactReplicaRow)).put(replica);
+            Long2LongOpenHashMap replicaToTabletMap = getShard(replica.getId()).replicaToTabletMap;
+            synchronized (replicaToTabletMap) {
+                replicaToTabletMap.put(replica.getId(), tabletId);
+            }
+            shard.backingReplicaMetaTable.computeIfAbsent(replica.getBackendId(), k -> new Long2ObjectOpenHashMap<>())
+                    .put(tabletId, replica);
             LOG.debug("add replica {} of tablet {} in backend {}",
                     replica.getId(), tabletId, replica.getBackendId());
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
         }
     }
 
@@ -428,108 +526,148 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        shard.writeLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            if (replicaMetaTable.containsRow(tabletId)) {
-                Replica replica = replicaMetaTable.remove(tabletId, backendId);
-                replicaToTabletMap.remove(replica.getId());
-                replicaMetaTable.remove(tabletId, backendId);
-                backingReplicaMetaTable.remove(backendId, tabletId);
-                LOG.debug("delete replica {} of tablet {} in backend {}",
-                        replica.getId(), tabletId, backendId);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId));
+            ReplicaRow replicas = shard.replicaMetaTable.get(tabletId);
+            if (replicas != null) {
+                Replica replica = replicas.remove(backendId);
+                if (replicas.isEmpty()) {
+                    shard.replicaMetaTable.remove(tabletId);
+                }
+                if (replica != null) {
+                    removeReplicaToTablet(replica.getId());
+                    LOG.debug("delete replica {} of tablet {} in backend {}",
+                            replica.getId(), tabletId, backendId);
+                }
+                removeBackingReplica(shard, backendId, tabletId);
             } else {
                 // this may happen when fe restart after tablet is empty(bug cause)
                 // add log instead of assertion to observe
                 LOG.error("tablet[{}] contains no replica in inverted index", tabletId);
             }
         } finally {
-            writeUnlock();
+            shard.writeUnlock();
+        }
+    }
+
+    // must hold the write lock of the shard
+    private void removeBackingReplica(Shard shard, long backendId, long tabletId) {
+        Long2ObjectOpenHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+        if (replicaMetaWithBackend != null) {
+            replicaMetaWithBackend.remove(tabletId);
+            if (replicaMetaWithBackend.isEmpty()) {
+                shard.backingReplicaMetaTable.remove(backendId);
+            }
+        }
+    }
+
+    private void removeReplicaToTablet(long replicaId) {
+        Long2LongOpenHashMap replicaToTabletMap = getShard(replicaId).replicaToTabletMap;
+        synchronized (replicaToTabletMap) {
+            replicaToTabletMap.remove(replicaId);
         }
     }
 
     public Replica getReplica(long tabletId, long backendId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        shard.readLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId), tabletId);
-            return replicaMetaTable.get(tabletId, backendId);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId), tabletId);
+            ReplicaRow replicas = shard.replicaMetaTable.get(tabletId);
+            return replicas == null ? null : replicas.get(backendId);
         } finally {
-            readUnlock();
+            shard.readUnlock();
         }
     }
 
     public List<Replica> getReplicasByTabletId(long tabletId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        shard.readLock();
         try {
-            if (replicaMetaTable.containsRow(tabletId)) {
-                return Lists.newArrayList(replicaMetaTable.row(tabletId).values());
+            ReplicaRow replicas = shard.replicaMetaTable.get(tabletId);
+            if (replicas != null) {
+                return Lists.newArrayList(replicas);
             }
             return Lists.newArrayList();
         } finally {
-            readUnlock();
+            shard.readUnlock();
         }
     }
 
     public List<Long> getTabletIdsByBackendId(long backendId) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds.addAll(replicaMetaWithBackend.keySet());
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                Long2ObjectOpenHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    tabletIds.addAll(replicaMetaWithBackend.keySet());
+                }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         return tabletIds;
     }
 
     public List<Long> getTabletIdsByBackendIdAndStorageMedium(long backendId, TStorageMedium storageMedium) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds = replicaMetaWithBackend.keySet().stream().filter(
-                        id -> tabletMetaMap.get(id).getStorageMedium() == storageMedium).collect(Collectors.toList());
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                Long2ObjectOpenHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    for (long tabletId : replicaMetaWithBackend.keySet()) {
+                        if (shard.tabletMetaMap.get(tabletId).getStorageMedium() == storageMedium) {
+                            tabletIds.add(tabletId);
+                        }
+                    }
+                }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         return tabletIds;
     }
 
     public int getTabletNumByBackendId(long backendId) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.size();
+        int tabletNum = 0;
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                Long2ObjectOpenHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    tabletNum += replicaMetaWithBackend.size();
+                }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
-        return 0;
+        return tabletNum;
     }
 
     public Map<TStorageMedium, Long> getReplicaNumByBeIdAndStorageMedium(long backendId) {
         Map<TStorageMedium, Long> replicaNumMap = Maps.newHashMap();
         long hddNum = 0;
         long ssdNum = 0;
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                for (long tabletId : replicaMetaWithBackend.keySet()) {
-                    if (tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
-                        hddNum++;
-                    } else {
-                        ssdNum++;
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                Long2ObjectOpenHashMap<Replica> replicaMetaWithBackend = shard.backingReplicaMetaTable.get(backendId);
+                if (replicaMetaWithBackend != null) {
+                    for (long tabletId : replicaMetaWithBackend.keySet()) {
+                        if (shard.tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
+                            hddNum++;
+                        } else {
+                            ssdNum++;
+                        }
                     }
                 }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         replicaNumMap.put(TStorageMedium.HDD, hddNum);
         replicaNumMap.put(TStorageMedium.SSD, ssdNum);
@@ -538,15 +676,21 @@ public class TabletInvertedIndex {
 
     // just for test
     public void clear() {
-        writeLock();
-        try {
-            tabletMetaMap.clear();
-            replicaToTabletMap.clear();
+        for (Shard shard : shards) {
+            shard.writeLock();
+            try {
+                shard.tabletMetaMap.clear();
+                shard.replicaMetaTable.clear();
+                shard.backingReplicaMetaTable.clear();
+                synchronized (shard.replicaToTabletMap) {
+                    shard.replicaToTabletMap.clear();
+                }
+            } finally {
+                shard.writeUnlock();
+            }
+        }
+        synchronized (tabletMetaTable) {
             tabletMetaTable.clear();
-            replicaMetaTable.clear();
-            backingReplicaMetaTable.clear();
-        } finally {
-            writeUnlock();
         }
     }
 
@@ -554,15 +698,20 @@ public class TabletInvertedIndex {
         this.partitionIdInMemorySet = partitionIdInMemorySet;
     }
 
+    // return a snapshot of replica id -> tablet id
     public Map<Long, Long> getReplicaToTabletMap() {
+        Map<Long, Long> replicaToTabletMap = Maps.newHashMap();
+        for (Shard shard : shards) {
+            synchronized (shard.replicaToTabletMap) {
+                replicaToTabletMap.putAll(shard.replicaToTabletMap);
+            }
+        }
         return replicaToTabletMap;
     }
 
     // Only build from available bes, exclude colocate tables
     public Map<TStorageMedium, TreeMultimap<Long, PartitionBalanceInfo>> buildPartitionInfoBySkew(
             List<Long> availableBeIds) {
-        readLock();
-
         // 1. gen <partitionId-indexId, <beId, replicaCount>>
         // for each replica(all tablets):
         //      find beId, then replicaCount++
@@ -570,41 +719,45 @@ public class TabletInvertedIndex {
         for (TStorageMedium medium : TStorageMedium.values()) {
             partitionReplicasInfoMaps.put(medium, HashBasedTable.create());
         }
-        try {
-            // Changes to the returned set will update the underlying table
-            // tablet id -> (backend id -> replica)
-            Set<Table.Cell<Long, Long, Replica>> cells = replicaMetaTable.cellSet();
-            for (Table.Cell<Long, Long, Replica> cell : cells) {
-                Long tabletId = cell.getRowKey();
-                Long beId = cell.getColumnKey();
-                try {
-                    Preconditions.checkState(availableBeIds.contains(beId), "dead be " + beId);
-                    TabletMeta tabletMeta = tabletMetaMap.get(tabletId);
-                    Preconditions.checkNotNull(tabletMeta, "invalid tablet " + tabletId);
-                    Preconditions.checkState(
-                            !Catalog.getCurrentColocateIndex().isColocateTable(tabletMeta.getTableId()),
-                            "should not be the colocate table");
-
-                    TStorageMedium medium = tabletMeta.getStorageMedium();
-                    Table<Long, Long, Map<Long, Long>> partitionReplicasInfo = partitionReplicasInfoMaps.get(medium);
-                    Map<Long, Long> countMap = partitionReplicasInfo.get(
-                            tabletMeta.getPartitionId(), tabletMeta.getIndexId());
-                    if (countMap == null) {
-                        // If one be doesn't have any replica of one partition, it should be counted too.
-                        countMap = availableBeIds.stream().collect(Collectors.toMap(i -> i, i -> 0L));
-                    }
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                // tablet id -> (backend id -> replica)
+                for (Long2ObjectMap.Entry<ReplicaRow> row : shard.replicaMetaTable.long2ObjectEntrySet()) {
+                    long tabletId = row.getLongKey();
+                    for (Replica replica : row.getValue()) {
+                        long beId = replica.getBackendId();
+                        try {
+                            Preconditions.checkState(availableBeIds.contains(beId), "dead be " + beId);
+                            TabletMeta tabletMeta = shard.tabletMetaMap.get(tabletId);
+                            Preconditions.checkNotNull(tabletMeta, "invalid tablet " + tabletId);
+                            Preconditions.checkState(
+                                    !Catalog.getCurrentColocateIndex().isColocateTable(tabletMeta.getTableId()),
+                                    "should not be the colocate table");
+
+                            TStorageMedium medium = tabletMeta.getStorageMedium();
+                            Table<Long, Long, Map<Long, Long>> partitionReplicasInfo
+                                    = partitionReplicasInfoMaps.get(medium);
+                            Map<Long, Long> countMap = partitionReplicasInfo.get(
+                                    tabletMeta.getPartitionId(), tabletMeta.getIndexId());
+                            if (countMap == null) {
+                                // If one be doesn't have any replica of one partition, it should be counted too.
+                                countMap = availableBeIds.stream().collect(Collectors.toMap(i -> i, i -> 0L));
+                            }
 
-                    Long count = countMap.get(beId);
-                    countMap.put(beId, count + 1L);
-                    partitionReplicasInfo.put(tabletMeta.getPartitionId(), tabletMeta.getIndexId(), countMap);
-                    partitionReplicasInfoMaps.put(medium, partitionReplicasInfo);
-                } catch (IllegalStateException | NullPointerException e) {
-                    // If the tablet or be has some problem, don't count in
-                    LOG.debug(e.getMessage());
+                            Long count = countMap.get(beId);
+                            countMap.put(beId, count + 1L);
+                            partitionReplicasInfo.put(tabletMeta.getPartitionId(), tabletMeta.getIndexId(), countMap);
+                            partitionReplicasInfoMaps.put(medium, partitionReplicasInfo);
+                        } catch (IllegalStateException | NullPointerException e) {
+                            // If the tablet or be has some problem, don't count in
+                            LOG.debug(e.getMessage());
+                        }
+                    }
                 }
+            } finally {
+                shard.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
 
         // 2. Populate ClusterBalanceInfo::table_info_by_skew
@@ -654,23 +807,61 @@ public class TabletInvertedIndex {
         }
     }
 
-    // just for ut
+    // just for ut, return a snapshot of tablet id -> (backend id -> replica)
     public Table<Long, Long, Replica> getReplicaMetaTable() {
+        Table<Long, Long, Replica> replicaMetaTable = HashBasedTable.create();
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                for (Long2ObjectMap.Entry<ReplicaRow> row : shard.replicaMetaTable.long2ObjectEntrySet()) {
+                    for (Replica replica : row.getValue()) {
+                        replicaMetaTable.put(row.getLongKey(), replica.getBackendId(), replica);
+                    }
+                }
+            } finally {
+                shard.readUnlock();
+            }
+        }
         return replicaMetaTable;
     }
 
-    // just for ut
+    // just for ut, return a snapshot of backend id -> (tablet id -> replica)
     public Table<Long, Long, Replica> getBackingReplicaMetaTable() {
+        Table<Long, Long, Replica> backingReplicaMetaTable = HashBasedTable.create();
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                for (Long2ObjectMap.Entry<Long2ObjectOpenHashMap<Replica>> row
+                        : shard.backingReplicaMetaTable.long2ObjectEntrySet()) {
+                    for (Long2ObjectMap.Entry<Replica> cell : row.getValue().long2ObjectEntrySet()) {
+                        backingReplicaMetaTable.put(row.getLongKey(), cell.getLongKey(), cell.getValue());
+                    }
+                }
+            } finally {
+                shard.readUnlock();
+            }
+        }
         return backingReplicaMetaTable;
     }
 
-    // just for ut
+    // just for ut, return a snapshot of partition id -> (index id -> tablet meta)
     public Table<Long, Long, TabletMeta> getTabletMetaTable() {
-        return tabletMetaTable;
+        synchronized (tabletMetaTable) {
+            return HashBasedTable.create(tabletMetaTable);
+        }
     }
 
-    // just for ut
+    // just for ut, return a snapshot of tablet id -> tablet meta
     public Map<Long, TabletMeta> getTabletMetaMap() {
+        Map<Long, TabletMeta> tabletMetaMap = Maps.newHashMap();
+        for (Shard shard : shards) {
+            shard.readLock();
+            try {
+                tabletMetaMap.putAll(shard.tabletMetaMap);
+            } finally {
+                shard.readUnlock();
+            }
+        }
         return tabletMetaMap;
     }
 
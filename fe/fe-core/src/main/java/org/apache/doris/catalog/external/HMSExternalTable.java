@@ -157,8 +157,7 @@ public class HMSExternalTable extends ExternalTable {
                 if (fullSchema == null) {
                     fullSchema = Lists.newArrayList();
                     try {
-                        for (FieldSchema field : HiveMetaStoreClientHelper.getSchema(dbName, name,
-                                ds.getHiveMetastoreUris())) {
+                        for (FieldSchema field : ds.getMetaCache().getSchema(dbName, name)) {
                             fullSchema.add(new Column(field.getName(),
                                     HiveMetaStoreClientHelper.hiveTypeToDorisType(field.getType()), true, null, true,
                                     null, field.getComment()));
@@ -172,29 +171,38 @@ public class HMSExternalTable extends ExternalTable {
     }
 
     /**
-     * Get the related remote hive metastore table.
+     * Get the related remote hive metastore table from the meta cache of the catalog.
      */
     public org.apache.hadoop.hive.metastore.api.Table getRemoteTable() throws MetaNotFoundException {
-        if (remoteTable == null) {
-            synchronized (this) {
-                if (remoteTable == null) {
-                    try {
-                        remoteTable = HiveMetaStoreClientHelper.getTable(dbName, name, ds.getHiveMetastoreUris());
-                    } catch (DdlException e) {
-                        LOG.warn("Fail to get remote hive table. db {}, table {}, uri {}", dbName, name,
-                                ds.getHiveMetastoreUris());
-                        throw new MetaNotFoundException(e);
-                    }
-                }
-            }
+        try {
+            remoteTable = ds.getMetaCache().getTable(dbName, name);
+        } catch (DdlException e) {
+            LOG.warn("Fail to get remote hive table. db {}, table {}, uri {}", dbName, name,
+                    ds.getHiveMetastoreUris());
+            throw new MetaNotFoundException(e);
         }
-        // TODO: Refresh cached remoteTable
         return remoteTable;
     }
 
+    /**
+     * Drop the cached meta of this table, the schema is reloaded when it is accessed next time.
+     */
+    public synchronized void refresh() {
+        ds.getMetaCache().invalidateTable(dbName, name);
+        remoteTable = null;
+        fullSchema = null;
+        initialized = false;
+    }
+
+    public HMSExternalDataSource getDataSource() {
+        return ds;
+    }
+
     @Override
     public boolean isView() {
-        return remoteTable.isSetViewOriginalText() || remoteTable.isSetViewExpandedText();
+        makeSureInitialized();
+        org.apache.hadoop.hive.metastore.api.Table table = remoteTable;
+        return table != null && (table.isSetViewOriginalText() || table.isSetViewExpandedText());
     }
 
     @Override
@@ -215,8 +223,7 @@ public class HMSExternalTable extends ExternalTable {
 
     @Override
     public Column getColumn(String name) {
-        makeSureInitialized();
-        for (Column column : fullSchema) {
+        for (Column column : getFullSchema()) {
             if (name.equals(column.getName())) {
                 return column;
             }
@@ -288,14 +295,15 @@ public class HMSExternalTable extends ExternalTable {
      * get the dla type for scan node to get right information.
      */
     public DLAType getDlaType() {
+        makeSureInitialized();
         return dlaType;
     }
 
     @Override
     public TTableDescriptor toThrift() {
         THiveTable tHiveTable = new THiveTable(dbName, name, new HashMap<>());
-        TTableDescriptor tTableDescriptor = new TTableDescriptor(getId(), TTableType.HIVE_TABLE, fullSchema.size(), 0,
-                getName(), dbName);
+        TTableDescriptor tTableDescriptor = new TTableDescriptor(getId(), TTableType.HIVE_TABLE,
+                getFullSchema().size(), 0, getName(), dbName);
         tTableDescriptor.setHiveTable(tHiveTable);
         return tTableDescriptor;
     }
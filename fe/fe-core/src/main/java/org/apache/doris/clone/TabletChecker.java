@@ -23,12 +23,15 @@ import org.apache.doris.catalog.Catalog;
 import org.apache.doris.catalog.Database;
 import org.apache.doris.catalog.MaterializedIndex;
 import org.apache.doris.catalog.MaterializedIndex.IndexExtState;
+import org.apache.doris.catalog.MaterializedIndex.IndexState;
 import org.apache.doris.catalog.OlapTable;
 import org.apache.doris.catalog.Partition;
 import org.apache.doris.catalog.Partition.PartitionState;
 import org.apache.doris.catalog.Table;
 import org.apache.doris.catalog.Tablet;
 import org.apache.doris.catalog.Tablet.TabletStatus;
+import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletMeta;
 import org.apache.doris.clone.TabletScheduler.AddResult;
 import org.apache.doris.common.Config;
 import org.apache.doris.common.DdlException;
@@ -49,6 +52,7 @@ import com.google.common.collect.Table.Cell;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -60,6 +64,12 @@ import java.util.stream.Collectors;
 /*
  * This checker is responsible for checking all unhealthy tablets.
  * It does not responsible for any scheduler of tablet repairing or balance
+ *
+ * If Config.enable_incremental_tablet_checker is true, the checker only checks the "dirty" tablets
+ * in most rounds. A tablet is marked as dirty when the state of its replicas may have changed, eg:
+ * reported by backend, backend is down or decommissioned, clone task is finished.
+ * A full check of all tablets is still done every Config.tablet_checker_full_check_interval_second,
+ * as a safety net for the changes which are not tracked.
  */
 public class TabletChecker extends MasterDaemon {
     private static final Logger LOG = LogManager.getLogger(TabletChecker.class);
@@ -69,6 +79,15 @@ public class TabletChecker extends MasterDaemon {
     private TabletScheduler tabletScheduler;
     private TabletSchedulerStat stat;
 
+    // the dirty set will be cleared and a full check will be triggered if it grows larger than this.
+    private static final int MAX_DIRTY_TABLET_NUM = 1000000;
+
+    // ids of tablets which need to be checked in next incremental check
+    private Set<Long> dirtyTabletIds = Sets.newConcurrentHashSet();
+    // set to true to force a full check in next round
+    private volatile boolean needFullCheck = false;
+    private long lastFullCheckTime = 0;
+
     HashMap<String, AtomicLong> tabletCountByStatus = new HashMap<String, AtomicLong>() {
         {
             put("total", new AtomicLong(0L));
@@ -206,7 +225,17 @@ public class TabletChecker extends MasterDaemon {
             return;
         }
 
-        checkTablets();
+        long now = System.currentTimeMillis();
+        if (!Config.enable_incremental_tablet_checker || needFullCheck
+                || now - lastFullCheckTime >= Config.tablet_checker_full_check_interval_second * 1000L) {
+            // all tablets will be checked, so the dirty tablets marked before can be discarded.
+            needFullCheck = false;
+            dirtyTabletIds.clear();
+            lastFullCheckTime = now;
+            checkTablets();
+        } else {
+            checkDirtyTablets();
+        }
 
         removePriosIfNecessary();
 
@@ -227,6 +256,164 @@ public class TabletChecker extends MasterDaemon {
         BREAK_OUT
     }
 
+    private enum TabletCheckResult {
+        // tablet is healthy, unrecoverable, not ready or already in scheduler
+        CHECKED,
+        // tablet is unhealthy and its partition is in "prios"
+        PRIO_UNHEALTHY,
+        // tablet scheduler can not accept more tablets
+        BREAK_OUT
+    }
+
+    /*
+     * Mark the tablet as dirty, so that it will be checked in next incremental check.
+     */
+    public void markTabletDirty(long tabletId) {
+        if (!Config.enable_incremental_tablet_checker || !catalog.isMaster()) {
+            return;
+        }
+        dirtyTabletIds.add(tabletId);
+        checkDirtyTabletNum();
+    }
+
+    public void markTabletsDirty(Collection<Long> tabletIds) {
+        if (!Config.enable_incremental_tablet_checker || !catalog.isMaster() || tabletIds.isEmpty()) {
+            return;
+        }
+        dirtyTabletIds.addAll(tabletIds);
+        checkDirtyTabletNum();
+    }
+
+    /*
+     * Mark all tablets which have replica on the given backend as dirty.
+     * Called when the backend is down, up, decommissioned or dropped.
+     */
+    public void markBackendDirty(long backendId) {
+        if (!Config.enable_incremental_tablet_checker || !catalog.isMaster()) {
+            return;
+        }
+        markTabletsDirty(Catalog.getCurrentInvertedIndex().getTabletIdsByBackendId(backendId));
+    }
+
+    private void checkDirtyTabletNum() {
+        if (dirtyTabletIds.size() > MAX_DIRTY_TABLET_NUM) {
+            LOG.info("too many dirty tablets: {}, limit: {}. do full check in next round",
+                    dirtyTabletIds.size(), MAX_DIRTY_TABLET_NUM);
+            dirtyTabletIds.clear();
+            needFullCheck = true;
+        }
+    }
+
+    public int getDirtyTabletNum() {
+        return dirtyTabletIds.size();
+    }
+
+    /*
+     * Only check the dirty tablets.
+     * Tablets are grouped by table, so that each table's read lock is only acquired once.
+     */
+    private void checkDirtyTablets() {
+        if (dirtyTabletIds.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        CheckerCounter counter = new CheckerCounter();
+
+        Set<Long> dirtyIds = Sets.newHashSet(dirtyTabletIds);
+        dirtyTabletIds.removeAll(dirtyIds);
+
+        TabletInvertedIndex invertedIndex = Catalog.getCurrentInvertedIndex();
+        // db id -> (tbl id -> tablet metas)
+        com.google.common.collect.Table<Long, Long, List<Pair<Long, TabletMeta>>> tabletsByTable =
+                HashBasedTable.create();
+        for (long tabletId : dirtyIds) {
+            TabletMeta tabletMeta = invertedIndex.getTabletMeta(tabletId);
+            if (tabletMeta == null) {
+                // tablet has been dropped
+                continue;
+            }
+            List<Pair<Long, TabletMeta>> tablets = tabletsByTable.get(tabletMeta.getDbId(), tabletMeta.getTableId());
+            if (tablets == null) {
+                tablets = Lists.newArrayList();
+                tabletsByTable.put(tabletMeta.getDbId(), tabletMeta.getTableId(), tablets);
+            }
+            tablets.add(Pair.create(tabletId, tabletMeta));
+        }
+
+        // Ids of the tablets which are not visited yet. Dropped tablets and tablets which can not be scheduled
+        // now (eg, table is in alter process) are discarded, they will be marked dirty again when their replicas
+        // change, or be checked by the full check. Only the tablets which are not checked because of the limit
+        // of tablet scheduler are left for next round.
+        Set<Long> uncheckedIds = Sets.newHashSet();
+        tabletsByTable.values().forEach(tablets -> tablets.forEach(t -> uncheckedIds.add(t.first)));
+        OUT:
+        for (long dbId : tabletsByTable.rowKeySet()) {
+            Database db = catalog.getInternalDataSource().getDbNullable(dbId);
+            if (db == null) {
+                for (List<Pair<Long, TabletMeta>> tablets : tabletsByTable.row(dbId).values()) {
+                    tablets.forEach(t -> uncheckedIds.remove(t.first));
+                }
+                continue;
+            }
+            List<Long> aliveBeIdsInCluster = infoService.getClusterBackendIds(db.getClusterName(), true);
+            for (Map.Entry<Long, List<Pair<Long, TabletMeta>>> entry : tabletsByTable.row(dbId).entrySet()) {
+                List<Pair<Long, TabletMeta>> tablets = entry.getValue();
+                tablets.forEach(t -> uncheckedIds.remove(t.first));
+                Table table = db.getTableNullable(entry.getKey());
+                if (table == null) {
+                    continue;
+                }
+                table.readLock();
+                try {
+                    if (!table.needSchedule()) {
+                        continue;
+                    }
+                    OlapTable tbl = (OlapTable) table;
+                    for (int i = 0; i < tablets.size(); i++) {
+                        TabletMeta tabletMeta = tablets.get(i).second;
+                        Partition partition = tbl.getPartition(tabletMeta.getPartitionId());
+                        if (partition == null || partition.getState() != PartitionState.NORMAL) {
+                            continue;
+                        }
+                        MaterializedIndex idx = partition.getIndex(tabletMeta.getIndexId());
+                        if (idx == null || idx.getState() != IndexState.NORMAL) {
+                            continue;
+                        }
+                        Tablet tablet = idx.getTablet(tablets.get(i).first);
+                        if (tablet == null) {
+                            continue;
+                        }
+                        boolean isInPrios = isInPrios(dbId, tbl.getId(), partition.getId());
+                        TabletCheckResult res = checkTablet(db, tbl, partition, idx, tablet, isInPrios,
+                                aliveBeIdsInCluster, start, counter);
+                        if (res == TabletCheckResult.BREAK_OUT) {
+                            // this tablet and the rest tablets of the table are not checked
+                            tablets.subList(i, tablets.size()).forEach(t -> uncheckedIds.add(t.first));
+                            break OUT;
+                        }
+                    }
+                } finally {
+                    table.readUnlock();
+                }
+            }
+        }
+        // the tablets which are not checked because of the limit of tablet scheduler are left for next round
+        if (!uncheckedIds.isEmpty()) {
+            markTabletsDirty(uncheckedIds);
+        }
+
+        long cost = System.currentTimeMillis() - start;
+        stat.counterTabletCheckCostMs.addAndGet(cost);
+        stat.counterTabletChecked.addAndGet(counter.totalTabletNum);
+        stat.counterUnhealthyTabletNum.addAndGet(counter.unhealthyTabletNum);
+        stat.counterTabletAddToBeScheduled.addAndGet(counter.addToSchedulerTabletNum);
+
+        LOG.info("finished to check dirty tablets. unhealth/total/added/in_sched/not_ready: {}/{}/{}/{}/{}, "
+                        + "left: {}, cost: {} ms",
+                counter.unhealthyTabletNum, counter.totalTabletNum, counter.addToSchedulerTabletNum,
+                counter.tabletInScheduler, counter.tabletNotReady, uncheckedIds.size(), cost);
+    }
+
     private void checkTablets() {
         long start = System.currentTimeMillis();
         CheckerCounter counter = new CheckerCounter();
@@ -346,58 +533,12 @@ public class TabletChecker extends MasterDaemon {
          */
         for (MaterializedIndex idx : partition.getMaterializedIndices(IndexExtState.VISIBLE)) {
             for (Tablet tablet : idx.getTablets()) {
-                counter.totalTabletNum++;
-
-                if (tabletScheduler.containsTablet(tablet.getId())) {
-                    counter.tabletInScheduler++;
-                    continue;
-                }
-
-                Pair<TabletStatus, TabletSchedCtx.Priority> statusWithPrio = tablet.getHealthStatusWithPriority(
-                        infoService,
-                        db.getClusterName(),
-                        partition.getVisibleVersion(),
-                        tbl.getPartitionInfo().getReplicaAllocation(partition.getId()),
-                        aliveBeIdsInCluster);
-
-                if (statusWithPrio.first == TabletStatus.HEALTHY) {
-                    // Only set last status check time when status is healthy.
-                    tablet.setLastStatusCheckTime(startTime);
-                    continue;
-                } else if (statusWithPrio.first == TabletStatus.UNRECOVERABLE) {
-                    // This tablet is not recoverable, do not set it into tablet scheduler
-                    // all UNRECOVERABLE tablet can be seen from "show proc '/statistic'"
-                    counter.unhealthyTabletNum++;
-                    continue;
-                } else if (isInPrios) {
-                    statusWithPrio.second = TabletSchedCtx.Priority.VERY_HIGH;
-                    prioPartIsHealthy = false;
-                }
-
-                counter.unhealthyTabletNum++;
-
-                if (!tablet.readyToBeRepaired(statusWithPrio.second)) {
-                    counter.tabletNotReady++;
-                    continue;
-                }
-
-                TabletSchedCtx tabletCtx = new TabletSchedCtx(
-                        TabletSchedCtx.Type.REPAIR,
-                        db.getClusterName(),
-                        db.getId(), tbl.getId(),
-                        partition.getId(), idx.getId(), tablet.getId(),
-                        tbl.getPartitionInfo().getReplicaAllocation(partition.getId()),
-                        System.currentTimeMillis());
-                // the tablet status will be set again when being scheduled
-                tabletCtx.setTabletStatus(statusWithPrio.first);
-                tabletCtx.setOrigPriority(statusWithPrio.second);
-
-                AddResult res = tabletScheduler.addTablet(tabletCtx, false /* not force */);
-                if (res == AddResult.LIMIT_EXCEED || res == AddResult.DISABLED) {
-                    LOG.info("tablet scheduler return: {}. stop tablet checker", res.name());
+                TabletCheckResult res = checkTablet(db, tbl, partition, idx, tablet, isInPrios,
+                        aliveBeIdsInCluster, startTime, counter);
+                if (res == TabletCheckResult.BREAK_OUT) {
                     return LoopControlStatus.BREAK_OUT;
-                } else if (res == AddResult.ADDED) {
-                    counter.addToSchedulerTabletNum++;
+                } else if (res == TabletCheckResult.PRIO_UNHEALTHY) {
+                    prioPartIsHealthy = false;
                 }
             }
         } // indices
@@ -413,6 +554,68 @@ public class TabletChecker extends MasterDaemon {
         return LoopControlStatus.CONTINUE;
     }
 
+    private TabletCheckResult checkTablet(Database db, OlapTable tbl, Partition partition, MaterializedIndex idx,
+            Tablet tablet, boolean isInPrios, List<Long> aliveBeIdsInCluster, long startTime,
+            CheckerCounter counter) {
+        counter.totalTabletNum++;
+
+        if (tabletScheduler.containsTablet(tablet.getId())) {
+            counter.tabletInScheduler++;
+            return TabletCheckResult.CHECKED;
+        }
+
+        Pair<TabletStatus, TabletSchedCtx.Priority> statusWithPrio = tablet.getHealthStatusWithPriority(
+                infoService,
+                db.getClusterName(),
+                partition.getVisibleVersion(),
+                tbl.getPartitionInfo().getReplicaAllocation(partition.getId()),
+                aliveBeIdsInCluster);
+
+        TabletCheckResult result = TabletCheckResult.CHECKED;
+        if (statusWithPrio.first == TabletStatus.HEALTHY) {
+            // Only set last status check time when status is healthy.
+            tablet.setLastStatusCheckTime(startTime);
+            return TabletCheckResult.CHECKED;
+        } else if (statusWithPrio.first == TabletStatus.UNRECOVERABLE) {
+            // This tablet is not recoverable, do not set it into tablet scheduler
+            // all UNRECOVERABLE tablet can be seen from "show proc '/statistic'"
+            counter.unhealthyTabletNum++;
+            return TabletCheckResult.CHECKED;
+        } else if (isInPrios) {
+            statusWithPrio.second = TabletSchedCtx.Priority.VERY_HIGH;
+            result = TabletCheckResult.PRIO_UNHEALTHY;
+        }
+
+        counter.unhealthyTabletNum++;
+
+        if (!tablet.readyToBeRepaired(statusWithPrio.second)) {
+            counter.tabletNotReady++;
+            // not ready tablets should be checked again later
+            markTabletDirty(tablet.getId());
+            return result;
+        }
+
+        TabletSchedCtx tabletCtx = new TabletSchedCtx(
+                TabletSchedCtx.Type.REPAIR,
+                db.getClusterName(),
+                db.getId(), tbl.getId(),
+                partition.getId(), idx.getId(), tablet.getId(),
+                tbl.getPartitionInfo().getReplicaAllocation(partition.getId()),
+                System.currentTimeMillis());
+        // the tablet status will be set again when being scheduled
+        tabletCtx.setTabletStatus(statusWithPrio.first);
+        tabletCtx.setOrigPriority(statusWithPrio.second);
+
+        AddResult res = tabletScheduler.addTablet(tabletCtx, false /* not force */);
+        if (res == AddResult.LIMIT_EXCEED || res == AddResult.DISABLED) {
+            LOG.info("tablet scheduler return: {}. stop tablet checker", res.name());
+            return TabletCheckResult.BREAK_OUT;
+        } else if (res == AddResult.ADDED) {
+            counter.addToSchedulerTabletNum++;
+        }
+        return result;
+    }
+
     private boolean isInPrios(long dbId, long tblId, long partId) {
         synchronized (prios) {
             if (prios.contains(dbId, tblId)) {
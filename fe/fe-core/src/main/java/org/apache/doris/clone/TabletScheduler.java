@@ -42,6 +42,7 @@ import org.apache.doris.common.AnalysisException;
 import org.apache.doris.common.Config;
 import org.apache.doris.common.FeConstants;
 import org.apache.doris.common.Pair;
+import org.apache.doris.common.ThreadPoolManager;
 import org.apache.doris.common.util.MasterDaemon;
 import org.apache.doris.persist.ReplicaPersistInfo;
 import org.apache.doris.resource.Tag;
@@ -65,17 +66,22 @@ import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.stream.Collectors;
 
 /**
@@ -96,14 +102,14 @@ import java.util.stream.Collectors;
 public class TabletScheduler extends MasterDaemon {
     private static final Logger LOG = LogManager.getLogger(TabletScheduler.class);
 
-    // handle at most BATCH_NUM tablets in one loop
-    private static final int MIN_BATCH_NUM = 50;
-
     // the minimum interval of updating cluster statistics and priority of tablet info
     private static final long STAT_UPDATE_INTERVAL_MS = 20 * 1000; // 20s
 
     private static final long SCHEDULE_INTERVAL_MS = 1000; // 1s
 
+    // the max time of scheduling pending tablets batch by batch in one round
+    private static final long MAX_SCHEDULE_ROUND_MS = 10 * 1000; // 10s
+
     // 1 slot for reduce unnecessary balance task, provided a more accurate estimate of capacity
     public static final int BALANCE_SLOT_NUM_FOR_PATH = 1;
 
@@ -115,20 +121,22 @@ public class TabletScheduler extends MasterDaemon {
      * So if a tablet's id is still in allTabletIds, TabletChecker can not add tablet to TabletScheduler.
      *
      * pendingTablets + runningTablets = allTabletIds
+     * (tablets being scheduled in current round are in none of pendingTablets and runningTablets)
      *
-     * pendingTablets, allTabletIds, runningTablets and schedHistory are protected by 'synchronized'
+     * pendingTablets, allTabletIds and runningTablets are concurrent containers, so that TabletChecker,
+     * the report threads and the schedule threads do not wait for each other.
      */
-    private PriorityQueue<TabletSchedCtx> pendingTablets = new PriorityQueue<>();
-    private Set<Long> allTabletIds = Sets.newHashSet();
+    private PriorityBlockingQueue<TabletSchedCtx> pendingTablets = new PriorityBlockingQueue<>();
+    private Set<Long> allTabletIds = Sets.newConcurrentHashSet();
     // contains all tabletCtxs which state are RUNNING
-    private Map<Long, TabletSchedCtx> runningTablets = Maps.newHashMap();
-    // save the latest 1000 scheduled tablet info
-    private Queue<TabletSchedCtx> schedHistory = EvictingQueue.create(1000);
+    private Map<Long, TabletSchedCtx> runningTablets = Maps.newConcurrentMap();
+    // save the latest 1000 scheduled tablet info, iterating it must be synchronized on it
+    private Queue<TabletSchedCtx> schedHistory = Queues.synchronizedQueue(EvictingQueue.create(1000));
 
     // be id -> #working slots
     private Map<Long, PathSlot> backendsWorkingSlots = Maps.newConcurrentMap();
     // cluster name -> Tag -> load statistic
-    private Table<String, Tag, ClusterLoadStatistic> statisticMap = HashBasedTable.create();
+    private volatile Table<String, Tag, ClusterLoadStatistic> statisticMap = HashBasedTable.create();
     private long lastStatUpdateTime = 0;
 
     private long lastSlotAdjustTime = 0;
@@ -140,6 +148,8 @@ public class TabletScheduler extends MasterDaemon {
     private TabletSchedulerStat stat;
     private Rebalancer rebalancer;
     private Rebalancer diskRebalancer;
+    // plan the repair tablets of a batch concurrently
+    private ExecutorService planExecutor;
 
     // result of adding a tablet to pendingTablets
     public enum AddResult {
@@ -164,6 +174,8 @@ public class TabletScheduler extends MasterDaemon {
         }
         // if rebalancer can not get new task, then use diskRebalancer to get task
         this.diskRebalancer = new DiskRebalancer(infoService, invertedIndex);
+        this.planExecutor = ThreadPoolManager.newDaemonFixedThreadPool(
+                Math.max(Config.tablet_schedule_threads_num, 1), Integer.MAX_VALUE, "tablet-schedule-planner", true);
     }
 
     public TabletSchedulerStat getStat() {
@@ -226,7 +238,7 @@ public class TabletScheduler extends MasterDaemon {
      * add a ready-to-be-scheduled tablet to pendingTablets, if it has not being added before.
      * if force is true, do not check if tablet is already added before.
      */
-    public synchronized AddResult addTablet(TabletSchedCtx tablet, boolean force) {
+    public AddResult addTablet(TabletSchedCtx tablet, boolean force) {
         if (!force && Config.disable_tablet_scheduler) {
             return AddResult.DISABLED;
         }
@@ -243,12 +255,15 @@ public class TabletScheduler extends MasterDaemon {
             return AddResult.LIMIT_EXCEED;
         }
 
-        allTabletIds.add(tablet.getTabletId());
+        // check again by add(), the same tablet may be added by another thread after containsTablet()
+        if (!allTabletIds.add(tablet.getTabletId()) && !force) {
+            return AddResult.ALREADY_IN;
+        }
         pendingTablets.offer(tablet);
         return AddResult.ADDED;
     }
 
-    public synchronized boolean containsTablet(long tabletId) {
+    public boolean containsTablet(long tabletId) {
         return allTabletIds.contains(tabletId);
     }
 
@@ -264,15 +279,16 @@ public class TabletScheduler extends MasterDaemon {
      * Iterate current tablets, change their priority to VERY_HIGH if necessary.
      */
     public synchronized void changeTabletsPriorityToVeryHigh(long dbId, long tblId, List<Long> partitionIds) {
-        PriorityQueue<TabletSchedCtx> newPendingTablets = new PriorityQueue<>();
-        for (TabletSchedCtx tabletCtx : pendingTablets) {
+        // the priority can only be changed out of the queue
+        List<TabletSchedCtx> tabletCtxs = Lists.newArrayList();
+        pendingTablets.drainTo(tabletCtxs);
+        for (TabletSchedCtx tabletCtx : tabletCtxs) {
             if (tabletCtx.getDbId() == dbId && tabletCtx.getTblId() == tblId
                     && partitionIds.contains(tabletCtx.getPartitionId())) {
                 tabletCtx.setOrigPriority(Priority.VERY_HIGH);
             }
-            newPendingTablets.add(tabletCtx);
         }
-        pendingTablets = newPendingTablets;
+        pendingTablets.addAll(tabletCtxs);
     }
 
     /**
@@ -355,116 +371,202 @@ public class TabletScheduler extends MasterDaemon {
      * adjust priorities of all tablet infos
      */
     private synchronized void adjustPriorities() {
-        int size = pendingTablets.size();
+        List<TabletSchedCtx> tabletCtxs = Lists.newArrayList();
+        pendingTablets.drainTo(tabletCtxs);
         int changedNum = 0;
-        TabletSchedCtx tabletCtx;
-        for (int i = 0; i < size; i++) {
-            tabletCtx = pendingTablets.poll();
-            if (tabletCtx == null) {
-                break;
-            }
-
+        for (TabletSchedCtx tabletCtx : tabletCtxs) {
             if (tabletCtx.adjustPriority(stat)) {
                 changedNum++;
             }
-            pendingTablets.add(tabletCtx);
         }
+        pendingTablets.addAll(tabletCtxs);
 
-        LOG.debug("adjust priority for all tablets. changed: {}, total: {}", changedNum, size);
+        LOG.debug("adjust priority for all tablets. changed: {}, total: {}", changedNum, tabletCtxs.size());
     }
 
     /**
-     * get at most BATCH_NUM tablets from queue, and try to schedule them.
+     * Schedule the pending tablets batch by batch, until there is no pending tablet or available slot,
+     * or no tablet of a batch can be scheduled. Each batch goes through 3 stages:
+     * 1. select: take at most tablet_schedule_batch_size tablets from pendingTablets.
+     * 2. plan: choose the src and dest of each tablet and create the task. The repair tablets are planned
+     *    concurrently by planExecutor, and the balance tablets are planned one by one in this thread.
+     *    The rebalancers are not thread safe, so a repair tablet which needs the rebalancer to be planned
+     *    is deferred and planned again in this thread.
+     * 3. dispatch: send the tasks of the batch.
+     *
      * After handle, the tablet info should be
      * 1. in runningTablets with state RUNNING, if being scheduled success.
      * 2. or in schedHistory with state CANCELLING, if some unrecoverable error happens.
-     * 3. or in pendingTablets with state PENDING, if failed to be scheduled.
+     * 3. or in pendingTablets with state PENDING, if failed to be scheduled. It is added back at the end
+     *    of this round, so that it will not be scheduled again in the same round.
      *
      * if in schedHistory, it should be removed from allTabletIds.
      */
     private void schedulePendingTablets() {
         long start = System.currentTimeMillis();
-        List<TabletSchedCtx> currentBatch = getNextTabletCtxBatch();
-        LOG.debug("get {} tablets to schedule", currentBatch.size());
+        List<TabletSchedCtx> failedTablets = Collections.synchronizedList(Lists.newArrayList());
+        while (System.currentTimeMillis() - start < MAX_SCHEDULE_ROUND_MS) {
+            List<TabletSchedCtx> currentBatch = getNextTabletCtxBatch();
+            LOG.debug("get {} tablets to schedule", currentBatch.size());
+            if (currentBatch.isEmpty()) {
+                break;
+            }
+            stat.counterTabletScheduleBatch.incrementAndGet();
 
-        AgentBatchTask batchTask = new AgentBatchTask();
-        for (TabletSchedCtx tabletCtx : currentBatch) {
+            long planStart = System.currentTimeMillis();
+            AgentBatchTask batchTask = new AgentBatchTask();
+            int scheduledNum = planTablets(currentBatch, batchTask, failedTablets);
+            stat.counterTabletSchedulePlanCostMs.addAndGet(System.currentTimeMillis() - planStart);
+
+            long dispatchStart = System.currentTimeMillis();
+            // must send task after adding tablet info to runningTablets.
+            for (AgentTask task : batchTask.getAllTasks()) {
+                if (AgentTaskQueue.addTask(task)) {
+                    stat.counterCloneTask.incrementAndGet();
+                }
+                LOG.info("add clone task to agent task queue: {}", task);
+            }
+
+            // send task immediately
+            if (batchTask.getTaskNum() > 0) {
+                AgentTaskExecutor.submit(batchTask);
+            }
+            stat.counterTabletScheduleDispatchCostMs.addAndGet(System.currentTimeMillis() - dispatchStart);
+
+            if (scheduledNum == 0) {
+                // the rest tablets are unlikely to be scheduled either, wait for next round
+                break;
+            }
+        }
+
+        for (TabletSchedCtx tabletCtx : failedTablets) {
+            dynamicAdjustPrioAndAddBackToPendingTablets(tabletCtx);
+        }
+
+        long cost = System.currentTimeMillis() - start;
+        stat.counterTabletScheduleCostMs.addAndGet(cost);
+    }
+
+    /**
+     * Plan the tablets of a batch, and add the created tasks to batchTask.
+     * Return the number of tablets which are scheduled or finished.
+     */
+    private int planTablets(List<TabletSchedCtx> tabletCtxs, AgentBatchTask batchTask,
+            List<TabletSchedCtx> failedTablets) {
+        int scheduledNum = 0;
+        List<Future<AgentBatchTask>> futures = Lists.newArrayList();
+        List<TabletSchedCtx> deferredTablets = Collections.synchronizedList(Lists.newArrayList());
+        for (TabletSchedCtx tabletCtx : tabletCtxs) {
+            if (tabletCtx.getType() == Type.REPAIR) {
+                // each repair tablet is planned under its own table lock, so they can be planned concurrently.
+                futures.add(planExecutor.submit(() -> {
+                    AgentBatchTask tabletTask = new AgentBatchTask();
+                    return planTablet(tabletCtx, tabletTask, failedTablets, deferredTablets) ? tabletTask : null;
+                }));
+            } else if (planTablet(tabletCtx, batchTask, failedTablets, null)) {
+                // the rebalancers are not thread safe, so balance tablets are planned in this thread
+                scheduledNum++;
+            }
+        }
+
+        for (Future<AgentBatchTask> future : futures) {
             try {
-                if (Config.disable_tablet_scheduler) {
-                    // do not schedule more tablet is tablet scheduler is disabled.
-                    throw new SchedException(Status.FINISHED, "tablet scheduler is disabled");
+                AgentBatchTask tabletTask = future.get();
+                if (tabletTask != null) {
+                    tabletTask.getAllTasks().forEach(batchTask::addTask);
+                    scheduledNum++;
                 }
-                scheduleTablet(tabletCtx, batchTask);
-            } catch (SchedException e) {
-                tabletCtx.increaseFailedSchedCounter();
-                tabletCtx.setErrMsg(e.getMessage());
-
-                if (e.getStatus() == Status.SCHEDULE_FAILED) {
-                    if (tabletCtx.getType() == Type.BALANCE) {
-                        // if balance is disabled, remove this tablet
-                        if (Config.disable_balance) {
+            } catch (InterruptedException | ExecutionException e) {
+                // planTablet() handles all exceptions itself
+                LOG.warn("failed to plan tablet", e);
+            }
+        }
+
+        // all plan threads are done, the deferred tablets can use the rebalancer now
+        for (TabletSchedCtx tabletCtx : deferredTablets) {
+            if (planTablet(tabletCtx, batchTask, failedTablets, null)) {
+                scheduledNum++;
+            }
+        }
+        return scheduledNum;
+    }
+
+    /**
+     * Try to schedule a tablet and handle the result.
+     * Return true if the tablet is scheduled or finished.
+     * If deferredTablets is not null, the tablet is planned in planExecutor, and it is added to
+     * deferredTablets instead of being scheduled if it needs the rebalancer.
+     */
+    private boolean planTablet(TabletSchedCtx tabletCtx, AgentBatchTask batchTask,
+            List<TabletSchedCtx> failedTablets, List<TabletSchedCtx> deferredTablets) {
+        try {
+            if (Config.disable_tablet_scheduler) {
+                // do not schedule more tablet is tablet scheduler is disabled.
+                throw new SchedException(Status.FINISHED, "tablet scheduler is disabled");
+            }
+            scheduleTablet(tabletCtx, batchTask, deferredTablets != null);
+        } catch (RebalancerRequiredException e) {
+            // the tablet is scheduled again after the plan threads are done, only count that pass
+            stat.counterTabletScheduled.decrementAndGet();
+            stat.counterReplicaRedundantErr.decrementAndGet();
+            deferredTablets.add(tabletCtx);
+            return false;
+        } catch (SchedException e) {
+            tabletCtx.increaseFailedSchedCounter();
+            tabletCtx.setErrMsg(e.getMessage());
+
+            if (e.getStatus() == Status.SCHEDULE_FAILED) {
+                if (tabletCtx.getType() == Type.BALANCE) {
+                    // if balance is disabled, remove this tablet
+                    if (Config.disable_balance) {
+                        finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED, e.getStatus(),
+                                "disable balance and " + e.getMessage());
+                    } else {
+                        // remove the balance task if it fails to be scheduled many times
+                        if (tabletCtx.getFailedSchedCounter() > 10) {
                             finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED, e.getStatus(),
-                                    "disable balance and " + e.getMessage());
+                                    "schedule failed too many times and " + e.getMessage());
                         } else {
-                            // remove the balance task if it fails to be scheduled many times
-                            if (tabletCtx.getFailedSchedCounter() > 10) {
-                                finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED, e.getStatus(),
-                                        "schedule failed too many times and " + e.getMessage());
-                            } else {
-                                // we must release resource it current hold, and be scheduled again
-                                tabletCtx.releaseResource(this);
-                                // adjust priority to avoid some higher priority always be the first in pendingTablets
-                                stat.counterTabletScheduledFailed.incrementAndGet();
-                                dynamicAdjustPrioAndAddBackToPendingTablets(tabletCtx, e.getMessage());
-                            }
+                            // we must release resource it current hold, and be scheduled again
+                            tabletCtx.releaseResource(this);
+                            stat.counterTabletScheduledFailed.incrementAndGet();
+                            failedTablets.add(tabletCtx);
                         }
-                    } else {
-                        // we must release resource it current hold, and be scheduled again
-                        tabletCtx.releaseResource(this);
-                        // adjust priority to avoid some higher priority always be the first in pendingTablets
-                        stat.counterTabletScheduledFailed.incrementAndGet();
-                        dynamicAdjustPrioAndAddBackToPendingTablets(tabletCtx, e.getMessage());
                     }
-                } else if (e.getStatus() == Status.FINISHED) {
-                    // schedule redundant tablet or scheduler disabled will throw this exception
-                    stat.counterTabletScheduledSucceeded.incrementAndGet();
-                    finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.FINISHED, e.getStatus(), e.getMessage());
                 } else {
-                    Preconditions.checkState(e.getStatus() == Status.UNRECOVERABLE, e.getStatus());
-                    // discard
-                    stat.counterTabletScheduledDiscard.incrementAndGet();
-                    finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED, e.getStatus(), e.getMessage());
+                    // we must release resource it current hold, and be scheduled again
+                    tabletCtx.releaseResource(this);
+                    stat.counterTabletScheduledFailed.incrementAndGet();
+                    failedTablets.add(tabletCtx);
                 }
-                continue;
-            } catch (Exception e) {
-                LOG.warn("got unexpected exception, discard this schedule. tablet: {}",
-                        tabletCtx.getTabletId(), e);
-                stat.counterTabletScheduledFailed.incrementAndGet();
-                finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.UNEXPECTED, Status.UNRECOVERABLE, e.getMessage());
-                continue;
-            }
-
-            Preconditions.checkState(tabletCtx.getState() == TabletSchedCtx.State.RUNNING, tabletCtx.getState());
-            stat.counterTabletScheduledSucceeded.incrementAndGet();
-            addToRunningTablets(tabletCtx);
-        }
-
-        // must send task after adding tablet info to runningTablets.
-        for (AgentTask task : batchTask.getAllTasks()) {
-            if (AgentTaskQueue.addTask(task)) {
-                stat.counterCloneTask.incrementAndGet();
+                return false;
+            } else if (e.getStatus() == Status.FINISHED) {
+                // schedule redundant tablet or scheduler disabled will throw this exception
+                stat.counterTabletScheduledSucceeded.incrementAndGet();
+                finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.FINISHED, e.getStatus(), e.getMessage());
+                return true;
+            } else {
+                Preconditions.checkState(e.getStatus() == Status.UNRECOVERABLE, e.getStatus());
+                // discard
+                stat.counterTabletScheduledDiscard.incrementAndGet();
+                finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED, e.getStatus(), e.getMessage());
+                return false;
             }
-            LOG.info("add clone task to agent task queue: {}", task);
+        } catch (Exception e) {
+            LOG.warn("got unexpected exception, discard this schedule. tablet: {}",
+                    tabletCtx.getTabletId(), e);
+            stat.counterTabletScheduledFailed.incrementAndGet();
+            finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.UNEXPECTED, Status.UNRECOVERABLE, e.getMessage());
+            return false;
         }
 
-        // send task immediately
-        AgentTaskExecutor.submit(batchTask);
-
-        long cost = System.currentTimeMillis() - start;
-        stat.counterTabletScheduleCostMs.addAndGet(cost);
+        Preconditions.checkState(tabletCtx.getState() == TabletSchedCtx.State.RUNNING, tabletCtx.getState());
+        stat.counterTabletScheduledSucceeded.incrementAndGet();
+        addToRunningTablets(tabletCtx);
+        return true;
     }
 
-    private synchronized void addToRunningTablets(TabletSchedCtx tabletCtx) {
+    private void addToRunningTablets(TabletSchedCtx tabletCtx) {
         runningTablets.put(tabletCtx.getTabletId(), tabletCtx);
     }
 
@@ -473,14 +575,15 @@ public class TabletScheduler extends MasterDaemon {
      * avoid other threads see it.
      * Whoever takes this tablet, make sure to put it to the schedHistory or back to runningTablets.
      */
-    private synchronized TabletSchedCtx takeRunningTablets(long tabletId) {
+    private TabletSchedCtx takeRunningTablets(long tabletId) {
         return runningTablets.remove(tabletId);
     }
 
     /**
      * Try to schedule a single tablet.
      */
-    private void scheduleTablet(TabletSchedCtx tabletCtx, AgentBatchTask batchTask) throws SchedException {
+    private void scheduleTablet(TabletSchedCtx tabletCtx, AgentBatchTask batchTask, boolean isConcurrentPlan)
+            throws SchedException {
         long currentTime = System.currentTimeMillis();
         tabletCtx.setLastSchedTime(currentTime);
         tabletCtx.setLastVisitedTime(currentTime);
@@ -594,7 +697,7 @@ public class TabletScheduler extends MasterDaemon {
             tabletCtx.setSchemaHash(tbl.getSchemaHashByIndexId(idx.getId()));
             tabletCtx.setStorageMedium(tbl.getPartitionInfo().getDataProperty(partition.getId()).getStorageMedium());
 
-            handleTabletByTypeAndStatus(statusPair.first, tabletCtx, batchTask);
+            handleTabletByTypeAndStatus(statusPair.first, tabletCtx, batchTask, isConcurrentPlan);
         } finally {
             tbl.writeUnlock();
         }
@@ -619,8 +722,8 @@ public class TabletScheduler extends MasterDaemon {
         pathSlot.updateDiskBalanceLastSuccTime(pathHash);
     }
 
-    private void handleTabletByTypeAndStatus(TabletStatus status, TabletSchedCtx tabletCtx, AgentBatchTask batchTask)
-            throws SchedException {
+    private void handleTabletByTypeAndStatus(TabletStatus status, TabletSchedCtx tabletCtx, AgentBatchTask batchTask,
+            boolean isConcurrentPlan) throws SchedException {
         if (tabletCtx.getType() == Type.REPAIR) {
             switch (status) {
                 case REPLICA_MISSING:
@@ -635,10 +738,10 @@ public class TabletScheduler extends MasterDaemon {
                     handleReplicaRelocating(tabletCtx, batchTask);
                     break;
                 case REDUNDANT:
-                    handleRedundantReplica(tabletCtx, false);
+                    handleRedundantReplica(tabletCtx, false, isConcurrentPlan);
                     break;
                 case FORCE_REDUNDANT:
-                    handleRedundantReplica(tabletCtx, true);
+                    handleRedundantReplica(tabletCtx, true, isConcurrentPlan);
                     break;
                 case REPLICA_MISSING_IN_CLUSTER:
                     handleReplicaClusterMigration(tabletCtx, batchTask);
@@ -825,7 +928,8 @@ public class TabletScheduler extends MasterDaemon {
      *  8. replica is the src replica of a rebalance task, we can try to get it from rebalancer
      *  9. replica on higher load backend
      */
-    private void handleRedundantReplica(TabletSchedCtx tabletCtx, boolean force) throws SchedException {
+    private void handleRedundantReplica(TabletSchedCtx tabletCtx, boolean force, boolean isConcurrentPlan)
+            throws SchedException {
         stat.counterReplicaRedundantErr.incrementAndGet();
 
         if (deleteBackendDropped(tabletCtx, force)
@@ -838,7 +942,7 @@ public class TabletScheduler extends MasterDaemon {
                 || deleteReplicaOnSameHost(tabletCtx, force)
                 || deleteReplicaNotInCluster(tabletCtx, force)
                 || deleteReplicaNotInValidTag(tabletCtx, force)
-                || deleteReplicaChosenByRebalancer(tabletCtx, force)
+                || deleteReplicaChosenByRebalancer(tabletCtx, force, isConcurrentPlan)
                 || deleteReplicaOnHighLoadBackend(tabletCtx, force)) {
             // if we delete at least one redundant replica, we still throw a SchedException with status FINISHED
             // to remove this tablet from the pendingTablets(consider it as finished)
@@ -987,7 +1091,12 @@ public class TabletScheduler extends MasterDaemon {
         return false;
     }
 
-    private boolean deleteReplicaChosenByRebalancer(TabletSchedCtx tabletCtx, boolean force) throws SchedException {
+    private boolean deleteReplicaChosenByRebalancer(TabletSchedCtx tabletCtx, boolean force,
+            boolean isConcurrentPlan) throws SchedException {
+        if (isConcurrentPlan) {
+            // the rebalancer is not thread safe, plan this tablet again in the scheduler thread
+            throw new RebalancerRequiredException();
+        }
         Long id = rebalancer.getToDeleteReplicaId(tabletCtx);
         if (id == -1L) {
             return false;
@@ -1393,7 +1502,7 @@ public class TabletScheduler extends MasterDaemon {
      * For some reason, a tablet info failed to be scheduled this time,
      * So we dynamically change its priority and add back to queue, waiting for next round.
      */
-    private void dynamicAdjustPrioAndAddBackToPendingTablets(TabletSchedCtx tabletCtx, String message) {
+    private void dynamicAdjustPrioAndAddBackToPendingTablets(TabletSchedCtx tabletCtx) {
         Preconditions.checkState(tabletCtx.getState() == TabletSchedCtx.State.PENDING);
         tabletCtx.adjustPriority(stat);
         addTablet(tabletCtx, true /* force */);
@@ -1405,6 +1514,8 @@ public class TabletScheduler extends MasterDaemon {
         removeTabletCtx(tabletCtx, reason);
         // release resources taken by tablet ctx
         releaseTabletCtx(tabletCtx, state, status == Status.UNRECOVERABLE);
+        // check the tablet again, it may still need to be repaired.
+        Catalog.getCurrentCatalog().getTabletChecker().markTabletDirty(tabletCtx.getTabletId());
     }
 
     private void releaseTabletCtx(TabletSchedCtx tabletCtx, TabletSchedCtx.State state, boolean resetReplicaState) {
@@ -1416,7 +1527,7 @@ public class TabletScheduler extends MasterDaemon {
         tabletCtx.setFinishedTime(System.currentTimeMillis());
     }
 
-    private synchronized void removeTabletCtx(TabletSchedCtx tabletCtx, String reason) {
+    private void removeTabletCtx(TabletSchedCtx tabletCtx, String reason) {
         runningTablets.remove(tabletCtx.getTabletId());
         allTabletIds.remove(tabletCtx.getTabletId());
         schedHistory.add(tabletCtx);
@@ -1424,9 +1535,9 @@ public class TabletScheduler extends MasterDaemon {
     }
 
     // get next batch of tablets from queue.
-    private synchronized List<TabletSchedCtx> getNextTabletCtxBatch() {
+    private List<TabletSchedCtx> getNextTabletCtxBatch() {
         List<TabletSchedCtx> list = Lists.newArrayList();
-        int count = Math.min(MIN_BATCH_NUM, getCurrentAvailableSlotNum());
+        int count = Math.min(Config.tablet_schedule_batch_size, getCurrentAvailableSlotNum());
         while (count > 0) {
             TabletSchedCtx tablet = pendingTablets.poll();
             if (tablet == null) {
@@ -1573,11 +1684,11 @@ public class TabletScheduler extends MasterDaemon {
     public void handleRunningTablets() {
         // 1. remove the tablet ctx if timeout
         List<TabletSchedCtx> timeoutTablets = Lists.newArrayList();
-        synchronized (this) {
-            runningTablets.values().stream().filter(TabletSchedCtx::isTimeout).forEach(timeoutTablets::add);
-
-            for (TabletSchedCtx tabletSchedCtx : timeoutTablets) {
+        for (TabletSchedCtx tabletSchedCtx : runningTablets.values()) {
+            // the tablet may be taken by finishCloneTask() at the same time, only one of them can remove it
+            if (tabletSchedCtx.isTimeout() && takeRunningTablets(tabletSchedCtx.getTabletId()) != null) {
                 removeTabletCtx(tabletSchedCtx, "timeout");
+                timeoutTablets.add(tabletSchedCtx);
             }
         }
 
@@ -1614,35 +1725,49 @@ public class TabletScheduler extends MasterDaemon {
         return result;
     }
 
-    private synchronized List<TabletSchedCtx> getCopiedTablets(Collection<TabletSchedCtx> source, int limit) {
+    private List<TabletSchedCtx> getCopiedTablets(Collection<TabletSchedCtx> source, int limit) {
         List<TabletSchedCtx> tabletCtxs = Lists.newArrayList();
-        source.stream().limit(limit).forEach(t -> {
-            tabletCtxs.add(t);
-        });
+        // the iterators of pendingTablets and runningTablets are weakly consistent,
+        // only schedHistory need to be locked.
+        synchronized (schedHistory) {
+            source.stream().limit(limit).forEach(t -> {
+                tabletCtxs.add(t);
+            });
+        }
         return tabletCtxs;
     }
 
-    public synchronized int getPendingNum() {
+    public int getPendingNum() {
         return pendingTablets.size();
     }
 
-    public synchronized int getRunningNum() {
+    public int getRunningNum() {
         return runningTablets.size();
     }
 
-    public synchronized int getHistoryNum() {
+    public int getHistoryNum() {
         return schedHistory.size();
     }
 
-    public synchronized int getTotalNum() {
+    public int getTotalNum() {
         return allTabletIds.size();
     }
 
-    public synchronized long getBalanceTabletsNumber() {
+    public long getBalanceTabletsNumber() {
         return pendingTablets.stream().filter(t -> t.getType() == Type.BALANCE).count()
                 + runningTablets.values().stream().filter(t -> t.getType() == Type.BALANCE).count();
     }
 
+    /**
+     * Thrown when a tablet planned in planExecutor needs the rebalancer to be planned.
+     * The tablet is planned again in the scheduler thread.
+     */
+    private static class RebalancerRequiredException extends SchedException {
+        RebalancerRequiredException() {
+            super(Status.SCHEDULE_FAILED, "rebalancer is required, plan in scheduler thread");
+        }
+    }
+
     /**
      * PathSlot keeps track of slot num per path of a Backend.
      * Each path on a Backend has several slot.
@@ -62,6 +62,12 @@ public class TabletSchedulerStat {
     public AtomicLong counterTabletScheduleRound = new AtomicLong(0L);
     @StatField("cost of tablet schedule(ms)")
     public AtomicLong counterTabletScheduleCostMs = new AtomicLong(0L);
+    @StatField("num of tablet schedule batch")
+    public AtomicLong counterTabletScheduleBatch = new AtomicLong(0L);
+    @StatField("cost of planning tablets(ms)")
+    public AtomicLong counterTabletSchedulePlanCostMs = new AtomicLong(0L);
+    @StatField("cost of dispatching tasks(ms)")
+    public AtomicLong counterTabletScheduleDispatchCostMs = new AtomicLong(0L);
     @StatField("num of tablet being scheduled")
     public AtomicLong counterTabletScheduled = new AtomicLong(0L);
     @StatField("num of tablet being scheduled succeeded")
@@ -116,6 +116,49 @@ public class Config extends ConfigBase {
     @ConfField
     public static String audit_log_roll_mode = "TIME-DAY";
 
+    /**
+     * Max number of recent query events kept in memory for the query detail http api.
+     */
+    @ConfField
+    public static int query_detail_capacity = 10000;
+
+    /**
+     * If set, the details of finished queries evicted from memory are appended to
+     * query_detail_spill_dir/query_detail.log as json lines, which is rolled to query_detail.log.1
+     * when it exceeds query_detail_spill_max_bytes.
+     */
+    @ConfField
+    public static String query_detail_spill_dir = "";
+
+    @ConfField
+    public static long query_detail_spill_max_bytes = 256 * 1024 * 1024L;
+
+    /**
+     * Max number of query and load profiles kept in memory. They are kept compressed,
+     * and the older ones are spilled to profile_spill_dir if it is set, or dropped otherwise.
+     */
+    @ConfField(mutable = true)
+    public static int max_query_profile_num = 100;
+
+    /**
+     * If set, the profiles evicted from memory are appended to the segment files in this dir,
+     * so that they can still be shown. The segments are removed when FE restarts.
+     */
+    @ConfField
+    public static String profile_spill_dir = "";
+
+    /**
+     * Max total size of the profile segment files, the oldest segment is removed when exceeded.
+     */
+    @ConfField(mutable = true)
+    public static long profile_spill_max_bytes = 1024 * 1024 * 1024L;
+
+    /**
+     * Max number of spilled profiles.
+     */
+    @ConfField(mutable = true)
+    public static int max_spilled_profile_num = 10000;
+
     /**
      * plugin_dir:
      *      plugin install directory
@@ -205,6 +248,34 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static int edit_log_roll_num = 50000;
 
+    /**
+     * If set to true, concurrent edit log writes are committed to bdbje in batches by a single writer thread,
+     * so that they share one sync instead of each waiting for its own.
+     */
+    @ConfField public static boolean enable_edit_log_group_commit = false;
+
+    /**
+     * The max number of journals committed in one batch when edit log group commit is enabled.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int edit_log_group_commit_max_batch_num = 512;
+
+    /**
+     * The number of threads to save or load meta modules of an image in parallel.
+     * Saving in parallel only takes effect on the checkpoint thread. When loading, modules which depend on each other
+     * are still loaded one by one. Set to 1 to save and load image sequentially.
+     */
+    @ConfField(mutable = true)
+    public static int meta_image_persist_parallelism = 4;
+
+    /**
+     * If set to true, each meta module in the image is compressed by deflate when saving image.
+     * Images written with compression can not be loaded by FE versions which do not support it,
+     * so do not enable it before all FEs are upgraded.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_meta_image_compression = false;
+
     /**
      * Non-master FE will stop offering service
      * if meta data delay gap exceeds *meta_delay_toleration_second*
@@ -415,6 +486,22 @@ public class Config extends ConfigBase {
      */
     @ConfField public static int max_mysql_service_task_threads_num = 4096;
 
+    /**
+     * If set to true, FE will support the MySQL compressed protocol for the clients which request it,
+     * such as "mysql --compress" or "useCompression=true" in JDBC url.
+     * Compression trades FE CPU for network bandwidth, enable it if the clients fetch large results
+     * through a slow network.
+     */
+    @ConfField(mutable = true)
+    public static boolean mysql_server_enable_compression = false;
+
+    /**
+     * If set to true, FE will support the CLIENT_DEPRECATE_EOF capability for the clients which request it.
+     * The EOF packet after column definitions is omitted and the result set is terminated by an OK packet.
+     */
+    @ConfField(mutable = true)
+    public static boolean mysql_server_enable_deprecate_eof = false;
+
     /**
      * Cluster name will be shown as the title of web page
      */
@@ -454,6 +541,16 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static int publish_version_timeout_second = 30; // 30 seconds
 
+    /**
+     * If it is not negative, after waiting for this time since the publish version tasks are sent,
+     * a transaction can be visible once quorum replicas of all its tablets have finished publishing,
+     * without waiting for the remaining publish version tasks.
+     * The replicas of unfinished tasks are treated as error replicas and will be caught up later.
+     * -1 means waiting for all publish version tasks to be finished, or publish_version_timeout_second.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long quorum_publish_wait_time_ms = -1;
+
     /**
      * Maximal waiting time for all data inserted before one transaction to be committed
      * This is the timeout second for the command "commit"
@@ -883,6 +980,12 @@ public class Config extends ConfigBase {
      */
     @ConfField public static int qe_max_connection = 1024;
 
+    /**
+     * Maximal number of server side prepared statements per connection.
+     */
+    @ConfField(mutable = true)
+    public static int max_prepared_stmt_count = 1000;
+
     /**
      * Maximal number of thread in connection-scheduler-pool.
      */
@@ -1013,6 +1116,19 @@ public class Config extends ConfigBase {
     // All frontends will get tablet stat from all backends at each interval
     @ConfField public static int tablet_stat_update_interval_second = 60;  // 1 min
 
+    /**
+     * Number of shards of the tablet inverted index. Each shard has its own lock,
+     * so tablet reports, tablet scheduler and DDL on different shards can proceed concurrently.
+     */
+    @ConfField public static int tablet_inverted_index_shard_num = 16;
+
+    /**
+     * If set to true, the replicas of a tablet in the tablet inverted index are kept in an exactly sized array
+     * instead of a hash map, which saves more than 100 bytes of heap per tablet.
+     * Metric tablet_inverted_index_replica_row_bytes shows the estimated heap usage of both layouts.
+     */
+    @ConfField public static boolean enable_compact_replica_row = true;
+
     /**
      * if set to false, auth check will be disable, in case some goes wrong with the new privilege system.
      */
@@ -1060,6 +1176,38 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int max_query_retry_time = 1;
 
+    /**
+     * The number of threads used to serialize the plan fragment params of different backends in parallel
+     * when sending fragments of a query. Set to 0 to serialize them in the query thread.
+     */
+    @ConfField
+    public static int fragment_params_serialize_thread_num = 8;
+
+    /**
+     * The half life of the load of backends tracked by FE, which is used by the load aware replica selection
+     * (session variable enable_load_aware_replica_selection). Set to 0 to disable the decay.
+     */
+    @ConfField(mutable = true)
+    public static int backend_load_decay_half_life_second = 30;
+
+    /**
+     * The max number of fetch data requests kept in flight by a query's result receiver.
+     * If it is larger than 1, results are fetched and deserialized by a background worker
+     * while the connection thread is sending the previous batches to the client.
+     * The decoded batches are buffered in a queue of the same size, so a slow client
+     * will stop the prefetching and the BE result buffer will block the query as before.
+     * Set to 1 to fetch the results one by one in the connection thread.
+     */
+    @ConfField(mutable = true)
+    public static int result_receiver_prefetch_num = 1;
+
+    /**
+     * The max number of threads used for prefetching query results.
+     * If all threads are busy, the new query falls back to fetching results in the connection thread.
+     */
+    @ConfField
+    public static int max_result_prefetch_thread_num = 64;
+
     /**
      * The tryLock timeout configuration of catalog lock.
      * Normally it does not need to change, unless you need to test something.
@@ -1118,6 +1266,33 @@ public class Config extends ConfigBase {
      */
     @ConfField public static int schedule_slot_num_per_path = 2;
 
+    /**
+     * the max number of tablets taken from the pending queue in one batch by tablet scheduler.
+     * tablet scheduler schedules the pending tablets batch by batch in each round.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int tablet_schedule_batch_size = 50;
+
+    /**
+     * the number of threads to plan the repair tablets of a batch concurrently in tablet scheduler
+     */
+    @ConfField(masterOnly = true)
+    public static int tablet_schedule_threads_num = 4;
+
+    /**
+     * If set to true, tablet checker will only check the tablets whose replica state may have changed,
+     * such as tablets reported by backends, tablets on down or decommissioned backends and tablets
+     * finished clone. A full check is still done every tablet_checker_full_check_interval_second.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_incremental_tablet_checker = false;
+
+    /**
+     * The interval of the full check of all tablets when enable_incremental_tablet_checker is true.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long tablet_checker_full_check_interval_second = 600;
+
     /**
      * Deprecated after 0.10
      */
@@ -1179,6 +1354,13 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static int report_queue_size = 100;
 
+    /**
+     * The number of threads to handle the reports of backends.
+     * Reports of different backends are handled concurrently, and reports of the same backend are handled in order.
+     */
+    @ConfField(masterOnly = true)
+    public static int report_handler_threads_num = 4;
+
     /**
      * If set to true, metric collector will be run as a daemon timer to collect metrics at fix interval
      */
@@ -1205,6 +1387,16 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static int max_routine_load_task_num_per_be = 5;
 
+    /**
+     * If set to true, routine load scheduling will take the lag of kafka partitions into account:
+     * 1. A lagging job may borrow idle BE slots to run more tasks than its desired concurrent number
+     *    and max_routine_load_task_concurrent_num, up to its partition number.
+     * 2. The most lagged partitions are spread over different tasks.
+     * 3. Tasks with larger lag are scheduled first when there are not enough BE slots.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_lag_aware_routine_load_scheduling = false;
+
     /**
      * The max number of files store in SmallFileMgr
      */
@@ -1376,6 +1568,20 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = false)
     public static int cache_result_max_row_count = 3000;
 
+    /**
+     * If set to true, results of sql cache mode are also kept in an in-memory cache on FE,
+     * so that repeated queries can be answered without a rpc to the cache backend.
+     */
+    @ConfField(mutable = true, masterOnly = false)
+    public static boolean cache_enable_fe_sql_result = false;
+
+    /**
+     * The max bytes of the FE sql result cache, least recently used results are evicted when exceeded.
+     * A single result larger than a quarter of this value will not be cached on FE.
+     */
+    @ConfField(mutable = false, masterOnly = false)
+    public static long cache_fe_sql_result_max_bytes = 134217728L; // 128M
+
     /**
      * Used to limit element num of InPredicate in delete statement.
      */
@@ -1670,6 +1876,40 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = false)
     public static long file_scan_node_split_num = 128;
 
+    /**
+     * Max number of pooled hive metastore clients of each hms catalog.
+     */
+    @ConfField(mutable = false, masterOnly = false)
+    public static int hive_metastore_client_pool_size = 8;
+
+    /**
+     * Cached table, schema and partition meta of hms catalogs will be refreshed asynchronously
+     * after this interval, and expired after hive_meta_cache_expire_second.
+     */
+    @ConfField(mutable = false, masterOnly = false)
+    public static long hive_meta_cache_refresh_interval_second = 600;
+
+    @ConfField(mutable = false, masterOnly = false)
+    public static long hive_meta_cache_expire_second = 86400;
+
+    /**
+     * Max number of cached tables and partition lists of each hms catalog.
+     */
+    @ConfField(mutable = false, masterOnly = false)
+    public static long hive_meta_cache_max_num = 10000;
+
+    /**
+     * Max number of cached file listings (one per partition location) of each hms catalog.
+     */
+    @ConfField(mutable = false, masterOnly = false)
+    public static long hive_file_cache_max_num = 100000;
+
+    /**
+     * Number of threads of each hms catalog to refresh cached meta asynchronously.
+     */
+    @ConfField(mutable = false, masterOnly = false)
+    public static int hive_meta_cache_refresh_threads = 4;
+
     /*
      * If set to TRUE, the precision of decimal will be broaden to [1, 38].
      * Decimalv3 of storage layer needs to be enabled first.
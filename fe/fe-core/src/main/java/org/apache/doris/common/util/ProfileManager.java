@@ -18,28 +18,41 @@
 package org.apache.doris.common.util;
 
 import org.apache.doris.common.AnalysisException;
+import org.apache.doris.common.Config;
 import org.apache.doris.common.profile.MultiProfileTreeBuilder;
 import org.apache.doris.common.profile.ProfileTreeBuilder;
 import org.apache.doris.common.profile.ProfileTreeNode;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /*
  * if you want to visit the attribute(such as queryID,defaultDb)
@@ -49,12 +62,15 @@ import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
  * why the element in the finished profile array is not RuntimeProfile,
  * the purpose is let coordinator can destruct earlier(the fragment profile is in Coordinator)
  *
+ * The latest Config.max_query_profile_num profiles are kept in memory as compressed binary.
+ * Older ones are appended to the segment files of ProfileSpillStore if Config.profile_spill_dir is set,
+ * or dropped otherwise. The text and the profile tree are only built when they are asked for.
  */
 public class ProfileManager {
     private static final Logger LOG = LogManager.getLogger(ProfileManager.class);
     private static volatile ProfileManager INSTANCE = null;
-    private static final int ARRAY_SIZE = 100;
-    // private static final int TOTAL_LEN = 1000 * ARRAY_SIZE ;
+    // the number of recently visited profile trees kept, a user usually walks through the tree of one profile
+    private static final int TREE_BUILDER_CACHE_SIZE = 16;
     public static final String QUERY_ID = "Query ID";
     public static final String START_TIME = "Start Time";
     public static final String END_TIME = "End Time";
@@ -76,21 +92,28 @@ public class ProfileManager {
             Arrays.asList(QUERY_ID, USER, DEFAULT_DB, SQL_STATEMENT, QUERY_TYPE,
                     START_TIME, END_TIME, TOTAL_TIME, QUERY_STATE));
 
-    private class ProfileElement {
+    private static class ProfileElement {
         public Map<String, String> infoStrings = Maps.newHashMap();
-        public String profileContent = "";
-        public MultiProfileTreeBuilder builder = null;
-        public String errMsg = "";
+        // the compressed profile, set to null after it is spilled
+        public volatile byte[] data = null;
+        public volatile ProfileSpillStore.Location location = null;
     }
 
-    // only protect queryIdDeque; queryIdToProfileMap is concurrent, no need to protect
+    // protect queryIdToProfileMap, inMemoryQueryIds and spilledQueryIds
     private ReentrantReadWriteLock lock;
     private ReadLock readLock;
     private WriteLock writeLock;
 
-    // record the order of profiles by queryId
-    private Deque<String> queryIdDeque;
-    private Map<String, ProfileElement> queryIdToProfileMap; // from QueryId to RuntimeProfile
+    // from QueryId to profile, in the order of profiles pushed
+    private LinkedHashMap<String, ProfileElement> queryIdToProfileMap;
+    // query ids of the profiles in memory, in the order of being evicted
+    private LinkedHashSet<String> inMemoryQueryIds;
+    // query ids of the profiles spilled, in the order of being spilled
+    private LinkedHashSet<String> spilledQueryIds;
+    // null if spill is disabled
+    private ProfileSpillStore spillStore;
+
+    private Cache<String, MultiProfileTreeBuilder> treeBuilderCache;
 
     public static ProfileManager getInstance() {
         if (INSTANCE == null) {
@@ -107,27 +130,26 @@ public class ProfileManager {
         lock = new ReentrantReadWriteLock(true);
         readLock = lock.readLock();
         writeLock = lock.writeLock();
-        queryIdDeque = new LinkedList<>();
-        queryIdToProfileMap = new ConcurrentHashMap<>();
+        queryIdToProfileMap = Maps.newLinkedHashMap();
+        inMemoryQueryIds = Sets.newLinkedHashSet();
+        spilledQueryIds = Sets.newLinkedHashSet();
+        treeBuilderCache = CacheBuilder.newBuilder().maximumSize(TREE_BUILDER_CACHE_SIZE).build();
+        if (!Strings.isNullOrEmpty(Config.profile_spill_dir)) {
+            try {
+                spillStore = new ProfileSpillStore(Config.profile_spill_dir);
+            } catch (IOException e) {
+                LOG.warn("failed to init profile spill store, older profiles will be dropped", e);
+            }
+        }
     }
 
-    public ProfileElement createElement(RuntimeProfile profile) {
+    private ProfileElement createElement(RuntimeProfile profile) throws IOException {
         ProfileElement element = new ProfileElement();
         RuntimeProfile summaryProfile = profile.getChildList().get(0).first;
         for (String header : PROFILE_HEADERS) {
             element.infoStrings.put(header, summaryProfile.getInfoString(header));
         }
-        element.profileContent = profile.toString();
-
-        MultiProfileTreeBuilder builder = new MultiProfileTreeBuilder(profile);
-        try {
-            builder.build();
-        } catch (Exception e) {
-            element.errMsg = e.getMessage();
-            LOG.debug("failed to build profile tree", e);
-            return element;
-        }
-        element.builder = builder;
+        element.data = compress(profile);
         return element;
     }
 
@@ -136,7 +158,13 @@ public class ProfileManager {
             return;
         }
 
-        ProfileElement element = createElement(profile);
+        ProfileElement element;
+        try {
+            element = createElement(profile);
+        } catch (IOException e) {
+            LOG.warn("failed to compress profile", e);
+            return;
+        }
         String queryId = element.infoStrings.get(ProfileManager.QUERY_ID);
         // check when push in, which can ensure every element in the list has QUERY_ID column,
         // so there is no need to check when remove element from list.
@@ -145,23 +173,61 @@ public class ProfileManager {
                     + "may be forget to insert 'QUERY_ID' column into infoStrings");
         }
 
-        // a profile may be updated multiple times in queryIdToProfileMap,
-        // and only needs to be inserted into the queryIdDeque for the first time.
-        queryIdToProfileMap.put(queryId, element);
+        // a profile may be updated multiple times, and keeps the position of the first time.
         writeLock.lock();
         try {
-            if (!queryIdDeque.contains(queryId)) {
-                if (queryIdDeque.size() >= ARRAY_SIZE) {
-                    queryIdToProfileMap.remove(queryIdDeque.getFirst());
-                    queryIdDeque.removeFirst();
-                }
-                queryIdDeque.addLast(queryId);
+            queryIdToProfileMap.put(queryId, element);
+            spilledQueryIds.remove(queryId);
+            inMemoryQueryIds.add(queryId);
+            treeBuilderCache.invalidate(queryId);
+
+            Iterator<String> iter = inMemoryQueryIds.iterator();
+            while (inMemoryQueryIds.size() > Math.max(Config.max_query_profile_num, 1)) {
+                String evictedQueryId = iter.next();
+                iter.remove();
+                evict(evictedQueryId);
             }
         } finally {
             writeLock.unlock();
         }
     }
 
+    // must hold the write lock
+    private void evict(String queryId) {
+        ProfileElement element = queryIdToProfileMap.get(queryId);
+        if (spillStore == null) {
+            removeElement(queryId);
+            return;
+        }
+
+        try {
+            // set location before clearing data, so that a reader always sees one of them
+            element.location = spillStore.append(element.data);
+            element.data = null;
+            spilledQueryIds.add(queryId);
+        } catch (IOException e) {
+            LOG.warn("failed to spill profile {}", queryId, e);
+            removeElement(queryId);
+        }
+
+        long minSegmentId = spillStore.getMinSegmentId();
+        Iterator<String> iter = spilledQueryIds.iterator();
+        while (iter.hasNext()) {
+            String spilledQueryId = iter.next();
+            if (spilledQueryIds.size() <= Config.max_spilled_profile_num
+                    && queryIdToProfileMap.get(spilledQueryId).location.segmentId >= minSegmentId) {
+                break;
+            }
+            iter.remove();
+            removeElement(spilledQueryId);
+        }
+    }
+
+    private void removeElement(String queryId) {
+        queryIdToProfileMap.remove(queryId);
+        treeBuilderCache.invalidate(queryId);
+    }
+
     public List<List<String>> getAllQueries() {
         return getQueryWithType(null);
     }
@@ -170,13 +236,7 @@ public class ProfileManager {
         List<List<String>> result = Lists.newArrayList();
         readLock.lock();
         try {
-            Iterator reverse = queryIdDeque.descendingIterator();
-            while (reverse.hasNext()) {
-                String  queryId = (String) reverse.next();
-                ProfileElement profileElement = queryIdToProfileMap.get(queryId);
-                if (profileElement == null) {
-                    continue;
-                }
+            for (ProfileElement profileElement : queryIdToProfileMap.values()) {
                 Map<String, String> infoStrings = profileElement.infoStrings;
                 if (type != null && !infoStrings.get(QUERY_TYPE).equalsIgnoreCase(type.name())) {
                     continue;
@@ -191,75 +251,38 @@ public class ProfileManager {
         } finally {
             readLock.unlock();
         }
-        return result;
+        // the latest first
+        return Lists.reverse(result);
     }
 
     public String getProfile(String queryID) {
-        readLock.lock();
+        ProfileElement element = getElement(queryID);
+        if (element == null) {
+            return null;
+        }
         try {
-            ProfileElement element = queryIdToProfileMap.get(queryID);
-            if (element == null) {
-                return null;
-            }
-
-            return element.profileContent;
-        } finally {
-            readLock.unlock();
+            RuntimeProfile profile = readProfile(element);
+            return profile == null ? null : profile.toString();
+        } catch (IOException e) {
+            LOG.warn("failed to read profile {}", queryID, e);
+            return null;
         }
     }
 
     public ProfileTreeNode getFragmentProfileTree(String queryID, String executionId) throws AnalysisException {
-        MultiProfileTreeBuilder builder;
-        readLock.lock();
-        try {
-            ProfileElement element = queryIdToProfileMap.get(queryID);
-            if (element == null || element.builder == null) {
-                throw new AnalysisException("failed to get fragment profile tree. err: "
-                        + (element == null ? "not found" : element.errMsg));
-            }
-            builder = element.builder;
-        } finally {
-            readLock.unlock();
-        }
-        return builder.getFragmentTreeRoot(executionId);
+        return getMultiProfileTreeBuilder(queryID).getFragmentTreeRoot(executionId);
     }
 
     public List<Triple<String, String, Long>> getFragmentInstanceList(String queryID,
             String executionId, String fragmentId)
             throws AnalysisException {
-        MultiProfileTreeBuilder builder;
-        readLock.lock();
-        try {
-            ProfileElement element = queryIdToProfileMap.get(queryID);
-            if (element == null || element.builder == null) {
-                throw new AnalysisException("failed to get instance list. err: "
-                        + (element == null ? "not found" : element.errMsg));
-            }
-            builder = element.builder;
-        } finally {
-            readLock.unlock();
-        }
-
-        return builder.getInstanceList(executionId, fragmentId);
+        return getMultiProfileTreeBuilder(queryID).getInstanceList(executionId, fragmentId);
     }
 
     public ProfileTreeNode getInstanceProfileTree(String queryID, String executionId,
             String fragmentId, String instanceId)
             throws AnalysisException {
-        MultiProfileTreeBuilder builder;
-        readLock.lock();
-        try {
-            ProfileElement element = queryIdToProfileMap.get(queryID);
-            if (element == null || element.builder == null) {
-                throw new AnalysisException("failed to get instance profile tree. err: "
-                        + (element == null ? "not found" : element.errMsg));
-            }
-            builder = element.builder;
-        } finally {
-            readLock.unlock();
-        }
-
-        return builder.getInstanceTreeRoot(executionId, fragmentId, instanceId);
+        return getMultiProfileTreeBuilder(queryID).getInstanceTreeRoot(executionId, fragmentId, instanceId);
     }
 
     // Return the tasks info of the specified load job
@@ -275,16 +298,80 @@ public class ProfileManager {
     }
 
     private MultiProfileTreeBuilder getMultiProfileTreeBuilder(String jobId) throws AnalysisException {
+        MultiProfileTreeBuilder builder = treeBuilderCache.getIfPresent(jobId);
+        if (builder != null) {
+            return builder;
+        }
+
+        ProfileElement element = getElement(jobId);
+        RuntimeProfile profile;
+        try {
+            profile = element == null ? null : readProfile(element);
+        } catch (IOException e) {
+            LOG.warn("failed to read profile {}", jobId, e);
+            throw new AnalysisException("failed to get profile tree. err: " + e.getMessage());
+        }
+        if (profile == null) {
+            throw new AnalysisException("failed to get profile tree. err: not found");
+        }
+
+        builder = new MultiProfileTreeBuilder(profile);
+        try {
+            builder.build();
+        } catch (Exception e) {
+            LOG.debug("failed to build profile tree", e);
+            throw new AnalysisException("failed to build profile tree. err: " + e.getMessage());
+        }
+
         readLock.lock();
         try {
-            ProfileElement element = queryIdToProfileMap.get(jobId);
-            if (element == null || element.builder == null) {
-                throw new AnalysisException("failed to get task ids. err: "
-                        + (element == null ? "not found" : element.errMsg));
+            // do not cache the tree of a profile which has been updated or removed in the meantime
+            if (queryIdToProfileMap.get(jobId) == element) {
+                treeBuilderCache.put(jobId, builder);
             }
-            return element.builder;
         } finally {
             readLock.unlock();
         }
+        return builder;
+    }
+
+    private ProfileElement getElement(String queryId) {
+        readLock.lock();
+        try {
+            return queryIdToProfileMap.get(queryId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // return null if the spilled profile has been removed
+    private RuntimeProfile readProfile(ProfileElement element) throws IOException {
+        byte[] data = element.data;
+        if (data == null) {
+            data = spillStore.read(element.location);
+            if (data == null) {
+                return null;
+            }
+        }
+        return decompress(data);
+    }
+
+    private static byte[] compress(RuntimeProfile profile) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new DeflaterOutputStream(bytes, deflater)))) {
+            profile.write(out);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static RuntimeProfile decompress(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(data))))) {
+            return RuntimeProfile.read(in);
+        }
     }
 }
@@ -0,0 +1,138 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.common.util;
+
+import org.apache.doris.common.Config;
+
+import com.google.common.collect.Maps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * ProfileSpillStore keeps the profiles evicted from memory in append-only segment files
+ * named "profile.<segment id>.seg" under Config.profile_spill_dir.
+ * A profile is located by the segment id, offset and length returned by append().
+ * A new segment is started once the current one exceeds SEGMENT_SIZE, and the oldest segments
+ * are deleted once the total size exceeds Config.profile_spill_max_bytes.
+ *
+ * The index lives in memory only, so the segments left by the previous process are removed when started.
+ */
+class ProfileSpillStore {
+    private static final Logger LOG = LogManager.getLogger(ProfileSpillStore.class);
+    private static final String SEGMENT_PREFIX = "profile.";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final long SEGMENT_SIZE = 64 * 1024 * 1024L;
+
+    public static class Location {
+        public final long segmentId;
+        public final long offset;
+        public final int length;
+
+        public Location(long segmentId, long offset, int length) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final File dir;
+    // segment id -> opened segment file, the last one is being appended
+    private final TreeMap<Long, RandomAccessFile> segments = Maps.newTreeMap();
+    private long nextSegmentId = 0;
+    private long totalBytes = 0;
+
+    public ProfileSpillStore(String dirPath) throws IOException {
+        dir = new File(dirPath);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("failed to create profile spill dir " + dirPath);
+        }
+        File[] oldSegments = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX)
+                && name.endsWith(SEGMENT_SUFFIX));
+        if (oldSegments != null) {
+            for (File file : oldSegments) {
+                if (!file.delete()) {
+                    LOG.warn("failed to delete old profile segment {}", file.getAbsolutePath());
+                }
+            }
+        }
+    }
+
+    public synchronized Location append(byte[] data) throws IOException {
+        Map.Entry<Long, RandomAccessFile> last = segments.lastEntry();
+        if (last == null || last.getValue().length() >= SEGMENT_SIZE) {
+            last = Maps.immutableEntry(nextSegmentId, new RandomAccessFile(segmentFile(nextSegmentId), "rw"));
+            segments.put(nextSegmentId++, last.getValue());
+        }
+        RandomAccessFile file = last.getValue();
+        long offset = file.length();
+        file.seek(offset);
+        file.write(data);
+        totalBytes += data.length;
+
+        // always keep the segment being appended
+        while (totalBytes > Config.profile_spill_max_bytes && segments.size() > 1) {
+            removeSegment(segments.firstKey());
+        }
+        return new Location(last.getKey(), offset, data.length);
+    }
+
+    // return null if the segment of this location has been removed
+    public synchronized byte[] read(Location location) throws IOException {
+        RandomAccessFile file = segments.get(location.segmentId);
+        if (file == null) {
+            return null;
+        }
+        byte[] data = new byte[location.length];
+        file.seek(location.offset);
+        file.readFully(data);
+        return data;
+    }
+
+    // the segments before this id have been removed
+    public synchronized long getMinSegmentId() {
+        return segments.isEmpty() ? nextSegmentId : segments.firstKey();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void removeSegment(long segmentId) {
+        RandomAccessFile file = segments.remove(segmentId);
+        File segmentFile = segmentFile(segmentId);
+        try {
+            totalBytes -= file.length();
+            file.close();
+        } catch (IOException e) {
+            LOG.warn("failed to close profile segment {}", segmentFile.getAbsolutePath(), e);
+        }
+        if (!segmentFile.delete()) {
+            LOG.warn("failed to delete profile segment {}", segmentFile.getAbsolutePath());
+        }
+    }
+
+    private File segmentFile(long segmentId) {
+        return new File(dir, SEGMENT_PREFIX + segmentId + SEGMENT_SUFFIX);
+    }
+}
@@ -31,6 +31,12 @@ public class QueryPlannerProfile {
     public static final String KEY_PLAN = "Plan Time";
     public static final String KEY_SCHEDULE = "Schedule Time";
     public static final String KEY_FETCH = "Wait and Fetch Result Time";
+    // sub stages of schedule
+    public static final String KEY_SCAN_RANGE_ASSIGNMENT = "Compute Scan Range Assignment Time";
+    public static final String KEY_FRAGMENT_EXEC_PARAMS = "Compute Fragment Exec Params Time";
+    public static final String KEY_FRAGMENT_PARAMS_BUILD = "Build Fragment Params Time";
+    public static final String KEY_FRAGMENT_PARAMS_SERIALIZE = "Serialize Fragment Params Time";
+    public static final String KEY_FRAGMENT_SEND = "Send Fragments Time";
 
     // timestamp of query begin
     private long queryBeginTime = -1;
@@ -43,6 +49,13 @@ public class QueryPlannerProfile {
     // Query result fetch end time
     private long queryFetchResultFinishTime = -1;
 
+    // Time cost of sub stages of schedule
+    private long scanRangeAssignmentTime = -1;
+    private long fragmentExecParamsTime = -1;
+    private long fragmentParamsBuildTime = -1;
+    private long fragmentParamsSerializeTime = -1;
+    private long fragmentSendTime = -1;
+
     public void setQueryBeginTime() {
         this.queryBeginTime = TimeUtils.getStartTime();
     }
@@ -63,6 +76,26 @@ public class QueryPlannerProfile {
         this.queryFetchResultFinishTime = TimeUtils.getStartTime();
     }
 
+    public void setScanRangeAssignmentTime(long scanRangeAssignmentTime) {
+        this.scanRangeAssignmentTime = scanRangeAssignmentTime;
+    }
+
+    public void setFragmentExecParamsTime(long fragmentExecParamsTime) {
+        this.fragmentExecParamsTime = fragmentExecParamsTime;
+    }
+
+    public void setFragmentParamsBuildTime(long fragmentParamsBuildTime) {
+        this.fragmentParamsBuildTime = fragmentParamsBuildTime;
+    }
+
+    public void setFragmentParamsSerializeTime(long fragmentParamsSerializeTime) {
+        this.fragmentParamsSerializeTime = fragmentParamsSerializeTime;
+    }
+
+    public void setFragmentSendTime(long fragmentSendTime) {
+        this.fragmentSendTime = fragmentSendTime;
+    }
+
     public long getQueryBeginTime() {
         return queryBeginTime;
     }
@@ -95,10 +128,22 @@ public class QueryPlannerProfile {
         return RuntimeProfile.printCounter(queryFetchResultFinishTime - queryScheduleFinishTime, TUnit.TIME_NS);
     }
 
+    private static String getPrettyTime(long time) {
+        if (time == -1) {
+            return "N/A";
+        }
+        return RuntimeProfile.printCounter(time, TUnit.TIME_NS);
+    }
+
     public void initRuntimeProfile(RuntimeProfile plannerProfile) {
         plannerProfile.addInfoString(KEY_ANALYSIS, getPrettyQueryAnalysisFinishTime());
         plannerProfile.addInfoString(KEY_PLAN, getPrettyQueryPlanFinishTime());
         plannerProfile.addInfoString(KEY_SCHEDULE, getPrettyQueryScheduleFinishTime());
+        plannerProfile.addInfoString(KEY_SCAN_RANGE_ASSIGNMENT, getPrettyTime(scanRangeAssignmentTime));
+        plannerProfile.addInfoString(KEY_FRAGMENT_EXEC_PARAMS, getPrettyTime(fragmentExecParamsTime));
+        plannerProfile.addInfoString(KEY_FRAGMENT_PARAMS_BUILD, getPrettyTime(fragmentParamsBuildTime));
+        plannerProfile.addInfoString(KEY_FRAGMENT_PARAMS_SERIALIZE, getPrettyTime(fragmentParamsSerializeTime));
+        plannerProfile.addInfoString(KEY_FRAGMENT_SEND, getPrettyTime(fragmentSendTime));
         plannerProfile.addInfoString(KEY_FETCH, getPrettyQueryFetchResultFinishTime());
     }
 }
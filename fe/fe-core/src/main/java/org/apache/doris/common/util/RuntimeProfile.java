@@ -19,6 +19,7 @@ package org.apache.doris.common.util;
 
 import org.apache.doris.common.Pair;
 import org.apache.doris.common.Reference;
+import org.apache.doris.common.io.Text;
 import org.apache.doris.thrift.TCounter;
 import org.apache.doris.thrift.TRuntimeProfileNode;
 import org.apache.doris.thrift.TRuntimeProfileTree;
@@ -30,6 +31,9 @@ import com.google.common.collect.Maps;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Formatter;
 import java.util.LinkedList;
 import java.util.List;
@@ -472,4 +476,112 @@ public class RuntimeProfile {
     public Map<String, String> getInfoStrings() {
         return infoStrings;
     }
+
+    // Serialize the whole profile tree, including the computed local time percent,
+    // so that a profile read back prints and builds the same tree as this one.
+    public void write(DataOutput out) throws IOException {
+        writeNullableString(out, name);
+        out.writeDouble(localTimePercent);
+
+        infoStringsLock.readLock().lock();
+        try {
+            out.writeInt(infoStringsDisplayOrder.size());
+            for (String key : infoStringsDisplayOrder) {
+                Text.writeString(out, key);
+                writeNullableString(out, infoStrings.get(key));
+            }
+        } finally {
+            infoStringsLock.readLock().unlock();
+        }
+
+        counterLock.readLock().lock();
+        try {
+            out.writeInt(counterMap.size());
+            for (Map.Entry<String, Counter> entry : counterMap.entrySet()) {
+                Text.writeString(out, entry.getKey());
+                out.writeInt(entry.getValue().getType().getValue());
+                out.writeLong(entry.getValue().getValue());
+            }
+            out.writeInt(childCounterMap.size());
+            for (Map.Entry<String, TreeSet<String>> entry : childCounterMap.entrySet()) {
+                Text.writeString(out, entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (String childCounter : entry.getValue()) {
+                    Text.writeString(out, childCounter);
+                }
+            }
+        } finally {
+            counterLock.readLock().unlock();
+        }
+
+        childLock.readLock().lock();
+        try {
+            out.writeInt(childList.size());
+            for (Pair<RuntimeProfile, Boolean> pair : childList) {
+                out.writeBoolean(pair.second);
+                pair.first.write(out);
+            }
+        } finally {
+            childLock.readLock().unlock();
+        }
+    }
+
+    public static RuntimeProfile read(DataInput in) throws IOException {
+        RuntimeProfile profile = new RuntimeProfile(readNullableString(in));
+        profile.localTimePercent = in.readDouble();
+
+        int infoStringNum = in.readInt();
+        for (int i = 0; i < infoStringNum; i++) {
+            String key = Text.readString(in);
+            profile.infoStrings.put(key, readNullableString(in));
+            profile.infoStringsDisplayOrder.add(key);
+        }
+
+        int counterNum = in.readInt();
+        for (int i = 0; i < counterNum; i++) {
+            String counterName = Text.readString(in);
+            TUnit type = TUnit.findByValue(in.readInt());
+            long value = in.readLong();
+            Counter counter = profile.counterMap.get(counterName);
+            if (counter == null) {
+                profile.counterMap.put(counterName, new Counter(type, value));
+            } else {
+                // TotalTime is created by the constructor
+                counter.setType(type);
+                counter.setValue(value);
+            }
+        }
+        int parentCounterNum = in.readInt();
+        for (int i = 0; i < parentCounterNum; i++) {
+            String parentCounterName = Text.readString(in);
+            TreeSet<String> childCounters = new TreeSet<>();
+            int childCounterNum = in.readInt();
+            for (int j = 0; j < childCounterNum; j++) {
+                childCounters.add(Text.readString(in));
+            }
+            profile.childCounterMap.put(parentCounterName, childCounters);
+        }
+
+        int childNum = in.readInt();
+        for (int i = 0; i < childNum; i++) {
+            boolean indent = in.readBoolean();
+            RuntimeProfile child = read(in);
+            profile.childMap.put(child.name, child);
+            profile.childList.add(Pair.create(child, indent));
+        }
+        return profile;
+    }
+
+    private static void writeNullableString(DataOutput out, String str) throws IOException {
+        if (str == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            Text.writeString(out, str);
+        }
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? Text.readString(in) : null;
+    }
 }
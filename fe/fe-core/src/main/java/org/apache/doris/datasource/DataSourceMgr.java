@@ -324,7 +324,10 @@ public class DataSourceMgr implements Writable, GsonPostProcessable {
     public void replayDropCatalog(CatalogLog log) {
         writeLock();
         try {
-            removeCatalog(log.getCatalogId());
+            DataSourceIf ds = removeCatalog(log.getCatalogId());
+            if (ds instanceof HMSExternalDataSource) {
+                ((HMSExternalDataSource) ds).close();
+            }
         } finally {
             writeUnlock();
         }
@@ -21,15 +21,13 @@ import org.apache.doris.catalog.Catalog;
 import org.apache.doris.catalog.external.ExternalDatabase;
 import org.apache.doris.catalog.external.HMSExternalDatabase;
 import org.apache.doris.cluster.ClusterNamespace;
+import org.apache.doris.common.Config;
+import org.apache.doris.common.DdlException;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import org.apache.hadoop.hive.conf.HiveConf;
-import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
-import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.thrift.TException;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
@@ -45,7 +43,8 @@ public class HMSExternalDataSource extends ExternalDataSource {
     private Map<String, Long> dbNameToId;
     private Map<Long, HMSExternalDatabase> idToDb;
     private boolean initialized = false;
-    protected HiveMetaStoreClient client;
+    private HiveMetaStoreClientPool clientPool;
+    private HiveMetaStoreCache metaCache;
 
     /**
      * Default constructor for HMSExternalDataSource.
@@ -66,17 +65,10 @@ public class HMSExternalDataSource extends ExternalDataSource {
         // Must set here. Because after replay from image, these 2 map will become null again.
         dbNameToId = Maps.newConcurrentMap();
         idToDb = Maps.newConcurrentMap();
-        HiveConf hiveConf = new HiveConf();
-        hiveConf.setVar(HiveConf.ConfVars.METASTOREURIS, getHiveMetastoreUris());
-        try {
-            client = new HiveMetaStoreClient(hiveConf);
-        } catch (MetaException e) {
-            LOG.warn("Failed to create HiveMetaStoreClient: {}", e.getMessage());
-        }
         List<String> allDatabases;
         try {
-            allDatabases = client.getAllDatabases();
-        } catch (MetaException e) {
+            allDatabases = getClientPool().execute(client -> client.getAllDatabases());
+        } catch (DdlException e) {
             LOG.warn("Fail to init db name to id map. {}", e.getMessage());
             return;
         }
@@ -102,6 +94,54 @@ public class HMSExternalDataSource extends ExternalDataSource {
         }
     }
 
+    private synchronized HiveMetaStoreClientPool getClientPool() {
+        if (clientPool == null) {
+            clientPool = new HiveMetaStoreClientPool(getHiveMetastoreUris(), Config.hive_metastore_client_pool_size);
+        }
+        return clientPool;
+    }
+
+    /**
+     * Get the cache of the meta and file listings of this catalog.
+     */
+    public synchronized HiveMetaStoreCache getMetaCache() {
+        if (metaCache == null) {
+            Map<String, String> fileSystemProperties = Maps.newHashMap(dsProperty.getDfsProperties());
+            fileSystemProperties.putAll(dsProperty.getS3Properties());
+            metaCache = new HiveMetaStoreCache(getClientPool(), fileSystemProperties);
+        }
+        return metaCache;
+    }
+
+    /**
+     * Drop all the cached meta of this catalog, and reload the databases when they are accessed next time.
+     */
+    public synchronized void refresh() {
+        if (metaCache != null) {
+            metaCache.invalidateAll();
+        }
+        initialized = false;
+    }
+
+    /**
+     * Release the clients, called when the catalog is dropped or its properties are changed.
+     */
+    public synchronized void close() {
+        if (clientPool != null) {
+            clientPool.close();
+            clientPool = null;
+        }
+        metaCache = null;
+        initialized = false;
+    }
+
+    @Override
+    public void modifyDatasourceProps(Map<String, String> props) {
+        super.modifyDatasourceProps(props);
+        // the metastore or file system may be changed
+        close();
+    }
+
     @Override
     public List<String> listDatabaseNames(SessionContext ctx) {
         makeSureInitialized();
@@ -111,8 +151,8 @@ public class HMSExternalDataSource extends ExternalDataSource {
     @Override
     public List<String> listTableNames(SessionContext ctx, String dbName) {
         try {
-            return client.getAllTables(getRealTableName(dbName));
-        } catch (MetaException e) {
+            return getClientPool().execute(client -> client.getAllTables(getRealTableName(dbName)));
+        } catch (DdlException e) {
             LOG.warn("List Table Names failed. {}", e.getMessage());
         }
         return Lists.newArrayList();
@@ -121,8 +161,8 @@ public class HMSExternalDataSource extends ExternalDataSource {
     @Override
     public boolean tableExist(SessionContext ctx, String dbName, String tblName) {
         try {
-            return client.tableExists(getRealTableName(dbName), tblName);
-        } catch (TException e) {
+            return getClientPool().execute(client -> client.tableExists(getRealTableName(dbName), tblName));
+        } catch (DdlException e) {
             LOG.warn("Check table exist failed. {}", e.getMessage());
         }
         return false;
@@ -0,0 +1,393 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.datasource;
+
+import org.apache.doris.common.Config;
+import org.apache.doris.common.DdlException;
+import org.apache.doris.common.ThreadPoolManager;
+import org.apache.doris.common.UserException;
+import org.apache.doris.external.hive.util.HiveUtil;
+import org.apache.doris.metric.LongCounterMetric;
+import org.apache.doris.metric.MetricRepo;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.ql.exec.SerializationUtilities;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.InputFormat;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the hive metastore meta and file listings of one hms catalog.
+ * Entries are refreshed asynchronously after hive_meta_cache_refresh_interval_second,
+ * so queries keep using the cached value while it is reloaded.
+ * All entries expire after hive_meta_cache_expire_second, and can be invalidated by REFRESH TABLE or
+ * REFRESH CATALOG.
+ */
+public class HiveMetaStoreCache {
+    private static final Logger LOG = LogManager.getLogger(HiveMetaStoreCache.class);
+
+    // shared by all hms catalogs
+    private static volatile Executor refreshExecutor;
+
+    private final HiveMetaStoreClientPool clientPool;
+    private final Map<String, String> fileSystemProperties;
+    // used to reload the entries and to list the files of different locations in parallel
+    private final Executor executor;
+
+    private final LoadingCache<TableKey, Table> tableCache;
+    private final LoadingCache<TableKey, List<FieldSchema>> schemaCache;
+    private final LoadingCache<PartitionKey, List<Partition>> partitionCache;
+    private final LoadingCache<FileKey, List<InputSplit>> fileCache;
+
+    /**
+     * Create a cache that loads meta with 'clientPool' and lists files with 'fileSystemProperties'.
+     */
+    public HiveMetaStoreCache(HiveMetaStoreClientPool clientPool, Map<String, String> fileSystemProperties) {
+        this.clientPool = clientPool;
+        this.fileSystemProperties = fileSystemProperties;
+        this.executor = getRefreshExecutor();
+        tableCache = newMetaCacheBuilder().maximumSize(Config.hive_meta_cache_max_num).build(
+                CacheLoader.asyncReloading(new CacheLoader<TableKey, Table>() {
+                    @Override
+                    public Table load(TableKey key) throws Exception {
+                        return clientPool.execute(client -> client.getTable(key.dbName, key.tblName));
+                    }
+                }, executor));
+        schemaCache = newMetaCacheBuilder().maximumSize(Config.hive_meta_cache_max_num).build(
+                CacheLoader.asyncReloading(new CacheLoader<TableKey, List<FieldSchema>>() {
+                    @Override
+                    public List<FieldSchema> load(TableKey key) throws Exception {
+                        return ImmutableList.copyOf(
+                                clientPool.execute(client -> client.getSchema(key.dbName, key.tblName)));
+                    }
+                }, executor));
+        partitionCache = newMetaCacheBuilder().maximumSize(Config.hive_meta_cache_max_num).build(
+                CacheLoader.asyncReloading(new CacheLoader<PartitionKey, List<Partition>>() {
+                    @Override
+                    public List<Partition> load(PartitionKey key) throws Exception {
+                        return loadPartitions(key);
+                    }
+                }, executor));
+        fileCache = newMetaCacheBuilder().maximumSize(Config.hive_file_cache_max_num).build(
+                CacheLoader.asyncReloading(new CacheLoader<FileKey, List<InputSplit>>() {
+                    @Override
+                    public List<InputSplit> load(FileKey key) throws Exception {
+                        return loadSplits(key);
+                    }
+                }, executor));
+    }
+
+    private static CacheBuilder<Object, Object> newMetaCacheBuilder() {
+        return CacheBuilder.newBuilder()
+                .refreshAfterWrite(Config.hive_meta_cache_refresh_interval_second, TimeUnit.SECONDS)
+                .expireAfterWrite(Config.hive_meta_cache_expire_second, TimeUnit.SECONDS);
+    }
+
+    private static Executor getRefreshExecutor() {
+        if (refreshExecutor == null) {
+            synchronized (HiveMetaStoreCache.class) {
+                if (refreshExecutor == null) {
+                    // the queue is not bounded, a rejected reload would never finish
+                    refreshExecutor = ThreadPoolManager.newDaemonThreadPool(Config.hive_meta_cache_refresh_threads,
+                            Config.hive_meta_cache_refresh_threads, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), new ThreadPoolExecutor.AbortPolicy(),
+                            "hive-meta-cache-refresh", true);
+                }
+            }
+        }
+        return refreshExecutor;
+    }
+
+    private List<Partition> loadPartitions(PartitionKey key) throws DdlException {
+        if (key.filter == null) {
+            return ImmutableList.copyOf(clientPool.execute(
+                    client -> client.listPartitions(key.dbName, key.tblName, (short) -1)));
+        }
+        List<Partition> partitions = new ArrayList<>();
+        byte[] filter = SerializationUtilities.serializeExpressionToKryo(key.filter);
+        clientPool.execute(client -> client.listPartitionsByExpr(key.dbName, key.tblName, filter, null,
+                (short) -1, partitions));
+        return ImmutableList.copyOf(partitions);
+    }
+
+    // Throw instead of returning an empty list on failure, so that the failure is not cached
+    // and the query does not read the location as empty.
+    private List<InputSplit> loadSplits(FileKey key) throws DdlException {
+        Configuration conf = new Configuration();
+        for (Map.Entry<String, String> entry : fileSystemProperties.entrySet()) {
+            conf.set(entry.getKey(), entry.getValue());
+        }
+        JobConf jobConf = new JobConf(conf);
+        FileInputFormat.setInputPaths(jobConf, key.location);
+        try {
+            InputFormat<?, ?> inputFormat = HiveUtil.getInputFormat(jobConf, key.inputFormat, false);
+            return ImmutableList.copyOf(inputFormat.getSplits(jobConf, 0));
+        } catch (IOException | UserException e) {
+            LOG.warn("failed to get splits of {}", key.location, e);
+            throw new DdlException("Failed to list files of " + key.location + ": " + e.getMessage());
+        }
+    }
+
+    public Table getTable(String dbName, String tblName) throws DdlException {
+        return get(tableCache, new TableKey(dbName, tblName),
+                MetricRepo.COUNTER_HIVE_META_CACHE_TABLE_HIT, MetricRepo.COUNTER_HIVE_META_CACHE_TABLE_MISS);
+    }
+
+    public List<FieldSchema> getSchema(String dbName, String tblName) throws DdlException {
+        return get(schemaCache, new TableKey(dbName, tblName),
+                MetricRepo.COUNTER_HIVE_META_CACHE_SCHEMA_HIT, MetricRepo.COUNTER_HIVE_META_CACHE_SCHEMA_MISS);
+    }
+
+    /**
+     * Get the partitions of a table that match 'filter', the result of each filter is cached separately.
+     */
+    public List<Partition> getPartitions(String dbName, String tblName, ExprNodeGenericFuncDesc filter)
+            throws DdlException {
+        return get(partitionCache, new PartitionKey(dbName, tblName, filter),
+                MetricRepo.COUNTER_HIVE_META_CACHE_PARTITION_HIT,
+                MetricRepo.COUNTER_HIVE_META_CACHE_PARTITION_MISS);
+    }
+
+    /**
+     * Get the splits of all the files in 'locations'. Locations that are not cached are listed in parallel.
+     */
+    public List<InputSplit> getSplits(String inputFormat, List<String> locations) throws DdlException {
+        List<FileKey> keys = locations.stream().map(l -> new FileKey(l, inputFormat)).collect(Collectors.toList());
+        Map<FileKey, List<InputSplit>> cached = fileCache.getAllPresent(keys);
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_HIVE_META_CACHE_FILE_HIT.increase((long) cached.size());
+            MetricRepo.COUNTER_HIVE_META_CACHE_FILE_MISS.increase((long) (keys.size() - cached.size()));
+        }
+        // list the locations that are not cached on the executor of the cache, not the common fork join pool,
+        // because listing files is blocking.
+        List<CompletableFuture<List<InputSplit>>> futures = Lists.newArrayListWithCapacity(keys.size());
+        for (FileKey key : keys) {
+            List<InputSplit> splits = cached.get(key);
+            if (splits != null) {
+                futures.add(CompletableFuture.completedFuture(splits));
+            } else {
+                futures.add(CompletableFuture.supplyAsync(() -> fileCache.getUnchecked(key), executor));
+            }
+        }
+        List<InputSplit> result = Lists.newArrayList();
+        for (CompletableFuture<List<InputSplit>> future : futures) {
+            try {
+                result.addAll(future.join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedExecutionException && cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                if (cause instanceof DdlException) {
+                    throw (DdlException) cause;
+                }
+                throw new DdlException("Failed to list files: " + cause.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private <K, V> V get(LoadingCache<K, V> cache, K key, LongCounterMetric hit, LongCounterMetric miss)
+            throws DdlException {
+        V value = cache.getIfPresent(key);
+        if (value != null) {
+            if (MetricRepo.isInit) {
+                hit.increase(1L);
+            }
+            return value;
+        }
+        if (MetricRepo.isInit) {
+            miss.increase(1L);
+        }
+        try {
+            return cache.get(key);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof DdlException) {
+                throw (DdlException) e.getCause();
+            }
+            throw new DdlException("Failed to get hive meta of " + key + ": " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Drop the cached meta and file listings of a table.
+     */
+    public void invalidateTable(String dbName, String tblName) {
+        TableKey tableKey = new TableKey(dbName, tblName);
+        Table table = tableCache.getIfPresent(tableKey);
+        tableCache.invalidate(tableKey);
+        schemaCache.invalidate(tableKey);
+        List<PartitionKey> partitionKeys = Lists.newArrayList();
+        Set<String> locations = Sets.newHashSet();
+        if (table != null && table.getSd() != null && table.getSd().getLocation() != null) {
+            locations.add(table.getSd().getLocation());
+        }
+        for (Map.Entry<PartitionKey, List<Partition>> entry : partitionCache.asMap().entrySet()) {
+            if (entry.getKey().dbName.equals(dbName) && entry.getKey().tblName.equals(tblName)) {
+                partitionKeys.add(entry.getKey());
+                for (Partition partition : entry.getValue()) {
+                    locations.add(partition.getSd().getLocation());
+                }
+            }
+        }
+        partitionCache.invalidateAll(partitionKeys);
+        fileCache.asMap().keySet().removeIf(k -> locations.contains(k.location));
+    }
+
+    public void invalidateAll() {
+        tableCache.invalidateAll();
+        schemaCache.invalidateAll();
+        partitionCache.invalidateAll();
+        fileCache.invalidateAll();
+    }
+
+    public long getFileCacheSize() {
+        return fileCache.size();
+    }
+
+    private static class TableKey {
+        private final String dbName;
+        private final String tblName;
+
+        TableKey(String dbName, String tblName) {
+            this.dbName = dbName;
+            this.tblName = tblName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TableKey)) {
+                return false;
+            }
+            TableKey other = (TableKey) o;
+            return dbName.equals(other.dbName) && tblName.equals(other.tblName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(dbName, tblName);
+        }
+
+        @Override
+        public String toString() {
+            return dbName + "." + tblName;
+        }
+    }
+
+    private static class PartitionKey {
+        private final String dbName;
+        private final String tblName;
+        // the string of filter identifies the key, the filter itself is kept to reload the partitions
+        private final String filterString;
+        private final ExprNodeGenericFuncDesc filter;
+
+        PartitionKey(String dbName, String tblName, ExprNodeGenericFuncDesc filter) {
+            this.dbName = dbName;
+            this.tblName = tblName;
+            this.filterString = filter == null ? "" : filter.getExprString();
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PartitionKey)) {
+                return false;
+            }
+            PartitionKey other = (PartitionKey) o;
+            return dbName.equals(other.dbName) && tblName.equals(other.tblName)
+                    && filterString.equals(other.filterString);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(dbName, tblName, filterString);
+        }
+
+        @Override
+        public String toString() {
+            return dbName + "." + tblName + " partitions of " + filterString;
+        }
+    }
+
+    private static class FileKey {
+        private final String location;
+        private final String inputFormat;
+
+        FileKey(String location, String inputFormat) {
+            this.location = location;
+            this.inputFormat = inputFormat;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileKey)) {
+                return false;
+            }
+            FileKey other = (FileKey) o;
+            return location.equals(other.location) && inputFormat.equals(other.inputFormat);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(location, inputFormat);
+        }
+
+        @Override
+        public String toString() {
+            return location;
+        }
+    }
+}
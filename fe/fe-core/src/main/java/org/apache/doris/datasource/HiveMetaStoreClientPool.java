@@ -0,0 +1,124 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.datasource;
+
+import org.apache.doris.common.DdlException;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.thrift.TException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A pool of hive metastore clients of one metastore, so that a connection is not created for every request.
+ * HiveMetaStoreClient is not thread safe, a client is only used by one thread at a time.
+ */
+public class HiveMetaStoreClientPool {
+    private static final Logger LOG = LogManager.getLogger(HiveMetaStoreClientPool.class);
+
+    /**
+     * An action with a borrowed client.
+     */
+    public interface ClientAction<T> {
+        T run(HiveMetaStoreClient client) throws TException;
+    }
+
+    private final String metastoreUris;
+    private final int maxIdle;
+    private final Deque<HiveMetaStoreClient> idleClients = new ArrayDeque<>();
+    private boolean closed = false;
+
+    public HiveMetaStoreClientPool(String metastoreUris, int maxIdle) {
+        this.metastoreUris = metastoreUris;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Run 'action' with a pooled client. The client is dropped instead of returned to the pool
+     * if the action fails, since the connection may be broken.
+     */
+    public <T> T execute(ClientAction<T> action) throws DdlException {
+        HiveMetaStoreClient client = borrow();
+        boolean ok = false;
+        try {
+            T result = action.run(client);
+            ok = true;
+            return result;
+        } catch (TException e) {
+            LOG.warn("Hive metastore thrift exception: {}", e.getMessage());
+            throw new DdlException("Connect hive metastore failed. Error: " + e.getMessage());
+        } finally {
+            if (ok) {
+                giveBack(client);
+            } else {
+                client.close();
+            }
+        }
+    }
+
+    private HiveMetaStoreClient borrow() throws DdlException {
+        synchronized (idleClients) {
+            HiveMetaStoreClient client = idleClients.pollFirst();
+            if (client != null) {
+                return client;
+            }
+        }
+        HiveConf hiveConf = new HiveConf();
+        hiveConf.setVar(HiveConf.ConfVars.METASTOREURIS, metastoreUris);
+        try {
+            return new HiveMetaStoreClient(hiveConf);
+        } catch (MetaException e) {
+            LOG.warn("Create HiveMetaStoreClient failed: {}", e.getMessage());
+            throw new DdlException("Create HiveMetaStoreClient failed: " + e.getMessage());
+        }
+    }
+
+    private void giveBack(HiveMetaStoreClient client) {
+        synchronized (idleClients) {
+            if (!closed && idleClients.size() < maxIdle) {
+                idleClients.addFirst(client);
+                return;
+            }
+        }
+        client.close();
+    }
+
+    public int getNumIdle() {
+        synchronized (idleClients) {
+            return idleClients.size();
+        }
+    }
+
+    /**
+     * Close all idle clients, clients in use are closed when they are given back.
+     */
+    public void close() {
+        synchronized (idleClients) {
+            closed = true;
+            for (HiveMetaStoreClient client : idleClients) {
+                client.close();
+            }
+            idleClients.clear();
+        }
+    }
+}
@@ -49,6 +49,14 @@ public interface Journal {
     // Write a journal and sync to disk
     public void write(short op, Writable writable) throws IOException;
 
+    // Write a batch of journals and sync to disk, journals are assigned consecutive ids in the list order.
+    // Implementations should persist the whole batch in one transaction.
+    public default void batchWrite(List<JournalEntity> entities) throws IOException {
+        for (JournalEntity entity : entities) {
+            write(entity.getOpCode(), entity.getData());
+        }
+    }
+
     // Delete journals whose max id is less than deleteToJournalId
     public void deleteJournals(long deleteJournalToId);
 
@@ -34,6 +34,7 @@ import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.LockMode;
 import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
 import com.sleepycat.je.rep.InsufficientLogException;
 import com.sleepycat.je.rep.NetworkRestore;
 import com.sleepycat.je.rep.NetworkRestoreConfig;
@@ -45,6 +46,7 @@ import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -179,6 +181,100 @@ public class BDBJEJournal implements Journal { // CHECKSTYLE IGNORE THIS LINE: B
         }
     }
 
+    /*
+     * Write all journals of the batch in one bdb transaction, so that they only cost one commit, which is the
+     * fsync or replica ack of the master sync policy. Journal ids are consecutive in the order of the batch.
+     */
+    @Override
+    public synchronized void batchWrite(List<JournalEntity> entities) throws IOException {
+        if (entities.size() == 1) {
+            write(entities.get(0).getOpCode(), entities.get(0).getData());
+            return;
+        }
+
+        long firstId = nextJournalId.getAndAdd(entities.size());
+        TupleBinding<Long> idBinding = TupleBinding.getPrimitiveBinding(Long.class);
+        List<DatabaseEntry> keys = new ArrayList<>(entities.size());
+        List<DatabaseEntry> datas = new ArrayList<>(entities.size());
+        boolean allTimestamp = true;
+        long totalSize = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            JournalEntity entity = entities.get(i);
+            DatabaseEntry theKey = new DatabaseEntry();
+            idBinding.objectToEntry(firstId + i, theKey);
+            keys.add(theKey);
+
+            DataOutputBuffer buffer = new DataOutputBuffer(OUTPUT_BUFFER_INIT_SIZE);
+            entity.write(buffer);
+            DatabaseEntry theData = new DatabaseEntry(buffer.getData());
+            datas.add(theData);
+            totalSize += theData.getSize();
+            allTimestamp &= entity.getOpCode() == OperationType.OP_TIMESTAMP;
+        }
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_EDIT_LOG_SIZE_BYTES.increase(totalSize);
+        }
+        LOG.debug("batch write {} journals from {}, total size = {}", entities.size(), firstId, totalSize);
+
+        boolean writeSucceed = false;
+        for (int i = 0; i < RETRY_TIME; i++) {
+            Transaction txn = null;
+            try {
+                txn = bdbEnvironment.getReplicatedEnvironment().beginTransaction(null, null);
+                boolean putSucceed = true;
+                for (int j = 0; j < keys.size(); j++) {
+                    if (currentJournalDB.put(txn, keys.get(j), datas.get(j)) != OperationStatus.SUCCESS) {
+                        putSucceed = false;
+                        break;
+                    }
+                }
+                if (putSucceed) {
+                    txn.commit();
+                    txn = null;
+                    writeSucceed = true;
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("master write journal {} to {} finished. db name {}, current time {}",
+                                firstId, firstId + entities.size() - 1, currentJournalDB.getDatabaseName(),
+                                System.currentTimeMillis());
+                    }
+                    break;
+                }
+            } catch (DatabaseException e) {
+                LOG.error("catch an exception when writing to database. sleep and retry. journal id {} to {}",
+                        firstId, firstId + entities.size() - 1, e);
+                try {
+                    Thread.sleep(5 * 1000);
+                } catch (InterruptedException e1) {
+                    LOG.warn("interrupted while waiting to retry writing journal id {} to {}",
+                            firstId, firstId + entities.size() - 1, e1);
+                    Thread.currentThread().interrupt();
+                }
+            } finally {
+                if (txn != null) {
+                    try {
+                        txn.abort();
+                    } catch (DatabaseException e) {
+                        LOG.warn("failed to abort journal transaction of journal id {}", firstId, e);
+                    }
+                }
+            }
+        }
+
+        if (!writeSucceed) {
+            if (allTimestamp) {
+                // same as write(), do not exit if only OP_TIMESTAMP is failed to write.
+                nextJournalId.set(firstId);
+                LOG.warn("master can not achieve quorum. write timestamp fail. but will not exit.");
+                return;
+            }
+            String msg = "write bdb failed. will exit. journalId: " + firstId + " to "
+                    + (firstId + entities.size() - 1) + ", bdb database Name: " + currentJournalDB.getDatabaseName();
+            LOG.error(msg);
+            Util.stdoutWithTime(msg);
+            System.exit(-1);
+        }
+    }
+
     @Override
     public JournalEntity read(long journalId) {
         List<Long> dbNames = getDatabaseNames();
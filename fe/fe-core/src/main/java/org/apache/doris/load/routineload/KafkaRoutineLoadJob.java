@@ -96,6 +96,22 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
     // Will be updated periodically by calling updateKafkaPartitions();
     private List<Integer> newCurrentKafkaPartition = Lists.newArrayList();
 
+    // The interval of refreshing the lag statistics of this job.
+    private static final long LAG_STAT_UPDATE_INTERVAL_MS = 10 * 1000L;
+    // The min interval between two reschedules caused by the change of lag-aware task concurrency,
+    // to avoid aborting running tasks too frequently.
+    private static final long LAG_AWARE_RESCHEDULE_MIN_INTERVAL_MS = 60 * 1000L;
+
+    // The following variables are only used for lag statistics and lag-aware scheduling, no need to persist.
+    private long lastLagStatUpdateTimeMs = -1;
+    // sum of the offsets to be consumed of all partitions when lag statistics was last updated.
+    private long lastConsumedOffsetSum = -1;
+    // number of kafka messages consumed per second between the last two lag statistics updates.
+    private volatile long consumeRate = 0;
+    // the task concurrent num calculated by lag-aware scheduling in preCheckNeedSchedule(), -1 means not set.
+    private volatile int lagAwareTaskConcurrentNum = -1;
+    private long lastLagAwareRescheduleTimeMs = -1;
+
     public KafkaRoutineLoadJob() {
         // for serialization, id is dummy
         super(-1, LoadDataSourceType.KAFKA);
@@ -200,10 +216,12 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         try {
             if (state == JobState.NEED_SCHEDULE) {
                 // divide kafkaPartitions into tasks
-                for (int i = 0; i < currentConcurrentTaskNum; i++) {
+                List<List<Integer>> taskPartitions = Config.enable_lag_aware_routine_load_scheduling
+                        ? dividePartitionsByLag(currentConcurrentTaskNum)
+                        : dividePartitionsRoundRobin(currentConcurrentTaskNum);
+                for (List<Integer> partitions : taskPartitions) {
                     Map<Integer, Long> taskKafkaProgress = Maps.newHashMap();
-                    for (int j = i; j < currentKafkaPartitions.size(); j = j + currentConcurrentTaskNum) {
-                        int kafkaPartition = currentKafkaPartitions.get(j);
+                    for (int kafkaPartition : partitions) {
                         taskKafkaProgress.put(kafkaPartition,
                                 ((KafkaProgress) progress).getOffsetByPartition(kafkaPartition));
                     }
@@ -226,6 +244,47 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         }
     }
 
+    private List<List<Integer>> dividePartitionsRoundRobin(int taskNum) {
+        List<List<Integer>> result = Lists.newArrayList();
+        for (int i = 0; i < taskNum; i++) {
+            List<Integer> partitions = Lists.newArrayList();
+            for (int j = i; j < currentKafkaPartitions.size(); j = j + taskNum) {
+                partitions.add(currentKafkaPartitions.get(j));
+            }
+            result.add(partitions);
+        }
+        return result;
+    }
+
+    // Assign partitions in descending order of lag, each to the task with the least total lag so far
+    // (and then the least partitions), so that the most lagged partitions are spread over different tasks.
+    // Every task gets at least one partition because taskNum is never larger than the partition num.
+    private List<List<Integer>> dividePartitionsByLag(int taskNum) {
+        Map<Integer, Long> partitionToLag = getPartitionLag(
+                ((KafkaProgress) progress).getPartitionIdToOffset(currentKafkaPartitions));
+        List<Integer> partitions = Lists.newArrayList(currentKafkaPartitions);
+        partitions.sort((p1, p2) -> Long.compare(partitionToLag.getOrDefault(p2, 0L),
+                partitionToLag.getOrDefault(p1, 0L)));
+
+        List<List<Integer>> result = Lists.newArrayList();
+        long[] taskLags = new long[taskNum];
+        for (int i = 0; i < taskNum; i++) {
+            result.add(Lists.newArrayList());
+        }
+        for (Integer partition : partitions) {
+            int target = 0;
+            for (int i = 1; i < taskNum; i++) {
+                if (taskLags[i] < taskLags[target]
+                        || (taskLags[i] == taskLags[target] && result.get(i).size() < result.get(target).size())) {
+                    target = i;
+                }
+            }
+            result.get(target).add(partition);
+            taskLags[target] += partitionToLag.getOrDefault(partition, 0L);
+        }
+        return result;
+    }
+
     @Override
     public int calculateCurrentConcurrentTaskNum() {
         int partitionNum = currentKafkaPartitions.size();
@@ -238,9 +297,30 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
                 partitionNum, desireTaskConcurrentNum, Config.max_routine_load_task_concurrent_num);
         currentTaskConcurrentNum = Math.min(partitionNum, Math.min(desireTaskConcurrentNum,
                 Config.max_routine_load_task_concurrent_num));
+        if (Config.enable_lag_aware_routine_load_scheduling) {
+            // the tasks of this job have been cleared when it needs to be scheduled,
+            // so all idle slots of the cluster are available.
+            int idleSlotNum = Catalog.getCurrentCatalog().getRoutineLoadManager().getClusterIdleSlotNum();
+            currentTaskConcurrentNum = calculateLagAwareTaskConcurrentNum(currentTaskConcurrentNum, idleSlotNum);
+        }
+        lagAwareTaskConcurrentNum = -1;
         return currentTaskConcurrentNum;
     }
 
+    // A job whose lag needs more than one batch per task may run more tasks than the given base num,
+    // up to its partition num, to consume the backlog with the idle slots of the cluster.
+    // The lag is estimated by max_batch_rows, because the size of each kafka message is unknown.
+    private int calculateLagAwareTaskConcurrentNum(int baseNum, int availableSlotNum) {
+        long totalLag = getTotalLag();
+        int partitionNum = currentKafkaPartitions.size();
+        if (totalLag <= 0 || maxBatchRows <= 0 || baseNum >= partitionNum) {
+            return baseNum;
+        }
+        long lagTaskNum = (totalLag + maxBatchRows - 1) / maxBatchRows;
+        int taskNum = (int) Math.min(lagTaskNum, Math.min(partitionNum, availableSlotNum));
+        return Math.max(baseNum, taskNum);
+    }
+
     // Through the transaction status and attachment information, to determine whether the progress needs to be updated.
     @Override
     protected boolean checkCommitInfo(RLTaskTxnCommitAttachment rlTaskTxnCommitAttachment,
@@ -295,13 +375,95 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         // If user does not specify kafka partition,
         // We will fetch partition from kafka server periodically
         if (this.state == JobState.RUNNING || this.state == JobState.NEED_SCHEDULE) {
-            if (customKafkaPartitions != null && !customKafkaPartitions.isEmpty()) {
-                return;
+            if (customKafkaPartitions == null || customKafkaPartitions.isEmpty()) {
+                updateKafkaPartitions();
+            }
+            updateLagStatisticsIfNecessary();
+        }
+    }
+
+    // Update the consume rate of this job, and if lag-aware scheduling is enabled,
+    // refresh the latest offsets of all partitions and calculate the expected task concurrent num.
+    // The latest offsets are otherwise only refreshed when a task catches up with the cached ones,
+    // which makes the lag of a heavily lagged job stale.
+    // This is called without lock because it may access kafka server.
+    private void updateLagStatisticsIfNecessary() {
+        long now = System.currentTimeMillis();
+        if (lastLagStatUpdateTimeMs > 0 && now - lastLagStatUpdateTimeMs < LAG_STAT_UPDATE_INTERVAL_MS) {
+            return;
+        }
+
+        List<Integer> partitions = Lists.newArrayList(currentKafkaPartitions);
+        long consumedOffsetSum = 0;
+        readLock();
+        try {
+            for (long offset : ((KafkaProgress) progress).getPartitionIdToOffset(partitions).values()) {
+                // skip the OFFSET_BEGINNING and OFFSET_END which are negative
+                if (offset > 0) {
+                    consumedOffsetSum += offset;
+                }
+            }
+        } finally {
+            readUnlock();
+        }
+        if (lastLagStatUpdateTimeMs > 0 && lastConsumedOffsetSum >= 0) {
+            // the offset sum may decrease when partitions are changed, just treat it as 0
+            consumeRate = Math.max(0, consumedOffsetSum - lastConsumedOffsetSum) * 1000
+                    / Math.max(1, now - lastLagStatUpdateTimeMs);
+        }
+        lastConsumedOffsetSum = consumedOffsetSum;
+        lastLagStatUpdateTimeMs = now;
+
+        if (!Config.enable_lag_aware_routine_load_scheduling || partitions.isEmpty()) {
+            lagAwareTaskConcurrentNum = -1;
+            return;
+        }
+        try {
+            List<Pair<Integer, Long>> latestOffsets = KafkaUtil.getLatestOffsets(id, UUID.randomUUID(),
+                    getBrokerList(), getTopic(), getConvertedCustomProperties(), partitions);
+            for (Pair<Integer, Long> pair : latestOffsets) {
+                cachedPartitionWithLatestOffsets.put(pair.first, pair.second);
             }
-            updateKafkaPartitions();
+        } catch (Exception e) {
+            LOG.warn(new LogBuilder(LogKey.ROUTINE_LOAD_JOB, id)
+                    .add("error_msg", "failed to refresh latest partition offsets: " + e.getMessage())
+                    .build());
+            lagAwareTaskConcurrentNum = -1;
+            return;
+        }
+
+        if (this.state == JobState.RUNNING) {
+            // the running tasks of this job hold currentTaskConcurrentNum slots, which will be released
+            // if the job is rescheduled.
+            int idleSlotNum = Catalog.getCurrentCatalog().getRoutineLoadManager().getClusterIdleSlotNum();
+            int baseNum = Math.min(currentKafkaPartitions.size(), Math.min(desireTaskConcurrentNum,
+                    Config.max_routine_load_task_concurrent_num));
+            lagAwareTaskConcurrentNum = calculateLagAwareTaskConcurrentNum(baseNum,
+                    currentTaskConcurrentNum + idleSlotNum);
         }
     }
 
+    // Return true if the task concurrent num calculated by lag-aware scheduling differs from the current one.
+    // The job is rescheduled at most once every LAG_AWARE_RESCHEDULE_MIN_INTERVAL_MS for this reason.
+    private boolean needRescheduleForLag() {
+        if (!Config.enable_lag_aware_routine_load_scheduling || this.state != JobState.RUNNING
+                || lagAwareTaskConcurrentNum <= 0 || lagAwareTaskConcurrentNum == currentTaskConcurrentNum) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastLagAwareRescheduleTimeMs < LAG_AWARE_RESCHEDULE_MIN_INTERVAL_MS) {
+            return false;
+        }
+        LOG.info(new LogBuilder(LogKey.ROUTINE_LOAD_JOB, id)
+                .add("current_task_concurrent_num", currentTaskConcurrentNum)
+                .add("lag_aware_task_concurrent_num", lagAwareTaskConcurrentNum)
+                .add("total_lag", getTotalLag())
+                .add("msg", "task concurrent num is changed by lag")
+                .build());
+        lastLagAwareRescheduleTimeMs = now;
+        return true;
+    }
+
     private void updateKafkaPartitions() throws UserException {
         try {
             this.newCurrentKafkaPartition = getAllKafkaPartitions();
@@ -329,7 +491,7 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         if (this.state == JobState.RUNNING || this.state == JobState.NEED_SCHEDULE) {
             if (customKafkaPartitions != null && customKafkaPartitions.size() != 0) {
                 currentKafkaPartitions = customKafkaPartitions;
-                return false;
+                return needRescheduleForLag();
             } else {
                 // the newCurrentKafkaPartition should be already updated in preCheckNeedScheduler()
                 Preconditions.checkNotNull(this.newCurrentKafkaPartition);
@@ -351,7 +513,7 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
                                 return true;
                             }
                         }
-                        return false;
+                        return needRescheduleForLag();
                     }
                 } else {
                     currentKafkaPartitions = this.newCurrentKafkaPartition;
@@ -724,6 +886,42 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         return gson.toJson(partitionIdToOffsetLag);
     }
 
+    // Get the lag of the given partitions, 'partitionIdToOffset' is the offset to be consumed of each partition.
+    // Partitions whose latest offset or offset to be consumed is unknown are treated as no lag.
+    public Map<Integer, Long> getPartitionLag(Map<Integer, Long> partitionIdToOffset) {
+        Map<Integer, Long> partitionToLag = Maps.newHashMap();
+        for (Map.Entry<Integer, Long> entry : partitionIdToOffset.entrySet()) {
+            Long latestOffset = cachedPartitionWithLatestOffsets.get(entry.getKey());
+            long lag = 0;
+            if (latestOffset != null && entry.getValue() >= 0) {
+                lag = Math.max(0, latestOffset - entry.getValue());
+            }
+            partitionToLag.put(entry.getKey(), lag);
+        }
+        return partitionToLag;
+    }
+
+    @Override
+    public long getTotalLag() {
+        Map<Integer, Long> partitionIdToOffset;
+        readLock();
+        try {
+            partitionIdToOffset = ((KafkaProgress) progress).getPartitionIdToOffset(currentKafkaPartitions);
+        } finally {
+            readUnlock();
+        }
+        long totalLag = 0;
+        for (long lag : getPartitionLag(partitionIdToOffset).values()) {
+            totalLag += lag;
+        }
+        return totalLag;
+    }
+
+    @Override
+    public long getConsumeRate() {
+        return consumeRate;
+    }
+
     @Override
     public double getMaxFilterRatio() {
         // for kafka routine load, the max filter ratio is always 1, because it use max error num instead of this.
@@ -120,6 +120,19 @@ public class KafkaTaskInfo extends RoutineLoadTaskInfo {
         return routineLoadJob.hasMoreDataToConsume(id, partitionIdToOffset);
     }
 
+    @Override
+    long getLag() {
+        KafkaRoutineLoadJob routineLoadJob = (KafkaRoutineLoadJob) routineLoadManager.getJob(jobId);
+        if (routineLoadJob == null) {
+            return 0;
+        }
+        long lag = 0;
+        for (long partitionLag : routineLoadJob.getPartitionLag(partitionIdToOffset).values()) {
+            lag += partitionLag;
+        }
+        return lag;
+    }
+
     private TExecPlanFragmentParams rePlan(RoutineLoadJob routineLoadJob) throws UserException {
         TUniqueId loadId = new TUniqueId(id.getMostSignificantBits(), id.getLeastSignificantBits());
         // plan for each task, in case table has change(rollup or schema change)
@@ -1284,6 +1284,16 @@ public abstract class RoutineLoadJob extends AbstractTxnStateChangeCallback impl
 
     protected abstract String getLag();
 
+    // the total lag of all partitions of this job, only used for metrics and lag-aware scheduling.
+    public long getTotalLag() {
+        return 0;
+    }
+
+    // the number of messages consumed per second recently, only used for metrics.
+    public long getConsumeRate() {
+        return 0;
+    }
+
     public List<String> getShowInfo() {
         Optional<Database> database = Catalog.getCurrentInternalCatalog().getDb(dbId);
         Optional<Table> table = database.flatMap(db -> db.getTable(tableId));
@@ -210,6 +210,11 @@ public abstract class RoutineLoadTaskInfo {
 
     abstract boolean hasMoreDataToConsume();
 
+    // the lag of the data to be consumed by this task, used to prioritize tasks in lag-aware scheduling.
+    long getLag() {
+        return 0;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof RoutineLoadTaskInfo) {
@@ -99,7 +99,8 @@ public class RoutineLoadTaskScheduler extends MasterDaemon {
 
         try {
             // This step will be blocked when queue is empty
-            RoutineLoadTaskInfo routineLoadTaskInfo = needScheduleTasksQueue.take();
+            RoutineLoadTaskInfo routineLoadTaskInfo = Config.enable_lag_aware_routine_load_scheduling
+                    ? takeMostLaggedTask() : needScheduleTasksQueue.take();
             if (System.currentTimeMillis() - routineLoadTaskInfo.getLastScheduledTime()
                     < routineLoadTaskInfo.getTimeoutMs()) {
                 // try to delay scheduling this task for 'timeout', to void too many failure
@@ -113,6 +114,39 @@ public class RoutineLoadTaskScheduler extends MasterDaemon {
         }
     }
 
+    // Take the task with the largest lag among the tasks which are not delayed,
+    // so that the most lagged partitions are consumed first when there are not enough slots.
+    // Other tasks are put back to the queue in their original order.
+    private RoutineLoadTaskInfo takeMostLaggedTask() throws InterruptedException {
+        RoutineLoadTaskInfo first = needScheduleTasksQueue.take();
+        List<RoutineLoadTaskInfo> candidates = Lists.newArrayList(first);
+        needScheduleTasksQueue.drainTo(candidates);
+
+        long now = System.currentTimeMillis();
+        RoutineLoadTaskInfo selected = null;
+        long maxLag = -1;
+        for (RoutineLoadTaskInfo task : candidates) {
+            if (now - task.getLastScheduledTime() < task.getTimeoutMs()) {
+                continue;
+            }
+            long lag = task.getLag();
+            if (lag > maxLag) {
+                selected = task;
+                maxLag = lag;
+            }
+        }
+        if (selected == null) {
+            // all tasks are delayed, let the caller handle it as usual
+            selected = first;
+        }
+        for (RoutineLoadTaskInfo task : candidates) {
+            if (task != selected) {
+                needScheduleTasksQueue.put(task);
+            }
+        }
+        return selected;
+    }
+
     private void scheduleOneTask(RoutineLoadTaskInfo routineLoadTaskInfo) throws Exception {
         routineLoadTaskInfo.setLastScheduledTime(System.currentTimeMillis());
         LOG.debug("schedule routine load task info {} for job {}",
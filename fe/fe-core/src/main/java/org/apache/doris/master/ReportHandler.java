@@ -33,10 +33,12 @@ import org.apache.doris.catalog.Tablet;
 import org.apache.doris.catalog.Tablet.TabletStatus;
 import org.apache.doris.catalog.TabletInvertedIndex;
 import org.apache.doris.catalog.TabletMeta;
+import org.apache.doris.clone.TabletChecker;
 import org.apache.doris.clone.TabletSchedCtx;
 import org.apache.doris.common.Config;
 import org.apache.doris.common.MetaNotFoundException;
 import org.apache.doris.common.Pair;
+import org.apache.doris.common.ThreadPoolManager;
 import org.apache.doris.common.util.Daemon;
 import org.apache.doris.common.util.TimeUtils;
 import org.apache.doris.metric.GaugeMetric;
@@ -72,6 +74,7 @@ import org.apache.doris.thrift.TTablet;
 import org.apache.doris.thrift.TTabletInfo;
 import org.apache.doris.thrift.TTaskType;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
@@ -89,12 +92,25 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
 public class ReportHandler extends Daemon {
     private static final Logger LOG = LogManager.getLogger(ReportHandler.class);
 
     private BlockingQueue<ReportTask> reportQueue = Queues.newLinkedBlockingQueue();
 
+    // Reports taken from reportQueue are dispatched to report workers, so that reports of different
+    // backends can be handled concurrently, while reports of the same backend are still handled in order.
+    // backend id -> the report task waiting to be handled.
+    // If a backend reports again before its previous report is handled, the two reports are merged and
+    // the newer one wins.
+    private final Map<Long, ReportTask> pendingTasks = Maps.newHashMap();
+    // ids of backends whose reports are being handled by a report worker
+    private final Set<Long> runningBackends = Sets.newHashSet();
+    // each backend has at most one worker task in the pool's queue, so the queue is not bounded here.
+    private final ThreadPoolExecutor reportExecutor = ThreadPoolManager.newDaemonFixedThreadPool(
+            Config.report_handler_threads_num, Integer.MAX_VALUE, "report-handler", true);
+
     private enum ReportType {
         UNKNOWN,
         TASK,
@@ -107,7 +123,7 @@ public class ReportHandler extends Daemon {
                 "report_queue_size", MetricUnit.NOUNIT, "report queue size") {
             @Override
             public Long getValue() {
-                return (long) reportQueue.size();
+                return (long) getQueueSize();
             }
         };
         MetricRepo.PALO_METRIC_REGISTER.addPaloMetrics(gauge);
@@ -170,19 +186,19 @@ public class ReportHandler extends Daemon {
         } catch (Exception e) {
             tStatus.setStatusCode(TStatusCode.INTERNAL_ERROR);
             List<String> errorMsgs = Lists.newArrayList();
-            errorMsgs.add("failed to put report task to queue. queue size: " + reportQueue.size());
+            errorMsgs.add("failed to put report task to queue. queue size: " + getQueueSize());
             errorMsgs.add("err: " + e.getMessage());
             tStatus.setErrorMsgs(errorMsgs);
             return result;
         }
 
         LOG.info("receive report from be {}. type: {}, current queue size: {}",
-                backend.getId(), reportType, reportQueue.size());
+                backend.getId(), reportType, getQueueSize());
         return result;
     }
 
     private void putToQueue(ReportTask reportTask) throws Exception {
-        int currentSize = reportQueue.size();
+        int currentSize = getQueueSize();
         if (currentSize > Config.report_queue_size) {
             LOG.warn("the report queue size exceeds the limit: {}. current: {}", Config.report_queue_size, currentSize);
             throw new Exception(
@@ -192,6 +208,54 @@ public class ReportHandler extends Daemon {
         reportQueue.put(reportTask);
     }
 
+    // number of reports which are received but not handled yet
+    @VisibleForTesting
+    int getQueueSize() {
+        synchronized (pendingTasks) {
+            return reportQueue.size() + pendingTasks.size();
+        }
+    }
+
+    @VisibleForTesting
+    void dispatch(ReportTask reportTask) {
+        long beId = reportTask.beId;
+        synchronized (pendingTasks) {
+            ReportTask pendingTask = pendingTasks.get(beId);
+            if (pendingTask != null) {
+                pendingTask.mergeNewer(reportTask);
+                if (MetricRepo.isInit) {
+                    MetricRepo.COUNTER_REPORT_SUPERSEDED.increase(1L);
+                }
+                return;
+            }
+            pendingTasks.put(beId, reportTask);
+            if (!runningBackends.add(beId)) {
+                // the worker of this backend is running, it will handle the new report later.
+                return;
+            }
+        }
+        reportExecutor.submit(() -> handleBackendReports(beId));
+    }
+
+    // handle the reports of the given backend until there is no pending one.
+    private void handleBackendReports(long beId) {
+        while (true) {
+            ReportTask reportTask;
+            synchronized (pendingTasks) {
+                reportTask = pendingTasks.remove(beId);
+                if (reportTask == null) {
+                    runningBackends.remove(beId);
+                    return;
+                }
+            }
+            long start = System.currentTimeMillis();
+            reportTask.run();
+            if (MetricRepo.isInit) {
+                MetricRepo.HISTO_REPORT_LATENCY.update(System.currentTimeMillis() - start);
+            }
+        }
+    }
+
     private Map<Long, TTablet> buildTabletMap(List<TTablet> tabletList) {
         Map<Long, TTablet> tabletMap = Maps.newHashMap();
         for (TTablet tTablet : tabletList) {
@@ -204,7 +268,8 @@ public class ReportHandler extends Daemon {
         return tabletMap;
     }
 
-    private class ReportTask extends MasterTask {
+    @VisibleForTesting
+    class ReportTask extends MasterTask {
 
         private long beId;
         private Map<TTaskType, Set<Long>> tasks;
@@ -222,6 +287,20 @@ public class ReportHandler extends Daemon {
             this.reportVersion = reportVersion;
         }
 
+        // merge a newer report of the same backend into this one, the newer content replaces the older.
+        public void mergeNewer(ReportTask newer) {
+            if (newer.tasks != null) {
+                this.tasks = newer.tasks;
+            }
+            if (newer.disks != null) {
+                this.disks = newer.disks;
+            }
+            if (newer.tablets != null) {
+                this.tablets = newer.tablets;
+                this.reportVersion = newer.reportVersion;
+            }
+        }
+
         @Override
         protected void exec() {
             if (tasks != null) {
@@ -321,6 +400,12 @@ public class ReportHandler extends Daemon {
             handleSetTabletInMemory(backendId, tabletToInMemory);
         }
 
+        // 10. replicas of these tablets may have changed, let tablet checker check them again
+        TabletChecker tabletChecker = Catalog.getCurrentCatalog().getTabletChecker();
+        tabletChecker.markTabletsDirty(tabletSyncMap.values());
+        tabletChecker.markTabletsDirty(tabletDeleteFromMeta.values());
+        tabletChecker.markTabletsDirty(tabletRecoveryMap.values());
+
         final SystemInfoService currentSystemInfo = Catalog.getCurrentSystemInfo();
         Backend reportBackend = currentSystemInfo.getBackend(backendId);
         if (reportBackend != null) {
@@ -1004,7 +1089,7 @@ public class ReportHandler extends Daemon {
             ReportTask task = null;
             try {
                 task = reportQueue.take();
-                task.exec();
+                dispatch(task);
             } catch (InterruptedException e) {
                 LOG.warn("got interupted exception when executing report", e);
             }
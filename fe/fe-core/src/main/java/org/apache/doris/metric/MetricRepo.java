@@ -34,6 +34,7 @@ import org.apache.doris.monitor.jvm.JvmService;
 import org.apache.doris.monitor.jvm.JvmStats;
 import org.apache.doris.persist.EditLog;
 import org.apache.doris.qe.QeProcessorImpl;
+import org.apache.doris.qe.cache.CacheFeProxy;
 import org.apache.doris.service.ExecuteEnv;
 import org.apache.doris.system.Backend;
 import org.apache.doris.system.SystemInfoService;
@@ -64,6 +65,8 @@ public final class MetricRepo {
 
     public static final String TABLET_NUM = "tablet_num";
     public static final String TABLET_MAX_COMPACTION_SCORE = "tablet_max_compaction_score";
+    public static final String ROUTINE_LOAD_JOB_LAG = "routine_load_job_lag";
+    public static final String ROUTINE_LOAD_JOB_CONSUME_RATE = "routine_load_job_consume_rate";
 
     public static LongCounterMetric COUNTER_REQUEST_ALL;
     public static LongCounterMetric COUNTER_QUERY_BEGIN;
@@ -77,6 +80,17 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_CACHE_HIT_PARTITION;
     public static LongCounterMetric COUNTER_CACHE_PARTITION_ALL;
     public static LongCounterMetric COUNTER_CACHE_PARTITION_HIT;
+    public static LongCounterMetric COUNTER_CACHE_FE_SQL_HIT;
+    public static LongCounterMetric COUNTER_CACHE_FE_SQL_MISS;
+    public static LongCounterMetric COUNTER_CACHE_FE_SQL_EVICTION;
+    public static LongCounterMetric COUNTER_HIVE_META_CACHE_TABLE_HIT;
+    public static LongCounterMetric COUNTER_HIVE_META_CACHE_TABLE_MISS;
+    public static LongCounterMetric COUNTER_HIVE_META_CACHE_SCHEMA_HIT;
+    public static LongCounterMetric COUNTER_HIVE_META_CACHE_SCHEMA_MISS;
+    public static LongCounterMetric COUNTER_HIVE_META_CACHE_PARTITION_HIT;
+    public static LongCounterMetric COUNTER_HIVE_META_CACHE_PARTITION_MISS;
+    public static LongCounterMetric COUNTER_HIVE_META_CACHE_FILE_HIT;
+    public static LongCounterMetric COUNTER_HIVE_META_CACHE_FILE_MISS;
     public static LongCounterMetric COUNTER_LOAD_ADD;
     public static LongCounterMetric COUNTER_LOAD_FINISHED;
     public static LongCounterMetric COUNTER_EDIT_LOG_WRITE;
@@ -95,13 +109,19 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_TXN_BEGIN;
     public static LongCounterMetric COUNTER_TXN_FAILED;
     public static LongCounterMetric COUNTER_TXN_SUCCESS;
+    public static LongCounterMetric COUNTER_TXN_QUORUM_PUBLISH;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_ROWS;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_RECEIVED_BYTES;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_ERROR_ROWS;
     public static LongCounterMetric COUNTER_HIT_SQL_BLOCK_RULE;
+    public static LongCounterMetric COUNTER_REPORT_SUPERSEDED;
 
     public static Histogram HISTO_QUERY_LATENCY;
     public static Histogram HISTO_EDIT_LOG_WRITE_LATENCY;
+    public static Histogram HISTO_EDIT_LOG_BATCH_SIZE;
+    public static Histogram HISTO_REPORT_LATENCY;
+    public static Histogram HISTO_TXN_PUBLISH_LATENCY;
+    public static Histogram HISTO_TXN_VISIBLE_LATENCY;
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -232,6 +252,52 @@ public final class MetricRepo {
         };
         PALO_METRIC_REGISTER.addPaloMetrics(scheduledTabletNum);
 
+        // lock wait time of tablet inverted index shards
+        TabletInvertedIndex invertedIndex = Catalog.getCurrentInvertedIndex();
+        for (int i = 0; i < invertedIndex.getShardNum(); i++) {
+            final int shardIdx = i;
+            GaugeMetric<Long> readLockWait = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                    "tablet_inverted_index_lock_wait_ms", MetricUnit.MILLISECONDS,
+                    "total time waiting for the lock of tablet inverted index shard") {
+                @Override
+                public Long getValue() {
+                    return invertedIndex.getReadLockWaitMs(shardIdx);
+                }
+            };
+            readLockWait.addLabel(new MetricLabel("shard", String.valueOf(shardIdx)))
+                    .addLabel(new MetricLabel("type", "read"));
+            PALO_METRIC_REGISTER.addPaloMetrics(readLockWait);
+
+            GaugeMetric<Long> writeLockWait = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                    "tablet_inverted_index_lock_wait_ms", MetricUnit.MILLISECONDS,
+                    "total time waiting for the lock of tablet inverted index shard") {
+                @Override
+                public Long getValue() {
+                    return invertedIndex.getWriteLockWaitMs(shardIdx);
+                }
+            };
+            writeLockWait.addLabel(new MetricLabel("shard", String.valueOf(shardIdx)))
+                    .addLabel(new MetricLabel("type", "write"));
+            PALO_METRIC_REGISTER.addPaloMetrics(writeLockWait);
+        }
+
+        // estimated heap usage of the replica rows in tablet inverted index, for both compact and hash layout,
+        // so that the saving of enable_compact_replica_row can be compared on a running FE.
+        for (boolean compact : new boolean[] {true, false}) {
+            GaugeMetric<Long> replicaRowBytes = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                    "tablet_inverted_index_replica_row_bytes", MetricUnit.BYTES,
+                    "estimated heap bytes of replica rows in tablet inverted index") {
+                @Override
+                public Long getValue() {
+                    return invertedIndex.getEstimatedReplicaRowBytes(compact);
+                }
+            };
+            replicaRowBytes.addLabel(new MetricLabel("layout", compact ? "compact" : "hash"))
+                    .addLabel(new MetricLabel("active",
+                            String.valueOf(compact == invertedIndex.isCompactReplicaRow())));
+            PALO_METRIC_REGISTER.addPaloMetrics(replicaRowBytes);
+        }
+
         // qps, rps and error rate
         // these metrics should be set an init value, in case that metric calculator is not running
         GAUGE_QUERY_PER_SECOND = new GaugeMetricImpl<>("qps", MetricUnit.NOUNIT,
@@ -292,6 +358,31 @@ public final class MetricRepo {
         COUNTER_CACHE_PARTITION_HIT = new LongCounterMetric("partition_hit", MetricUnit.REQUESTS,
                 "hit partition of cache partition model");
         PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_CACHE_PARTITION_HIT);
+        COUNTER_CACHE_FE_SQL_HIT = new LongCounterMetric("cache_fe_sql_hit", MetricUnit.REQUESTS,
+                "total hits of fe sql result cache");
+        PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_CACHE_FE_SQL_HIT);
+        COUNTER_CACHE_FE_SQL_MISS = new LongCounterMetric("cache_fe_sql_miss", MetricUnit.REQUESTS,
+                "total misses of fe sql result cache");
+        PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_CACHE_FE_SQL_MISS);
+        COUNTER_CACHE_FE_SQL_EVICTION = new LongCounterMetric("cache_fe_sql_eviction", MetricUnit.NOUNIT,
+                "total evicted results of fe sql result cache");
+        PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_CACHE_FE_SQL_EVICTION);
+        GaugeMetric<Long> feSqlCacheBytes = (GaugeMetric<Long>) new GaugeMetric<Long>("cache_fe_sql_bytes",
+                MetricUnit.BYTES, "memory used by fe sql result cache") {
+            @Override
+            public Long getValue() {
+                return CacheFeProxy.getCachedBytes();
+            }
+        };
+        PALO_METRIC_REGISTER.addPaloMetrics(feSqlCacheBytes);
+        COUNTER_HIVE_META_CACHE_TABLE_HIT = newHiveMetaCacheCounter("hit", "table");
+        COUNTER_HIVE_META_CACHE_TABLE_MISS = newHiveMetaCacheCounter("miss", "table");
+        COUNTER_HIVE_META_CACHE_SCHEMA_HIT = newHiveMetaCacheCounter("hit", "schema");
+        COUNTER_HIVE_META_CACHE_SCHEMA_MISS = newHiveMetaCacheCounter("miss", "schema");
+        COUNTER_HIVE_META_CACHE_PARTITION_HIT = newHiveMetaCacheCounter("hit", "partition");
+        COUNTER_HIVE_META_CACHE_PARTITION_MISS = newHiveMetaCacheCounter("miss", "partition");
+        COUNTER_HIVE_META_CACHE_FILE_HIT = newHiveMetaCacheCounter("hit", "file");
+        COUNTER_HIVE_META_CACHE_FILE_MISS = newHiveMetaCacheCounter("miss", "file");
 
         COUNTER_LOAD_FINISHED = new LongCounterMetric("load_finished", MetricUnit.REQUESTS,
                 "total load finished");
@@ -357,6 +448,9 @@ public final class MetricRepo {
         COUNTER_TXN_FAILED = new LongCounterMetric("txn_failed", MetricUnit.REQUESTS,
                 "counter of failed transactions");
         PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_TXN_FAILED);
+        COUNTER_TXN_QUORUM_PUBLISH = new LongCounterMetric("txn_quorum_publish", MetricUnit.REQUESTS,
+                "counter of transactions which are visible before all publish version tasks are finished");
+        PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_TXN_QUORUM_PUBLISH);
 
         COUNTER_ROUTINE_LOAD_ROWS = new LongCounterMetric("routine_load_rows",
                 MetricUnit.ROWS, "total rows of routine load");
@@ -371,11 +465,23 @@ public final class MetricRepo {
         COUNTER_HIT_SQL_BLOCK_RULE = new LongCounterMetric("counter_hit_sql_block_rule", MetricUnit.ROWS,
                 "total hit sql block rule query");
         PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_HIT_SQL_BLOCK_RULE);
+
+        COUNTER_REPORT_SUPERSEDED = new LongCounterMetric("report_superseded", MetricUnit.REQUESTS,
+                "counter of backend reports which are merged into a newer report before being handled");
+        PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_REPORT_SUPERSEDED);
         // 3. histogram
         HISTO_QUERY_LATENCY = METRIC_REGISTER.histogram(
                 MetricRegistry.name("query", "latency", "ms"));
         HISTO_EDIT_LOG_WRITE_LATENCY = METRIC_REGISTER.histogram(
                 MetricRegistry.name("editlog", "write", "latency", "ms"));
+        HISTO_EDIT_LOG_BATCH_SIZE = METRIC_REGISTER.histogram(
+                MetricRegistry.name("editlog", "write", "batch", "size"));
+        HISTO_REPORT_LATENCY = METRIC_REGISTER.histogram(
+                MetricRegistry.name("report", "latency", "ms"));
+        HISTO_TXN_PUBLISH_LATENCY = METRIC_REGISTER.histogram(
+                MetricRegistry.name("txn", "publish", "latency", "ms"));
+        HISTO_TXN_VISIBLE_LATENCY = METRIC_REGISTER.histogram(
+                MetricRegistry.name("txn", "visible", "latency", "ms"));
 
         METRIC_REGISTER.register(MetricRegistry.name("palo", "fe", "query", "max_instances_num_per_user"),
                 (Gauge<Integer>) () -> {
@@ -400,6 +506,14 @@ public final class MetricRepo {
         }
     }
 
+    private static LongCounterMetric newHiveMetaCacheCounter(String result, String type) {
+        LongCounterMetric counter = new LongCounterMetric("hive_meta_cache_" + result, MetricUnit.REQUESTS,
+                "counter of hive meta cache " + result + " of hms catalogs");
+        counter.addLabel(new MetricLabel("type", type));
+        PALO_METRIC_REGISTER.addPaloMetrics(counter);
+        return counter;
+    }
+
     private static void initSystemMetrics() {
         // TCP retransSegs
         GaugeMetric<Long> tcpRetransSegs = (GaugeMetric<Long>) new GaugeMetric<Long>(
@@ -550,6 +664,47 @@ public final class MetricRepo {
         } // end for backends
     }
 
+    // to generate the lag and consume rate metrics of each routine load job which is not in final state.
+    // like generateBackendsTabletMetrics(), this is reentrant, and it is called before visiting metrics,
+    // so that the metrics are added or removed along with the routine load jobs.
+    private static void generateRoutineLoadJobMetrics() {
+        PALO_METRIC_REGISTER.removeMetrics(ROUTINE_LOAD_JOB_LAG);
+        PALO_METRIC_REGISTER.removeMetrics(ROUTINE_LOAD_JOB_CONSUME_RATE);
+        if (!Catalog.getCurrentCatalog().isMaster()) {
+            return;
+        }
+
+        Set<RoutineLoadJob.JobState> states = Sets.newHashSet(RoutineLoadJob.JobState.NEED_SCHEDULE,
+                RoutineLoadJob.JobState.RUNNING, RoutineLoadJob.JobState.PAUSED);
+        List<RoutineLoadJob> jobs = Catalog.getCurrentCatalog().getRoutineLoadManager()
+                .getRoutineLoadJobByState(states);
+        for (RoutineLoadJob job : jobs) {
+            // lag of each routine load job, which is the number of kafka messages not consumed
+            GaugeMetric<Long> lag = (GaugeMetric<Long>) new GaugeMetric<Long>(ROUTINE_LOAD_JOB_LAG,
+                    MetricUnit.ROWS, "routine load job lag") {
+                @Override
+                public Long getValue() {
+                    return job.getTotalLag();
+                }
+            };
+            lag.addLabel(new MetricLabel("job_id", String.valueOf(job.getId())))
+                    .addLabel(new MetricLabel("job_name", job.getName()));
+            PALO_METRIC_REGISTER.addPaloMetrics(lag);
+
+            // number of kafka messages consumed per second of each routine load job
+            GaugeMetric<Long> consumeRate = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                    ROUTINE_LOAD_JOB_CONSUME_RATE, MetricUnit.ROWS, "routine load job consume rows per second") {
+                @Override
+                public Long getValue() {
+                    return job.getConsumeRate();
+                }
+            };
+            consumeRate.addLabel(new MetricLabel("job_id", String.valueOf(job.getId())))
+                    .addLabel(new MetricLabel("job_name", job.getName()));
+            PALO_METRIC_REGISTER.addPaloMetrics(consumeRate);
+        }
+    }
+
     public static synchronized String getMetric(MetricVisitor visitor) {
         if (!isInit) {
             return "";
@@ -585,6 +740,7 @@ public final class MetricRepo {
     // update some metrics to make a ready to be visited
     private static void updateMetrics() {
         SYSTEM_METRICS.update();
+        generateRoutineLoadJobMetrics();
     }
 
     public static synchronized List<Metric> getMetricsByName(String name) {
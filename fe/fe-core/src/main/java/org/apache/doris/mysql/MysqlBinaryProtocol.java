@@ -0,0 +1,329 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.mysql;
+
+import org.apache.doris.analysis.DateLiteral;
+import org.apache.doris.analysis.DecimalLiteral;
+import org.apache.doris.analysis.FloatLiteral;
+import org.apache.doris.analysis.IntLiteral;
+import org.apache.doris.analysis.LargeIntLiteral;
+import org.apache.doris.analysis.LiteralExpr;
+import org.apache.doris.analysis.NullLiteral;
+import org.apache.doris.analysis.StringLiteral;
+import org.apache.doris.catalog.PrimitiveType;
+import org.apache.doris.catalog.ScalarType;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.common.AnalysisException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Helpers for the MySQL binary protocol used by server side prepared statements.
+ * COM_STMT_EXECUTE sends parameters in binary form, and the result set rows must be
+ * sent back in binary row format instead of the text format produced by BE.
+ * See https://dev.mysql.com/doc/internals/en/binary-protocol-value.html
+ */
+public class MysqlBinaryProtocol {
+    private static final int NULL_VALUE = 251;
+    private static final int BINARY_ROW_HEADER = 0x00;
+    // in binary result rows, the first two bits of null bitmap are reserved
+    private static final int RESULT_NULL_BITMAP_OFFSET = 2;
+    // flag set in the high byte of parameter type when the parameter is unsigned
+    public static final int UNSIGNED_FLAG = 0x80;
+
+    private MysqlBinaryProtocol() {
+    }
+
+    // Read one non-null parameter of COM_STMT_EXECUTE and convert it to a literal of the corresponding type.
+    public static LiteralExpr readParamAsLiteral(ByteBuffer buffer, int typeCode, boolean isUnsigned)
+            throws AnalysisException {
+        switch (typeCode) {
+            case 1: { // MYSQL_TYPE_TINY
+                int value = MysqlProto.readInt1(buffer);
+                return isUnsigned ? new IntLiteral(value, Type.SMALLINT) : new IntLiteral((byte) value, Type.TINYINT);
+            }
+            case 2: // MYSQL_TYPE_SHORT
+            case 13: { // MYSQL_TYPE_YEAR
+                int value = MysqlProto.readInt2(buffer);
+                return isUnsigned ? new IntLiteral(value, Type.INT) : new IntLiteral((short) value, Type.SMALLINT);
+            }
+            case 3: // MYSQL_TYPE_LONG
+            case 9: { // MYSQL_TYPE_INT24
+                int value = MysqlProto.readInt4(buffer);
+                return isUnsigned ? new IntLiteral(value & 0xFFFFFFFFL, Type.BIGINT) : new IntLiteral(value, Type.INT);
+            }
+            case 8: { // MYSQL_TYPE_LONGLONG
+                long value = MysqlProto.readInt8(buffer);
+                if (isUnsigned && value < 0) {
+                    return new LargeIntLiteral(Long.toUnsignedString(value));
+                }
+                return new IntLiteral(value, Type.BIGINT);
+            }
+            case 4: // MYSQL_TYPE_FLOAT
+                return newFloatLiteral(Float.intBitsToFloat(MysqlProto.readInt4(buffer)), Type.FLOAT);
+            case 5: // MYSQL_TYPE_DOUBLE
+                return newFloatLiteral(Double.longBitsToDouble(MysqlProto.readInt8(buffer)), Type.DOUBLE);
+            case 6: // MYSQL_TYPE_NULL
+                return new NullLiteral();
+            case 7: // MYSQL_TYPE_TIMESTAMP
+            case 10: // MYSQL_TYPE_DATE
+            case 12: // MYSQL_TYPE_DATETIME
+                return readDateTime(buffer, typeCode == 10);
+            case 11: // MYSQL_TYPE_TIME
+                return new StringLiteral(readTime(buffer));
+            case 0: // MYSQL_TYPE_DECIMAL
+            case 246: { // MYSQL_TYPE_NEWDECIMAL
+                String value = new String(MysqlProto.readLenEncodedString(buffer), StandardCharsets.UTF_8);
+                return new DecimalLiteral(value.trim());
+            }
+            default:
+                return new StringLiteral(new String(MysqlProto.readLenEncodedString(buffer), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static FloatLiteral newFloatLiteral(double value, Type type) throws AnalysisException {
+        // NaN and Infinity can not be represented by a literal of Doris
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new AnalysisException("Unsupported " + type + " parameter value: " + value);
+        }
+        return new FloatLiteral(value, type);
+    }
+
+    private static DateLiteral readDateTime(ByteBuffer buffer, boolean isDate) throws AnalysisException {
+        int length = MysqlProto.readInt1(buffer);
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 4) {
+            year = MysqlProto.readInt2(buffer);
+            month = MysqlProto.readInt1(buffer);
+            day = MysqlProto.readInt1(buffer);
+        }
+        if (length >= 7) {
+            hour = MysqlProto.readInt1(buffer);
+            minute = MysqlProto.readInt1(buffer);
+            second = MysqlProto.readInt1(buffer);
+        }
+        if (length >= 11) {
+            microsecond = MysqlProto.readInt4(buffer);
+        }
+        if (isDate) {
+            return new DateLiteral(String.format("%04d-%02d-%02d", year, month, day), Type.DATE);
+        }
+        if (microsecond != 0) {
+            return new DateLiteral(String.format("%04d-%02d-%02d %02d:%02d:%02d.%06d",
+                    year, month, day, hour, minute, second, microsecond), ScalarType.createDatetimeV2Type(6));
+        }
+        return new DateLiteral(String.format("%04d-%02d-%02d %02d:%02d:%02d",
+                year, month, day, hour, minute, second), Type.DATETIME);
+    }
+
+    private static String readTime(ByteBuffer buffer) {
+        int length = MysqlProto.readInt1(buffer);
+        boolean isNegative = false;
+        long hours = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 8) {
+            isNegative = MysqlProto.readInt1(buffer) == 1;
+            hours = (MysqlProto.readInt4(buffer) & 0xFFFFFFFFL) * 24;
+            hours += MysqlProto.readInt1(buffer);
+            minute = MysqlProto.readInt1(buffer);
+            second = MysqlProto.readInt1(buffer);
+        }
+        if (length >= 12) {
+            microsecond = MysqlProto.readInt4(buffer);
+        }
+        String time = String.format("%s%02d:%02d:%02d", isNegative ? "-" : "", hours, minute, second);
+        return microsecond == 0 ? time : time + String.format(".%06d", microsecond);
+    }
+
+    /**
+     * Convert one row in text protocol, which is a sequence of length encoded strings
+     * (0xFB stands for NULL), to a row in binary protocol.
+     */
+    public static ByteBuffer toBinaryRow(MysqlSerializer serializer, ByteBuffer textRow, List<PrimitiveType> types) {
+        int numColumns = types.size();
+        byte[][] values = new byte[numColumns][];
+        byte[] nullBitmap = new byte[(numColumns + 7 + RESULT_NULL_BITMAP_OFFSET) / 8];
+        ByteBuffer row = textRow.duplicate();
+        for (int i = 0; i < numColumns; i++) {
+            if ((row.get(row.position()) & 0xFF) == NULL_VALUE) {
+                row.get();
+                int bit = i + RESULT_NULL_BITMAP_OFFSET;
+                nullBitmap[bit / 8] |= (byte) (1 << (bit % 8));
+            } else {
+                values[i] = MysqlProto.readLenEncodedString(row);
+            }
+        }
+
+        serializer.reset();
+        serializer.writeInt1(BINARY_ROW_HEADER);
+        serializer.writeBytes(nullBitmap);
+        for (int i = 0; i < numColumns; i++) {
+            if (values[i] != null) {
+                writeBinaryValue(serializer, types.get(i).toMysqlType(), values[i]);
+            }
+        }
+        return serializer.toByteBuffer();
+    }
+
+    private static void writeBinaryValue(MysqlSerializer serializer, MysqlColType type, byte[] textValue) {
+        String value = new String(textValue, StandardCharsets.UTF_8);
+        switch (type) {
+            case MYSQL_TYPE_TINY:
+                serializer.writeInt1((int) parseLong(value));
+                break;
+            case MYSQL_TYPE_SHORT:
+                serializer.writeInt2((int) parseLong(value));
+                break;
+            case MYSQL_TYPE_LONG:
+                serializer.writeInt4((int) parseLong(value));
+                break;
+            case MYSQL_TYPE_LONGLONG:
+                serializer.writeInt8(parseLong(value));
+                break;
+            case MYSQL_TYPE_FLOAT:
+                serializer.writeInt4(Float.floatToIntBits((float) parseDouble(value)));
+                break;
+            case MYSQL_TYPE_DOUBLE:
+                serializer.writeInt8(Double.doubleToLongBits(parseDouble(value)));
+                break;
+            case MYSQL_TYPE_DATE:
+            case MYSQL_TYPE_DATETIME:
+                writeDateTime(serializer, value);
+                break;
+            case MYSQL_TYPE_TIME:
+                writeTime(serializer, value);
+                break;
+            default:
+                serializer.writeVInt(textValue.length);
+                serializer.writeBytes(textValue);
+                break;
+        }
+    }
+
+    private static long parseLong(String value) {
+        if (value.equalsIgnoreCase("true")) {
+            return 1;
+        } else if (value.equalsIgnoreCase("false")) {
+            return 0;
+        }
+        return Long.parseLong(value);
+    }
+
+    private static double parseDouble(String value) {
+        switch (value.toLowerCase()) {
+            case "inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            case "nan":
+                return Double.NaN;
+            default:
+                return Double.parseDouble(value);
+        }
+    }
+
+    // value is in format of 'yyyy-MM-dd' or 'yyyy-MM-dd HH:mm:ss[.ffffff]'
+    private static void writeDateTime(MysqlSerializer serializer, String value) {
+        int year = Integer.parseInt(value.substring(0, 4));
+        int month = Integer.parseInt(value.substring(5, 7));
+        int day = Integer.parseInt(value.substring(8, 10));
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (value.length() >= 19) {
+            hour = Integer.parseInt(value.substring(11, 13));
+            minute = Integer.parseInt(value.substring(14, 16));
+            second = Integer.parseInt(value.substring(17, 19));
+            if (value.length() > 20) {
+                microsecond = parseMicrosecond(value.substring(20));
+            }
+        }
+        if (microsecond != 0) {
+            serializer.writeInt1(11);
+        } else if (hour != 0 || minute != 0 || second != 0) {
+            serializer.writeInt1(7);
+        } else if (year != 0 || month != 0 || day != 0) {
+            serializer.writeInt1(4);
+        } else {
+            serializer.writeInt1(0);
+            return;
+        }
+        serializer.writeInt2(year);
+        serializer.writeInt1(month);
+        serializer.writeInt1(day);
+        if (microsecond != 0 || hour != 0 || minute != 0 || second != 0) {
+            serializer.writeInt1(hour);
+            serializer.writeInt1(minute);
+            serializer.writeInt1(second);
+        }
+        if (microsecond != 0) {
+            serializer.writeInt4(microsecond);
+        }
+    }
+
+    // value is in format of '[-]HH:mm:ss[.ffffff]', the hour part may be greater than 24
+    private static void writeTime(MysqlSerializer serializer, String value) {
+        boolean isNegative = value.startsWith("-");
+        String[] parts = (isNegative ? value.substring(1) : value).split(":");
+        long hours = Long.parseLong(parts[0]);
+        int minute = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+        int second = 0;
+        int microsecond = 0;
+        if (parts.length > 2) {
+            int dot = parts[2].indexOf('.');
+            if (dot >= 0) {
+                second = Integer.parseInt(parts[2].substring(0, dot));
+                microsecond = parseMicrosecond(parts[2].substring(dot + 1));
+            } else {
+                second = Integer.parseInt(parts[2]);
+            }
+        }
+        if (hours == 0 && minute == 0 && second == 0 && microsecond == 0) {
+            serializer.writeInt1(0);
+            return;
+        }
+        serializer.writeInt1(microsecond != 0 ? 12 : 8);
+        serializer.writeInt1(isNegative ? 1 : 0);
+        serializer.writeInt4((int) (hours / 24));
+        serializer.writeInt1((int) (hours % 24));
+        serializer.writeInt1(minute);
+        serializer.writeInt1(second);
+        if (microsecond != 0) {
+            serializer.writeInt4(microsecond);
+        }
+    }
+
+    private static int parseMicrosecond(String fraction) {
+        StringBuilder sb = new StringBuilder(fraction.length() > 6 ? fraction.substring(0, 6) : fraction);
+        while (sb.length() < 6) {
+            sb.append('0');
+        }
+        return Integer.parseInt(sb.toString());
+    }
+}
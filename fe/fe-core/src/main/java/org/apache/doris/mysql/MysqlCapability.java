@@ -17,6 +17,8 @@
 
 package org.apache.doris.mysql;
 
+import org.apache.doris.common.Config;
+
 import java.util.EnumSet;
 
 // MySQL protocol capability
@@ -77,6 +79,10 @@ public class MysqlCapability {
             | Flag.CLIENT_PLUGIN_AUTH.getFlagBit();
     public static final MysqlCapability DEFAULT_CAPABILITY = new MysqlCapability(DEFAULT_FLAGS);
 
+    // flags which are only used when both server and client support them
+    private static final int OPTIONAL_FLAGS = Flag.CLIENT_COMPRESS.getFlagBit()
+            | Flag.CLIENT_DEPRECATE_EOF.getFlagBit();
+
     private int flags;
 
     public MysqlCapability(int flags) {
@@ -87,6 +93,24 @@ public class MysqlCapability {
         return true;
     }
 
+    // the capability which server say it can support
+    public static MysqlCapability getServerCapability() {
+        int flags = DEFAULT_FLAGS;
+        if (Config.mysql_server_enable_compression) {
+            flags |= Flag.CLIENT_COMPRESS.getFlagBit();
+        }
+        if (Config.mysql_server_enable_deprecate_eof) {
+            flags |= Flag.CLIENT_DEPRECATE_EOF.getFlagBit();
+        }
+        return flags == DEFAULT_FLAGS ? DEFAULT_CAPABILITY : new MysqlCapability(flags);
+    }
+
+    // the capability used after server and client negotiate
+    public static MysqlCapability negotiate(MysqlCapability server, MysqlCapability client) {
+        int flags = (server.flags & ~OPTIONAL_FLAGS) | (server.flags & client.flags & OPTIONAL_FLAGS);
+        return flags == server.flags ? server : new MysqlCapability(flags);
+    }
+
     public int getFlags() {
         return flags;
     }
@@ -141,6 +165,14 @@ public class MysqlCapability {
         return (flags & Flag.CLIENT_SESSION_TRACK.getFlagBit()) != 0;
     }
 
+    public boolean isCompress() {
+        return (flags & Flag.CLIENT_COMPRESS.getFlagBit()) != 0;
+    }
+
+    public boolean isDeprecatedEOF() {
+        return (flags & Flag.CLIENT_DEPRECATE_EOF.getFlagBit()) != 0;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null || !(obj instanceof MysqlCapability)) {
@@ -24,6 +24,10 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * This class used to read/write MySQL logical packet.
@@ -36,6 +40,14 @@ public class MysqlChannel {
     public static final int MAX_PHYSICAL_PACKET_LENGTH = 0xffffff;
     // MySQL packet header length
     protected static final int PACKET_HEADER_LEN = 4;
+    // MySQL compressed packet header length
+    protected static final int COMPRESSED_PACKET_HEADER_LEN = 7;
+    // payload shorter than this is sent without compression, same as MySQL server
+    private static final int MIN_COMPRESS_LENGTH = 50;
+    // max number of buffers written by one gathering write
+    private static final int MAX_GATHER_BUFFER_NUM = 64;
+    // packets shorter than this in total are just copied to the send buffer
+    private static final int MIN_BATCH_SEND_LENGTH = 64 * 1024;
     // logger for this class
     protected static final Logger LOG = LogManager.getLogger(MysqlChannel.class);
     // next sequence id to receive or send
@@ -51,6 +63,15 @@ public class MysqlChannel {
     protected String remoteHostPortString;
     protected String remoteIp;
     protected boolean isSend;
+    // whether to use the compressed protocol, set after handshake if the client supports it
+    protected boolean isCompressed = false;
+    // sequence id of the compressed packets, reset together with sequenceId
+    protected int compressedSequenceId;
+    protected ByteBuffer compressedHeaderBuffer;
+    // uncompressed payload of the last received compressed packet
+    protected ByteBuffer decompressedBuffer;
+    protected Deflater deflater;
+    protected Inflater inflater;
 
 
     protected MysqlChannel() {
@@ -89,6 +110,21 @@ public class MysqlChannel {
 
     public void setSequenceId(int sequenceId) {
         this.sequenceId = sequenceId;
+        this.compressedSequenceId = sequenceId;
+    }
+
+    // Use the compressed protocol for the following packets.
+    // Should be called after the OK packet of handshake is sent.
+    public void enableCompression() {
+        isCompressed = true;
+        compressedHeaderBuffer = ByteBuffer.allocate(COMPRESSED_PACKET_HEADER_LEN);
+        decompressedBuffer = ByteBuffer.allocate(0);
+        deflater = new Deflater();
+        inflater = new Inflater();
+    }
+
+    public boolean isCompressed() {
+        return isCompressed;
     }
 
     public String getRemoteIp() {
@@ -112,6 +148,13 @@ public class MysqlChannel {
         }
     }
 
+    private void accCompressedSequenceId() {
+        compressedSequenceId++;
+        if (compressedSequenceId > 255) {
+            compressedSequenceId = 0;
+        }
+    }
+
     // Close channel
     public void close() {
         try {
@@ -119,6 +162,17 @@ public class MysqlChannel {
         } catch (IOException e) {
             LOG.warn("Close channel exception, ignore.");
         }
+        releaseCompression();
+    }
+
+    // Free the native zlib memory held by the compressed protocol, it is not reclaimed until end() is called.
+    protected void releaseCompression() {
+        if (deflater != null) {
+            deflater.end();
+        }
+        if (inflater != null) {
+            inflater.end();
+        }
     }
 
     protected int readAll(ByteBuffer dstBuf) throws IOException {
@@ -134,6 +188,70 @@ public class MysqlChannel {
         return readLen;
     }
 
+    // read from the channel, or from the decompressed payload if the compressed protocol is used
+    private int readPacketBytes(ByteBuffer dstBuf) throws IOException {
+        if (!isCompressed) {
+            return readAll(dstBuf);
+        }
+        int readLen = 0;
+        while (dstBuf.remaining() != 0) {
+            if (!decompressedBuffer.hasRemaining() && !readCompressedPacket()) {
+                return readLen;
+            }
+            int len = Math.min(dstBuf.remaining(), decompressedBuffer.remaining());
+            int oldLimit = decompressedBuffer.limit();
+            decompressedBuffer.limit(decompressedBuffer.position() + len);
+            dstBuf.put(decompressedBuffer);
+            decompressedBuffer.limit(oldLimit);
+            readLen += len;
+        }
+        return readLen;
+    }
+
+    // read one compressed packet into decompressedBuffer, return false if the channel is closed.
+    // https://dev.mysql.com/doc/internals/en/compressed-packet-header.html
+    private boolean readCompressedPacket() throws IOException {
+        compressedHeaderBuffer.clear();
+        if (readAll(compressedHeaderBuffer) != COMPRESSED_PACKET_HEADER_LEN) {
+            LOG.debug("Receive compressed packet header failed, remote may close the channel.");
+            return false;
+        }
+        byte[] header = compressedHeaderBuffer.array();
+        int compressedLen = (header[0] & 0xFF) | ((header[1] & 0xFF) << 8) | ((header[2] & 0xFF) << 16);
+        int packetId = header[3] & 0xFF;
+        int uncompressedLen = (header[4] & 0xFF) | ((header[5] & 0xFF) << 8) | ((header[6] & 0xFF) << 16);
+        if (packetId != compressedSequenceId) {
+            LOG.warn("receive compressed packet sequence id[" + packetId + "] want to get["
+                    + compressedSequenceId + "]");
+            throw new IOException("Bad compressed packet sequence.");
+        }
+        accCompressedSequenceId();
+
+        ByteBuffer payload = ByteBuffer.allocate(compressedLen);
+        if (readAll(payload) != compressedLen) {
+            LOG.warn("Length of received compressed packet content is less than " + compressedLen);
+            return false;
+        }
+        if (uncompressedLen == 0) {
+            // payload is not compressed
+            payload.flip();
+            decompressedBuffer = payload;
+            return true;
+        }
+        byte[] result = new byte[uncompressedLen];
+        inflater.reset();
+        inflater.setInput(payload.array(), 0, compressedLen);
+        try {
+            if (inflater.inflate(result) != uncompressedLen) {
+                throw new IOException("Length of decompressed packet is not equal with length in head.");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Decompress packet failed.", e);
+        }
+        decompressedBuffer = ByteBuffer.wrap(result);
+        return true;
+    }
+
     // read one logical mysql protocol packet
     // null for channel is closed.
     // NOTE: all of the following code is assumed that the channel is in block mode.
@@ -144,7 +262,7 @@ public class MysqlChannel {
 
         while (true) {
             headerByteBuffer.clear();
-            readLen = readAll(headerByteBuffer);
+            readLen = readPacketBytes(headerByteBuffer);
             if (readLen != PACKET_HEADER_LEN) {
                 // remote has close this channel
                 LOG.debug("Receive packet header failed, remote may close the channel.");
@@ -172,7 +290,7 @@ public class MysqlChannel {
             // read one physical packet
             // before read, set limit to make read only one packet
             result.limit(result.position() + packetLen);
-            readLen = readAll(result);
+            readLen = readPacketBytes(result);
             if (readLen != packetLen) {
                 LOG.warn("Length of received packet content(" + readLen
                         + ") is not equal with length in head.(" + packetLen + ")");
@@ -198,13 +316,84 @@ public class MysqlChannel {
         isSend = true;
     }
 
+    protected void realNetSend(ByteBuffer[] buffers, int offset, int length) throws IOException {
+        long bufLen = 0;
+        for (int i = offset; i < offset + length; i++) {
+            bufLen += buffers[i].remaining();
+        }
+        long writeLen = 0;
+        while (writeLen < bufLen) {
+            long ret = channel.write(buffers, offset, length);
+            if (ret <= 0) {
+                throw new IOException("Write mysql packet failed.[write=" + writeLen
+                        + ", needToWrite=" + bufLen + "]");
+            }
+            writeLen += ret;
+        }
+        isSend = true;
+    }
+
+    // send the data to the network, wrap it into compressed packets if the compressed protocol is used.
+    private void netSend(ByteBuffer buffer) throws IOException {
+        if (!isCompressed) {
+            realNetSend(buffer);
+            return;
+        }
+        int oldLimit = buffer.limit();
+        while (buffer.hasRemaining()) {
+            int len = Math.min(buffer.remaining(), MAX_PHYSICAL_PACKET_LENGTH);
+            buffer.limit(buffer.position() + len);
+            sendCompressedPacket(buffer);
+            buffer.limit(oldLimit);
+        }
+    }
+
+    // https://dev.mysql.com/doc/internals/en/compressed-packet-header.html
+    private void sendCompressedPacket(ByteBuffer payload) throws IOException {
+        int uncompressedLen = payload.remaining();
+        byte[] input = new byte[uncompressedLen];
+        payload.get(input);
+
+        byte[] body = input;
+        int bodyLen = uncompressedLen;
+        int lenInHeader = 0;
+        if (uncompressedLen >= MIN_COMPRESS_LENGTH) {
+            deflater.reset();
+            deflater.setInput(input);
+            deflater.finish();
+            byte[] output = new byte[uncompressedLen];
+            int compressedLen = deflater.deflate(output);
+            // only use the compressed data if it is smaller
+            if (deflater.finished() && compressedLen < uncompressedLen) {
+                body = output;
+                bodyLen = compressedLen;
+                lenInHeader = uncompressedLen;
+            }
+        }
+
+        ByteBuffer packet = ByteBuffer.allocate(COMPRESSED_PACKET_HEADER_LEN + bodyLen);
+        writeInt3(packet, bodyLen);
+        packet.put((byte) compressedSequenceId);
+        writeInt3(packet, lenInHeader);
+        packet.put(body, 0, bodyLen);
+        packet.flip();
+        realNetSend(packet);
+        accCompressedSequenceId();
+    }
+
+    private static void writeInt3(ByteBuffer buffer, int value) {
+        buffer.put((byte) value);
+        buffer.put((byte) (value >> 8));
+        buffer.put((byte) (value >> 16));
+    }
+
     public void flush() throws IOException {
         if (null == sendBuffer || sendBuffer.position() == 0) {
             // Nothing to send
             return;
         }
         sendBuffer.flip();
-        realNetSend(sendBuffer);
+        netSend(sendBuffer);
         sendBuffer.clear();
         isSend = true;
     }
@@ -238,7 +427,7 @@ public class MysqlChannel {
         }
         // Send this buffer if large enough
         if (buffer.remaining() > sendBuffer.capacity()) {
-            realNetSend(buffer);
+            netSend(buffer);
             return;
         }
         // Put it to
@@ -261,6 +450,99 @@ public class MysqlChannel {
         accSequenceId();
     }
 
+    /**
+     * Send packets in batch, such as the rows of a result batch.
+     * If the packets can not fit in the send buffer, they are framed into pooled direct buffers
+     * and written to the network by gathering writes together with the data in the send buffer,
+     * instead of being copied into the send buffer one by one.
+     */
+    public void sendPackets(List<ByteBuffer> packets) throws IOException {
+        long totalLen = 0;
+        for (ByteBuffer packet : packets) {
+            totalLen += PACKET_HEADER_LEN + packet.remaining();
+        }
+        if (isCompressed || null == sendBuffer || totalLen < MIN_BATCH_SEND_LENGTH) {
+            // compressed packets are built from the send buffer
+            for (ByteBuffer packet : packets) {
+                sendOnePacket(packet);
+            }
+            return;
+        }
+
+        ByteBuffer[] buffers = new ByteBuffer[MAX_GATHER_BUFFER_NUM + 1];
+        int bufferNum = 0;
+        try {
+            for (ByteBuffer packet : packets) {
+                if (packet.remaining() >= MAX_PHYSICAL_PACKET_LENGTH) {
+                    // need to be split into several physical packets, rarely happens
+                    gatherSend(buffers, bufferNum);
+                    bufferNum = 0;
+                    sendOnePacket(packet);
+                    continue;
+                }
+                if (bufferNum == 0 || buffers[bufferNum - 1].remaining() < PACKET_HEADER_LEN) {
+                    if (bufferNum == MAX_GATHER_BUFFER_NUM) {
+                        gatherSend(buffers, bufferNum);
+                        bufferNum = 0;
+                    }
+                    buffers[bufferNum++] = MysqlSendBufferPool.borrow();
+                }
+                writeInt3(buffers[bufferNum - 1], packet.remaining());
+                buffers[bufferNum - 1].put((byte) sequenceId);
+                int oldLimit = packet.limit();
+                while (packet.hasRemaining()) {
+                    if (!buffers[bufferNum - 1].hasRemaining()) {
+                        if (bufferNum == MAX_GATHER_BUFFER_NUM) {
+                            gatherSend(buffers, bufferNum);
+                            bufferNum = 0;
+                        }
+                        buffers[bufferNum++] = MysqlSendBufferPool.borrow();
+                    }
+                    ByteBuffer buffer = buffers[bufferNum - 1];
+                    packet.limit(packet.position() + Math.min(packet.remaining(), buffer.remaining()));
+                    buffer.put(packet);
+                    packet.limit(oldLimit);
+                }
+                accSequenceId();
+            }
+            gatherSend(buffers, bufferNum);
+            bufferNum = 0;
+        } finally {
+            for (int i = 0; i < bufferNum; i++) {
+                if (buffers[i] != null) {
+                    MysqlSendBufferPool.giveBack(buffers[i]);
+                }
+            }
+        }
+    }
+
+    // Write the data in send buffer and the framed buffers, then give back the framed buffers to pool.
+    private void gatherSend(ByteBuffer[] buffers, int bufferNum) throws IOException {
+        try {
+            // the data in send buffer should be sent first
+            int offset = 1;
+            if (sendBuffer.position() > 0) {
+                sendBuffer.flip();
+                offset = 0;
+            }
+            ByteBuffer[] srcs = new ByteBuffer[bufferNum + 1];
+            srcs[0] = sendBuffer;
+            for (int i = 0; i < bufferNum; i++) {
+                buffers[i].flip();
+                srcs[i + 1] = buffers[i];
+            }
+            if (srcs.length - offset > 0) {
+                realNetSend(srcs, offset, srcs.length - offset);
+            }
+            sendBuffer.clear();
+        } finally {
+            for (int i = 0; i < bufferNum; i++) {
+                MysqlSendBufferPool.giveBack(buffers[i]);
+                buffers[i] = null;
+            }
+        }
+    }
+
     public void sendAndFlush(ByteBuffer packet) throws IOException {
         sendOnePacket(packet);
         flush();
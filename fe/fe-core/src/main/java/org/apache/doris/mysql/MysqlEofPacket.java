@@ -23,6 +23,8 @@ import org.apache.doris.qe.QueryState;
 public class MysqlEofPacket extends MysqlPacket {
     private static final int EOF_INDICATOR = 0XFE;
     private static final int WARNINGS = 0;
+    private static final long AFFECTED_ROWS = 0;
+    private static final long LAST_INSERT_ID = 0;
     // private static final int STATUS_FLAGS = 0;
 
     private int serverStatus = 0;
@@ -36,6 +38,15 @@ public class MysqlEofPacket extends MysqlPacket {
         MysqlCapability capability = serializer.getCapability();
 
         serializer.writeInt1(EOF_INDICATOR);
+        if (capability.isDeprecatedEOF()) {
+            // if CLIENT_DEPRECATE_EOF is set, result set is terminated by an OK packet with EOF indicator
+            // https://dev.mysql.com/doc/internals/en/packet-OK_Packet.html
+            serializer.writeVInt(AFFECTED_ROWS);
+            serializer.writeVInt(LAST_INSERT_ID);
+            serializer.writeInt2(serverStatus);
+            serializer.writeInt2(WARNINGS);
+            return;
+        }
         if (capability.isProtocol41()) {
             serializer.writeInt2(WARNINGS);
             serializer.writeInt2(serverStatus);
@@ -26,8 +26,6 @@ public class MysqlHandshakePacket extends MysqlPacket {
     public static final String SERVER_VERSION = "5.7.37";
     // 33 stands for UTF-8 character set
     private static final int CHARACTER_SET = 33;
-    // use default capability for all
-    private static final MysqlCapability CAPABILITY = MysqlCapability.DEFAULT_CAPABILITY;
     // status flags not supported in palo
     private static final int STATUS_FLAGS = 0;
     private static final String AUTH_PLUGIN_NAME = "mysql_native_password";
@@ -35,9 +33,15 @@ public class MysqlHandshakePacket extends MysqlPacket {
     // connection id used in KILL statement.
     private int connectionId;
     private byte[] authPluginData;
+    private MysqlCapability capability;
 
     public MysqlHandshakePacket(int connectionId) {
+        this(connectionId, MysqlCapability.DEFAULT_CAPABILITY);
+    }
+
+    public MysqlHandshakePacket(int connectionId, MysqlCapability capability) {
         this.connectionId = connectionId;
+        this.capability = capability;
         authPluginData = MysqlPassword.createRandomString(SCRAMBLE_LENGTH);
     }
 
@@ -47,8 +51,6 @@ public class MysqlHandshakePacket extends MysqlPacket {
 
     @Override
     public void writeTo(MysqlSerializer serializer) {
-        MysqlCapability capability = CAPABILITY;
-
         serializer.writeInt1(PROTOCOL_VERSION);
         serializer.writeNulTerminateString(SERVER_VERSION);
         serializer.writeInt4(connectionId);
@@ -0,0 +1,45 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.mysql;
+
+// MySQL protocol COM_STMT_PREPARE_OK packet
+public class MysqlPrepareOkPacket extends MysqlPacket {
+    private static final int PACKET_OK_INDICATOR = 0X00;
+    private final int statementId;
+    private final int numColumns;
+    private final int numParams;
+    private final int warningRows;
+
+    public MysqlPrepareOkPacket(int statementId, int numColumns, int numParams, int warningRows) {
+        this.statementId = statementId;
+        this.numColumns = numColumns;
+        this.numParams = numParams;
+        this.warningRows = warningRows;
+    }
+
+    @Override
+    public void writeTo(MysqlSerializer serializer) {
+        serializer.writeInt1(PACKET_OK_INDICATOR);
+        serializer.writeInt4(statementId);
+        serializer.writeInt2(numColumns);
+        serializer.writeInt2(numParams);
+        // reserved filler
+        serializer.writeInt1(0);
+        serializer.writeInt2(warningRows);
+    }
+}
@@ -163,7 +163,8 @@ public class MysqlProto {
 
         // Server send handshake packet to client.
         serializer.reset();
-        MysqlHandshakePacket handshakePacket = new MysqlHandshakePacket(context.getConnectionId());
+        MysqlHandshakePacket handshakePacket = new MysqlHandshakePacket(context.getConnectionId(),
+                context.getServerCapability());
         handshakePacket.writeTo(serializer);
         try {
             channel.sendAndFlush(serializer.toByteBuffer());
@@ -193,7 +194,7 @@ public class MysqlProto {
         }
 
         // change the capability of serializer
-        context.setCapability(context.getServerCapability());
+        context.setCapability(MysqlCapability.negotiate(context.getServerCapability(), authPacket.getCapability()));
         serializer.setCapability(context.getCapability());
 
         String qualifiedUser = parseUser(context, authPacket.getAuthResponse(), authPacket.getUser());
@@ -0,0 +1,55 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.mysql;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct byte buffers shared by all MySQL channels, used to frame the rows of
+ * a result batch. Writing a direct buffer to the socket avoids the temporary direct
+ * buffer the JDK allocates and copies into for every heap buffer.
+ * At most MAX_POOLED_BUFFER_NUM buffers are kept in pool, the extra ones are released
+ * to GC when returned.
+ */
+public class MysqlSendBufferPool {
+    public static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_POOLED_BUFFER_NUM = 64;
+
+    private static final ConcurrentLinkedQueue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED_NUM = new AtomicInteger(0);
+
+    public static ByteBuffer borrow() {
+        ByteBuffer buffer = POOL.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        POOLED_NUM.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    public static void giveBack(ByteBuffer buffer) {
+        if (POOLED_NUM.incrementAndGet() > MAX_POOLED_BUFFER_NUM) {
+            POOLED_NUM.decrementAndGet();
+            return;
+        }
+        POOL.offer(buffer);
+    }
+}
@@ -68,6 +68,9 @@ public class AcceptListener implements ChannelListener<AcceptingChannel<StreamCo
                     }
                     if (connectScheduler.registerConnection(context)) {
                         MysqlProto.sendResponsePacket(context);
+                        if (context.getCapability().isCompress()) {
+                            context.getMysqlChannel().enableCompression();
+                        }
                         connection.setCloseListener(streamConnection -> connectScheduler.unregisterConnection(context));
                     } else {
                         context.getState().setError(ErrorCode.ERR_TOO_MANY_USER_CONNECTIONS,
@@ -94,6 +94,21 @@ public class NMysqlChannel extends MysqlChannel {
         isSend = true;
     }
 
+    @Override
+    protected void realNetSend(ByteBuffer[] buffers, int offset, int length) throws IOException {
+        long bufLen = 0;
+        for (int i = offset; i < offset + length; i++) {
+            bufLen += buffers[i].remaining();
+        }
+        long writeLen = Channels.writeBlocking(conn.getSinkChannel(), buffers, offset, length);
+        if (bufLen != writeLen) {
+            throw new IOException("Write mysql packet failed.[write=" + writeLen
+                    + ", needToWrite=" + bufLen + "]");
+        }
+        Channels.flushBlocking(conn.getSinkChannel());
+        isSend = true;
+    }
+
     @Override
     public void close() {
         try {
@@ -101,6 +116,7 @@ public class NMysqlChannel extends MysqlChannel {
         } catch (IOException e) {
             LOG.warn("Close channel exception, ignore.");
         }
+        releaseCompression();
     }
 
     public void startAcceptQuery(NConnectContext nConnectContext, ConnectProcessor connectProcessor) {
@@ -72,12 +72,16 @@ import org.apache.doris.system.Backend;
 import org.apache.doris.system.Frontend;
 import org.apache.doris.transaction.TransactionState;
 
+import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * EditLog maintains a log of the memory modifications.
@@ -95,6 +99,28 @@ public class EditLog {
 
     private Journal journal;
 
+    /*
+     * Group commit of edit log.
+     * If enabled, callers of logEdit() put their journals into journalQueue and wait, a single writer thread
+     * takes all queued journals and writes them to the journal in one batch, so that concurrent callers share
+     * one commit of bdbje instead of waiting for each other's commit.
+     */
+    private final boolean groupCommit = Config.enable_edit_log_group_commit;
+    private final BlockingQueue<JournalTask> journalQueue = new LinkedBlockingQueue<>();
+    private volatile Thread journalWriter = null;
+
+    private static class JournalTask {
+        private final JournalEntity entity;
+        private final long createTime = System.currentTimeMillis();
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        JournalTask(short op, Writable writable) {
+            entity = new JournalEntity();
+            entity.setOpCode(op);
+            entity.setData(writable);
+        }
+    }
+
     public EditLog(String nodeName) {
         String journalType = Config.edit_log_type;
         if (journalType.equalsIgnoreCase("bdb")) {
@@ -922,14 +948,28 @@ public class EditLog {
     }
 
     /**
-     * Write an operation to the edit log. Do not sync to persistent store yet.
+     * Write an operation to the edit log, return after it is persisted.
      */
-    private synchronized void logEdit(short op, Writable writable) {
-        if (this.getNumEditStreams() == 0) {
+    private void logEdit(short op, Writable writable) {
+        // do not call the synchronized getNumEditStreams(), the journal writer holds the lock while writing
+        if (journal == null) {
             LOG.error("Fatal Error : no editLog stream", new Exception());
             throw new Error("Fatal Error : no editLog stream");
         }
 
+        if (!groupCommit) {
+            logEditDirectly(op, writable);
+            return;
+        }
+
+        JournalTask task = new JournalTask(op, writable);
+        startJournalWriterIfNeeded();
+        journalQueue.add(task);
+        // the journal can not be withdrawn once it is queued, so wait uninterruptibly.
+        task.future.join();
+    }
+
+    private synchronized void logEditDirectly(short op, Writable writable) {
         long start = System.currentTimeMillis();
 
         try {
@@ -941,20 +981,83 @@ public class EditLog {
             System.exit(-1);
         }
 
-        // get a new transactionId
-        txId++;
-
-        // update statistics
         long end = System.currentTimeMillis();
-        numTransactions++;
-        totalTimeTransactions += (end - start);
         if (MetricRepo.isInit) {
             MetricRepo.HISTO_EDIT_LOG_WRITE_LATENCY.update((end - start));
         }
+        onJournalWritten(op, 1, end - start);
+    }
+
+    private void startJournalWriterIfNeeded() {
+        if (journalWriter != null) {
+            return;
+        }
+        synchronized (journalQueue) {
+            if (journalWriter == null) {
+                Thread writer = new Thread(this::writeJournalLoop, "edit-log-group-commit");
+                writer.setDaemon(true);
+                writer.start();
+                journalWriter = writer;
+                LOG.info("edit log group commit writer started");
+            }
+        }
+    }
+
+    private void writeJournalLoop() {
+        List<JournalTask> tasks = Lists.newArrayList();
+        List<JournalEntity> entities = Lists.newArrayList();
+        while (true) {
+            tasks.clear();
+            entities.clear();
+            try {
+                tasks.add(journalQueue.take());
+            } catch (InterruptedException e) {
+                LOG.warn("edit log group commit writer is interrupted, ignore it", e);
+                continue;
+            }
+            journalQueue.drainTo(tasks, Math.max(0, Config.edit_log_group_commit_max_batch_num - 1));
+            for (JournalTask task : tasks) {
+                entities.add(task.entity);
+            }
+
+            synchronized (this) {
+                long start = System.currentTimeMillis();
+                try {
+                    journal.batchWrite(entities);
+                    onJournalWritten(entities.get(entities.size() - 1).getOpCode(), entities.size(),
+                            System.currentTimeMillis() - start);
+                } catch (Throwable t) {
+                    // the waiters can not be released if the writer thread dies, so exit as the direct write does
+                    LOG.error("Fatal Error : write stream Exception", t);
+                    System.exit(-1);
+                }
+            }
+
+            long end = System.currentTimeMillis();
+            if (MetricRepo.isInit) {
+                MetricRepo.HISTO_EDIT_LOG_BATCH_SIZE.update(tasks.size());
+            }
+            for (JournalTask task : tasks) {
+                if (MetricRepo.isInit) {
+                    MetricRepo.HISTO_EDIT_LOG_WRITE_LATENCY.update(end - task.createTime);
+                }
+                task.future.complete(null);
+            }
+        }
+    }
+
+    // update txId and statistics after journalNum journals are written, must hold the lock of this
+    private void onJournalWritten(short lastOp, int journalNum, long costMs) {
+        // get new transactionIds
+        txId += journalNum;
+
+        // update statistics
+        numTransactions += journalNum;
+        totalTimeTransactions += costMs;
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("nextId = {}, numTransactions = {}, totalTimeTransactions = {}, op = {}", txId, numTransactions,
-                    totalTimeTransactions, op);
+                    totalTimeTransactions, lastOp);
         }
 
         if (txId >= Config.edit_log_roll_num) {
@@ -965,7 +1068,7 @@ public class EditLog {
         }
 
         if (MetricRepo.isInit) {
-            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase(1L);
+            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase((long) journalNum);
         }
     }
 
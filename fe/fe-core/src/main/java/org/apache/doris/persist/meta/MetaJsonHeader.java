@@ -21,15 +21,20 @@ import org.apache.doris.common.FeConstants;
 import org.apache.doris.common.io.Text;
 
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.List;
 
 public class MetaJsonHeader {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     public static final String IMAGE_VERSION = FeConstants.meta_format.getVersion();
     // the version of image format
     public String imageVersion;
+    // names of the meta modules which are compressed by deflate, only written if there is any.
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_EMPTY)
+    public List<String> compressedModules;
 
     public static MetaJsonHeader read(RandomAccessFile raf) throws IOException {
         String jsonHeader = Text.readString(raf);
@@ -37,8 +42,13 @@ public class MetaJsonHeader {
     }
 
     public static void write(RandomAccessFile raf) throws IOException {
+        write(raf, null);
+    }
+
+    public static void write(RandomAccessFile raf, List<String> compressedModules) throws IOException {
         MetaJsonHeader metaJsonHeader = new MetaJsonHeader();
         metaJsonHeader.imageVersion = IMAGE_VERSION;
+        metaJsonHeader.compressedModules = compressedModules;
         String jsonHeader =  MetaJsonHeader.toJson(metaJsonHeader);
         Text.writeString(raf, jsonHeader);
     }
@@ -0,0 +1,105 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.persist.meta;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.meta.MetaContext;
+
+import com.google.common.collect.Lists;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread to write or read meta modules of an image concurrently.
+ * A worker created by the checkpoint thread is also treated as the checkpoint thread,
+ * see {@link Catalog#isCheckpointThread()}, so that modules are saved from and loaded into the checkpoint catalog.
+ * The meta context of the creating thread is shared with the workers.
+ */
+public class MetaPersistWorker extends Thread {
+    private final boolean checkpoint;
+    private final MetaContext metaContext;
+
+    private MetaPersistWorker(Runnable runnable, String name, boolean checkpoint, MetaContext metaContext) {
+        super(runnable, name);
+        this.checkpoint = checkpoint;
+        this.metaContext = metaContext;
+        setDaemon(true);
+    }
+
+    public boolean isCheckpointWorker() {
+        return checkpoint;
+    }
+
+    @Override
+    public void run() {
+        if (metaContext != null) {
+            metaContext.setThreadLocalInfo();
+        }
+        super.run();
+    }
+
+    /**
+     * Run all tasks with at most parallelism threads and return their results in the order of tasks.
+     * Tasks are run in the calling thread if parallelism is not larger than 1.
+     */
+    public static <T> List<T> runAll(String name, int parallelism, List<Callable<T>> tasks) throws IOException {
+        List<T> results = Lists.newArrayListWithCapacity(tasks.size());
+        if (parallelism <= 1 || tasks.size() <= 1) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (IOException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
+            return results;
+        }
+
+        boolean checkpoint = Catalog.isCheckpointThread();
+        MetaContext metaContext = MetaContext.get();
+        AtomicInteger threadIdx = new AtomicInteger(0);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()),
+                r -> new MetaPersistWorker(r, name + "-" + threadIdx.getAndIncrement(), checkpoint, metaContext));
+        try {
+            List<Future<T>> futures = pool.invokeAll(tasks);
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
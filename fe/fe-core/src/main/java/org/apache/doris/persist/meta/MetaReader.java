@@ -18,9 +18,12 @@
 package org.apache.doris.persist.meta;
 
 import org.apache.doris.catalog.Catalog;
+import org.apache.doris.common.Config;
 import org.apache.doris.common.DdlException;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -30,7 +33,12 @@ import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.zip.InflaterInputStream;
 
 /**
  * Image Format:
@@ -62,6 +70,10 @@ import java.lang.reflect.InvocationTargetException;
  * | - Footer Length (8 bytes)                    |
  * | - Magic String (4 bytes)                     |
  * |----------------------------------------------|
+ *
+ * If the image has meta indices, modules can be located by their offsets and loaded in parallel.
+ * Modules in PersistMetaModules.INDEPENDENT_MODULE_NAMES are loaded concurrently, the rest are still loaded
+ * one by one in the written order, because they depend on each other (eg. transactions need databases).
  */
 
 public class MetaReader {
@@ -73,6 +85,14 @@ public class MetaReader {
         MetaHeader metaHeader = MetaHeader.read(imageFile);
         MetaFooter metaFooter = MetaFooter.read(imageFile);
 
+        int parallelism = Config.meta_image_persist_parallelism;
+        if (!metaFooter.metaIndices.isEmpty()
+                && (parallelism > 1 || !metaHeader.getCompressedModules().isEmpty())) {
+            readByModule(imageFile, catalog, metaHeader, metaFooter, PersistMetaModules.MODULES_MAP, parallelism);
+            LOG.info("finished to load image in " + (System.currentTimeMillis() - loadImageStartTime) + " ms");
+            return;
+        }
+
         long checksum = 0;
         try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(imageFile)))) {
             // 1. Skip image file header
@@ -103,4 +123,78 @@ public class MetaReader {
         long loadImageEndTime = System.currentTimeMillis();
         LOG.info("finished to load image in " + (loadImageEndTime - loadImageStartTime) + " ms");
     }
+
+    @VisibleForTesting
+    static void readByModule(File imageFile, Catalog catalog, MetaHeader metaHeader, MetaFooter metaFooter,
+            Map<String, MetaPersistMethod> modules, int parallelism) throws IOException, DdlException {
+        // 1. Read meta header first
+        long checksum;
+        try (DataInputStream dis = openModule(imageFile, metaHeader.getEnd(), false)) {
+            checksum = catalog.loadHeader(dis, metaHeader, 0);
+        }
+
+        // 2. Read other meta modules, the checksum is xor of all read values,
+        // so the checksum of each module can be computed independently.
+        List<MetaIndex> orderedIndices = Lists.newArrayList();
+        List<Callable<Long>> tasks = Lists.newArrayList();
+        for (MetaIndex metaIndex : metaFooter.metaIndices) {
+            if (metaIndex.name.equals("header")) {
+                // skip meta header, which has been read before.
+                continue;
+            }
+            MetaPersistMethod persistMethod = modules.get(metaIndex.name);
+            if (persistMethod == null) {
+                throw new IOException("Unknown meta module: " + metaIndex.name + ". Known moduels: "
+                        + modules.keySet());
+            }
+            if (PersistMetaModules.INDEPENDENT_MODULE_NAMES.contains(metaIndex.name)) {
+                tasks.add(() -> readModule(imageFile, catalog, metaHeader, metaIndex, persistMethod));
+            } else {
+                orderedIndices.add(metaIndex);
+            }
+        }
+        // modules depending on each other are read one by one in a single task
+        tasks.add(0, () -> {
+            long orderedChecksum = 0;
+            for (MetaIndex metaIndex : orderedIndices) {
+                orderedChecksum ^= readModule(imageFile, catalog, metaHeader, metaIndex,
+                        modules.get(metaIndex.name));
+            }
+            return orderedChecksum;
+        });
+        for (long moduleChecksum : MetaPersistWorker.runAll("meta-reader", parallelism, tasks)) {
+            checksum ^= moduleChecksum;
+        }
+
+        long remoteChecksum = metaFooter.checksum;
+        Preconditions.checkState(remoteChecksum == checksum, remoteChecksum + " vs. " + checksum);
+    }
+
+    private static long readModule(File imageFile, Catalog catalog, MetaHeader metaHeader, MetaIndex metaIndex,
+            MetaPersistMethod persistMethod) throws IOException {
+        long start = System.currentTimeMillis();
+        boolean compressed = metaHeader.getCompressedModules().contains(metaIndex.name);
+        try (DataInputStream dis = openModule(imageFile, metaIndex.offset, compressed)) {
+            long checksum = (long) persistMethod.readMethod.invoke(catalog, dis, 0L);
+            LOG.info("finished to read meta module {} in {} ms", metaIndex.name, System.currentTimeMillis() - start);
+            return checksum;
+        } catch (InvocationTargetException | IllegalAccessException e) {
+            throw new IOException("failed to read meta module " + metaIndex.name, e);
+        }
+    }
+
+    private static DataInputStream openModule(File imageFile, long offset, boolean compressed) throws IOException {
+        FileInputStream fis = new FileInputStream(imageFile);
+        try {
+            fis.getChannel().position(offset);
+        } catch (IOException e) {
+            fis.close();
+            throw e;
+        }
+        InputStream in = new BufferedInputStream(fis);
+        if (compressed) {
+            in = new BufferedInputStream(new InflaterInputStream(in));
+        }
+        return new DataInputStream(in);
+    }
 }
@@ -18,9 +18,11 @@
 package org.apache.doris.persist.meta;
 
 import org.apache.doris.catalog.Catalog;
+import org.apache.doris.common.Config;
 import org.apache.doris.common.Reference;
 import org.apache.doris.common.io.CountingDataOutputStream;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -29,8 +31,13 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
 
 /**
  * Image Format:
@@ -62,6 +69,10 @@ import java.util.List;
  * | - Footer Length (8 bytes)                    |
  * | - Magic String (4 bytes)                     |
  * |----------------------------------------------|
+ *
+ * If meta modules are written in parallel or compressed, each module is first written into its own part file,
+ * then the part files are appended to the image in order, so the layout of the image is unchanged.
+ * Compressed modules are deflate streams, their names are recorded in the json header.
  */
 
 public class MetaWriter {
@@ -93,7 +104,24 @@ public class MetaWriter {
         return delegate.doWork(name, method);
     }
 
+    private static final int PART_BUFFER_SIZE = 1024 * 1024;
+    // prefix of the directory of part files in the image dir.
+    // the directory name has no '.', so it is ignored by Storage and MetaCleaner.
+    private static final String PART_DIR_PREFIX = "tmp_modules_";
+
     public static void write(File imageFile, Catalog catalog) throws IOException {
+        boolean compress = Config.enable_meta_image_compression;
+        // only the checkpoint catalog is free of concurrent modification and lock holders, other callers,
+        // such as dumping image, write modules in the calling thread.
+        int parallelism = Catalog.isCheckpointThread() ? Config.meta_image_persist_parallelism : 1;
+        if (compress || parallelism > 1) {
+            writeByModule(imageFile, catalog, PersistMetaModules.MODULES_IN_ORDER, compress, parallelism);
+        } else {
+            writeSequentially(imageFile, catalog);
+        }
+    }
+
+    private static void writeSequentially(File imageFile, Catalog catalog) throws IOException {
         // save image does not need any lock. because only checkpoint thread will call this method.
         LOG.info("start to save image to {}. is ckpt: {}",
                 imageFile.getAbsolutePath(), Catalog.isCheckpointThread());
@@ -131,4 +159,82 @@ public class MetaWriter {
                 (saveImageEndTime - saveImageStartTime), checksum.getRef());
     }
 
+    @VisibleForTesting
+    static void writeByModule(File imageFile, Catalog catalog, List<MetaPersistMethod> modules, boolean compress,
+            int parallelism) throws IOException {
+        LOG.info("start to save image to {}. is ckpt: {}, parallelism: {}, compress: {}",
+                imageFile.getAbsolutePath(), Catalog.isCheckpointThread(), parallelism, compress);
+        long saveImageStartTime = System.currentTimeMillis();
+        File partDir = new File(imageFile.getParentFile(), PART_DIR_PREFIX + imageFile.getName().replace('.', '_'));
+        if (!partDir.exists() && !partDir.mkdirs()) {
+            throw new IOException("failed to create dir " + partDir.getAbsolutePath());
+        }
+        List<File> partFiles = Lists.newArrayList();
+        List<Callable<Long>> tasks = Lists.newArrayList();
+        for (MetaPersistMethod m : modules) {
+            File partFile = new File(partDir, m.name + ".part");
+            partFiles.add(partFile);
+            tasks.add(() -> writeModule(catalog, m, partFile, compress));
+        }
+
+        long checksum = 0;
+        List<MetaIndex> metaIndices = Lists.newArrayList();
+        try {
+            // 1. write modules into part files. the checksum is xor of all written values,
+            // so the checksum of each module can be computed independently.
+            List<Long> moduleChecksums = MetaPersistWorker.runAll("meta-writer", parallelism, tasks);
+
+            // 2. write header and append the part files in order
+            long startPosition = MetaHeader.write(imageFile,
+                    compress ? modules.stream().map(m -> m.name).collect(Collectors.toList()) : null);
+            FileOutputStream imageFileOut = new FileOutputStream(imageFile, true);
+            try (CountingDataOutputStream dos = new CountingDataOutputStream(new BufferedOutputStream(imageFileOut),
+                    startPosition)) {
+                metaIndices.add(new MetaIndex("header", dos.getCount()));
+                checksum = catalog.saveHeader(dos, catalog.getReplayedJournalId(), checksum);
+                for (int i = 0; i < modules.size(); i++) {
+                    metaIndices.add(new MetaIndex(modules.get(i).name, dos.getCount()));
+                    Files.copy(partFiles.get(i).toPath(), dos);
+                    checksum ^= moduleChecksums.get(i);
+                }
+                // 3. force sync to disk
+                dos.flush();
+                imageFileOut.getChannel().force(true);
+            }
+        } finally {
+            for (File partFile : partFiles) {
+                if (partFile.exists() && !partFile.delete()) {
+                    LOG.warn("failed to delete part file {}", partFile.getAbsolutePath());
+                }
+            }
+            if (!partDir.delete()) {
+                LOG.warn("failed to delete dir {}", partDir.getAbsolutePath());
+            }
+        }
+        MetaFooter.write(imageFile, metaIndices, checksum);
+
+        long saveImageEndTime = System.currentTimeMillis();
+        LOG.info("finished save image {} in {} ms. checksum is {}", imageFile.getAbsolutePath(),
+                (saveImageEndTime - saveImageStartTime), checksum);
+    }
+
+    private static long writeModule(Catalog catalog, MetaPersistMethod m, File partFile, boolean compress)
+            throws IOException {
+        long start = System.currentTimeMillis();
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(partFile), PART_BUFFER_SIZE);
+        if (compress) {
+            out = new BufferedOutputStream(new DeflaterOutputStream(out), PART_BUFFER_SIZE);
+        }
+        long checksum;
+        try (CountingDataOutputStream dos = new CountingDataOutputStream(out)) {
+            checksum = (long) m.writeMethod.invoke(catalog, dos, 0L);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            LOG.warn("failed to write meta module: {}", m.name, e);
+            throw new IOException(e);
+        }
+        LOG.info("finished to write meta module {} in {} ms, size: {}", m.name,
+                System.currentTimeMillis() - start, partFile.length());
+        return checksum;
+    }
+
 }
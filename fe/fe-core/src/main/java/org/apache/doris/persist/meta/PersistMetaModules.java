@@ -18,6 +18,7 @@
 package org.apache.doris.persist.meta;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -40,6 +41,12 @@ public class PersistMetaModules {
             "paloAuth", "transactionState", "colocateTableIndex", "routineLoadJobs", "loadJobV2", "smallFiles",
             "plugins", "deleteHandler", "sqlBlockRule", "policy");
 
+    // Modules which only load into their own manager and do not depend on any other module.
+    // They can be loaded concurrently with other modules, the rest are loaded one by one in the written order.
+    public static final ImmutableSet<String> INDEPENDENT_MODULE_NAMES = ImmutableSet.of(
+            "globalVariable", "broker", "resources", "paloAuth", "smallFiles", "plugins", "deleteHandler",
+            "sqlBlockRule", "policy");
+
     static {
         MODULES_MAP = Maps.newHashMap();
         MODULES_IN_ORDER = Lists.newArrayList();
@@ -430,6 +430,37 @@ public class OlapScanNode extends ScanNode {
         computeNumNodes();
     }
 
+    /**
+     * Recompute the selected partitions, tablets and scan ranges, when the plan of a prepared
+     * statement is executed again. The values bound to the placeholders in conjuncts may be
+     * changed, and partitions may be added or dropped and visible versions are changed since
+     * the plan is created. The selected index is kept, so it must still exist in the partitions.
+     */
+    public void refreshScanRanges() throws UserException {
+        columnFilters.clear();
+        columnNameToRange.clear();
+        computeColumnFilter();
+        computePartitionInfo();
+        for (long partitionId : selectedPartitionIds) {
+            if (olapTable.getPartition(partitionId).getIndex(selectedIndexId) == null) {
+                throw new UserException("Index " + selectedIndexId + " of table " + olapTable.getName()
+                        + " does not exist in partition " + partitionId);
+            }
+        }
+
+        result.clear();
+        scanTabletIds.clear();
+        scanBackendIds.clear();
+        tabletId2BucketSeq.clear();
+        bucketSeq2locations.clear();
+        selectedTabletsNum = 0;
+        totalTabletsNum = 0;
+        totalBytes = 0;
+        cardinality = 0;
+        getScanRangeLocations();
+        computeNumNodes();
+    }
+
     public void computeTupleState(Analyzer analyzer) {
         for (TupleId id : tupleIds) {
             analyzer.getDescTbl().getTupleDesc(id).computeStat();
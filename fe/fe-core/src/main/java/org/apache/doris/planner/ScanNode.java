@@ -28,6 +28,7 @@ import org.apache.doris.analysis.InPredicate;
 import org.apache.doris.analysis.IsNullPredicate;
 import org.apache.doris.analysis.LiteralExpr;
 import org.apache.doris.analysis.NullLiteral;
+import org.apache.doris.analysis.PlaceHolderExpr;
 import org.apache.doris.analysis.PredicateUtils;
 import org.apache.doris.analysis.SlotDescriptor;
 import org.apache.doris.analysis.SlotRef;
@@ -219,7 +220,7 @@ public abstract class ScanNode extends PlanNode {
                 return ColumnRanges.createFailure();
             }
 
-            LiteralExpr value = (LiteralExpr) slotBinding;
+            LiteralExpr value = PlaceHolderExpr.unwrap((LiteralExpr) slotBinding);
             switch (binPred.getOp()) {
                 case EQ:
                     ColumnBound bound = ColumnBound.of(value);
@@ -258,7 +259,7 @@ public abstract class ScanNode extends PlanNode {
             }
 
             for (int i = 1; i < inPredicate.getChildren().size(); ++i) {
-                ColumnBound bound = ColumnBound.of((LiteralExpr) inPredicate.getChild(i));
+                ColumnBound bound = ColumnBound.of(PlaceHolderExpr.unwrap((LiteralExpr) inPredicate.getChild(i)));
                 result.add(Range.closed(bound, bound));
             }
         }
@@ -291,7 +292,7 @@ public abstract class ScanNode extends PlanNode {
                 if (null == partitionColumnFilter) {
                     partitionColumnFilter = new PartitionColumnFilter();
                 }
-                LiteralExpr literal = (LiteralExpr) slotBinding;
+                LiteralExpr literal = PlaceHolderExpr.unwrap((LiteralExpr) slotBinding);
                 BinaryPredicate.Operator op = binPredicate.getOp();
                 if (!binPredicate.slotIsLeft()) {
                     op = op.commutative();
@@ -331,7 +332,7 @@ public abstract class ScanNode extends PlanNode {
                 if (null == partitionColumnFilter) {
                     partitionColumnFilter = new PartitionColumnFilter();
                 }
-                partitionColumnFilter.setInPredicate(inPredicate);
+                partitionColumnFilter.setInPredicate(unwrapPlaceHolders(inPredicate));
             } else if (expr instanceof IsNullPredicate) {
                 IsNullPredicate isNullPredicate = (IsNullPredicate) expr;
                 if (!isNullPredicate.isSlotRefChildren() || isNullPredicate.isNotNull()) {
@@ -352,6 +353,19 @@ public abstract class ScanNode extends PlanNode {
         return partitionColumnFilter;
     }
 
+    // The pruners read the values of in predicate directly, so replace the placeholders of a prepared
+    // statement with their bound values.
+    private static InPredicate unwrapPlaceHolders(InPredicate inPredicate) {
+        if (!inPredicate.contains(PlaceHolderExpr.class)) {
+            return inPredicate;
+        }
+        InPredicate result = (InPredicate) inPredicate.clone();
+        for (int i = 1; i < result.getChildren().size(); ++i) {
+            result.setChild(i, PlaceHolderExpr.unwrap((LiteralExpr) result.getChild(i)));
+        }
+        return result;
+    }
+
     private static class ColumnRanges {
         enum Type {
             // Expression is `is null` predicate.
@@ -23,7 +23,7 @@ import org.apache.doris.catalog.external.HMSExternalTable;
 import org.apache.doris.common.DdlException;
 import org.apache.doris.common.MetaNotFoundException;
 import org.apache.doris.common.UserException;
-import org.apache.doris.external.hive.util.HiveUtil;
+import org.apache.doris.datasource.HiveMetaStoreCache;
 import org.apache.doris.thrift.TFileFormatType;
 import org.apache.doris.thrift.TFileType;
 
@@ -34,13 +34,9 @@ import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
-import org.apache.hadoop.mapred.FileInputFormat;
-import org.apache.hadoop.mapred.InputFormat;
 import org.apache.hadoop.mapred.InputSplit;
-import org.apache.hadoop.mapred.JobConf;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -94,45 +90,22 @@ public class ExternalHiveScanProvider implements ExternalFileScanProvider {
         String splitsPath = getRemoteHiveTable().getSd().getLocation();
         List<String> partitionKeys = getRemoteHiveTable().getPartitionKeys()
                 .stream().map(FieldSchema::getName).collect(Collectors.toList());
-        List<Partition> hivePartitions = new ArrayList<>();
+        HiveMetaStoreCache metaCache = hmsTable.getDataSource().getMetaCache();
+        String inputFormatName = getRemoteHiveTable().getSd().getInputFormat();
 
         if (partitionKeys.size() > 0) {
             ExprNodeGenericFuncDesc hivePartitionPredicate = HiveMetaStoreClientHelper.convertToHivePartitionExpr(
                     exprs, partitionKeys, hmsTable.getName());
-
-            String metaStoreUris = getMetaStoreUrl();
-            hivePartitions.addAll(HiveMetaStoreClientHelper.getHivePartitions(
-                    metaStoreUris,  getRemoteHiveTable(), hivePartitionPredicate));
-        }
-
-        String inputFormatName = getRemoteHiveTable().getSd().getInputFormat();
-
-        Configuration configuration = setConfiguration();
-        InputFormat<?, ?> inputFormat = HiveUtil.getInputFormat(configuration, inputFormatName, false);
-        if (!hivePartitions.isEmpty()) {
-            return hivePartitions.parallelStream()
-                    .flatMap(x -> getSplitsByPath(inputFormat, configuration, x.getSd().getLocation()).stream())
-                    .collect(Collectors.toList());
-        } else {
-            return getSplitsByPath(inputFormat, configuration, splitsPath);
-        }
-    }
-
-    private List<InputSplit> getSplitsByPath(
-            InputFormat<?, ?> inputFormat,
-            Configuration configuration,
-            String splitsPath) {
-        JobConf jobConf = new JobConf(configuration);
-        FileInputFormat.setInputPaths(jobConf, splitsPath);
-        try {
-            InputSplit[] splits = inputFormat.getSplits(jobConf, 0);
-            return Lists.newArrayList(splits);
-        } catch (IOException e) {
-            return new ArrayList<InputSplit>();
+            List<Partition> hivePartitions = metaCache.getPartitions(hmsTable.getDbName(), hmsTable.getName(),
+                    hivePartitionPredicate);
+            if (!hivePartitions.isEmpty()) {
+                return metaCache.getSplits(inputFormatName, hivePartitions.stream()
+                        .map(p -> p.getSd().getLocation()).collect(Collectors.toList()));
+            }
         }
+        return metaCache.getSplits(inputFormatName, Lists.newArrayList(splitsPath));
     }
 
-
     protected Configuration setConfiguration() {
         Configuration conf = new Configuration();
         Map<String, String> dfsProperties = hmsTable.getDfsProperties();
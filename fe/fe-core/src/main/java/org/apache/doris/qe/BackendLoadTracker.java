@@ -0,0 +1,109 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Config;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+
+/**
+ * Track the load of each backend across all queries of this FE.
+ * The load of a backend is the number of scan ranges of running fragment instances on it, plus a penalty
+ * for each failed instance. It decays with half life of Config.backend_load_decay_half_life_second,
+ * so that the load which is never released (eg, the report of the instance is lost) will not stay forever.
+ *
+ * The load is fed by the fragment instances sent by Coordinator, the exec status reports of these instances
+ * and the heartbeat of backends. It is used to choose the least loaded replica when assigning scan ranges.
+ */
+public class BackendLoadTracker {
+    // the load added to a backend when a fragment instance on it fails
+    private static final double FAILURE_PENALTY = 16;
+
+    // backend id -> load
+    private static final Map<Long, DecayingLoad> backendLoads = Maps.newConcurrentMap();
+
+    public static void addLoad(long backendId, long scanRangeNum) {
+        if (scanRangeNum <= 0) {
+            return;
+        }
+        backendLoads.computeIfAbsent(backendId, k -> new DecayingLoad()).add(scanRangeNum);
+    }
+
+    public static void releaseLoad(long backendId, long scanRangeNum) {
+        DecayingLoad load = backendLoads.get(backendId);
+        if (load != null && scanRangeNum > 0) {
+            load.add(-scanRangeNum);
+        }
+    }
+
+    public static void addFailurePenalty(long backendId) {
+        backendLoads.computeIfAbsent(backendId, k -> new DecayingLoad()).add(FAILURE_PENALTY);
+    }
+
+    // Called when backend is down or restarted, all the instances on it are gone.
+    public static void resetLoad(long backendId) {
+        backendLoads.remove(backendId);
+    }
+
+    public static double getLoad(long backendId) {
+        DecayingLoad load = backendLoads.get(backendId);
+        return load == null ? 0 : load.get();
+    }
+
+    // Return the current load of all backends which have load.
+    public static Map<Long, Double> getLoads() {
+        Map<Long, Double> loads = Maps.newHashMapWithExpectedSize(backendLoads.size());
+        for (Map.Entry<Long, DecayingLoad> entry : backendLoads.entrySet()) {
+            double load = entry.getValue().get();
+            if (load > 0) {
+                loads.put(entry.getKey(), load);
+            }
+        }
+        return loads;
+    }
+
+    // only for test
+    public static void clear() {
+        backendLoads.clear();
+    }
+
+    private static class DecayingLoad {
+        private double value = 0;
+        private long updateTimeMs = System.currentTimeMillis();
+
+        public synchronized void add(double delta) {
+            decay(System.currentTimeMillis());
+            value = Math.max(0, value + delta);
+        }
+
+        public synchronized double get() {
+            decay(System.currentTimeMillis());
+            return value;
+        }
+
+        private void decay(long nowMs) {
+            long halfLifeMs = Config.backend_load_decay_half_life_second * 1000L;
+            if (nowMs > updateTimeMs && halfLifeMs > 0 && value > 0) {
+                value *= Math.pow(0.5, (double) (nowMs - updateTimeMs) / halfLifeMs);
+            }
+            updateTimeMs = Math.max(updateTimeMs, nowMs);
+        }
+    }
+}
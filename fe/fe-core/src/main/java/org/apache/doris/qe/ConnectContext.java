@@ -21,6 +21,9 @@ import org.apache.doris.analysis.UserIdentity;
 import org.apache.doris.catalog.Catalog;
 import org.apache.doris.catalog.DatabaseIf;
 import org.apache.doris.cluster.ClusterNamespace;
+import org.apache.doris.common.AnalysisException;
+import org.apache.doris.common.Config;
+import org.apache.doris.common.DdlException;
 import org.apache.doris.common.UserException;
 import org.apache.doris.common.telemetry.Telemetry;
 import org.apache.doris.common.util.DebugUtil;
@@ -40,6 +43,7 @@ import org.apache.doris.transaction.TransactionEntry;
 import org.apache.doris.transaction.TransactionStatus;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import io.opentelemetry.api.trace.Tracer;
 import org.apache.logging.log4j.LogManager;
@@ -47,6 +51,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.nio.channels.SocketChannel;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -147,6 +152,11 @@ public class ConnectContext {
 
     private SessionContext sessionContext;
 
+    // Server side prepared statements of this connection, created by COM_STMT_PREPARE.
+    // Only accessed by the thread processing this connection.
+    private final Map<Integer, PreparedStatementContext> preparedStmts = Maps.newHashMap();
+    private int nextPreparedStmtId = 1;
+
     public SessionContext getSessionContext() {
         return sessionContext;
     }
@@ -191,7 +201,7 @@ public class ConnectContext {
     public ConnectContext() {
         state = new QueryState();
         returnRows = 0;
-        serverCapability = MysqlCapability.DEFAULT_CAPABILITY;
+        serverCapability = MysqlCapability.getServerCapability();
         isKilled = false;
         serializer = MysqlSerializer.newInstance();
         sessionVariable = VariableMgr.newSessionVariable();
@@ -201,7 +211,7 @@ public class ConnectContext {
     public ConnectContext(SocketChannel channel) {
         state = new QueryState();
         returnRows = 0;
-        serverCapability = MysqlCapability.DEFAULT_CAPABILITY;
+        serverCapability = MysqlCapability.getServerCapability();
         isKilled = false;
         mysqlChannel = new MysqlChannel(channel);
         serializer = MysqlSerializer.newInstance();
@@ -455,7 +465,27 @@ public class ConnectContext {
         return executor;
     }
 
+    // return null if the number of prepared statements reaches Config.max_prepared_stmt_count
+    public PreparedStatementContext addPreparedStmt(String originStmt) throws AnalysisException, DdlException {
+        if (preparedStmts.size() >= Config.max_prepared_stmt_count) {
+            return null;
+        }
+        PreparedStatementContext preparedStmt = new PreparedStatementContext(nextPreparedStmtId++, originStmt,
+                sessionVariable.getSqlMode());
+        preparedStmts.put(preparedStmt.getStmtId(), preparedStmt);
+        return preparedStmt;
+    }
+
+    public PreparedStatementContext getPreparedStmt(int stmtId) {
+        return preparedStmts.get(stmtId);
+    }
+
+    public void removePreparedStmt(int stmtId) {
+        preparedStmts.remove(stmtId);
+    }
+
     public void cleanup() {
+        preparedStmts.clear();
         mysqlChannel.close();
         threadLocalInfo.remove();
         returnRows = 0;
@@ -19,6 +19,8 @@ package org.apache.doris.qe;
 
 import org.apache.doris.analysis.InsertStmt;
 import org.apache.doris.analysis.KillStmt;
+import org.apache.doris.analysis.LiteralExpr;
+import org.apache.doris.analysis.NullLiteral;
 import org.apache.doris.analysis.Queriable;
 import org.apache.doris.analysis.SqlParser;
 import org.apache.doris.analysis.SqlScanner;
@@ -27,6 +29,7 @@ import org.apache.doris.analysis.UserIdentity;
 import org.apache.doris.catalog.Catalog;
 import org.apache.doris.catalog.Column;
 import org.apache.doris.catalog.DatabaseIf;
+import org.apache.doris.catalog.PrimitiveType;
 import org.apache.doris.catalog.TableIf;
 import org.apache.doris.cluster.ClusterNamespace;
 import org.apache.doris.common.AnalysisException;
@@ -39,9 +42,12 @@ import org.apache.doris.common.UserException;
 import org.apache.doris.common.util.DebugUtil;
 import org.apache.doris.common.util.SqlParserUtils;
 import org.apache.doris.metric.MetricRepo;
+import org.apache.doris.mysql.MysqlBinaryProtocol;
 import org.apache.doris.mysql.MysqlChannel;
 import org.apache.doris.mysql.MysqlCommand;
+import org.apache.doris.mysql.MysqlEofPacket;
 import org.apache.doris.mysql.MysqlPacket;
+import org.apache.doris.mysql.MysqlPrepareOkPacket;
 import org.apache.doris.mysql.MysqlProto;
 import org.apache.doris.mysql.MysqlSerializer;
 import org.apache.doris.mysql.MysqlServerStatusFlag;
@@ -174,14 +180,26 @@ public class ConnectProcessor {
     // only throw an exception when there is a problem interacting with the requesting client
     private void handleQuery() {
         MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
-        // convert statement to Java string
+        executeQuery(readStmtFromPacket());
+    }
+
+    // convert statement in the packet to Java string
+    private String readStmtFromPacket() {
         byte[] bytes = packetBuf.array();
         int ending = packetBuf.limit() - 1;
         while (ending >= 1 && bytes[ending] == '\0') {
             ending--;
         }
-        String originStmt = new String(bytes, 1, ending, StandardCharsets.UTF_8);
+        return new String(bytes, 1, ending, StandardCharsets.UTF_8);
+    }
+
+    private void executeQuery(String originStmt) {
+        executeQuery(originStmt, null);
+    }
 
+    // preparedStmt is not null if the statement is executed by COM_STMT_EXECUTE,
+    // and originStmt is the prepared statement bound with the parameter values.
+    private void executeQuery(String originStmt, PreparedStatementContext preparedStmt) {
         String sqlHash = DigestUtils.md5Hex(originStmt);
         ctx.setSqlHash(sqlHash);
         ctx.getAuditEventBuilder().reset();
@@ -198,7 +216,9 @@ public class ConnectProcessor {
         boolean alreadyAddedToAuditInfoList = false;
         try {
             List<StatementBase> stmts = null;
-            if (ctx.getSessionVariable().isEnableNereidsPlanner()) {
+            if (preparedStmt != null) {
+                stmts = Lists.newArrayList(preparedStmt.getParsedStmt(ctx.getSessionVariable().getSqlMode()));
+            } else if (ctx.getSessionVariable().isEnableNereidsPlanner()) {
                 NereidsParser nereidsParser = new NereidsParser();
                 try {
                     stmts = nereidsParser.parseSQL(originStmt);
@@ -221,7 +241,7 @@ public class ConnectProcessor {
                 parsedStmt = stmts.get(i);
                 parsedStmt.setOrigStmt(new OriginStatement(originStmt, i));
                 parsedStmt.setUserInfo(ctx.getCurrentUserIdentity());
-                executor = new StmtExecutor(ctx, parsedStmt);
+                executor = new StmtExecutor(ctx, parsedStmt, preparedStmt);
                 ctx.setExecutor(executor);
                 executor.execute();
 
@@ -269,12 +289,128 @@ public class ConnectProcessor {
         }
     }
 
+    // COM_STMT_PREPARE: parse the statement, it is analyzed when it is executed with the bound parameters.
+    private void handleStmtPrepare() throws IOException {
+        String originStmt = readStmtFromPacket();
+        PreparedStatementContext preparedStmt;
+        try {
+            preparedStmt = ctx.addPreparedStmt(originStmt);
+        } catch (UserException e) {
+            LOG.debug("failed to prepare statement: {}", originStmt, e);
+            ctx.getState().setError(e.getMysqlErrorCode(), e.getMessage());
+            ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
+            return;
+        }
+        if (preparedStmt == null) {
+            ctx.getState().setError(ErrorCode.ERR_MAX_PREPARED_STMT_COUNT_REACHED,
+                    ErrorCode.ERR_MAX_PREPARED_STMT_COUNT_REACHED.formatErrorMsg(Config.max_prepared_stmt_count));
+            return;
+        }
+
+        MysqlSerializer serializer = ctx.getSerializer();
+        MysqlChannel channel = ctx.getMysqlChannel();
+        // The columns of result set is unknown until the statement is analyzed, so send 0 columns here.
+        // Clients get the result set metadata from the response of COM_STMT_EXECUTE.
+        serializer.reset();
+        new MysqlPrepareOkPacket(preparedStmt.getStmtId(), 0, preparedStmt.getNumParams(), 0).writeTo(serializer);
+        channel.sendOnePacket(serializer.toByteBuffer());
+        if (preparedStmt.getNumParams() > 0) {
+            for (int i = 0; i < preparedStmt.getNumParams(); i++) {
+                serializer.reset();
+                serializer.writeField("?", PrimitiveType.VARCHAR);
+                channel.sendOnePacket(serializer.toByteBuffer());
+            }
+            if (!serializer.getCapability().isDeprecatedEOF()) {
+                serializer.reset();
+                new MysqlEofPacket(ctx.getState()).writeTo(serializer);
+                channel.sendOnePacket(serializer.toByteBuffer());
+            }
+        }
+        channel.flush();
+        ctx.getState().setNoop();
+    }
+
+    // COM_STMT_EXECUTE: bind the parameters and execute the statement.
+    // The result set is sent in binary protocol, see StmtExecutor.
+    private void handleStmtExecute() {
+        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        PreparedStatementContext preparedStmt = ctx.getPreparedStmt(stmtId);
+        if (preparedStmt == null) {
+            ctx.getState().setError(ErrorCode.ERR_UNKNOWN_STMT_HANDLER,
+                    "Unknown prepared statement handler (" + stmtId + ") given to COM_STMT_EXECUTE");
+            return;
+        }
+        // flags, only CURSOR_TYPE_NO_CURSOR is supported, so just ignore it.
+        MysqlProto.readInt1(packetBuf);
+        // iteration count, always 1
+        MysqlProto.readInt4(packetBuf);
+
+        try {
+            int numParams = preparedStmt.getNumParams();
+            List<LiteralExpr> paramValues = Lists.newArrayListWithCapacity(numParams);
+            if (numParams > 0) {
+                byte[] nullBitmap = MysqlProto.readFixedString(packetBuf, (numParams + 7) / 8);
+                boolean newParamsBound = MysqlProto.readInt1(packetBuf) == 1;
+                if (newParamsBound) {
+                    int[] paramTypes = new int[numParams];
+                    for (int i = 0; i < numParams; i++) {
+                        paramTypes[i] = MysqlProto.readInt2(packetBuf);
+                    }
+                    preparedStmt.setParamTypes(paramTypes);
+                }
+                int[] paramTypes = preparedStmt.getParamTypes();
+                if (paramTypes == null) {
+                    ctx.getState().setError(ErrorCode.ERR_WRONG_ARGUMENTS,
+                            "Incorrect arguments to COM_STMT_EXECUTE, parameter types are not bound");
+                    return;
+                }
+                for (int i = 0; i < numParams; i++) {
+                    if ((nullBitmap[i / 8] & (1 << (i % 8))) != 0) {
+                        paramValues.add(new NullLiteral());
+                    } else {
+                        paramValues.add(MysqlBinaryProtocol.readParamAsLiteral(packetBuf, paramTypes[i] & 0xFF,
+                                ((paramTypes[i] >> 8) & MysqlBinaryProtocol.UNSIGNED_FLAG) != 0));
+                    }
+                }
+            }
+            preparedStmt.bind(paramValues);
+        } catch (Exception e) {
+            LOG.warn("failed to bind parameters of prepared statement {}", stmtId, e);
+            ctx.getState().setError(ErrorCode.ERR_WRONG_ARGUMENTS,
+                    "Incorrect arguments to COM_STMT_EXECUTE: " + e.getMessage());
+            return;
+        }
+        executeQuery(preparedStmt.getBoundStmt(), preparedStmt);
+    }
+
+    // COM_STMT_CLOSE: deallocate the prepared statement, no response is sent back.
+    private void handleStmtClose() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        ctx.removePreparedStmt(stmtId);
+        ctx.getState().setNoop();
+    }
+
+    // COM_STMT_RESET: long data is not supported, so there is nothing to reset.
+    private void handleStmtReset() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        if (ctx.getPreparedStmt(stmtId) == null) {
+            ctx.getState().setError(ErrorCode.ERR_UNKNOWN_STMT_HANDLER,
+                    "Unknown prepared statement handler (" + stmtId + ") given to COM_STMT_RESET");
+            return;
+        }
+        ctx.getState().setOk();
+    }
+
     // analyze the origin stmt and return multi-statements
     private List<StatementBase> parse(String originStmt) throws AnalysisException, DdlException {
         LOG.debug("the originStmts are: {}", originStmt);
         // Parse statement with parser generated by CUP&FLEX
         SqlScanner input = new SqlScanner(new StringReader(originStmt), ctx.getSessionVariable().getSqlMode());
-        SqlParser parser = new SqlParser(input);
+        return parse(new SqlParser(input), originStmt);
+    }
+
+    static List<StatementBase> parse(SqlParser parser, String originStmt) throws AnalysisException, DdlException {
         try {
             return SqlParserUtils.getMultiStmts(parser);
         } catch (Error e) {
@@ -371,6 +507,27 @@ public class ConnectProcessor {
             case COM_PING:
                 handlePing();
                 break;
+            case COM_STMT_PREPARE:
+                handleStmtPrepare();
+                break;
+            case COM_STMT_EXECUTE:
+                ctx.initTracer("trace");
+                Span executeSpan = ctx.getTracer().spanBuilder("handleStmtExecute").startSpan();
+                try (Scope scope = executeSpan.makeCurrent()) {
+                    handleStmtExecute();
+                } catch (Exception e) {
+                    executeSpan.recordException(e);
+                    throw e;
+                } finally {
+                    executeSpan.end();
+                }
+                break;
+            case COM_STMT_CLOSE:
+                handleStmtClose();
+                break;
+            case COM_STMT_RESET:
+                handleStmtReset();
+                break;
             default:
                 ctx.getState().setError(ErrorCode.ERR_UNKNOWN_COM_ERROR, "Unsupported command(" + command + ")");
                 LOG.warn("Unsupported command(" + command + ")");
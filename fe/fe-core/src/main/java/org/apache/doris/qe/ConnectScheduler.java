@@ -171,6 +171,9 @@ public class ConnectScheduler {
 
                 if (registerConnection(context)) {
                     MysqlProto.sendResponsePacket(context);
+                    if (context.getCapability().isCompress()) {
+                        context.getMysqlChannel().enableCompression();
+                    }
                 } else {
                     context.getState().setError(ErrorCode.ERR_USER_LIMIT_REACHED, "Reach limit of connections");
                     MysqlProto.sendResponsePacket(context);
@@ -27,12 +27,14 @@ import org.apache.doris.common.MarkedCountDownLatch;
 import org.apache.doris.common.Pair;
 import org.apache.doris.common.Reference;
 import org.apache.doris.common.Status;
+import org.apache.doris.common.ThreadPoolManager;
 import org.apache.doris.common.UserException;
 import org.apache.doris.common.telemetry.ScopedSpan;
 import org.apache.doris.common.telemetry.Telemetry;
 import org.apache.doris.common.util.DebugUtil;
 import org.apache.doris.common.util.ListUtil;
 import org.apache.doris.common.util.ProfileWriter;
+import org.apache.doris.common.util.QueryPlannerProfile;
 import org.apache.doris.common.util.RuntimeProfile;
 import org.apache.doris.common.util.TimeUtils;
 import org.apache.doris.common.util.VectorizedUtil;
@@ -79,6 +81,7 @@ import org.apache.doris.thrift.TExecPlanFragmentParamsList;
 import org.apache.doris.thrift.TLoadErrorHubInfo;
 import org.apache.doris.thrift.TNetworkAddress;
 import org.apache.doris.thrift.TPaloScanRange;
+import org.apache.doris.thrift.TPlanFragment;
 import org.apache.doris.thrift.TPlanFragmentDestination;
 import org.apache.doris.thrift.TPlanFragmentExecParams;
 import org.apache.doris.thrift.TQueryGlobals;
@@ -96,6 +99,7 @@ import org.apache.doris.thrift.TStatusCode;
 import org.apache.doris.thrift.TTabletCommitInfo;
 import org.apache.doris.thrift.TUniqueId;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.HashMultiset;
@@ -116,6 +120,7 @@ import org.jetbrains.annotations.NotNull;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -127,6 +132,9 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
@@ -142,6 +150,15 @@ public class Coordinator {
     // Random is used to shuffle instances of partitioned
     private static final Random instanceRandom = new Random();
 
+    // Thread pool to serialize the fragment params of different backends in parallel.
+    // The query thread also runs the serialization tasks which are not started by the pool,
+    // so tasks discarded by a busy pool are still executed.
+    private static final ThreadPoolExecutor FRAGMENT_SERIALIZE_POOL = ThreadPoolManager.newDaemonThreadPool(
+            Math.max(1, Config.fragment_params_serialize_thread_num),
+            Math.max(1, Config.fragment_params_serialize_thread_num), 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(1024), new ThreadPoolExecutor.DiscardPolicy(),
+            "fragment-serialize-pool", false);
+
     // Overall status of the entire query; set to the first reported fragment error
     // status or to CANCELLED, if Cancel() is called.
     Status queryStatus = new Status();
@@ -178,6 +195,8 @@ public class Coordinator {
     private List<RuntimeProfile> fragmentProfile;
 
     private ProfileWriter profileWriter;
+    // record the time of each scheduling stage, may be null
+    private QueryPlannerProfile plannerProfile;
 
     // populated in computeFragmentExecParams()
     private final Map<PlanFragmentId, FragmentExecParams> fragmentExecParamsMap = Maps.newHashMap();
@@ -217,6 +236,10 @@ public class Coordinator {
     private TUniqueId queryId;
     private final TResourceInfo tResourceInfo;
     private final boolean needReport;
+    // choose replica by the load of backends across all queries, see BackendLoadTracker
+    private boolean enableLoadAwareReplicaSelection = false;
+    // backend id -> load, snapshot of BackendLoadTracker when computing scan range assignment
+    private Map<Long, Double> backendLoads = null;
 
     // parallel execute
     private final TUniqueId nextInstanceId;
@@ -260,6 +283,7 @@ public class Coordinator {
         this.tResourceInfo = new TResourceInfo(context.getQualifiedUser(),
                 context.getSessionVariable().getResourceGroup());
         this.needReport = context.getSessionVariable().enableProfile();
+        this.enableLoadAwareReplicaSelection = context.getSessionVariable().isEnableLoadAwareReplicaSelection();
         this.nextInstanceId = new TUniqueId();
         nextInstanceId.setHi(queryId.hi);
         nextInstanceId.setLo(queryId.lo + 1);
@@ -356,6 +380,10 @@ public class Coordinator {
         this.profileWriter = profileWriter;
     }
 
+    public void setPlannerProfile(QueryPlannerProfile plannerProfile) {
+        this.plannerProfile = plannerProfile;
+    }
+
     public List<String> getDeltaUrls() {
         return deltaUrls;
     }
@@ -409,7 +437,8 @@ public class Coordinator {
     }
 
     // Initialize
-    private void prepare() {
+    @VisibleForTesting
+    public void prepare() {
         for (PlanFragment fragment : fragments) {
             fragmentExecParamsMap.put(fragment.getFragmentId(), new FragmentExecParams(fragment));
         }
@@ -492,9 +521,16 @@ public class Coordinator {
         // prepare information
         prepare();
         // compute Fragment Instance
+        long startTime = TimeUtils.getStartTime();
         computeScanRangeAssignment();
+        long scanRangeAssignmentTime = TimeUtils.getEstimatedTime(startTime);
 
+        startTime = TimeUtils.getStartTime();
         computeFragmentExecParams();
+        if (plannerProfile != null) {
+            plannerProfile.setScanRangeAssignmentTime(scanRangeAssignmentTime);
+            plannerProfile.setFragmentExecParamsTime(TimeUtils.getEstimatedTime(startTime));
+        }
 
         traceInstance();
 
@@ -572,6 +608,7 @@ public class Coordinator {
     private void sendFragment() throws TException, RpcException, UserException {
         lock();
         try {
+            long startTime = TimeUtils.getStartTime();
             Multiset<TNetworkAddress> hostCounter = HashMultiset.create();
             for (FragmentExecParams params : fragmentExecParamsMap.values()) {
                 for (FInstanceExecParam fi : params.instanceExecParams) {
@@ -630,6 +667,7 @@ public class Coordinator {
                     tParam.setNeedWaitExecutionTrigger(twoPhaseExecution);
 
                     backendExecStates.add(execState);
+                    execState.addLoad();
                     if (needCheckBackendState) {
                         needCheckBackendExecStates.add(execState);
                         if (LOG.isDebugEnabled()) {
@@ -650,7 +688,15 @@ public class Coordinator {
                 profileFragmentId += 1;
             } // end for fragments
 
-            // 4. send and wait fragments rpc
+            long buildParamsTime = TimeUtils.getEstimatedTime(startTime);
+
+            // 4. serialize the fragment params of each backend, in parallel if there are many backends
+            startTime = TimeUtils.getStartTime();
+            serializeFragmentParams(beToExecStates.values());
+            long serializeParamsTime = TimeUtils.getEstimatedTime(startTime);
+
+            // 5. send and wait fragments rpc
+            startTime = TimeUtils.getStartTime();
             List<Pair<BackendExecStates, Future<InternalService.PExecPlanFragmentResult>>> futures =
                     Lists.newArrayList();
             Context parentSpanContext = Context.current();
@@ -661,13 +707,12 @@ public class Coordinator {
                             .setParent(parentSpanContext).setSpanKind(SpanKind.CLIENT).startSpan();
                 }
                 states.scopedSpan = new ScopedSpan(span);
-                states.unsetFields();
                 futures.add(Pair.create(states, states.execRemoteFragmentsAsync()));
             }
             waitRpc(futures, this.timeoutDeadline - System.currentTimeMillis(), "send fragments");
 
             if (twoPhaseExecution) {
-                // 5. send and wait execution start rpc
+                // 6. send and wait execution start rpc
                 futures.clear();
                 for (BackendExecStates states : beToExecStates.values()) {
                     Span span = Telemetry.getNoopSpan();
@@ -680,6 +725,11 @@ public class Coordinator {
                 }
                 waitRpc(futures, this.timeoutDeadline - System.currentTimeMillis(), "send execution start");
             }
+            if (plannerProfile != null) {
+                plannerProfile.setFragmentParamsBuildTime(buildParamsTime);
+                plannerProfile.setFragmentParamsSerializeTime(serializeParamsTime);
+                plannerProfile.setFragmentSendTime(TimeUtils.getEstimatedTime(startTime));
+            }
 
             attachInstanceProfileToFragmentProfile();
         } finally {
@@ -687,6 +737,40 @@ public class Coordinator {
         }
     }
 
+    // Serialize the fragment params of each backend. The thrift serialization of a large query
+    // is cpu intensive, so do it in parallel for different backends.
+    private void serializeFragmentParams(Collection<BackendExecStates> beExecStates) throws TException {
+        List<FutureTask<Void>> tasks = Lists.newArrayListWithCapacity(beExecStates.size());
+        for (BackendExecStates states : beExecStates) {
+            states.unsetFields();
+            tasks.add(new FutureTask<>(() -> {
+                states.serializeRequest();
+                return null;
+            }));
+        }
+        if (tasks.size() > 1 && Config.fragment_params_serialize_thread_num > 0) {
+            // the first task is left to the current thread
+            for (int i = 1; i < tasks.size(); i++) {
+                FRAGMENT_SERIALIZE_POOL.execute(tasks.get(i));
+            }
+        }
+        for (FutureTask<Void> task : tasks) {
+            // run the task in current thread if it has not been started by the pool,
+            // otherwise this is a no-op and just wait for the result.
+            task.run();
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                throw new TException("serialize fragment params interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TException) {
+                    throw (TException) e.getCause();
+                }
+                throw new TException("serialize fragment params failed", e.getCause());
+            }
+        }
+    }
+
     private void waitRpc(List<Pair<BackendExecStates, Future<PExecPlanFragmentResult>>> futures, long timeoutMs,
             String operation) throws RpcException, UserException {
         if (timeoutMs <= 0) {
@@ -907,6 +991,7 @@ public class Coordinator {
 
         if (resultBatch.isEos()) {
             this.returnedAllResults = true;
+            releaseBackendLoads();
 
             // if this query is a block query do not cancel.
             Long numLimitRows = fragments.get(0).getPlanRoot().getLimit();
@@ -946,6 +1031,7 @@ public class Coordinator {
             receiver.cancel();
         }
         cancelRemoteFragmentsAsync(cancelReason);
+        releaseBackendLoads();
         if (profileDoneSignal != null) {
             // count down to zero to notify all objects waiting for this
             profileDoneSignal.countDownToZero(new Status());
@@ -1494,8 +1580,12 @@ public class Coordinator {
 
     // Populates scan_range_assignment_.
     // <fragment, <server, nodeId>>
-    private void computeScanRangeAssignment() throws Exception {
+    @VisibleForTesting
+    public void computeScanRangeAssignment() throws Exception {
         HashMap<TNetworkAddress, Long> assignedBytesPerHost = Maps.newHashMap();
+        if (enableLoadAwareReplicaSelection) {
+            backendLoads = BackendLoadTracker.getLoads();
+        }
         // set scan ranges/locations for scan nodes
         for (ScanNode scanNode : scanNodes) {
             // the parameters of getScanRangeLocations may ignore, It doesn't take effect
@@ -1607,13 +1697,18 @@ public class Coordinator {
 
     public TScanRangeLocation selectBackendsByRoundRobin(List<TScanRangeLocation> locations,
             HashMap<TNetworkAddress, Long> assignedBytesPerHost, Reference<Long> backendIdRef) throws UserException {
-        Long minAssignedBytes = Long.MAX_VALUE;
+        double minCost = Double.MAX_VALUE;
         TScanRangeLocation minLocation = null;
         Long step = 1L;
         for (final TScanRangeLocation location : locations) {
             Long assignedBytes = findOrInsert(assignedBytesPerHost, location.server, 0L);
-            if (assignedBytes < minAssignedBytes) {
-                minAssignedBytes = assignedBytes;
+            // both are counted by scan ranges, so the load of other queries can be added directly
+            double cost = assignedBytes;
+            if (backendLoads != null) {
+                cost += backendLoads.getOrDefault(location.backend_id, 0D);
+            }
+            if (cost < minCost) {
+                minCost = cost;
                 minLocation = location;
             }
         }
@@ -1665,6 +1760,7 @@ public class Coordinator {
         if (!execState.updateProfile(params)) {
             return;
         }
+        updateBackendLoad(execState, params);
 
         // print fragment instance profile
         if (LOG.isDebugEnabled()) {
@@ -1714,6 +1810,30 @@ public class Coordinator {
         }
     }
 
+    private void updateBackendLoad(BackendExecState execState, TReportExecStatusParams params) {
+        Status status = new Status(params.status);
+        if (!status.ok() && !status.isCancelled()) {
+            BackendLoadTracker.addFailurePenalty(execState.backend.getId());
+        }
+        if (execState.done) {
+            execState.releaseLoad();
+        }
+    }
+
+    // Release the load of all instances on backends. The BE does not report the done status of an instance
+    // if profile is not needed, so this is called when the query returns all results, is cancelled or
+    // unregistered. The load of each instance is released at most once.
+    public void releaseBackendLoads() {
+        lock();
+        try {
+            for (BackendExecState execState : backendExecStates) {
+                execState.releaseLoad();
+            }
+        } finally {
+            unlock();
+        }
+    }
+
     public void endProfile() {
         endProfile(true);
     }
@@ -2052,6 +2172,10 @@ public class Coordinator {
         Backend backend;
         long lastMissingHeartbeatTime = -1;
         TUniqueId instanceId;
+        // number of scan ranges of this instance, used as the load of it on backend
+        long scanRangeNum = 0;
+        // whether the load of this instance is added to BackendLoadTracker and not released yet
+        private boolean isLoadHeld = false;
 
         public BackendExecState(PlanFragmentId fragmentId, int instanceId, int profileFragmentId,
                                 TExecPlanFragmentParams rpcParams, Map<TNetworkAddress, Long> addressToBackendID) {
@@ -2065,6 +2189,9 @@ public class Coordinator {
             this.address = fi.host;
             this.backend = idToBackend.get(addressToBackendID.get(address));
             this.brpcAddress = new TNetworkAddress(backend.getHost(), backend.getBrpcPort());
+            for (List<TScanRangeParams> scanRanges : fi.perNodeScanRanges.values()) {
+                this.scanRangeNum += scanRanges.size();
+            }
 
             String name = "Instance " + DebugUtil.printId(fi.instanceId) + " (host=" + address + ")";
             this.profile = new RuntimeProfile(name);
@@ -2077,9 +2204,12 @@ public class Coordinator {
          * Therefore, when we confirm that a certain BE has accepted the information,
          * we will delete the information in the subsequent Fragment to avoid repeated sending.
          * This information can be obtained from the cache of BE.
+         *
+         * @param isSentInSameRpc whether the information is carried by a previous params in the same rpc,
+         *                        BE handles the params in one rpc in order.
          */
-        public void unsetFields() {
-            if (alreadySentBackendIds.contains(backend.getId())) {
+        public void unsetFields(boolean isSentInSameRpc) {
+            if (isSentInSameRpc || alreadySentBackendIds.contains(backend.getId())) {
                 this.rpcParams.unsetDescTbl();
                 this.rpcParams.unsetCoord();
                 this.rpcParams.unsetQueryGlobals();
@@ -2104,6 +2234,21 @@ public class Coordinator {
             return true;
         }
 
+        public synchronized void addLoad() {
+            BackendLoadTracker.addLoad(backend.getId(), scanRangeNum);
+            isLoadHeld = true;
+        }
+
+        // release the load added by addLoad(), return false if it is not added or already released
+        public synchronized boolean releaseLoad() {
+            if (!isLoadHeld) {
+                return false;
+            }
+            isLoadHeld = false;
+            BackendLoadTracker.releaseLoad(backend.getId(), scanRangeNum);
+            return true;
+        }
+
         public synchronized void printProfile(StringBuilder builder) {
             this.profile.computeTimeInProfile();
             this.profile.prettyPrint(builder, "");
@@ -2191,6 +2336,8 @@ public class Coordinator {
         List<BackendExecState> states = Lists.newArrayList();
         boolean twoPhaseExecution = false;
         ScopedSpan scopedSpan = new ScopedSpan();
+        // serialized params of all states
+        InternalService.PExecPlanFragmentRequest request;
 
         public BackendExecStates(long beId, TNetworkAddress brpcAddr, boolean twoPhaseExecution) {
             this.beId = beId;
@@ -2210,22 +2357,26 @@ public class Coordinator {
         public void unsetFields() {
             boolean first = true;
             for (BackendExecState state : states) {
-                if (first) {
-                    first = false;
-                    continue;
-                }
-                state.unsetFields();
+                state.unsetFields(!first);
+                first = false;
             }
         }
 
+        public void serializeRequest() throws TException {
+            TExecPlanFragmentParamsList paramsList = new TExecPlanFragmentParamsList();
+            for (BackendExecState state : states) {
+                paramsList.addToParamsList(state.rpcParams);
+            }
+            request = BackendServiceProxy.buildExecPlanFragmentRequest(paramsList);
+        }
+
         public Future<InternalService.PExecPlanFragmentResult> execRemoteFragmentsAsync() throws TException {
             try {
-                TExecPlanFragmentParamsList paramsList = new TExecPlanFragmentParamsList();
-                for (BackendExecState state : states) {
-                    paramsList.addToParamsList(state.rpcParams);
+                if (request == null) {
+                    serializeRequest();
                 }
                 return BackendServiceProxy.getInstance()
-                        .execPlanFragmentsAsync(brpcAddr, paramsList, twoPhaseExecution);
+                        .execPlanFragmentsAsync(brpcAddr, request, twoPhaseExecution);
             } catch (RpcException e) {
                 // DO NOT throw exception here, return a complete future with error code,
                 // so that the following logic will cancel the fragment.
@@ -2298,12 +2449,22 @@ public class Coordinator {
 
         List<TExecPlanFragmentParams> toThrift(int backendNum) {
             List<TExecPlanFragmentParams> paramsList = Lists.newArrayList();
+            // the plan fragment and load error hub info are the same for all instances,
+            // build them once and share them among the params of instances.
+            TPlanFragment tFragment = fragment.toThrift();
+            TLoadErrorHubInfo loadErrorHubInfo = null;
+            if (queryOptions.getQueryType() == TQueryType.LOAD) {
+                LoadErrorHub.Param param = Catalog.getCurrentCatalog().getLoadInstance().getLoadErrorHubInfo();
+                if (param != null) {
+                    loadErrorHubInfo = param.toThrift();
+                }
+            }
 
             for (int i = 0; i < instanceExecParams.size(); ++i) {
                 final FInstanceExecParam instanceExecParam = instanceExecParams.get(i);
                 TExecPlanFragmentParams params = new TExecPlanFragmentParams();
                 params.setProtocolVersion(PaloInternalServiceVersion.V1);
-                params.setFragment(fragment.toThrift());
+                params.setFragment(tFragment);
                 params.setDescTbl(descTable);
                 params.setParams(new TPlanFragmentExecParams());
                 params.setResourceInfo(tResourceInfo);
@@ -2347,14 +2508,8 @@ public class Coordinator {
                                 rf.getFilterId().asInt(), rf.toThrift());
                     }
                 }
-                if (queryOptions.getQueryType() == TQueryType.LOAD) {
-                    LoadErrorHub.Param param = Catalog.getCurrentCatalog().getLoadInstance().getLoadErrorHubInfo();
-                    if (param != null) {
-                        TLoadErrorHubInfo info = param.toThrift();
-                        if (info != null) {
-                            params.setLoadErrorHubInfo(info);
-                        }
-                    }
+                if (loadErrorHubInfo != null) {
+                    params.setLoadErrorHubInfo(loadErrorHubInfo);
                 }
                 paramsList.add(params);
             }
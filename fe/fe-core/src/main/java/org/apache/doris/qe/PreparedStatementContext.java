@@ -0,0 +1,464 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.analysis.Analyzer;
+import org.apache.doris.analysis.BaseTableRef;
+import org.apache.doris.analysis.BinaryPredicate;
+import org.apache.doris.analysis.DateLiteral;
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.analysis.FunctionCallExpr;
+import org.apache.doris.analysis.InPredicate;
+import org.apache.doris.analysis.InformationFunction;
+import org.apache.doris.analysis.LiteralExpr;
+import org.apache.doris.analysis.NullLiteral;
+import org.apache.doris.analysis.OrderByElement;
+import org.apache.doris.analysis.PlaceHolderExpr;
+import org.apache.doris.analysis.SelectListItem;
+import org.apache.doris.analysis.SelectStmt;
+import org.apache.doris.analysis.SlotRef;
+import org.apache.doris.analysis.SqlParser;
+import org.apache.doris.analysis.SqlScanner;
+import org.apache.doris.analysis.StatementBase;
+import org.apache.doris.analysis.StringLiteral;
+import org.apache.doris.analysis.Subquery;
+import org.apache.doris.analysis.TableRef;
+import org.apache.doris.analysis.UserIdentity;
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.catalog.MaterializedIndexMeta;
+import org.apache.doris.catalog.OlapTable;
+import org.apache.doris.catalog.TableIf;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.common.AnalysisException;
+import org.apache.doris.common.DdlException;
+import org.apache.doris.common.UserException;
+import org.apache.doris.planner.OlapScanNode;
+import org.apache.doris.planner.Planner;
+import org.apache.doris.planner.ScanNode;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A server side prepared statement created by COM_STMT_PREPARE.
+ *
+ * The statement is parsed once when it is prepared, the '?' in it are parsed as {@link PlaceHolderExpr},
+ * and COM_STMT_EXECUTE only binds the parameter values to the placeholders. The parameter types sent
+ * by the first COM_STMT_EXECUTE are remembered, because the client only sends them again when they change.
+ *
+ * For a simple query on a single olap table, whose placeholders are only compared with columns in the
+ * where clause, the analyzed statement and its plan are cached after the first execution. The following
+ * executions only re-prune the partitions and tablets of the scan node with the new values, see
+ * {@link #refreshCachedPlan(ConnectContext)}. Other statements are analyzed and planned again on each
+ * execution, but still do not need to be parsed again.
+ */
+public class PreparedStatementContext {
+    private static final Logger LOG = LogManager.getLogger(PreparedStatementContext.class);
+
+    private final int stmtId;
+    private final String originStmt;
+    // originStmt split by placeholders, segments.size() == numParams + 1
+    private final List<String> segments;
+    // type of each parameter, in the form of (unsigned_flag << 8 | mysql_type_code)
+    private int[] paramTypes;
+    // values bound by the last COM_STMT_EXECUTE
+    private List<LiteralExpr> paramValues = Collections.emptyList();
+
+    private StatementBase parsedStmt;
+    private List<PlaceHolderExpr> placeholders;
+    // the parsed stmt is modified by analysis, so it has to be parsed again if it is used but its plan is not cached
+    private boolean isParsedStmtUsed = false;
+    // whether the plan of the statement may be cached, only checked on the statement which is not analyzed
+    private final boolean isPlanCacheable;
+    private CachedPlan cachedPlan;
+
+    public PreparedStatementContext(int stmtId, String originStmt, long sqlMode)
+            throws AnalysisException, DdlException {
+        this.stmtId = stmtId;
+        this.originStmt = originStmt;
+        this.segments = splitByPlaceholder(originStmt);
+        parse(sqlMode);
+        if (placeholders.size() != segments.size() - 1) {
+            throw new AnalysisException("Failed to locate the placeholders of prepared statement, expect "
+                    + placeholders.size() + " but get " + (segments.size() - 1));
+        }
+        this.isPlanCacheable = checkPlanCacheable(parsedStmt, placeholders.size());
+    }
+
+    public int getStmtId() {
+        return stmtId;
+    }
+
+    public String getOriginStmt() {
+        return originStmt;
+    }
+
+    public int getNumParams() {
+        return segments.size() - 1;
+    }
+
+    public int[] getParamTypes() {
+        return paramTypes;
+    }
+
+    public void setParamTypes(int[] paramTypes) {
+        this.paramTypes = paramTypes;
+    }
+
+    public boolean isPlanCacheable() {
+        return isPlanCacheable;
+    }
+
+    // Bind the parameter values of one COM_STMT_EXECUTE.
+    public void bind(List<LiteralExpr> values) throws AnalysisException {
+        if (values.size() != getNumParams()) {
+            throw new AnalysisException("Incorrect arguments to execute prepared statement " + stmtId
+                    + ", expect " + getNumParams() + " but get " + values.size());
+        }
+        paramValues = values;
+    }
+
+    // Return the statement bound with the values, it is the analyzed statement if the plan is cached.
+    public StatementBase getParsedStmt(long sqlMode) throws AnalysisException, DdlException {
+        if (cachedPlan == null && isParsedStmtUsed) {
+            parse(sqlMode);
+        }
+        for (int i = 0; i < placeholders.size(); i++) {
+            placeholders.get(i).bind(paramValues.get(i));
+        }
+        isParsedStmtUsed = true;
+        return cachedPlan != null ? cachedPlan.stmt : parsedStmt;
+    }
+
+    // Build the statement text bound with the values, which is used for audit and forwarding to master.
+    public String getBoundStmt() {
+        StringBuilder sb = new StringBuilder(originStmt.length() + paramValues.size() * 8);
+        for (int i = 0; i < paramValues.size(); i++) {
+            sb.append(segments.get(i));
+            appendLiteral(sb, paramValues.get(i));
+        }
+        sb.append(segments.get(segments.size() - 1));
+        return sb.toString();
+    }
+
+    private static void appendLiteral(StringBuilder sb, LiteralExpr value) {
+        if (value instanceof NullLiteral) {
+            sb.append("NULL");
+        } else if (value instanceof StringLiteral || value instanceof DateLiteral) {
+            String str = value.getStringValue();
+            sb.append('\'');
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                if (c == '\'' || c == '\\') {
+                    sb.append('\\');
+                }
+                sb.append(c);
+            }
+            sb.append('\'');
+        } else {
+            sb.append(value.getStringValue());
+        }
+    }
+
+    public boolean isCachedStmt(StatementBase stmt) {
+        return cachedPlan != null && cachedPlan.stmt == stmt;
+    }
+
+    public Analyzer getCachedAnalyzer() {
+        return cachedPlan.analyzer;
+    }
+
+    public Planner getCachedPlanner() {
+        return cachedPlan.planner;
+    }
+
+    public void invalidatePlan() {
+        cachedPlan = null;
+    }
+
+    /**
+     * Cache the plan of the statement analyzed and planned with the values of the current execution.
+     * Must be called with the read lock of the tables held.
+     */
+    public void cachePlan(ConnectContext ctx, StatementBase stmt, Analyzer analyzer, Planner planner) {
+        if (!isPlanCacheable || cachedPlan != null || !(stmt instanceof SelectStmt)) {
+            return;
+        }
+        SelectStmt selectStmt = (SelectStmt) stmt;
+        if (selectStmt.isExplain() || selectStmt.hasOutFileClause()
+                || selectStmt.getSelectList().getOptHints() != null
+                || selectStmt.getTableRefs().size() != 1
+                || !(selectStmt.getTableRefs().get(0) instanceof BaseTableRef)) {
+            return;
+        }
+        List<ScanNode> scanNodes = planner.getScanNodes();
+        if (scanNodes.size() != 1 || !(scanNodes.get(0) instanceof OlapScanNode)) {
+            return;
+        }
+        List<Type> paramValueTypes = Lists.newArrayListWithCapacity(placeholders.size());
+        for (PlaceHolderExpr placeholder : placeholders) {
+            // the value is converted into another expr, e.g. casted to the type of the column
+            if (placeholder.isValueFolded() || placeholder.getValue() instanceof NullLiteral) {
+                return;
+            }
+            paramValueTypes.add(placeholder.getValue().getType());
+        }
+        // every placeholder must be in the conjuncts of the scan node, so that the partitions and
+        // tablets pruned by it are computed again with the new values
+        OlapScanNode scanNode = (OlapScanNode) scanNodes.get(0);
+        List<PlaceHolderExpr> placeholdersInScan = Lists.newArrayList();
+        for (Expr conjunct : scanNode.getConjuncts()) {
+            conjunct.collect(PlaceHolderExpr.class, placeholdersInScan);
+        }
+        if (Sets.newHashSet(placeholdersInScan).size() != placeholders.size()) {
+            return;
+        }
+
+        CachedPlan plan = new CachedPlan();
+        plan.stmt = stmt;
+        plan.analyzer = analyzer;
+        plan.planner = planner;
+        plan.paramValueTypes = paramValueTypes;
+        plan.database = ctx.getDatabase();
+        plan.userIdentity = ctx.getCurrentUserIdentity();
+        plan.sessionVariable = ctx.getSessionVariable();
+        plan.sessionVariableModifyCount = ctx.getSessionVariable().getModifyCount();
+        plan.scanNode = scanNode;
+        plan.table = scanNode.getOlapTable();
+        plan.indexSchemaVersions = getIndexSchemaVersions(plan.table);
+        cachedPlan = plan;
+    }
+
+    /**
+     * Check whether the cached plan can be executed with the values bound, and re-prune the partitions and
+     * tablets of the scan node with them. The plan is invalidated and false is returned if it can not be used.
+     */
+    public boolean refreshCachedPlan(ConnectContext ctx) throws AnalysisException {
+        Preconditions.checkNotNull(cachedPlan);
+        CachedPlan plan = cachedPlan;
+        if (plan.sessionVariable != ctx.getSessionVariable()
+                || plan.sessionVariableModifyCount != ctx.getSessionVariable().getModifyCount()
+                || !Objects.equals(plan.database, ctx.getDatabase())
+                || !Objects.equals(plan.userIdentity, ctx.getCurrentUserIdentity())
+                || Catalog.getCurrentCatalog().getPolicyMgr().existPolicy(ctx.getQualifiedUser())) {
+            invalidatePlan();
+            return false;
+        }
+        for (int i = 0; i < paramValues.size(); i++) {
+            LiteralExpr value = paramValues.get(i);
+            if (value instanceof NullLiteral || !value.getType().equals(plan.paramValueTypes.get(i))) {
+                invalidatePlan();
+                return false;
+            }
+        }
+
+        // check the privilege and whether the table is replaced, e.g. by drop and create
+        Map<Long, TableIf> tableMap = Maps.newTreeMap();
+        ((SelectStmt) plan.stmt).getTables(plan.analyzer, tableMap, Sets.newHashSet());
+        if (tableMap.size() != 1 || tableMap.get(plan.table.getId()) != plan.table) {
+            invalidatePlan();
+            return false;
+        }
+        plan.table.readLock();
+        try {
+            if (!getIndexSchemaVersions(plan.table).equals(plan.indexSchemaVersions)) {
+                invalidatePlan();
+                return false;
+            }
+            plan.scanNode.refreshScanRanges();
+        } catch (UserException e) {
+            LOG.debug("failed to refresh the cached plan of prepared statement {}", stmtId, e);
+            invalidatePlan();
+            return false;
+        } finally {
+            plan.table.readUnlock();
+        }
+        return true;
+    }
+
+    private static Map<Long, Integer> getIndexSchemaVersions(OlapTable table) {
+        Map<Long, Integer> result = Maps.newHashMap();
+        for (Map.Entry<Long, MaterializedIndexMeta> entry : table.getIndexIdToMeta().entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getSchemaVersion());
+        }
+        return result;
+    }
+
+    private void parse(long sqlMode) throws AnalysisException, DdlException {
+        SqlParser parser = new SqlParser(new SqlScanner(new StringReader(originStmt), sqlMode));
+        List<StatementBase> stmts = ConnectProcessor.parse(parser, originStmt);
+        if (stmts.size() != 1) {
+            throw new AnalysisException("Only one statement can be prepared, but get " + stmts.size());
+        }
+        parsedStmt = stmts.get(0);
+        placeholders = parser.getPlaceHolders();
+        isParsedStmtUsed = false;
+    }
+
+    // Check the statement which is not analyzed yet. Only a query on a single table, whose placeholders are
+    // all compared with columns in the top level conjuncts of the where clause, may have its plan cached.
+    // Besides, the plan is not cached if any expr may be evaluated to different values in each execution.
+    static boolean checkPlanCacheable(StatementBase stmt, int numPlaceholders) {
+        if (!(stmt instanceof SelectStmt)) {
+            return false;
+        }
+        SelectStmt selectStmt = (SelectStmt) stmt;
+        if (selectStmt.hasWithClause() || selectStmt.hasOutFileClause() || selectStmt.getTableRefs().size() != 1) {
+            return false;
+        }
+        TableRef tableRef = selectStmt.getTableRefs().get(0);
+        if (tableRef.getClass() != TableRef.class || tableRef.getOnClause() != null
+                || (tableRef.getLateralViewRefs() != null && !tableRef.getLateralViewRefs().isEmpty())) {
+            return false;
+        }
+
+        List<Expr> exprs = Lists.newArrayList();
+        for (SelectListItem item : selectStmt.getSelectList().getItems()) {
+            if (item.getExpr() != null) {
+                exprs.add(item.getExpr());
+            }
+        }
+        if (selectStmt.getWhereClause() != null) {
+            exprs.add(selectStmt.getWhereClause());
+        }
+        if (selectStmt.getGroupByClause() != null && selectStmt.getGroupByClause().getGroupingExprs() != null) {
+            exprs.addAll(selectStmt.getGroupByClause().getGroupingExprs());
+        }
+        if (selectStmt.getHavingPred() != null) {
+            exprs.add(selectStmt.getHavingPred());
+        }
+        if (selectStmt.getOrderByElements() != null) {
+            for (OrderByElement element : selectStmt.getOrderByElements()) {
+                exprs.add(element.getExpr());
+            }
+        }
+        for (Expr expr : exprs) {
+            if (expr.contains(Subquery.class) || containsConstantFunction(expr)) {
+                return false;
+            }
+        }
+
+        if (numPlaceholders == 0) {
+            return true;
+        }
+        if (selectStmt.getWhereClause() == null) {
+            return false;
+        }
+        int numComparedPlaceholders = 0;
+        for (Expr conjunct : selectStmt.getWhereClause().getConjuncts()) {
+            if (!(conjunct instanceof BinaryPredicate || conjunct instanceof InPredicate)
+                    || !(conjunct.getChild(0) instanceof SlotRef)) {
+                continue;
+            }
+            for (int i = 1; i < conjunct.getChildren().size(); i++) {
+                if (conjunct.getChild(i) instanceof PlaceHolderExpr) {
+                    numComparedPlaceholders++;
+                }
+            }
+        }
+        return numComparedPlaceholders == numPlaceholders;
+    }
+
+    // A function without columns as arguments, such as now() and rand(), is folded to a constant or evaluated
+    // to a different value each time.
+    private static boolean containsConstantFunction(Expr expr) {
+        if ((expr instanceof FunctionCallExpr || expr instanceof InformationFunction)
+                && !expr.contains(SlotRef.class)) {
+            return true;
+        }
+        for (Expr child : expr.getChildren()) {
+            if (containsConstantFunction(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Split the statement by '?' which is not in a quoted string, a quoted identifier or a comment.
+    private static List<String> splitByPlaceholder(String stmt) {
+        List<String> result = Lists.newArrayList();
+        int start = 0;
+        int i = 0;
+        int length = stmt.length();
+        while (i < length) {
+            char c = stmt.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(stmt, i, c);
+            } else if (c == '#' || (c == '-' && stmt.startsWith("-- ", i))) {
+                int end = stmt.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && stmt.startsWith("/*", i)) {
+                int end = stmt.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '?') {
+                result.add(stmt.substring(start, i));
+                start = ++i;
+            } else {
+                ++i;
+            }
+        }
+        result.add(stmt.substring(start));
+        Preconditions.checkState(!result.isEmpty());
+        return result;
+    }
+
+    // return the index after the closing quote
+    private static int skipQuoted(String stmt, int begin, char quote) {
+        int i = begin + 1;
+        while (i < stmt.length()) {
+            char c = stmt.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < stmt.length() && stmt.charAt(i + 1) == quote) {
+                    // doubled quote is an escaped quote
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                ++i;
+            }
+        }
+        return i;
+    }
+
+    private static class CachedPlan {
+        private StatementBase stmt;
+        private Analyzer analyzer;
+        private Planner planner;
+        private List<Type> paramValueTypes;
+        private String database;
+        private UserIdentity userIdentity;
+        private SessionVariable sessionVariable;
+        private long sessionVariableModifyCount;
+        private OlapScanNode scanNode;
+        private OlapTable table;
+        private Map<Long, Integer> indexSchemaVersions;
+    }
+}
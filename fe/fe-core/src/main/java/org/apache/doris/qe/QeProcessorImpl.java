@@ -123,6 +123,9 @@ public final class QeProcessorImpl implements QeProcessor {
     public void unregisterQuery(TUniqueId queryId) {
         QueryInfo queryInfo = coordinatorMap.remove(queryId);
         if (queryInfo != null) {
+            if (queryInfo.getCoord() != null) {
+                queryInfo.getCoord().releaseBackendLoads();
+            }
             if (LOG.isDebugEnabled()) {
                 LOG.debug("deregister query id {}", DebugUtil.printId(queryId));
             }
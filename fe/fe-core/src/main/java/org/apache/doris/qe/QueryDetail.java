@@ -63,6 +63,24 @@ public class QueryDetail {
         this.sql = sql;
     }
 
+    private QueryDetail(QueryDetail other) {
+        this.eventTime = other.eventTime;
+        this.queryId = other.queryId;
+        this.startTime = other.startTime;
+        this.endTime = other.endTime;
+        this.latency = other.latency;
+        this.state = other.state;
+        this.database = other.database;
+        this.sql = other.sql;
+    }
+
+    /**
+     * Returns a snapshot of this detail, which is not changed when the query goes on.
+     */
+    public QueryDetail copy() {
+        return new QueryDetail(this);
+    }
+
     public void setEventTime(long eventTime) {
         this.eventTime = eventTime;
     }
@@ -17,53 +17,201 @@
 
 package org.apache.doris.qe;
 
+import org.apache.doris.common.Config;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 // Queue of QueryDetail.
 // It's used to collect queries for monitor.
-// The default copacity is 10000.
+//
+// Every call of addOrUpdateQueryDetail() records a snapshot of the query as an event. Query threads only
+// append the event to a lock free queue, and never wait for a lock. The events are moved to a ring buffer
+// of Config.query_detail_capacity events sorted by event time, either by the reader or by a writer which
+// finds many pending events and gets the lock without waiting. So getQueryDetails() binary searches
+// the ring, instead of scanning all the events.
 public class QueryDetailQueue {
-    private static Map<String, QueryDetail> runningQueries = Maps.newHashMap();
-    private static LinkedList<QueryDetail> totalQueries = new LinkedList<QueryDetail>();
-    private static int queryCapacity = 10000;
+    private static final Logger LOG = LogManager.getLogger(QueryDetailQueue.class);
+    private static final String SPILL_FILE_NAME = "query_detail.log";
+    // a writer tries to drain the pending events when there are so many of them
+    private static final int DRAIN_THRESHOLD = 1024;
+
+    private static final Queue<QueryDetail> pendingEvents = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger numPendingEvents = new AtomicInteger(0);
+    // protects all the fields below
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static QueryDetail[] ring = new QueryDetail[Math.max(1, Config.query_detail_capacity)];
+    // index of the oldest event in ring
+    private static int head = 0;
+    private static int size = 0;
+    private static Writer spillWriter = null;
+    private static File spillFile = null;
+    private static long spillBytes = 0;
+
+    public static void addOrUpdateQueryDetail(QueryDetail queryDetail) {
+        // the caller keeps updating the detail, so record a snapshot
+        pendingEvents.add(queryDetail.copy());
+        if (numPendingEvents.incrementAndGet() >= DRAIN_THRESHOLD && lock.tryLock()) {
+            try {
+                drainPendingEvents();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
 
-    public static synchronized void addOrUpdateQueryDetail(QueryDetail queryDetail) {
-        if (runningQueries.get(queryDetail.getQueryId()) == null) {
-            if (queryDetail.getState() == QueryDetail.QueryMemState.RUNNING) {
-                runningQueries.put(queryDetail.getQueryId(), queryDetail);
-                totalQueries.add(queryDetail);
+    /**
+     * Returns the latest event of each query whose event time is after 'eventTime', ordered by event time.
+     */
+    public static List<QueryDetail> getQueryDetails(long eventTime) {
+        Map<String, QueryDetail> results = Maps.newLinkedHashMap();
+        lock.lock();
+        try {
+            drainPendingEvents();
+            for (int i = upperBound(eventTime); i < size; ++i) {
+                QueryDetail queryDetail = get(i);
+                // keep the latest event of a query only, at the position of that event
+                results.remove(queryDetail.getQueryId());
+                results.put(queryDetail.getQueryId(), queryDetail);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return Lists.newArrayList(results.values());
+    }
+
+    private static QueryDetail get(int i) {
+        return ring[(head + i) % ring.length];
+    }
+
+    // index of the first event whose event time is greater than 'eventTime'
+    private static int upperBound(long eventTime) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid).getEventTime() <= eventTime) {
+                low = mid + 1;
             } else {
-                totalQueries.add(queryDetail);
+                high = mid;
             }
-        } else {
-            if (queryDetail.getState() != QueryDetail.QueryMemState.RUNNING) {
-                QueryDetail qDetail = runningQueries.remove(queryDetail.getQueryId());
-                qDetail.setLatency(queryDetail.getLatency());
-                qDetail.setState(queryDetail.getState());
+        }
+        return low;
+    }
+
+    private static void drainPendingEvents() {
+        QueryDetail queryDetail;
+        while ((queryDetail = pendingEvents.poll()) != null) {
+            numPendingEvents.decrementAndGet();
+            insert(queryDetail);
+        }
+        if (spillWriter != null) {
+            try {
+                spillWriter.flush();
+            } catch (IOException e) {
+                LOG.warn("failed to flush {}", spillFile, e);
+                closeSpillWriter();
             }
         }
-        if (totalQueries.size() > queryCapacity) {
-            QueryDetail qDetail = totalQueries.remove();
-            runningQueries.remove(qDetail.getQueryId());
+    }
+
+    private static void insert(QueryDetail queryDetail) {
+        if (size == ring.length) {
+            QueryDetail evicted = ring[head];
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+            spill(evicted);
+        }
+        // events arrive almost in order, so only a few events are moved to keep the ring sorted
+        int pos = size;
+        while (pos > 0 && get(pos - 1).getEventTime() > queryDetail.getEventTime()) {
+            ring[(head + pos) % ring.length] = get(pos - 1);
+            pos--;
+        }
+        ring[(head + pos) % ring.length] = queryDetail;
+        size++;
+    }
+
+    private static void spill(QueryDetail queryDetail) {
+        if (Strings.isNullOrEmpty(Config.query_detail_spill_dir)
+                || queryDetail.getState() == QueryDetail.QueryMemState.RUNNING) {
+            return;
+        }
+        try {
+            if (spillWriter == null) {
+                File dir = new File(Config.query_detail_spill_dir);
+                if (!dir.exists() && !dir.mkdirs()) {
+                    throw new IOException("failed to create dir " + dir);
+                }
+                spillFile = new File(dir, SPILL_FILE_NAME);
+                spillBytes = spillFile.length();
+                spillWriter = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(spillFile, true), StandardCharsets.UTF_8));
+            }
+            String line = new Gson().toJson(queryDetail) + "\n";
+            spillWriter.write(line);
+            // flushed when pending events are drained, not for every line
+            spillBytes += line.getBytes(StandardCharsets.UTF_8).length;
+            if (spillBytes > Config.query_detail_spill_max_bytes) {
+                spillWriter.close();
+                spillWriter = null;
+                File rolled = new File(spillFile.getPath() + ".1");
+                if (rolled.exists() && !rolled.delete()) {
+                    LOG.warn("failed to delete {}", rolled);
+                }
+                if (!spillFile.renameTo(rolled)) {
+                    LOG.warn("failed to roll {}", spillFile);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("failed to spill query detail of {}", queryDetail.getQueryId(), e);
+            closeSpillWriter();
         }
     }
 
-    public static synchronized List<QueryDetail> getQueryDetails(long eventTime) {
-        List<QueryDetail> results = Lists.newArrayList();
-        Iterator<QueryDetail> it = totalQueries.iterator();
-        while (it.hasNext()) {
-            QueryDetail queryDetail = it.next();
-            if (queryDetail.getEventTime() > eventTime) {
-                results.add(queryDetail);
+    private static void closeSpillWriter() {
+        if (spillWriter != null) {
+            try {
+                spillWriter.close();
+            } catch (IOException e) {
+                LOG.warn("failed to close {}", spillFile, e);
             }
+            spillWriter = null;
         }
-        return results;
     }
 
+    @VisibleForTesting
+    static void resetForTest(int capacity) {
+        lock.lock();
+        try {
+            pendingEvents.clear();
+            numPendingEvents.set(0);
+            ring = new QueryDetail[capacity];
+            head = 0;
+            size = 0;
+            closeSpillWriter();
+        } finally {
+            lock.unlock();
+        }
+    }
 }
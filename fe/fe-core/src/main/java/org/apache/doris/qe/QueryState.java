@@ -69,6 +69,11 @@ public class QueryState {
         stateType = MysqlStateType.EOF;
     }
 
+    // used when the handler has already sent the whole response by itself
+    public void setNoop() {
+        stateType = MysqlStateType.NOOP;
+    }
+
     public void setOk() {
         if (stateType == MysqlStateType.OK) {
             return;
@@ -17,7 +17,9 @@
 
 package org.apache.doris.qe;
 
+import org.apache.doris.common.Config;
 import org.apache.doris.common.Status;
+import org.apache.doris.common.ThreadPoolManager;
 import org.apache.doris.proto.InternalService;
 import org.apache.doris.proto.Types;
 import org.apache.doris.rpc.BackendServiceProxy;
@@ -27,20 +29,38 @@ import org.apache.doris.thrift.TResultBatch;
 import org.apache.doris.thrift.TStatusCode;
 import org.apache.doris.thrift.TUniqueId;
 
+import com.google.common.collect.Maps;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TDeserializer;
 import org.apache.thrift.TException;
 
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 public class ResultReceiver {
     private static final Logger LOG = LogManager.getLogger(ResultReceiver.class);
+
+    // the interval to check cancel and timeout when waiting on the prefetch queue
+    private static final long PREFETCH_POLL_INTERVAL_MS = 100;
+
+    // Thread pool of prefetch workers. Use AbortPolicy so that a query falls back to
+    // fetching in the connection thread when all workers are busy.
+    private static final ThreadPoolExecutor PREFETCH_POOL = ThreadPoolManager.newDaemonThreadPool(0,
+            Math.max(1, Config.max_result_prefetch_thread_num), 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+            new ThreadPoolExecutor.AbortPolicy(), "result-prefetch-pool", false);
+
     private boolean isDone    = false;
-    private boolean isCancel  = false;
+    private volatile boolean isCancel  = false;
     private long packetIdx = 0;
     private long timeoutTs = 0;
     private TNetworkAddress address;
@@ -48,17 +68,34 @@ public class ResultReceiver {
     private Long backendId;
     private Thread currentThread;
 
+    // max number of fetch requests in flight, no prefetch if it is not larger than 1
+    private int prefetchNum;
+    private boolean isPrefetchStarted = false;
+    // decoded batches produced by the prefetch worker, bounded to apply backpressure
+    private BlockingQueue<FetchResult> prefetchQueue;
+
     public ResultReceiver(TUniqueId tid, Long backendId, TNetworkAddress address, long timeoutTs) {
+        this(tid, backendId, address, timeoutTs, Config.result_receiver_prefetch_num);
+    }
+
+    public ResultReceiver(TUniqueId tid, Long backendId, TNetworkAddress address, long timeoutTs, int prefetchNum) {
         this.finstId = Types.PUniqueId.newBuilder().setHi(tid.hi).setLo(tid.lo).build();
         this.backendId = backendId;
         this.address = address;
         this.timeoutTs = timeoutTs;
+        this.prefetchNum = prefetchNum;
     }
 
     public RowBatch getNext(Status status) throws TException {
         if (isDone) {
             return null;
         }
+        if (prefetchNum > 1 && !isPrefetchStarted) {
+            startPrefetch();
+        }
+        if (isPrefetchStarted) {
+            return getNextPrefetched(status);
+        }
         final RowBatch rowBatch = new RowBatch();
         try {
             while (!isDone && !isCancel) {
@@ -109,11 +146,7 @@ public class ResultReceiver {
                     rowBatch.setEos(false);
                     return rowBatch;
                 } else if (pResult.hasRowBatch() && pResult.getRowBatch().size() > 0) {
-                    byte[] serialResult = pResult.getRowBatch().toByteArray();
-                    TResultBatch resultBatch = new TResultBatch();
-                    TDeserializer deserializer = new TDeserializer();
-                    deserializer.deserialize(resultBatch, serialResult);
-                    rowBatch.setBatch(resultBatch);
+                    rowBatch.setBatch(deserializeBatch(pResult));
                     rowBatch.setEos(pResult.getEos());
                     return rowBatch;
                 }
@@ -146,6 +179,182 @@ public class ResultReceiver {
         return rowBatch;
     }
 
+    private void startPrefetch() {
+        prefetchQueue = new ArrayBlockingQueue<>(prefetchNum);
+        try {
+            PREFETCH_POOL.execute(this::prefetch);
+            isPrefetchStarted = true;
+        } catch (RejectedExecutionException e) {
+            LOG.info("no idle result prefetch worker, fetch result in current thread. finstId={}", finstId);
+            prefetchNum = 1;
+        }
+    }
+
+    private RowBatch getNextPrefetched(Status status) {
+        while (true) {
+            if (isCancel) {
+                status.setStatus(Status.CANCELLED);
+                return null;
+            }
+            long currentTs = System.currentTimeMillis();
+            if (currentTs >= timeoutTs) {
+                LOG.warn("fetch result timeout, finstId={}", finstId);
+                status.setStatus("query timeout");
+                return null;
+            }
+            FetchResult fetchResult;
+            try {
+                fetchResult = prefetchQueue.poll(Math.min(timeoutTs - currentTs, PREFETCH_POLL_INTERVAL_MS),
+                        TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // continue to get result
+                LOG.info("poll prefetch queue interrupted Exception");
+                continue;
+            }
+            if (fetchResult == null) {
+                continue;
+            }
+            if (!fetchResult.status.ok()) {
+                status.setStatus(fetchResult.status);
+                return null;
+            }
+            isDone = fetchResult.rowBatch.isEos();
+            return fetchResult.rowBatch;
+        }
+    }
+
+    /**
+     * Run by a prefetch worker. Keep at most prefetchNum fetch requests in flight, and put the
+     * deserialized batches into prefetchQueue in packet order. BE serves the waiting requests in
+     * the order they arrive, which may differ from the order they are sent, so the responses are
+     * reordered by packet seq before being delivered.
+     *
+     * The responses waiting to be reordered are counted in the window too, otherwise the requests
+     * sent while some responses are pending may get packets beyond packetIdx + prefetchNum.
+     */
+    private void prefetch() {
+        LinkedList<Future<InternalService.PFetchDataResult>> inflightFutures = new LinkedList<>();
+        Map<Long, InternalService.PFetchDataResult> pendingResults = Maps.newHashMap();
+        Status status = new Status();
+        boolean eos = false;
+        try {
+            while (!eos && !isCancel) {
+                while (inflightFutures.size() + pendingResults.size() < prefetchNum) {
+                    inflightFutures.add(sendFetchRequest());
+                }
+                InternalService.PFetchDataResult pResult = waitFetchResult(inflightFutures.poll());
+                if (pResult == null) {
+                    return;
+                }
+                TStatusCode code = TStatusCode.findByValue(pResult.getStatus().getStatusCode());
+                if (code != TStatusCode.OK) {
+                    status.setPstatus(pResult.getStatus());
+                    break;
+                }
+                if (pResult.getPacketSeq() < packetIdx || pResult.getPacketSeq() >= packetIdx + prefetchNum) {
+                    LOG.warn("receive packet failed, expect={}, receive={}", packetIdx, pResult.getPacketSeq());
+                    status.setRpcStatus("receive error packet");
+                    break;
+                }
+                // all requests waiting on BE when it is closed get an eos response with the same seq
+                pendingResults.putIfAbsent(pResult.getPacketSeq(), pResult);
+
+                while (!eos && (pResult = pendingResults.remove(packetIdx)) != null) {
+                    packetIdx++;
+                    eos = pResult.getEos();
+                    RowBatch rowBatch = new RowBatch();
+                    rowBatch.setQueryStatistics(pResult.getQueryStatistics());
+                    if (pResult.hasEmptyBatch() && pResult.getEmptyBatch()) {
+                        LOG.info("get first empty rowbatch");
+                        rowBatch.setEos(false);
+                    } else if (pResult.hasRowBatch() && pResult.getRowBatch().size() > 0) {
+                        rowBatch.setBatch(deserializeBatch(pResult));
+                        rowBatch.setEos(eos);
+                    } else if (!eos) {
+                        continue;
+                    }
+                    if (!putFetchResult(new FetchResult(rowBatch, Status.OK))) {
+                        return;
+                    }
+                }
+            }
+        } catch (RpcException e) {
+            LOG.warn("fetch result rpc exception, finstId={}", finstId, e);
+            status.setRpcStatus(e.getMessage());
+            SimpleScheduler.addToBlacklist(backendId, e.getMessage());
+        } catch (ExecutionException e) {
+            LOG.warn("fetch result execution exception, finstId={}", finstId, e);
+            if (e.getMessage().contains("time out")) {
+                // if timeout, we set error code to TIMEOUT, and it will not retry querying.
+                status.setStatus(new Status(TStatusCode.TIMEOUT, e.getMessage()));
+            } else {
+                status.setRpcStatus(e.getMessage());
+                SimpleScheduler.addToBlacklist(backendId, e.getMessage());
+            }
+        } catch (TimeoutException e) {
+            LOG.warn("fetch result timeout, finstId={}", finstId, e);
+            status.setStatus("query timeout");
+        } catch (TException e) {
+            LOG.warn("deserialize fetch result failed, finstId={}", finstId, e);
+            status.setStatus(new Status(TStatusCode.INTERNAL_ERROR, e.getMessage()));
+        } catch (Throwable e) {
+            LOG.warn("prefetch result failed, finstId={}", finstId, e);
+            status.setStatus(new Status(TStatusCode.INTERNAL_ERROR, String.valueOf(e.getMessage())));
+        }
+        if (!status.ok()) {
+            putFetchResult(new FetchResult(null, status));
+        }
+    }
+
+    private Future<InternalService.PFetchDataResult> sendFetchRequest() throws RpcException {
+        InternalService.PFetchDataRequest request = InternalService.PFetchDataRequest.newBuilder()
+                .setFinstId(finstId)
+                .setRespInAttachment(false)
+                .build();
+        return BackendServiceProxy.getInstance().fetchDataAsync(address, request);
+    }
+
+    // return null if the receiver is cancelled
+    private InternalService.PFetchDataResult waitFetchResult(Future<InternalService.PFetchDataResult> future)
+            throws ExecutionException, TimeoutException {
+        while (!isCancel) {
+            long currentTs = System.currentTimeMillis();
+            if (currentTs >= timeoutTs) {
+                throw new TimeoutException("query timeout");
+            }
+            try {
+                return future.get(timeoutTs - currentTs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // continue to get result
+                LOG.info("future get interrupted Exception");
+            }
+        }
+        return null;
+    }
+
+    // Block when the queue is full, so that a slow client stops the prefetching.
+    // Return false if the receiver is cancelled or the query is timeout.
+    private boolean putFetchResult(FetchResult fetchResult) {
+        while (!isCancel && System.currentTimeMillis() < timeoutTs) {
+            try {
+                if (prefetchQueue.offer(fetchResult, PREFETCH_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                LOG.info("offer prefetch queue interrupted Exception");
+            }
+        }
+        return false;
+    }
+
+    private static TResultBatch deserializeBatch(InternalService.PFetchDataResult pResult) throws TException {
+        byte[] serialResult = pResult.getRowBatch().toByteArray();
+        TResultBatch resultBatch = new TResultBatch();
+        TDeserializer deserializer = new TDeserializer();
+        deserializer.deserialize(resultBatch, serialResult);
+        return resultBatch;
+    }
+
     public void cancel() {
         isCancel = true;
         synchronized (this) {
@@ -158,4 +367,14 @@ public class ResultReceiver {
             }
         }
     }
+
+    private static class FetchResult {
+        private final RowBatch rowBatch;
+        private final Status status;
+
+        FetchResult(RowBatch rowBatch, Status status) {
+            this.rowBatch = rowBatch;
+            this.status = status;
+        }
+    }
 }
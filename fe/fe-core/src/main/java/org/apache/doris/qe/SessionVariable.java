@@ -198,11 +198,16 @@ public class SessionVariable implements Serializable, Writable {
     public static final String ENABLE_REMOVE_NO_CONJUNCTS_RUNTIME_FILTER =
             "enable_remove_no_conjuncts_runtime_filter_policy";
 
+    public static final String ENABLE_LOAD_AWARE_REPLICA_SELECTION = "enable_load_aware_replica_selection";
+
     // session origin value
     public Map<Field, String> sessionOriginValue = new HashMap<Field, String>();
     // check stmt is or not [select /*+ SET_VAR(...)*/ ...]
     // if it is setStmt, we needn't collect session origin value
     public boolean isSingleSetVar = false;
+    // increased every time a variable is set, used to check whether the plan cached by a
+    // prepared statement is created with the current variables.
+    private long modifyCount = 0;
 
     @VariableMgr.VarAttr(name = INSERT_VISIBLE_TIMEOUT_MS, needForward = true)
     public long insertVisibleTimeoutMs = DEFAULT_INSERT_VISIBLE_TIMEOUT_MS;
@@ -492,6 +497,11 @@ public class SessionVariable implements Serializable, Writable {
     @VariableMgr.VarAttr(name = ENABLE_REMOVE_NO_CONJUNCTS_RUNTIME_FILTER)
     public boolean enableRemoveNoConjunctsRuntimeFilterPolicy = false;
 
+    // If true, the replica is chosen by the load of backends across all queries,
+    // not only the scan ranges assigned in current query.
+    @VariableMgr.VarAttr(name = ENABLE_LOAD_AWARE_REPLICA_SELECTION)
+    public boolean enableLoadAwareReplicaSelection = false;
+
     public String getBlockEncryptionMode() {
         return blockEncryptionMode;
     }
@@ -919,6 +929,14 @@ public class SessionVariable implements Serializable, Writable {
         sessionOriginValue.clear();
     }
 
+    public long getModifyCount() {
+        return modifyCount;
+    }
+
+    public void increaseModifyCount() {
+        modifyCount++;
+    }
+
     public boolean isDeleteWithoutPartition() {
         return deleteWithoutPartition;
     }
@@ -1024,6 +1042,14 @@ public class SessionVariable implements Serializable, Writable {
         this.enableRemoveNoConjunctsRuntimeFilterPolicy = enableRemoveNoConjunctsRuntimeFilterPolicy;
     }
 
+    public boolean isEnableLoadAwareReplicaSelection() {
+        return enableLoadAwareReplicaSelection;
+    }
+
+    public void setEnableLoadAwareReplicaSelection(boolean enableLoadAwareReplicaSelection) {
+        this.enableLoadAwareReplicaSelection = enableLoadAwareReplicaSelection;
+    }
+
     // Serialize to thrift object
     // used for rest api
     public TQueryOptions toThrift() {
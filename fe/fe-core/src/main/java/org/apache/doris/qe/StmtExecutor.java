@@ -84,7 +84,9 @@ import org.apache.doris.common.util.TimeUtils;
 import org.apache.doris.common.util.VectorizedUtil;
 import org.apache.doris.load.EtlJobType;
 import org.apache.doris.metric.MetricRepo;
+import org.apache.doris.mysql.MysqlBinaryProtocol;
 import org.apache.doris.mysql.MysqlChannel;
+import org.apache.doris.mysql.MysqlCommand;
 import org.apache.doris.mysql.MysqlEofPacket;
 import org.apache.doris.mysql.MysqlSerializer;
 import org.apache.doris.mysql.privilege.PrivPredicate;
@@ -177,6 +179,8 @@ public class StmtExecutor implements ProfileWriter {
     private ShowResultSet proxyResultSet = null;
     private Data.PQueryStatistics.Builder statisticsForAuditLog;
     private boolean isCached;
+    // not null if the statement is executed by COM_STMT_EXECUTE
+    private PreparedStatementContext preparedStmt;
 
     private QueryPlannerProfile plannerProfile = new QueryPlannerProfile();
 
@@ -202,6 +206,12 @@ public class StmtExecutor implements ProfileWriter {
         this.isProxy = false;
     }
 
+    // constructor for executing a prepared statement bound with the parameter values
+    public StmtExecutor(ConnectContext ctx, StatementBase parsedStmt, PreparedStatementContext preparedStmt) {
+        this(ctx, parsedStmt);
+        this.preparedStmt = preparedStmt;
+    }
+
     public void setCoord(Coordinator coord) {
         this.coord = coord;
     }
@@ -605,6 +615,20 @@ public class StmtExecutor implements ProfileWriter {
             return;
         }
 
+        if (preparedStmt != null && preparedStmt.isCachedStmt(parsedStmt)) {
+            if (preparedStmt.refreshCachedPlan(context)) {
+                analyzer = preparedStmt.getCachedAnalyzer();
+                planner = preparedStmt.getCachedPlanner();
+                plannerProfile.setQueryAnalysisFinishTime();
+                plannerProfile.setQueryPlanFinishTime();
+                return;
+            }
+            // the cached plan is invalidated, analyze the statement again
+            parsedStmt = preparedStmt.getParsedStmt(context.getSessionVariable().getSqlMode());
+            parsedStmt.setOrigStmt(originStmt);
+            parsedStmt.setUserInfo(context.getCurrentUserIdentity());
+        }
+
         analyzer = new Analyzer(context.getCatalog(), context);
         // Convert show statement to select statement here
         if (parsedStmt instanceof ShowStmt) {
@@ -639,6 +663,9 @@ public class StmtExecutor implements ProfileWriter {
                 MetaLockUtils.readLockTables(tables);
                 try {
                     analyzeAndGenerateQueryPlan(tQueryOptions);
+                    if (preparedStmt != null) {
+                        preparedStmt.cachePlan(context, parsedStmt, analyzer, planner);
+                    }
                     break;
                 } catch (MVSelectFailedException e) {
                     /*
@@ -877,6 +904,7 @@ public class StmtExecutor implements ProfileWriter {
             throws Exception {
         RowBatch batch = null;
         boolean isSend = isSendFields;
+        List<PrimitiveType> resultTypes = exprToType(selectStmt.getResultExprs());
         for (InternalService.PCacheValue value : cacheValues) {
             TResultBatch resultBatch = new TResultBatch();
             for (ByteString one : value.getRowsList()) {
@@ -892,9 +920,7 @@ public class StmtExecutor implements ProfileWriter {
                 sendFields(selectStmt.getColLabels(), exprToType(selectStmt.getResultExprs()));
                 isSend = true;
             }
-            for (ByteBuffer row : batch.getBatch().getRows()) {
-                channel.sendOnePacket(row);
-            }
+            sendRows(channel, batch.getBatch().getRows(), resultTypes);
             context.updateReturnRows(batch.getBatch().getRows().size());
         }
 
@@ -1004,9 +1030,10 @@ public class StmtExecutor implements ProfileWriter {
         MysqlChannel channel = context.getMysqlChannel();
         boolean isOutfileQuery = queryStmt.hasOutFileClause();
 
-        // Sql and PartitionCache
+        // Sql and PartitionCache, skipped for prepared statements because the partition cache rewrites the stmt
         CacheAnalyzer cacheAnalyzer = new CacheAnalyzer(context, parsedStmt, planner);
-        if (cacheAnalyzer.enableCache() && !isOutfileQuery && queryStmt instanceof SelectStmt) {
+        if (preparedStmt == null && cacheAnalyzer.enableCache() && !isOutfileQuery
+                && queryStmt instanceof SelectStmt) {
             handleCacheStmt(cacheAnalyzer, channel, (SelectStmt) queryStmt);
             return;
         }
@@ -1028,6 +1055,7 @@ public class StmtExecutor implements ProfileWriter {
         QeProcessorImpl.INSTANCE.registerQuery(context.queryId(),
                 new QeProcessorImpl.QueryInfo(context, originStmt.originStmt, coord));
         coord.setProfileWriter(this);
+        coord.setPlannerProfile(plannerProfile);
         Span queryScheduleSpan =
                 context.getTracer().spanBuilder("query schedule").setParent(Context.current()).startSpan();
         try (Scope scope = queryScheduleSpan.makeCurrent()) {
@@ -1040,6 +1068,8 @@ public class StmtExecutor implements ProfileWriter {
         }
         plannerProfile.setQueryScheduleFinishTime();
         writeProfile(false);
+        List<PrimitiveType> resultTypes = isOutfileQuery
+                ? OutFileClause.RESULT_COL_TYPES : exprToType(queryStmt.getResultExprs());
         Span fetchResultSpan = context.getTracer().spanBuilder("fetch result").setParent(Context.current()).startSpan();
         try (Scope scope = fetchResultSpan.makeCurrent()) {
             while (true) {
@@ -1060,9 +1090,7 @@ public class StmtExecutor implements ProfileWriter {
                         }
                         isSendFields = true;
                     }
-                    for (ByteBuffer row : batch.getBatch().getRows()) {
-                        channel.sendOnePacket(row);
-                    }
+                    sendRows(channel, batch.getBatch().getRows(), resultTypes);
                     context.updateReturnRows(batch.getBatch().getRows().size());
                 }
                 if (batch.isEos()) {
@@ -1090,6 +1118,8 @@ public class StmtExecutor implements ProfileWriter {
             context.getState().setEof();
             plannerProfile.setQueryFetchResultFinishTime();
         } catch (Exception e) {
+            // e.g. the client is gone, stop the fragments and the result fetching of the query
+            coord.cancel();
             fetchResultSpan.recordException(e);
             throw  e;
         } finally {
@@ -1536,11 +1566,13 @@ public class StmtExecutor implements ProfileWriter {
             serializer.writeField(col.getName(), col.getType().getPrimitiveType());
             context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
         }
-        // send EOF
-        serializer.reset();
-        MysqlEofPacket eofPacket = new MysqlEofPacket(context.getState());
-        eofPacket.writeTo(serializer);
-        context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+        // send EOF, which is omitted if the client supports CLIENT_DEPRECATE_EOF
+        if (!serializer.getCapability().isDeprecatedEOF()) {
+            serializer.reset();
+            MysqlEofPacket eofPacket = new MysqlEofPacket(context.getState());
+            eofPacket.writeTo(serializer);
+            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+        }
     }
 
     private void sendFields(List<String> colNames, List<PrimitiveType> types) throws IOException {
@@ -1554,11 +1586,38 @@ public class StmtExecutor implements ProfileWriter {
             serializer.writeField(colNames.get(i), types.get(i));
             context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
         }
-        // send EOF
-        serializer.reset();
-        MysqlEofPacket eofPacket = new MysqlEofPacket(context.getState());
-        eofPacket.writeTo(serializer);
-        context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+        // send EOF, which is omitted if the client supports CLIENT_DEPRECATE_EOF
+        if (!serializer.getCapability().isDeprecatedEOF()) {
+            serializer.reset();
+            MysqlEofPacket eofPacket = new MysqlEofPacket(context.getState());
+            eofPacket.writeTo(serializer);
+            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+        }
+    }
+
+    // Rows of result set are sent in binary protocol if the statement is executed by COM_STMT_EXECUTE.
+    private boolean isBinaryProtocol() {
+        return context.getCommand() == MysqlCommand.COM_STMT_EXECUTE;
+    }
+
+    private void sendRow(MysqlChannel channel, ByteBuffer row, List<PrimitiveType> types) throws IOException {
+        if (isBinaryProtocol()) {
+            row = MysqlBinaryProtocol.toBinaryRow(serializer, row, types);
+        }
+        channel.sendOnePacket(row);
+    }
+
+    // send the rows of a result batch in one batched write
+    private void sendRows(MysqlChannel channel, List<ByteBuffer> rows, List<PrimitiveType> types)
+            throws IOException {
+        if (isBinaryProtocol()) {
+            List<ByteBuffer> binaryRows = Lists.newArrayListWithCapacity(rows.size());
+            for (ByteBuffer row : rows) {
+                binaryRows.add(MysqlBinaryProtocol.toBinaryRow(serializer, row, types));
+            }
+            rows = binaryRows;
+        }
+        channel.sendPackets(rows);
     }
 
     public void sendResultSet(ResultSet resultSet) throws IOException {
@@ -1566,6 +1625,10 @@ public class StmtExecutor implements ProfileWriter {
         // Send meta data.
         sendMetaData(resultSet.getMetaData());
 
+        List<PrimitiveType> resultTypes = Lists.newArrayList();
+        for (Column col : resultSet.getMetaData().getColumns()) {
+            resultTypes.add(col.getType().getPrimitiveType());
+        }
         // Send result set.
         for (List<String> row : resultSet.getResultRows()) {
             serializer.reset();
@@ -1576,7 +1639,7 @@ public class StmtExecutor implements ProfileWriter {
                     serializer.writeLenEncodedString(item);
                 }
             }
-            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+            sendRow(context.getMysqlChannel(), serializer.toByteBuffer(), resultTypes);
         }
 
         context.getState().setEof();
@@ -1612,10 +1675,11 @@ public class StmtExecutor implements ProfileWriter {
         sendMetaData(metaData);
 
         // Send result set.
+        List<PrimitiveType> resultTypes = Lists.newArrayList(PrimitiveType.VARCHAR);
         for (String item : result.split("\n")) {
             serializer.reset();
             serializer.writeLenEncodedString(item);
-            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+            sendRow(context.getMysqlChannel(), serializer.toByteBuffer(), resultTypes);
         }
         context.getState().setEof();
     }
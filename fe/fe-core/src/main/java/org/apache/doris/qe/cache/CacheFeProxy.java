@@ -0,0 +1,215 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe.cache;
+
+import org.apache.doris.common.Config;
+import org.apache.doris.common.Status;
+import org.apache.doris.metric.MetricRepo;
+import org.apache.doris.proto.InternalService;
+import org.apache.doris.proto.Types;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the result of sql cache mode in FE memory, in front of the cache on BE.
+ * The key consists of the md5 of the sql and the version of the latest partition, so a result
+ * is never served after the table is updated, and stale entries are simply evicted by LRU.
+ * Requests that miss the FE cache are forwarded to BE, and the fetched result is kept on FE.
+ */
+public class CacheFeProxy extends CacheProxy {
+    private static final Logger LOG = LogManager.getLogger(CacheFeProxy.class);
+
+    private static volatile ResultStore defaultStore;
+
+    private final ResultStore store;
+    private final CacheProxy backendProxy;
+
+    public CacheFeProxy() {
+        this(getDefaultStore(), new CacheBeProxy());
+    }
+
+    @VisibleForTesting
+    CacheFeProxy(ResultStore store, CacheProxy backendProxy) {
+        this.store = store;
+        this.backendProxy = backendProxy;
+    }
+
+    private static ResultStore getDefaultStore() {
+        if (defaultStore == null) {
+            synchronized (CacheFeProxy.class) {
+                if (defaultStore == null) {
+                    defaultStore = new ResultStore(Config.cache_fe_sql_result_max_bytes);
+                }
+            }
+        }
+        return defaultStore;
+    }
+
+    public static long getCachedBytes() {
+        ResultStore store = defaultStore;
+        return store == null ? 0L : store.getCachedBytes();
+    }
+
+    @Override
+    public void updateCache(InternalService.PUpdateCacheRequest request, int timeoutMs, Status status) {
+        if (request.getValuesCount() == 1) {
+            InternalService.PCacheValue value = request.getValues(0);
+            InternalService.PFetchCacheResult result = InternalService.PFetchCacheResult.newBuilder()
+                    .setStatus(InternalService.PCacheStatus.CACHE_OK)
+                    .addValues(value)
+                    .build();
+            store.put(new ResultKey(request.getSqlKey(), value.getParam()), result);
+        }
+        // BE cache is still updated, so that other FEs can share the result
+        backendProxy.updateCache(request, timeoutMs, status);
+    }
+
+    @Override
+    public InternalService.PFetchCacheResult fetchCache(InternalService.PFetchCacheRequest request,
+                                                        int timeoutMs, Status status) {
+        if (request.getParamsCount() != 1) {
+            return backendProxy.fetchCache(request, timeoutMs, status);
+        }
+        ResultKey key = new ResultKey(request.getSqlKey(), request.getParams(0));
+        InternalService.PFetchCacheResult result = store.get(key);
+        if (result != null) {
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_CACHE_FE_SQL_HIT.increase(1L);
+            }
+            return result;
+        }
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_CACHE_FE_SQL_MISS.increase(1L);
+        }
+        result = backendProxy.fetchCache(request, timeoutMs, status);
+        if (status.ok() && result != null && result.getStatus() == InternalService.PCacheStatus.CACHE_OK
+                && result.getValuesCount() == 1) {
+            store.put(key, result);
+        }
+        return result;
+    }
+
+    @Override
+    public void clearCache(InternalService.PClearCacheRequest clearRequest) {
+        store.clear();
+        backendProxy.clearCache(clearRequest);
+    }
+
+    /**
+     * Byte bounded LRU store of the results, weighted by the serialized size.
+     */
+    @VisibleForTesting
+    static class ResultStore {
+        private final long maxBytes;
+        private final AtomicLong cachedBytes = new AtomicLong(0);
+        private final com.google.common.cache.Cache<ResultKey, InternalService.PFetchCacheResult> cache;
+
+        ResultStore(long maxBytes) {
+            this.maxBytes = maxBytes;
+            this.cache = CacheBuilder.newBuilder()
+                    .maximumWeight(maxBytes)
+                    .weigher((ResultKey key, InternalService.PFetchCacheResult value) -> value.getSerializedSize())
+                    .removalListener(this::onRemoval)
+                    .build();
+        }
+
+        public InternalService.PFetchCacheResult get(ResultKey key) {
+            return cache.getIfPresent(key);
+        }
+
+        public boolean put(ResultKey key, InternalService.PFetchCacheResult result) {
+            int size = result.getSerializedSize();
+            // a single large result would flush most of the cache, leave it on BE only
+            if (size > maxBytes / 4) {
+                LOG.debug("skip caching result on fe, sqlKey {}, size {}", key, size);
+                return false;
+            }
+            cachedBytes.addAndGet(size);
+            cache.put(key, result);
+            return true;
+        }
+
+        public void clear() {
+            cache.invalidateAll();
+        }
+
+        public long getCachedBytes() {
+            return cachedBytes.get();
+        }
+
+        public long size() {
+            return cache.size();
+        }
+
+        private void onRemoval(RemovalNotification<ResultKey, InternalService.PFetchCacheResult> notification) {
+            cachedBytes.addAndGet(-notification.getValue().getSerializedSize());
+            if (notification.wasEvicted() && MetricRepo.isInit) {
+                MetricRepo.COUNTER_CACHE_FE_SQL_EVICTION.increase(1L);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    static class ResultKey {
+        private final long sqlKeyHi;
+        private final long sqlKeyLo;
+        private final long partitionKey;
+        private final long lastVersion;
+        private final long lastVersionTime;
+
+        ResultKey(Types.PUniqueId sqlKey, InternalService.PCacheParam param) {
+            this.sqlKeyHi = sqlKey.getHi();
+            this.sqlKeyLo = sqlKey.getLo();
+            this.partitionKey = param.getPartitionKey();
+            this.lastVersion = param.getLastVersion();
+            this.lastVersionTime = param.getLastVersionTime();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResultKey)) {
+                return false;
+            }
+            ResultKey other = (ResultKey) o;
+            return sqlKeyHi == other.sqlKeyHi && sqlKeyLo == other.sqlKeyLo
+                    && partitionKey == other.partitionKey && lastVersion == other.lastVersion
+                    && lastVersionTime == other.lastVersionTime;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sqlKeyHi, sqlKeyLo, partitionKey, lastVersion, lastVersionTime);
+        }
+
+        @Override
+        public String toString() {
+            return Long.toHexString(sqlKeyHi) + "-" + Long.toHexString(sqlKeyLo) + "/" + partitionKey
+                    + "/" + lastVersion + "/" + lastVersionTime;
+        }
+    }
+}
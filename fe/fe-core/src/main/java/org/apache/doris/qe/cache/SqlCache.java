@@ -18,6 +18,7 @@
 package org.apache.doris.qe.cache;
 
 import org.apache.doris.analysis.SelectStmt;
+import org.apache.doris.common.Config;
 import org.apache.doris.common.Status;
 import org.apache.doris.common.util.DebugUtil;
 import org.apache.doris.metric.MetricRepo;
@@ -32,27 +33,36 @@ import org.apache.logging.log4j.Logger;
 public class SqlCache extends Cache {
     private static final Logger LOG = LogManager.getLogger(SqlCache.class);
 
+    // md5 of getSqlWithViewStmt(), computed once since toSql() of a big statement is not cheap
+    private Types.PUniqueId sqlKey;
+
     public SqlCache(TUniqueId queryId, SelectStmt selectStmt) {
         super(queryId, selectStmt);
+        if (Config.cache_enable_fe_sql_result) {
+            proxy = CacheProxy.getCacheProxy(CacheProxy.CacheProxyType.FE);
+        }
     }
 
     public void setCacheInfo(CacheAnalyzer.CacheTable latestTable, String allViewExpandStmtListStr) {
         this.latestTable = latestTable;
         this.allViewExpandStmtListStr = allViewExpandStmtListStr;
+        this.sqlKey = null;
     }
 
     public String getSqlWithViewStmt() {
         return selectStmt.toSql() + "|" + allViewExpandStmtListStr;
     }
 
-    // only used for UT
     public Types.PUniqueId getSqlKey() {
-        return CacheProxy.getMd5(getSqlWithViewStmt());
+        if (sqlKey == null) {
+            sqlKey = CacheProxy.getMd5(getSqlWithViewStmt());
+        }
+        return sqlKey;
     }
 
     public InternalService.PFetchCacheResult getCacheData(Status status) {
         InternalService.PFetchCacheRequest request = InternalService.PFetchCacheRequest.newBuilder()
-                .setSqlKey(CacheProxy.getMd5(getSqlWithViewStmt()))
+                .setSqlKey(getSqlKey())
                 .addParams(InternalService.PCacheParam.newBuilder()
                         .setPartitionKey(latestTable.latestPartitionId)
                         .setLastVersion(latestTable.latestVersion)
@@ -85,10 +95,9 @@ public class SqlCache extends Cache {
         }
 
         InternalService.PUpdateCacheRequest updateRequest =
-                rowBatchBuilder.buildSqlUpdateRequest(getSqlWithViewStmt(), latestTable.latestPartitionId,
+                rowBatchBuilder.buildSqlUpdateRequest(getSqlKey(), latestTable.latestPartitionId,
                         latestTable.latestVersion, latestTable.latestTime);
         if (updateRequest.getValuesCount() > 0) {
-            CacheBeProxy proxy = new CacheBeProxy();
             Status status = new Status();
             proxy.updateCache(updateRequest, CacheProxy.UPDATE_TIMEOUT, status);
             int rowCount = 0;
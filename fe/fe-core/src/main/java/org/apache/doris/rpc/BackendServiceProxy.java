@@ -95,6 +95,13 @@ public class BackendServiceProxy {
 
     public Future<InternalService.PExecPlanFragmentResult> execPlanFragmentsAsync(TNetworkAddress address,
             TExecPlanFragmentParamsList paramsList, boolean twoPhaseExecution) throws TException, RpcException {
+        return execPlanFragmentsAsync(address, buildExecPlanFragmentRequest(paramsList), twoPhaseExecution);
+    }
+
+    // Serialize the params list into request. It is cpu intensive for a large query,
+    // so it can be called out of the rpc thread.
+    public static InternalService.PExecPlanFragmentRequest buildExecPlanFragmentRequest(
+            TExecPlanFragmentParamsList paramsList) throws TException {
         InternalService.PExecPlanFragmentRequest.Builder builder =
                 InternalService.PExecPlanFragmentRequest.newBuilder();
         if (Config.use_compact_thrift_rpc) {
@@ -107,8 +114,11 @@ public class BackendServiceProxy {
         }
         // VERSION 2 means we send TExecPlanFragmentParamsList, not single TExecPlanFragmentParams
         builder.setVersion(InternalService.PFragmentRequestVersion.VERSION_2);
+        return builder.build();
+    }
 
-        final InternalService.PExecPlanFragmentRequest pRequest = builder.build();
+    public Future<InternalService.PExecPlanFragmentResult> execPlanFragmentsAsync(TNetworkAddress address,
+            InternalService.PExecPlanFragmentRequest pRequest, boolean twoPhaseExecution) throws RpcException {
         try {
             final BackendServiceClient client = getProxy(address);
             if (twoPhaseExecution) {
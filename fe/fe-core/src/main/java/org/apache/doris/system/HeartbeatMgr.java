@@ -26,6 +26,7 @@ import org.apache.doris.common.ThreadPoolManager;
 import org.apache.doris.common.Version;
 import org.apache.doris.common.util.MasterDaemon;
 import org.apache.doris.persist.HbPackage;
+import org.apache.doris.qe.BackendLoadTracker;
 import org.apache.doris.service.FrontendOptions;
 import org.apache.doris.system.HeartbeatResponse.HbStatus;
 import org.apache.doris.thrift.FrontendService;
@@ -166,6 +167,15 @@ public class HeartbeatMgr extends MasterDaemon {
                 Backend be = nodeMgr.getBackend(hbResponse.getBeId());
                 if (be != null) {
                     boolean isChanged = be.handleHbResponse(hbResponse);
+                    if (isChanged && !isReplay) {
+                        // the alive state of backend may be changed, check the tablets on it.
+                        Catalog.getCurrentCatalog().getTabletChecker().markBackendDirty(be.getId());
+                    }
+                    if (isChanged) {
+                        // the fragment instances on a dead or restarted backend are gone.
+                        // also done in replay, because queries are scheduled by non-master FE too.
+                        BackendLoadTracker.resetLoad(be.getId());
+                    }
                     if (hbResponse.getStatus() != HbStatus.OK) {
                         // invalid all connections cached in ClientPool
                         ClientPool.backendPool.clearPool(new TNetworkAddress(be.getHost(), be.getBePort()));
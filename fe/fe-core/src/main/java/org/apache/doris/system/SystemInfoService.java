@@ -225,6 +225,7 @@ public class SystemInfoService {
         // log
         Catalog.getCurrentCatalog().getEditLog().logDropBackend(droppedBackend);
         LOG.info("finished to drop {}", droppedBackend);
+        Catalog.getCurrentCatalog().getTabletChecker().markBackendDirty(droppedBackend.getId());
 
         // backends is changed, regenerated tablet number metrics
         MetricRepo.generateBackendsTabletMetrics();
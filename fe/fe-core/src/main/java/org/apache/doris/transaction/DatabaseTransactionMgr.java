@@ -66,16 +66,19 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.DataOutput;
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
@@ -97,15 +100,28 @@ public class DatabaseTransactionMgr {
 
     private final long dbId;
 
-    // the lock is used to control the access to transaction states
-    // no other locks should be inside this lock
+    // the number of stripes of txnLocks and labelLocks
+    private static final int LOCK_STRIPE_NUM = 64;
+
+    // The transaction states are protected by 2 levels of locks:
+    // 1. transactionLock: the read lock is held when operating a single transaction, eg: begin, commit, abort,
+    //    so that transactions in the same database can be operated concurrently.
+    //    The write lock is held when operating the transactions of the whole database, eg: remove expired txns
+    //    or replay, so that no transaction can be changed at the same time.
+    // 2. txnLocks and labelLocks: striped locks held with the read lock of transactionLock,
+    //    to serialize the operations on the same transaction or the same label.
+    //    the label lock should always be acquired before the txn lock.
+    // The maps below are concurrent, so reading a transaction state does not need any lock.
+    // no other locks should be inside these locks
     private final ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock(true);
+    private final ReentrantLock[] txnLocks = new ReentrantLock[LOCK_STRIPE_NUM];
+    private final ReentrantLock[] labelLocks = new ReentrantLock[LOCK_STRIPE_NUM];
 
     // transactionId -> running TransactionState
-    private final Map<Long, TransactionState> idToRunningTransactionState = Maps.newHashMap();
+    private final Map<Long, TransactionState> idToRunningTransactionState = Maps.newConcurrentMap();
 
     // transactionId -> final status TransactionState
-    private final Map<Long, TransactionState> idToFinalStatusTransactionState = Maps.newHashMap();
+    private final Map<Long, TransactionState> idToFinalStatusTransactionState = Maps.newConcurrentMap();
 
     // The following 2 queues are to store transactionStates with final status
     // These queues are mainly used to avoid traversing all txns and speed up the cleaning time
@@ -113,8 +129,8 @@ public class DatabaseTransactionMgr {
     // The "Short" queue is used to store the txns of the expire time
     // controlled by Config.streaming_label_keep_max_second.
     // The "Long" queue is used to store the txns of the expire time controlled by Config.label_keep_max_second.
-    private final ArrayDeque<TransactionState> finalStatusTransactionStateDequeShort = new ArrayDeque<>();
-    private final ArrayDeque<TransactionState> finalStatusTransactionStateDequeLong = new ArrayDeque<>();
+    private final Deque<TransactionState> finalStatusTransactionStateDequeShort = new ConcurrentLinkedDeque<>();
+    private final Deque<TransactionState> finalStatusTransactionStateDequeLong = new ConcurrentLinkedDeque<>();
 
     // label -> txn ids
     // this is used for checking if label already used. a label may correspond to multiple txns,
@@ -122,14 +138,14 @@ public class DatabaseTransactionMgr {
     // this member should be consistent with idToTransactionState,
     // which means if a txn exist in idToRunningTransactionState or idToFinalStatusTransactionState
     // it must exists in dbIdToTxnLabels, and vice versa
-    private final Map<String, Set<Long>> labelToTxnIds = Maps.newHashMap();
+    private final Map<String, Set<Long>> labelToTxnIds = Maps.newConcurrentMap();
 
 
     // count the number of running txns of database, except for the routine load txn
-    private volatile int runningTxnNums = 0;
+    private final AtomicInteger runningTxnNums = new AtomicInteger(0);
 
     // count only the number of running routine load txns of database
-    private volatile int runningRoutineLoadTxnNums = 0;
+    private final AtomicInteger runningRoutineLoadTxnNums = new AtomicInteger(0);
 
     private final Catalog catalog;
 
@@ -158,11 +174,41 @@ public class DatabaseTransactionMgr {
         this.transactionLock.writeLock().unlock();
     }
 
+    // lock a single transaction. the read lock of transactionLock must be held before.
+    private void txnLock(long transactionId) {
+        getTxnLock(transactionId).lock();
+    }
+
+    private void txnUnlock(long transactionId) {
+        getTxnLock(transactionId).unlock();
+    }
+
+    private ReentrantLock getTxnLock(long transactionId) {
+        return txnLocks[(int) Math.floorMod(transactionId, (long) LOCK_STRIPE_NUM)];
+    }
+
+    // lock a single label. the read lock of transactionLock must be held before.
+    private void labelLock(String label) {
+        getLabelLock(label).lock();
+    }
+
+    private void labelUnlock(String label) {
+        getLabelLock(label).unlock();
+    }
+
+    private ReentrantLock getLabelLock(String label) {
+        return labelLocks[Math.floorMod(label.hashCode(), LOCK_STRIPE_NUM)];
+    }
+
     public DatabaseTransactionMgr(long dbId, Catalog catalog, TransactionIdGenerator idGenerator) {
         this.dbId = dbId;
         this.catalog = catalog;
         this.idGenerator = idGenerator;
         this.editLog = catalog.getEditLog();
+        for (int i = 0; i < LOCK_STRIPE_NUM; i++) {
+            txnLocks[i] = new ReentrantLock();
+            labelLocks[i] = new ReentrantLock();
+        }
     }
 
     public long getDbId() {
@@ -170,19 +216,11 @@ public class DatabaseTransactionMgr {
     }
 
     public TransactionState getTransactionState(Long transactionId) {
-        readLock();
-        try {
-            TransactionState transactionState = idToRunningTransactionState.get(transactionId);
-            if (transactionState != null) {
-                return transactionState;
-            } else {
-                return idToFinalStatusTransactionState.get(transactionId);
-            }
-        } finally {
-            readUnlock();
-        }
+        return unprotectedGetTransactionState(transactionId);
     }
 
+    // a transaction state is put into idToFinalStatusTransactionState before being removed from
+    // idToRunningTransactionState, so it can always be found without lock.
     private TransactionState unprotectedGetTransactionState(Long transactionId) {
         TransactionState transactionState = idToRunningTransactionState.get(transactionId);
         if (transactionState != null) {
@@ -198,11 +236,11 @@ public class DatabaseTransactionMgr {
     }
 
     public int getRunningTxnNums() {
-        return runningTxnNums;
+        return runningTxnNums.get();
     }
 
     protected int getRunningRoutineLoadTxnNums() {
-        return runningRoutineLoadTxnNums;
+        return runningRoutineLoadTxnNums.get();
     }
 
     @VisibleForTesting
@@ -213,50 +251,40 @@ public class DatabaseTransactionMgr {
     public List<List<String>> getTxnStateInfoList(boolean running, int limit) {
         List<List<String>> infos = Lists.newArrayList();
         Collection<TransactionState> transactionStateCollection = null;
-        readLock();
-        try {
-            if (running) {
-                transactionStateCollection = idToRunningTransactionState.values();
-            } else {
-                transactionStateCollection = idToFinalStatusTransactionState.values();
-            }
-            // get transaction order by txn id desc limit 'limit'
-            transactionStateCollection.stream()
-                    .sorted(TransactionState.TXN_ID_COMPARATOR)
-                    .limit(limit)
-                    .forEach(t -> {
-                        List<String> info = Lists.newArrayList();
-                        getTxnStateInfo(t, info);
-                        infos.add(info);
-                    });
-        } finally {
-            readUnlock();
-        }
+        if (running) {
+            transactionStateCollection = idToRunningTransactionState.values();
+        } else {
+            transactionStateCollection = idToFinalStatusTransactionState.values();
+        }
+        // get transaction order by txn id desc limit 'limit'
+        transactionStateCollection.stream()
+                .sorted(TransactionState.TXN_ID_COMPARATOR)
+                .limit(limit)
+                .forEach(t -> {
+                    List<String> info = Lists.newArrayList();
+                    getTxnStateInfo(t, info);
+                    infos.add(info);
+                });
         return infos;
     }
 
     public List<List<String>> getTxnStateInfoList(TransactionStatus status) {
         List<List<String>> infos = Lists.newArrayList();
         Collection<TransactionState> transactionStateCollection = null;
-        readLock();
-        try {
-            if (status == TransactionStatus.VISIBLE || status == TransactionStatus.ABORTED) {
-                transactionStateCollection = idToFinalStatusTransactionState.values();
-            } else {
-                transactionStateCollection = idToRunningTransactionState.values();
-            }
-            // get transaction order by txn id desc limit 'limit'
-            transactionStateCollection.stream()
-                    .filter(transactionState -> (transactionState.getTransactionStatus() == status))
-                    .sorted(TransactionState.TXN_ID_COMPARATOR)
-                    .forEach(t -> {
-                        List<String> info = Lists.newArrayList();
-                        getTxnStateInfo(t, info);
-                        infos.add(info);
-                    });
-        } finally {
-            readUnlock();
-        }
+        if (status == TransactionStatus.VISIBLE || status == TransactionStatus.ABORTED) {
+            transactionStateCollection = idToFinalStatusTransactionState.values();
+        } else {
+            transactionStateCollection = idToRunningTransactionState.values();
+        }
+        // get transaction order by txn id desc limit 'limit'
+        transactionStateCollection.stream()
+                .filter(transactionState -> (transactionState.getTransactionStatus() == status))
+                .sorted(TransactionState.TXN_ID_COMPARATOR)
+                .forEach(t -> {
+                    List<String> info = Lists.newArrayList();
+                    getTxnStateInfo(t, info);
+                    infos.add(info);
+                });
         return infos;
     }
 
@@ -284,10 +312,11 @@ public class DatabaseTransactionMgr {
             throws DuplicatedRequestException, LabelAlreadyUsedException, BeginTransactionException,
             AnalysisException, QuotaExceedException, MetaNotFoundException {
         checkDatabaseDataQuota();
-        writeLock();
+        Preconditions.checkNotNull(label);
+        readLock();
+        labelLock(label);
         try {
             Preconditions.checkNotNull(coordinator);
-            Preconditions.checkNotNull(label);
             FeNameFormat.checkLabel(label);
 
             /*
@@ -322,15 +351,24 @@ public class DatabaseTransactionMgr {
                 }
             }
 
-            checkRunningTxnExceedLimit(sourceType);
-
-            long tid = idGenerator.getNextTransactionId();
-            LOG.info("begin transaction: txn id {} with label {} from coordinator {}, listner id: {}",
-                    tid, label, coordinator, listenerId);
-            TransactionState transactionState = new TransactionState(dbId, tableIdList,
-                    tid, label, requestId, sourceType, coordinator, listenerId, timeoutSecond * 1000);
-            transactionState.setPrepareTime(System.currentTimeMillis());
-            unprotectUpsertTransactionState(transactionState, false);
+            // Only the label is locked here, so the running txn slot is reserved atomically to make sure
+            // that concurrent begins with different labels do not exceed the limit.
+            boolean isSlotReserved = reserveRunningTxnSlot(sourceType);
+            long tid;
+            try {
+                tid = idGenerator.getNextTransactionId();
+                LOG.info("begin transaction: txn id {} with label {} from coordinator {}, listner id: {}",
+                        tid, label, coordinator, listenerId);
+                TransactionState transactionState = new TransactionState(dbId, tableIdList,
+                        tid, label, requestId, sourceType, coordinator, listenerId, timeoutSecond * 1000);
+                transactionState.setPrepareTime(System.currentTimeMillis());
+                unprotectUpsertTransactionState(transactionState, false, isSlotReserved);
+                isSlotReserved = false;
+            } finally {
+                if (isSlotReserved) {
+                    runningTxnNums.decrementAndGet();
+                }
+            }
 
             if (MetricRepo.isInit) {
                 MetricRepo.COUNTER_TXN_BEGIN.increase(1L);
@@ -345,7 +383,8 @@ public class DatabaseTransactionMgr {
             }
             throw e;
         } finally {
-            writeUnlock();
+            labelUnlock(label);
+            readUnlock();
         }
     }
 
@@ -372,13 +411,7 @@ public class DatabaseTransactionMgr {
         // check status
         // the caller method already own db lock, we do not obtain db lock here
         Database db = catalog.getInternalDataSource().getDbOrMetaException(dbId);
-        TransactionState transactionState;
-        readLock();
-        try {
-            transactionState = unprotectedGetTransactionState(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
         if (transactionState == null
                 || transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
             throw new TransactionCommitFailedException(
@@ -407,8 +440,15 @@ public class DatabaseTransactionMgr {
         checkCommitStatus(tableList, transactionState, tabletCommitInfos, txnCommitAttachment, errorReplicaIds,
                           tableToPartition, totalInvolvedBackends);
 
-        unprotectedPreCommitTransaction2PC(transactionState, errorReplicaIds, tableToPartition,
-                totalInvolvedBackends, db);
+        readLock();
+        txnLock(transactionId);
+        try {
+            unprotectedPreCommitTransaction2PC(transactionState, errorReplicaIds, tableToPartition,
+                    totalInvolvedBackends, db);
+        } finally {
+            txnUnlock(transactionId);
+            readUnlock();
+        }
         LOG.info("transaction:[{}] successfully pre-committed", transactionState);
     }
 
@@ -579,13 +619,7 @@ public class DatabaseTransactionMgr {
         // check status
         // the caller method already own tables' write lock
         Database db = catalog.getInternalDataSource().getDbOrMetaException(dbId);
-        TransactionState transactionState;
-        readLock();
-        try {
-            transactionState = unprotectedGetTransactionState(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
 
         if (transactionState == null) {
             LOG.debug("transaction not found: {}", transactionId);
@@ -633,7 +667,8 @@ public class DatabaseTransactionMgr {
         transactionState.beforeStateTransform(TransactionStatus.COMMITTED);
         // transaction state transform
         boolean txnOperated = false;
-        writeLock();
+        readLock();
+        txnLock(transactionId);
         try {
             if (is2PC) {
                 unprotectedCommitTransaction2PC(transactionState, db);
@@ -643,7 +678,8 @@ public class DatabaseTransactionMgr {
             }
             txnOperated = true;
         } finally {
-            writeUnlock();
+            txnUnlock(transactionId);
+            readUnlock();
             // after state transform
             transactionState.afterStateTransform(TransactionStatus.COMMITTED, txnOperated);
         }
@@ -655,13 +691,7 @@ public class DatabaseTransactionMgr {
 
     public boolean waitForTransactionFinished(Database db, long transactionId, long timeoutMillis)
             throws TransactionCommitFailedException {
-        TransactionState transactionState = null;
-        readLock();
-        try {
-            transactionState = unprotectedGetTransactionState(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
 
         switch (transactionState.getTransactionStatus()) {
             case COMMITTED:
@@ -733,70 +763,46 @@ public class DatabaseTransactionMgr {
     }
 
     public TransactionStatus getLabelState(String label) {
-        readLock();
-        try {
-            Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
-            if (existingTxnIds == null || existingTxnIds.isEmpty()) {
-                return TransactionStatus.UNKNOWN;
-            }
-            // find the latest txn (which id is largest)
-            long maxTxnId = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf)).get();
-            return unprotectedGetTransactionState(maxTxnId).getTransactionStatus();
-        } finally {
-            readUnlock();
-        }
+        Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
+        if (existingTxnIds == null || existingTxnIds.isEmpty()) {
+            return TransactionStatus.UNKNOWN;
+        }
+        // find the latest txn (which id is largest)
+        long maxTxnId = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf)).get();
+        TransactionState transactionState = unprotectedGetTransactionState(maxTxnId);
+        // the txn may be removed concurrently because it is expired
+        return transactionState == null ? TransactionStatus.UNKNOWN : transactionState.getTransactionStatus();
     }
 
     public Long getTransactionId(String label) {
-        readLock();
-        try {
-            Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
-            if (existingTxnIds == null || existingTxnIds.isEmpty()) {
-                return null;
-            }
-            // find the latest txn (which id is largest)
-            return existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf)).get();
-        } finally {
-            readUnlock();
+        Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
+        if (existingTxnIds == null || existingTxnIds.isEmpty()) {
+            return null;
         }
+        // find the latest txn (which id is largest)
+        return existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf)).get();
     }
 
     public List<TransactionState> getPreCommittedTxnList() {
-        readLock();
-        try {
-            // only send task to preCommitted transaction
-            return idToRunningTransactionState.values().stream()
-                    .filter(transactionState
-                            -> (transactionState.getTransactionStatus() == TransactionStatus.PRECOMMITTED))
-                    .sorted(Comparator.comparing(TransactionState::getPreCommitTime))
-                    .collect(Collectors.toList());
-        } finally {
-            readUnlock();
-        }
+        // only send task to preCommitted transaction
+        return idToRunningTransactionState.values().stream()
+                .filter(transactionState
+                        -> (transactionState.getTransactionStatus() == TransactionStatus.PRECOMMITTED))
+                .sorted(Comparator.comparing(TransactionState::getPreCommitTime))
+                .collect(Collectors.toList());
     }
 
     public List<TransactionState> getCommittedTxnList() {
-        readLock();
-        try {
-            // only send task to committed transaction
-            return idToRunningTransactionState.values().stream()
-                    .filter(transactionState ->
-                            (transactionState.getTransactionStatus() == TransactionStatus.COMMITTED))
-                    .sorted(Comparator.comparing(TransactionState::getCommitTime))
-                    .collect(Collectors.toList());
-        } finally {
-            readUnlock();
-        }
+        // only send task to committed transaction
+        return idToRunningTransactionState.values().stream()
+                .filter(transactionState ->
+                        (transactionState.getTransactionStatus() == TransactionStatus.COMMITTED))
+                .sorted(Comparator.comparing(TransactionState::getCommitTime))
+                .collect(Collectors.toList());
     }
 
     public void finishTransaction(long transactionId, Set<Long> errorReplicaIds) throws UserException {
-        TransactionState transactionState = null;
-        readLock();
-        try {
-            transactionState = unprotectedGetTransactionState(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
         // add all commit errors and publish errors to a single set
         if (errorReplicaIds == null) {
             errorReplicaIds = Sets.newHashSet();
@@ -918,7 +924,8 @@ public class DatabaseTransactionMgr {
                 return;
             }
             boolean txnOperated = false;
-            writeLock();
+            readLock();
+            txnLock(transactionId);
             try {
                 transactionState.setErrorReplicas(errorReplicaIds);
                 transactionState.setFinishTime(System.currentTimeMillis());
@@ -932,7 +939,8 @@ public class DatabaseTransactionMgr {
                 // So I add a log here for observation.
                 LOG.debug("after set transaction {} to visible", transactionState);
             } finally {
-                writeUnlock();
+                txnUnlock(transactionId);
+                readUnlock();
                 transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
             }
             updateCatalogAfterVisible(transactionState, db);
@@ -1053,6 +1061,12 @@ public class DatabaseTransactionMgr {
 
     // for add/update/delete TransactionState
     protected void unprotectUpsertTransactionState(TransactionState transactionState, boolean isReplay) {
+        unprotectUpsertTransactionState(transactionState, isReplay, false);
+    }
+
+    // isSlotReserved: the running txn slot of a new txn is already counted by reserveRunningTxnSlot()
+    private void unprotectUpsertTransactionState(TransactionState transactionState, boolean isReplay,
+            boolean isSlotReserved) {
         // if this is a replay operation, we should not log it
         if (!isReplay) {
             if (transactionState.getTransactionStatus() != TransactionStatus.PREPARE
@@ -1067,20 +1081,21 @@ public class DatabaseTransactionMgr {
         if (!transactionState.getTransactionStatus().isFinalStatus()) {
             if (idToRunningTransactionState.put(transactionState.getTransactionId(), transactionState) == null) {
                 if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
-                    runningRoutineLoadTxnNums++;
-                } else {
-                    runningTxnNums++;
+                    runningRoutineLoadTxnNums.incrementAndGet();
+                } else if (!isSlotReserved) {
+                    runningTxnNums.incrementAndGet();
                 }
             }
         } else {
+            // put into the final status map first, so that the txn can always be found by readers without lock.
+            idToFinalStatusTransactionState.put(transactionState.getTransactionId(), transactionState);
             if (idToRunningTransactionState.remove(transactionState.getTransactionId()) != null) {
                 if (transactionState.getSourceType() == TransactionState.LoadJobSourceType.ROUTINE_LOAD_TASK) {
-                    runningRoutineLoadTxnNums--;
+                    runningRoutineLoadTxnNums.decrementAndGet();
                 } else {
-                    runningTxnNums--;
+                    runningTxnNums.decrementAndGet();
                 }
             }
-            idToFinalStatusTransactionState.put(transactionState.getTransactionId(), transactionState);
             if (transactionState.isShortTxn()) {
                 finalStatusTransactionStateDequeShort.add(transactionState);
             } else {
@@ -1091,41 +1106,32 @@ public class DatabaseTransactionMgr {
     }
 
     private void updateTxnLabels(TransactionState transactionState) {
-        Set<Long> txnIds = labelToTxnIds.get(transactionState.getLabel());
-        if (txnIds == null) {
-            txnIds = Sets.newHashSet();
-            labelToTxnIds.put(transactionState.getLabel(), txnIds);
-        }
-        txnIds.add(transactionState.getTransactionId());
+        labelToTxnIds.computeIfAbsent(transactionState.getLabel(), k -> Sets.newConcurrentHashSet())
+                .add(transactionState.getTransactionId());
     }
 
     public void abortTransaction(String label, String reason) throws UserException {
         Preconditions.checkNotNull(label);
         long transactionId = -1;
-        readLock();
-        try {
-            Set<Long> existingTxns = unprotectedGetTxnIdsByLabel(label);
-            if (existingTxns == null || existingTxns.isEmpty()) {
-                throw new TransactionNotFoundException("transaction not found, label=" + label);
-            }
-            // find PREPARE txn. For one load label, there should be only one PREPARE txn.
-            TransactionState prepareTxn = null;
-            for (Long txnId : existingTxns) {
-                TransactionState txn = unprotectedGetTransactionState(txnId);
-                if (txn.getTransactionStatus() == TransactionStatus.PREPARE) {
-                    prepareTxn = txn;
-                    break;
-                }
-            }
-
-            if (prepareTxn == null) {
-                throw new TransactionNotFoundException("running transaction not found, label=" + label);
+        Set<Long> existingTxns = unprotectedGetTxnIdsByLabel(label);
+        if (existingTxns == null || existingTxns.isEmpty()) {
+            throw new TransactionNotFoundException("transaction not found, label=" + label);
+        }
+        // find PREPARE txn. For one load label, there should be only one PREPARE txn.
+        TransactionState prepareTxn = null;
+        for (Long txnId : existingTxns) {
+            TransactionState txn = unprotectedGetTransactionState(txnId);
+            if (txn != null && txn.getTransactionStatus() == TransactionStatus.PREPARE) {
+                prepareTxn = txn;
+                break;
             }
+        }
 
-            transactionId = prepareTxn.getTransactionId();
-        } finally {
-            readUnlock();
+        if (prepareTxn == null) {
+            throw new TransactionNotFoundException("running transaction not found, label=" + label);
         }
+
+        transactionId = prepareTxn.getTransactionId();
         abortTransaction(transactionId, reason, null);
     }
 
@@ -1136,13 +1142,7 @@ public class DatabaseTransactionMgr {
                     + " ignore abort operation", transactionId);
             return;
         }
-        TransactionState transactionState = null;
-        readLock();
-        try {
-            transactionState = idToRunningTransactionState.get(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = idToRunningTransactionState.get(transactionId);
         if (transactionState == null) {
             throw new TransactionNotFoundException("transaction not found", transactionId);
         }
@@ -1155,11 +1155,13 @@ public class DatabaseTransactionMgr {
         // before state transform
         transactionState.beforeStateTransform(TransactionStatus.ABORTED);
         boolean txnOperated = false;
-        writeLock();
+        readLock();
+        txnLock(transactionId);
         try {
             txnOperated = unprotectAbortTransaction(transactionId, reason);
         } finally {
-            writeUnlock();
+            txnUnlock(transactionId);
+            readUnlock();
             transactionState.afterStateTransform(TransactionStatus.ABORTED, txnOperated, reason);
         }
 
@@ -1182,13 +1184,7 @@ public class DatabaseTransactionMgr {
                     + " ignore abort operation", transactionId);
             return;
         }
-        TransactionState transactionState;
-        readLock();
-        try {
-            transactionState = unprotectedGetTransactionState(transactionId);
-        } finally {
-            readUnlock();
-        }
+        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
 
         if (transactionState == null) {
             throw new TransactionNotFoundException("transaction [" + transactionId + "] not found");
@@ -1197,11 +1193,13 @@ public class DatabaseTransactionMgr {
         // before state transform
         transactionState.beforeStateTransform(TransactionStatus.ABORTED);
         boolean txnOperated = false;
-        writeLock();
+        readLock();
+        txnLock(transactionId);
         try {
             txnOperated = unprotectAbortTransaction(transactionId, "User Abort");
         } finally {
-            writeUnlock();
+            txnUnlock(transactionId);
+            readUnlock();
             transactionState.afterStateTransform(TransactionStatus.ABORTED, txnOperated, "User Abort");
         }
 
@@ -1269,45 +1267,35 @@ public class DatabaseTransactionMgr {
 
     protected List<List<Comparable>> getTableTransInfo(long txnId) throws AnalysisException {
         List<List<Comparable>> tableInfos = new ArrayList<>();
-        readLock();
-        try {
-            TransactionState transactionState = unprotectedGetTransactionState(txnId);
-            if (null == transactionState) {
-                throw new AnalysisException("Transaction[" + txnId + "] does not exist.");
-            }
+        TransactionState transactionState = unprotectedGetTransactionState(txnId);
+        if (null == transactionState) {
+            throw new AnalysisException("Transaction[" + txnId + "] does not exist.");
+        }
 
-            for (Map.Entry<Long, TableCommitInfo> entry : transactionState.getIdToTableCommitInfos().entrySet()) {
-                List<Comparable> tableInfo = new ArrayList<>();
-                tableInfo.add(entry.getKey());
-                tableInfo.add(Joiner.on(", ").join(entry.getValue().getIdToPartitionCommitInfo().values().stream().map(
-                        PartitionCommitInfo::getPartitionId).collect(Collectors.toList())));
-                tableInfos.add(tableInfo);
-            }
-        } finally {
-            readUnlock();
+        for (Map.Entry<Long, TableCommitInfo> entry : transactionState.getIdToTableCommitInfos().entrySet()) {
+            List<Comparable> tableInfo = new ArrayList<>();
+            tableInfo.add(entry.getKey());
+            tableInfo.add(Joiner.on(", ").join(entry.getValue().getIdToPartitionCommitInfo().values().stream().map(
+                    PartitionCommitInfo::getPartitionId).collect(Collectors.toList())));
+            tableInfos.add(tableInfo);
         }
         return tableInfos;
     }
 
     protected List<List<Comparable>> getPartitionTransInfo(long txnId, long tableId) throws AnalysisException {
         List<List<Comparable>> partitionInfos = new ArrayList<List<Comparable>>();
-        readLock();
-        try {
-            TransactionState transactionState = unprotectedGetTransactionState(txnId);
-            if (null == transactionState) {
-                throw new AnalysisException("Transaction[" + txnId + "] does not exist.");
-            }
+        TransactionState transactionState = unprotectedGetTransactionState(txnId);
+        if (null == transactionState) {
+            throw new AnalysisException("Transaction[" + txnId + "] does not exist.");
+        }
 
-            TableCommitInfo tableCommitInfo = transactionState.getIdToTableCommitInfos().get(tableId);
-            Map<Long, PartitionCommitInfo> idToPartitionCommitInfo = tableCommitInfo.getIdToPartitionCommitInfo();
-            for (Map.Entry<Long, PartitionCommitInfo> entry : idToPartitionCommitInfo.entrySet()) {
-                List<Comparable> partitionInfo = new ArrayList<Comparable>();
-                partitionInfo.add(entry.getKey());
-                partitionInfo.add(entry.getValue().getVersion());
-                partitionInfos.add(partitionInfo);
-            }
-        } finally {
-            readUnlock();
+        TableCommitInfo tableCommitInfo = transactionState.getIdToTableCommitInfos().get(tableId);
+        Map<Long, PartitionCommitInfo> idToPartitionCommitInfo = tableCommitInfo.getIdToPartitionCommitInfo();
+        for (Map.Entry<Long, PartitionCommitInfo> entry : idToPartitionCommitInfo.entrySet()) {
+            List<Comparable> partitionInfo = new ArrayList<Comparable>();
+            partitionInfo.add(entry.getKey());
+            partitionInfo.add(entry.getValue().getVersion());
+            partitionInfos.add(partitionInfo);
         }
         return partitionInfos;
     }
@@ -1336,7 +1324,7 @@ public class DatabaseTransactionMgr {
     }
 
     private int unprotectedRemoveExpiredTxns(long currentMillis, List<Long> expiredTxnIds,
-                                             ArrayDeque<TransactionState> finalStatusTransactionStateDequeShort,
+                                             Deque<TransactionState> finalStatusTransactionStateDequeShort,
                                              int maxNumber) {
         int left = maxNumber;
         while (!finalStatusTransactionStateDequeShort.isEmpty() && left > 0) {
@@ -1375,97 +1363,79 @@ public class DatabaseTransactionMgr {
 
 
     public TransactionState getTransactionStateByCallbackIdAndStatus(long callbackId, Set<TransactionStatus> status) {
-        readLock();
-        try {
-            for (TransactionState txn : idToRunningTransactionState.values()) {
-                if (txn.getCallbackId() == callbackId && status.contains(txn.getTransactionStatus())) {
-                    return txn;
-                }
+        for (TransactionState txn : idToRunningTransactionState.values()) {
+            if (txn.getCallbackId() == callbackId && status.contains(txn.getTransactionStatus())) {
+                return txn;
             }
-            for (TransactionState txn : idToFinalStatusTransactionState.values()) {
-                if (txn.getCallbackId() == callbackId && status.contains(txn.getTransactionStatus())) {
-                    return txn;
-                }
+        }
+        for (TransactionState txn : idToFinalStatusTransactionState.values()) {
+            if (txn.getCallbackId() == callbackId && status.contains(txn.getTransactionStatus())) {
+                return txn;
             }
-        } finally {
-            readUnlock();
         }
         return null;
     }
 
     public TransactionState getTransactionStateByCallbackId(long callbackId) {
-        readLock();
-        try {
-            for (TransactionState txn : idToRunningTransactionState.values()) {
-                if (txn.getCallbackId() == callbackId) {
-                    return txn;
-                }
+        for (TransactionState txn : idToRunningTransactionState.values()) {
+            if (txn.getCallbackId() == callbackId) {
+                return txn;
             }
-            for (TransactionState txn : idToFinalStatusTransactionState.values()) {
-                if (txn.getCallbackId() == callbackId) {
-                    return txn;
-                }
+        }
+        for (TransactionState txn : idToFinalStatusTransactionState.values()) {
+            if (txn.getCallbackId() == callbackId) {
+                return txn;
             }
-        } finally {
-            readUnlock();
         }
         return null;
     }
 
     public List<Pair<Long, Long>> getTransactionIdByCoordinateBe(String coordinateHost, int limit) {
         ArrayList<Pair<Long, Long>> txnInfos = new ArrayList<>();
-        readLock();
-        try {
-            idToRunningTransactionState.values().stream()
-                    .filter(t -> (t.getCoordinator().sourceType == TransactionState.TxnSourceType.BE
-                            && t.getCoordinator().ip.equals(coordinateHost)))
-                    .limit(limit)
-                    .forEach(t -> txnInfos.add(new Pair<>(t.getDbId(), t.getTransactionId())));
-        } finally {
-            readUnlock();
-        }
+        idToRunningTransactionState.values().stream()
+                .filter(t -> (t.getCoordinator().sourceType == TransactionState.TxnSourceType.BE
+                        && t.getCoordinator().ip.equals(coordinateHost)))
+                .limit(limit)
+                .forEach(t -> txnInfos.add(new Pair<>(t.getDbId(), t.getTransactionId())));
         return txnInfos;
     }
 
     // get show info of a specified txnId
     public List<List<String>> getSingleTranInfo(long dbId, long txnId) throws AnalysisException {
         List<List<String>> infos = new ArrayList<List<String>>();
-        readLock();
-        try {
-            Database db = Catalog.getCurrentInternalCatalog().getDbOrAnalysisException(dbId);
-            TransactionState txnState = unprotectedGetTransactionState(txnId);
-            if (txnState == null) {
-                throw new AnalysisException("transaction with id " + txnId + " does not exist");
-            }
-
-            if (ConnectContext.get() != null) {
-                // check auth
-                Set<Long> tblIds = txnState.getIdToTableCommitInfos().keySet();
-                for (Long tblId : tblIds) {
-                    Table tbl = db.getTableNullable(tblId);
-                    if (tbl != null) {
-                        if (!Catalog.getCurrentCatalog().getAuth().checkTblPriv(ConnectContext.get(), db.getFullName(),
-                                tbl.getName(), PrivPredicate.SHOW)) {
-                            ErrorReport.reportAnalysisException(ErrorCode.ERR_TABLEACCESS_DENIED_ERROR,
-                                    "SHOW TRANSACTION",
-                                    ConnectContext.get().getQualifiedUser(),
-                                    ConnectContext.get().getRemoteIP(),
-                                    db.getFullName() + ": " + tbl.getName());
-                        }
+        Database db = Catalog.getCurrentInternalCatalog().getDbOrAnalysisException(dbId);
+        TransactionState txnState = unprotectedGetTransactionState(txnId);
+        if (txnState == null) {
+            throw new AnalysisException("transaction with id " + txnId + " does not exist");
+        }
+
+        if (ConnectContext.get() != null) {
+            // check auth
+            Set<Long> tblIds = txnState.getIdToTableCommitInfos().keySet();
+            for (Long tblId : tblIds) {
+                Table tbl = db.getTableNullable(tblId);
+                if (tbl != null) {
+                    if (!Catalog.getCurrentCatalog().getAuth().checkTblPriv(ConnectContext.get(), db.getFullName(),
+                            tbl.getName(), PrivPredicate.SHOW)) {
+                        ErrorReport.reportAnalysisException(ErrorCode.ERR_TABLEACCESS_DENIED_ERROR,
+                                "SHOW TRANSACTION",
+                                ConnectContext.get().getQualifiedUser(),
+                                ConnectContext.get().getRemoteIP(),
+                                db.getFullName() + ": " + tbl.getName());
                     }
                 }
             }
-
-            List<String> info = Lists.newArrayList();
-            getTxnStateInfo(txnState, info);
-            infos.add(info);
-        } finally {
-            readUnlock();
         }
+
+        List<String> info = Lists.newArrayList();
+        getTxnStateInfo(txnState, info);
+        infos.add(info);
         return infos;
     }
 
-    protected void checkRunningTxnExceedLimit(TransactionState.LoadJobSourceType sourceType)
+    // Check the limit of running txns and count the new txn in runningTxnNums atomically.
+    // Return true if the slot is reserved, the caller must release it if the txn is not added at last.
+    protected boolean reserveRunningTxnSlot(TransactionState.LoadJobSourceType sourceType)
             throws BeginTransactionException {
         switch (sourceType) {
             case ROUTINE_LOAD_TASK:
@@ -1473,13 +1443,18 @@ public class DatabaseTransactionMgr {
                 // 1. the number of running routine load tasks is limited by Config.max_routine_load_task_num_per_be
                 // 2. if we add routine load txn to runningTxnNums, runningTxnNums will always be occupied by routine
                 //    load, and other txn may not be able to submitted.
-                break;
+                return false;
             default:
-                if (runningTxnNums >= Config.max_running_txn_num_per_db) {
-                    throw new BeginTransactionException("current running txns on db " + dbId + " is "
-                            + runningTxnNums + ", larger than limit " + Config.max_running_txn_num_per_db);
+                while (true) {
+                    int num = runningTxnNums.get();
+                    if (num >= Config.max_running_txn_num_per_db) {
+                        throw new BeginTransactionException("current running txns on db " + dbId + " is "
+                                + num + ", larger than limit " + Config.max_running_txn_num_per_db);
+                    }
+                    if (runningTxnNums.compareAndSet(num, num + 1)) {
+                        return true;
+                    }
                 }
-                break;
         }
     }
 
@@ -1512,6 +1487,7 @@ public class DatabaseTransactionMgr {
                                 // TODO(cmy): do we need to update last failed version here?
                                 // because in updateCatalogAfterVisible, it will be updated again.
                                 replica.updateLastFailedVersion(partitionCommitInfo.getVersion());
+                                Catalog.getCurrentCatalog().getTabletChecker().markTabletDirty(tablet.getId());
                             }
                         }
                     }
@@ -1595,7 +1571,9 @@ public class DatabaseTransactionMgr {
     }
 
     public boolean isPreviousTransactionsFinished(long endTransactionId, List<Long> tableIdList) {
-        readLock();
+        // hold the write lock to wait for the transactions which are beginning, their ids may be
+        // smaller than endTransactionId but they are not in idToRunningTransactionState yet.
+        writeLock();
         try {
             for (Map.Entry<Long, TransactionState> entry : idToRunningTransactionState.entrySet()) {
                 if (entry.getValue().getDbId() != dbId || !isIntersectionNotEmpty(entry.getValue().getTableIdList(),
@@ -1609,7 +1587,7 @@ public class DatabaseTransactionMgr {
                 }
             }
         } finally {
-            readUnlock();
+            writeUnlock();
         }
         return true;
     }
@@ -1636,16 +1614,11 @@ public class DatabaseTransactionMgr {
 
     public List<Long> getTimeoutTxns(long currentMillis) {
         List<Long> timeoutTxns = Lists.newArrayList();
-        readLock();
-        try {
-            for (TransactionState transactionState : idToRunningTransactionState.values()) {
-                if (transactionState.isTimeout(currentMillis)) {
-                    // txn is running but timeout, abort it.
-                    timeoutTxns.add(transactionState.getTransactionId());
-                }
+        for (TransactionState transactionState : idToRunningTransactionState.values()) {
+            if (transactionState.isTimeout(currentMillis)) {
+                // txn is running but timeout, abort it.
+                timeoutTxns.add(transactionState.getTransactionId());
             }
-        } finally {
-            readUnlock();
         }
         return timeoutTxns;
     }
@@ -1697,15 +1670,10 @@ public class DatabaseTransactionMgr {
 
     public List<List<String>> getDbTransStateInfo() {
         List<List<String>> infos = Lists.newArrayList();
-        readLock();
-        try {
-            infos.add(Lists.newArrayList("running", String.valueOf(
-                    runningTxnNums + runningRoutineLoadTxnNums)));
-            long finishedNum = getFinishedTxnNums();
-            infos.add(Lists.newArrayList("finished", String.valueOf(finishedNum)));
-        } finally {
-            readUnlock();
-        }
+        infos.add(Lists.newArrayList("running", String.valueOf(
+                runningTxnNums.get() + runningRoutineLoadTxnNums.get())));
+        long finishedNum = getFinishedTxnNums();
+        infos.add(Lists.newArrayList("finished", String.valueOf(finishedNum)));
         return infos;
     }
 
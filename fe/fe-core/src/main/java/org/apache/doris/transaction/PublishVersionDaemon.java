@@ -28,6 +28,7 @@ import org.apache.doris.catalog.Tablet;
 import org.apache.doris.catalog.TabletInvertedIndex;
 import org.apache.doris.common.Config;
 import org.apache.doris.common.util.MasterDaemon;
+import org.apache.doris.metric.MetricRepo;
 import org.apache.doris.task.AgentBatchTask;
 import org.apache.doris.task.AgentTaskExecutor;
 import org.apache.doris.task.AgentTaskQueue;
@@ -36,6 +37,7 @@ import org.apache.doris.thrift.TPartitionVersionInfo;
 import org.apache.doris.thrift.TTaskType;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -49,6 +51,14 @@ public class PublishVersionDaemon extends MasterDaemon {
 
     private static final Logger LOG = LogManager.getLogger(PublishVersionDaemon.class);
 
+    // the minimal interval between two tries of finishing a txn with quorum finished replicas
+    private static final long MIN_QUORUM_FINISH_RETRY_INTERVAL_MS = 100;
+
+    // txn id -> the time when the publish version tasks of the txn are sent
+    private final Map<Long, Long> txnPublishStartTime = Maps.newHashMap();
+    // txn id -> the last time of trying to finish the txn with quorum finished replicas
+    private final Map<Long, Long> txnLastQuorumFinishTime = Maps.newHashMap();
+
     public PublishVersionDaemon() {
         super("PUBLISH_VERSION", Config.publish_version_interval_ms);
     }
@@ -74,6 +84,13 @@ public class PublishVersionDaemon extends MasterDaemon {
     private void publishVersion() {
         GlobalTransactionMgr globalTransactionMgr = Catalog.getCurrentGlobalTransactionMgr();
         List<TransactionState> readyTransactionStates = globalTransactionMgr.getReadyToPublishTransactions();
+        // remove the txns which are not ready to publish any more
+        Set<Long> readyTxnIds = Sets.newHashSet();
+        for (TransactionState transactionState : readyTransactionStates) {
+            readyTxnIds.add(transactionState.getTransactionId());
+        }
+        txnPublishStartTime.keySet().retainAll(readyTxnIds);
+        txnLastQuorumFinishTime.keySet().retainAll(readyTxnIds);
         if (readyTransactionStates.isEmpty()) {
             return;
         }
@@ -86,8 +103,9 @@ public class PublishVersionDaemon extends MasterDaemon {
             return;
         }
         long createPublishVersionTaskTime = System.currentTimeMillis();
-        // every backend-transaction identified a single task
-        AgentBatchTask batchTask = new AgentBatchTask();
+        // every backend-transaction identified a single task.
+        // tasks of all transactions to the same backend are coalesced into one batch task, which is sent by one rpc.
+        Map<Long, AgentBatchTask> backendToBatchTask = Maps.newHashMap();
         // traverse all ready transactions and dispatch the publish version task to all backends
         for (TransactionState transactionState : readyTransactionStates) {
             if (transactionState.hasSendTask()) {
@@ -126,13 +144,15 @@ public class PublishVersionDaemon extends MasterDaemon {
                 // add to AgentTaskQueue for handling finish report.
                 // not check return value, because the add will success
                 AgentTaskQueue.addTask(task);
-                batchTask.addTask(task);
+                backendToBatchTask.computeIfAbsent(backendId, k -> new AgentBatchTask()).addTask(task);
                 transactionState.addPublishVersionTask(backendId, task);
             }
             transactionState.setHasSendTask(true);
+            txnPublishStartTime.put(transactionState.getTransactionId(), createPublishVersionTaskTime);
             LOG.info("send publish tasks for transaction: {}", transactionState.getTransactionId());
         }
-        if (!batchTask.getAllTasks().isEmpty()) {
+        // send the batch tasks of different backends separately, so that a slow backend will not delay others.
+        for (AgentBatchTask batchTask : backendToBatchTask.values()) {
             AgentTaskExecutor.submit(batchTask);
         }
 
@@ -174,60 +194,21 @@ public class PublishVersionDaemon extends MasterDaemon {
             }
 
             boolean shouldFinishTxn = false;
+            boolean isQuorumFinish = false;
             if (!unfinishedTasks.isEmpty()) {
                 shouldFinishTxn = isAllBackendsOfUnfinishedTasksDead(unfinishedTasks);
                 if (transactionState.isPublishTimeout() || shouldFinishTxn) {
                     // transaction's publish is timeout, but there still has unfinished tasks.
                     // we need to collect all error replicas, and try to finish this txn.
-                    for (PublishVersionTask unfinishedTask : unfinishedTasks) {
-                        // set all replicas in the backend to error state
-                        List<TPartitionVersionInfo> versionInfos = unfinishedTask.getPartitionVersionInfos();
-                        Set<Long> errorPartitionIds = Sets.newHashSet();
-                        for (TPartitionVersionInfo versionInfo : versionInfos) {
-                            errorPartitionIds.add(versionInfo.getPartitionId());
-                        }
-                        if (errorPartitionIds.isEmpty()) {
-                            continue;
-                        }
-
-                        Database db = Catalog.getCurrentInternalCatalog()
-                                .getDbNullable(transactionState.getDbId());
-                        if (db == null) {
-                            LOG.warn("Database [{}] has been dropped.", transactionState.getDbId());
-                            continue;
-                        }
-
-                        for (long tableId : transactionState.getTableIdList()) {
-                            Table table = db.getTableNullable(tableId);
-                            if (table == null || table.getType() != Table.TableType.OLAP) {
-                                LOG.warn("Table [{}] in database [{}] has been dropped.", tableId, db.getFullName());
-                                continue;
-                            }
-                            OlapTable olapTable = (OlapTable) table;
-                            olapTable.readLock();
-                            try {
-                                for (Long errorPartitionId : errorPartitionIds) {
-                                    Partition partition = olapTable.getPartition(errorPartitionId);
-                                    if (partition != null) {
-                                        List<MaterializedIndex> materializedIndexList
-                                                = partition.getMaterializedIndices(MaterializedIndex.IndexExtState.ALL);
-                                        for (MaterializedIndex materializedIndex : materializedIndexList) {
-                                            for (Tablet tablet : materializedIndex.getTablets()) {
-                                                Replica replica = tablet.getReplicaByBackendId(
-                                                        unfinishedTask.getBackendId());
-                                                if (replica != null) {
-                                                    publishErrorReplicaIds.add(replica.getId());
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                            } finally {
-                                olapTable.readUnlock();
-                            }
-                        }
-                    }
+                    collectErrorReplicasOfUnfinishedTasks(transactionState, unfinishedTasks, publishErrorReplicaIds);
                     shouldFinishTxn = true;
+                } else if (canTryQuorumFinish(transactionState, transTasks.size() - unfinishedTasks.size())) {
+                    // try to make the txn visible if quorum replicas of all tablets have finished publishing,
+                    // the replicas of unfinished tasks are treated as error replicas and will be caught up later.
+                    // finishTransaction() will check whether the quorum is satisfied.
+                    collectErrorReplicasOfUnfinishedTasks(transactionState, unfinishedTasks, publishErrorReplicaIds);
+                    shouldFinishTxn = true;
+                    isQuorumFinish = true;
                 }
             } else {
                 // all publish tasks are finished, try to finish this txn.
@@ -243,9 +224,14 @@ public class PublishVersionDaemon extends MasterDaemon {
                     LOG.warn("error happens when finish transaction {}", transactionState.getTransactionId(), e);
                 }
                 if (transactionState.getTransactionStatus() != TransactionStatus.VISIBLE) {
-                    // if finish transaction state failed, then update publish version time, should check
-                    // to finish after some interval
-                    transactionState.updateSendTaskTime();
+                    if (isQuorumFinish) {
+                        // quorum replicas are not finished yet, wait for more tasks to be finished.
+                        txnLastQuorumFinishTime.put(transactionState.getTransactionId(), System.currentTimeMillis());
+                    } else {
+                        // if finish transaction state failed, then update publish version time, should check
+                        // to finish after some interval
+                        transactionState.updateSendTaskTime();
+                    }
                     LOG.debug("publish version for transaction {} failed, has {} error replicas during publish",
                             transactionState, publishErrorReplicaIds.size());
                 }
@@ -255,7 +241,101 @@ public class PublishVersionDaemon extends MasterDaemon {
                 for (PublishVersionTask task : transactionState.getPublishVersionTasks().values()) {
                     AgentTaskQueue.removeTask(task.getBackendId(), TTaskType.PUBLISH_VERSION, task.getSignature());
                 }
+                updatePublishMetrics(transactionState, isQuorumFinish);
             }
         } // end for readyTransactionStates
     }
+
+    /*
+     * Whether to try finishing the txn before all publish tasks are finished.
+     * It is tried only after Config.quorum_publish_wait_time_ms since the tasks are sent,
+     * so that the normal replicas have a chance to finish publishing and are not treated as error replicas.
+     */
+    private boolean canTryQuorumFinish(TransactionState transactionState, int finishedTaskNum) {
+        if (Config.quorum_publish_wait_time_ms < 0 || finishedTaskNum == 0) {
+            return false;
+        }
+        long currentTime = System.currentTimeMillis();
+        long txnId = transactionState.getTransactionId();
+        Long lastTryTime = txnLastQuorumFinishTime.get(txnId);
+        if (lastTryTime != null) {
+            return currentTime - lastTryTime >= Math.max(Config.quorum_publish_wait_time_ms,
+                    MIN_QUORUM_FINISH_RETRY_INTERVAL_MS);
+        }
+        Long startTime = txnPublishStartTime.get(txnId);
+        if (startTime == null) {
+            startTime = transactionState.getPublishVersionTime();
+        }
+        return currentTime - startTime >= Config.quorum_publish_wait_time_ms;
+    }
+
+    // set all replicas in the backends of unfinished tasks to error state
+    private void collectErrorReplicasOfUnfinishedTasks(TransactionState transactionState,
+            List<PublishVersionTask> unfinishedTasks, Set<Long> publishErrorReplicaIds) {
+        for (PublishVersionTask unfinishedTask : unfinishedTasks) {
+            // set all replicas in the backend to error state
+            List<TPartitionVersionInfo> versionInfos = unfinishedTask.getPartitionVersionInfos();
+            Set<Long> errorPartitionIds = Sets.newHashSet();
+            for (TPartitionVersionInfo versionInfo : versionInfos) {
+                errorPartitionIds.add(versionInfo.getPartitionId());
+            }
+            if (errorPartitionIds.isEmpty()) {
+                continue;
+            }
+
+            Database db = Catalog.getCurrentInternalCatalog()
+                    .getDbNullable(transactionState.getDbId());
+            if (db == null) {
+                LOG.warn("Database [{}] has been dropped.", transactionState.getDbId());
+                continue;
+            }
+
+            for (long tableId : transactionState.getTableIdList()) {
+                Table table = db.getTableNullable(tableId);
+                if (table == null || table.getType() != Table.TableType.OLAP) {
+                    LOG.warn("Table [{}] in database [{}] has been dropped.", tableId, db.getFullName());
+                    continue;
+                }
+                OlapTable olapTable = (OlapTable) table;
+                olapTable.readLock();
+                try {
+                    for (Long errorPartitionId : errorPartitionIds) {
+                        Partition partition = olapTable.getPartition(errorPartitionId);
+                        if (partition != null) {
+                            List<MaterializedIndex> materializedIndexList
+                                    = partition.getMaterializedIndices(MaterializedIndex.IndexExtState.ALL);
+                            for (MaterializedIndex materializedIndex : materializedIndexList) {
+                                for (Tablet tablet : materializedIndex.getTablets()) {
+                                    Replica replica = tablet.getReplicaByBackendId(
+                                            unfinishedTask.getBackendId());
+                                    if (replica != null) {
+                                        publishErrorReplicaIds.add(replica.getId());
+                                    }
+                                }
+                            }
+                        }
+                    }
+                } finally {
+                    olapTable.readUnlock();
+                }
+            }
+        }
+    }
+
+    private void updatePublishMetrics(TransactionState transactionState, boolean isQuorumFinish) {
+        long txnId = transactionState.getTransactionId();
+        Long startTime = txnPublishStartTime.remove(txnId);
+        txnLastQuorumFinishTime.remove(txnId);
+        if (!MetricRepo.isInit) {
+            return;
+        }
+        long finishTime = transactionState.getFinishTime();
+        if (startTime != null) {
+            MetricRepo.HISTO_TXN_PUBLISH_LATENCY.update(finishTime - startTime);
+        }
+        MetricRepo.HISTO_TXN_VISIBLE_LATENCY.update(finishTime - transactionState.getCommitTime());
+        if (isQuorumFinish) {
+            MetricRepo.COUNTER_TXN_QUORUM_PUBLISH.increase(1L);
+        }
+    }
 }
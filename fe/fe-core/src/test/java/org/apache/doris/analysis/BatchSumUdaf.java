@@ -0,0 +1,56 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.analysis;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// a java UDAF with 'State' objects which adds rows only by batchAdd()
+public class BatchSumUdaf {
+    public static class State {
+        public long sum = 0;
+    }
+
+    public State create() {
+        return new State();
+    }
+
+    public void destroy(State state) {
+    }
+
+    public void batchAdd(int numRows, State[] states, int[] values, byte[] valueNulls) {
+        for (int i = 0; i < numRows; ++i) {
+            if (valueNulls == null || valueNulls[i] == 0) {
+                states[i].sum += values[i];
+            }
+        }
+    }
+
+    public void serialize(State state, DataOutputStream out) throws IOException {
+        out.writeLong(state.sum);
+    }
+
+    public void merge(State state, DataInputStream in) throws IOException {
+        state.sum += in.readLong();
+    }
+
+    public Long getValue(State state) {
+        return state.sum;
+    }
+}
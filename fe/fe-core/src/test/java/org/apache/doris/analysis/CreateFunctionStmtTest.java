@@ -0,0 +1,122 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.analysis;
+
+import org.apache.doris.catalog.AggregateFunction;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.common.AnalysisException;
+import org.apache.doris.common.FeConstants;
+import org.apache.doris.common.UserException;
+import org.apache.doris.mysql.privilege.MockedAuth;
+import org.apache.doris.mysql.privilege.PaloAuth;
+import org.apache.doris.qe.ConnectContext;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import mockit.Mocked;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+public class CreateFunctionStmtTest {
+    private Analyzer analyzer;
+
+    @Mocked
+    private PaloAuth auth;
+    @Mocked
+    private ConnectContext ctx;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private String udfJar;
+
+    @Before
+    public void setUp() throws IOException {
+        analyzer = AccessTestUtil.fetchAdminAnalyzer(true);
+        MockedAuth.mockedAuth(auth);
+        MockedAuth.mockedConnectContext(ctx, "root", "192.168.1.1");
+        FeConstants.runningUnitTest = true;
+
+        File jar = tempFolder.newFile("udaf.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            for (Class<?> clazz : new Class<?>[] {BatchSumUdaf.class, BatchSumUdaf.State.class,
+                    PrimitiveSumUdaf.class}) {
+                String entry = clazz.getName().replace('.', '/') + ".class";
+                out.putNextEntry(new JarEntry(entry));
+                try (InputStream in = clazz.getClassLoader().getResourceAsStream(entry)) {
+                    ByteStreams.copy(in, out);
+                }
+                out.closeEntry();
+            }
+        }
+        udfJar = "file://" + jar.getAbsolutePath();
+    }
+
+    private CreateFunctionStmt createJavaUdaf(Class<?> udafClass, Type argType) throws UserException {
+        Map<String, String> properties = Maps.newHashMap();
+        properties.put(CreateFunctionStmt.FILE_KEY, udfJar);
+        properties.put(CreateFunctionStmt.SYMBOL_KEY, udafClass.getName());
+        properties.put(CreateFunctionStmt.BINARY_TYPE, "JAVA_UDF");
+        CreateFunctionStmt stmt = new CreateFunctionStmt(true, new FunctionName("my_sum"),
+                new FunctionArgsDef(Lists.newArrayList(new TypeDef(argType)), false), new TypeDef(Type.BIGINT),
+                null, properties);
+        stmt.analyze(analyzer);
+        return stmt;
+    }
+
+    @Test
+    public void testJavaUdafWithBatchAddOnly() throws UserException {
+        CreateFunctionStmt stmt = createJavaUdaf(BatchSumUdaf.class, Type.INT);
+        Assert.assertTrue(stmt.getFunction() instanceof AggregateFunction);
+        Assert.assertEquals(BatchSumUdaf.class.getName(), ((AggregateFunction) stmt.getFunction()).getSymbolName());
+
+        // the columns of batchAdd() should match the arguments
+        try {
+            createJavaUdaf(BatchSumUdaf.class, Type.BIGINT);
+            Assert.fail("no exception");
+        } catch (AnalysisException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("batchAdd"));
+        }
+    }
+
+    @Test
+    public void testJavaUdafWithPrimitiveState() throws UserException {
+        CreateFunctionStmt stmt = createJavaUdaf(PrimitiveSumUdaf.class, Type.INT);
+        Assert.assertTrue(stmt.getFunction() instanceof AggregateFunction);
+        Assert.assertEquals(PrimitiveSumUdaf.class.getName(), ((AggregateFunction) stmt.getFunction()).getSymbolName());
+
+        try {
+            createJavaUdaf(PrimitiveSumUdaf.class, Type.DOUBLE);
+            Assert.fail("no exception");
+        } catch (AnalysisException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("batchAdd"));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.catalog;
+
+import org.apache.doris.analysis.FunctionName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class FunctionResolveCacheTest {
+
+    private static Function createDesc(String name, Type... argTypes) {
+        return new Function(new FunctionName(name), Arrays.asList(argTypes), (Type) ScalarType.INVALID, false);
+    }
+
+    @Test
+    public void testGetKey() {
+        Function.CompareMode mode = Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF;
+        String key = FunctionResolveCache.getKey(createDesc("f", Type.INT, Type.VARCHAR), mode, false);
+        Assert.assertEquals(key, FunctionResolveCache.getKey(createDesc("f", Type.INT, Type.VARCHAR), mode, false));
+        Assert.assertNotEquals(key, FunctionResolveCache.getKey(createDesc("f", Type.INT, Type.VARCHAR),
+                Function.CompareMode.IS_IDENTICAL, false));
+        Assert.assertNotEquals(key, FunctionResolveCache.getKey(createDesc("f", Type.INT, Type.VARCHAR), mode, true));
+        Assert.assertNotEquals(key, FunctionResolveCache.getKey(createDesc("f", Type.BIGINT, Type.VARCHAR), mode,
+                false));
+        Assert.assertNotEquals(key, FunctionResolveCache.getKey(createDesc("f",
+                Type.INT, ScalarType.createVarcharType(10)), mode, false));
+
+        // the nullable of array item takes part in resolution
+        String arrayKey = FunctionResolveCache.getKey(createDesc("f", new ArrayType(Type.INT, true)), mode, false);
+        Assert.assertNotEquals(arrayKey, FunctionResolveCache.getKey(createDesc("f", new ArrayType(Type.INT, false)),
+                mode, false));
+
+        // complex types are not cached
+        Assert.assertNull(FunctionResolveCache.getKey(createDesc("f", new MapType(Type.INT, Type.INT)), mode, false));
+    }
+
+    @Test
+    public void testResolve() {
+        FunctionResolveCache cache = new FunctionResolveCache();
+        Function desc = createDesc("f", Type.INT);
+        Function fn = createDesc("f", Type.BIGINT);
+        int[] resolveCount = {0};
+
+        Assert.assertSame(fn, cache.resolve(desc, Function.CompareMode.IS_SUPERTYPE_OF, false, () -> {
+            resolveCount[0]++;
+            return fn;
+        }));
+        Assert.assertSame(fn, cache.resolve(desc, Function.CompareMode.IS_SUPERTYPE_OF, false, () -> {
+            resolveCount[0]++;
+            return fn;
+        }));
+        Assert.assertEquals(1, resolveCount[0]);
+
+        // not found is cached too
+        Assert.assertNull(cache.resolve(desc, Function.CompareMode.IS_IDENTICAL, false, () -> {
+            resolveCount[0]++;
+            return null;
+        }));
+        Assert.assertNull(cache.resolve(desc, Function.CompareMode.IS_IDENTICAL, false, () -> {
+            resolveCount[0]++;
+            return null;
+        }));
+        Assert.assertEquals(2, resolveCount[0]);
+        Assert.assertEquals(2, cache.size());
+
+        cache.invalidate();
+        Assert.assertEquals(0, cache.size());
+        cache.resolve(desc, Function.CompareMode.IS_SUPERTYPE_OF, false, () -> {
+            resolveCount[0]++;
+            return fn;
+        });
+        Assert.assertEquals(3, resolveCount[0]);
+    }
+}
@@ -52,4 +52,26 @@ public class FunctionSetTest {
         Assert.assertTrue(newArgTypes[0].matchesType(ScalarType.VARCHAR));
     }
 
+    @Test
+    public void testResolveCache() {
+        Type[] argTypes = {ScalarType.TINYINT};
+        Function absDesc = new Function(new FunctionName("abs"), Arrays.asList(argTypes),
+                (Type) ScalarType.INVALID, false);
+        Function fn1 = functionSet.getFunction(absDesc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        Function fn2 = functionSet.getFunction(absDesc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        Assert.assertNotNull(fn1);
+        Assert.assertSame(fn1, fn2);
+
+        // the cached "not found" result is invalidated when a function is added
+        Type[] newArgTypes = {ScalarType.BIGINT};
+        Function newDesc = new Function(new FunctionName("test_resolve_cache"), Arrays.asList(newArgTypes),
+                (Type) ScalarType.INVALID, false);
+        Assert.assertNull(functionSet.getFunction(newDesc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF));
+        functionSet.addScalarBuiltin("test_resolve_cache", "symbol", true, null, null,
+                Function.NullableMode.DEPEND_ON_ARGUMENT, Type.BIGINT, false, Type.BIGINT);
+        Function newFunction = functionSet.getFunction(newDesc, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        Assert.assertNotNull(newFunction);
+        Assert.assertEquals("test_resolve_cache", newFunction.functionName());
+    }
+
 }
@@ -0,0 +1,134 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.catalog;
+
+import org.apache.doris.catalog.Replica.ReplicaState;
+import org.apache.doris.thrift.TStorageMedium;
+
+import com.google.common.collect.Lists;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TabletInvertedIndexTest {
+
+    private TabletInvertedIndex invertedIndex;
+
+    @Mocked
+    private Catalog catalog;
+
+    @Before
+    public void setUp() {
+        new Expectations(catalog) {
+            {
+                Catalog.isCheckpointThread();
+                minTimes = 0;
+                result = false;
+            }
+        };
+        invertedIndex = buildIndex(true);
+    }
+
+    // 4 shards, tablets 1 ~ 8 spread over all shards
+    private TabletInvertedIndex buildIndex(boolean compactReplicaRow) {
+        TabletInvertedIndex index = new TabletInvertedIndex(4, compactReplicaRow);
+        TabletMeta tabletMeta = new TabletMeta(10, 20, 30, 40, 1, TStorageMedium.HDD);
+        for (long tabletId = 1; tabletId <= 8; tabletId++) {
+            index.addTablet(tabletId, tabletMeta);
+            for (long backendId = 1; backendId <= 3; backendId++) {
+                Replica replica = new Replica(tabletId * 100 + backendId, backendId, 1L, 0, 0L, 0, 0L,
+                        ReplicaState.NORMAL, 0, 0);
+                index.addReplica(tabletId, replica);
+            }
+        }
+        return index;
+    }
+
+    @Test
+    public void testGet() {
+        Assert.assertEquals(4, invertedIndex.getShardNum());
+        Assert.assertEquals(8, invertedIndex.getTabletMetaMap().size());
+        Assert.assertEquals(24, invertedIndex.getReplicaMetaTable().size());
+        Assert.assertEquals(24, invertedIndex.getReplicaToTabletMap().size());
+        Assert.assertEquals(1, invertedIndex.getTabletMetaTable().size());
+
+        Assert.assertEquals(Long.valueOf(5), invertedIndex.getTabletIdByReplica(502));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(999));
+        Assert.assertEquals(2, invertedIndex.getReplica(5, 2).getBackendId());
+        Assert.assertEquals(3, invertedIndex.getReplicasByTabletId(7).size());
+        Assert.assertEquals(8, invertedIndex.getTabletNumByBackendId(1));
+        Assert.assertEquals(8, invertedIndex.getTabletIdsByBackendIdAndStorageMedium(1, TStorageMedium.HDD).size());
+        Assert.assertEquals(0, invertedIndex.getTabletIdsByBackendIdAndStorageMedium(1, TStorageMedium.SSD).size());
+        Assert.assertEquals(Long.valueOf(8),
+                invertedIndex.getReplicaNumByBeIdAndStorageMedium(2).get(TStorageMedium.HDD));
+
+        List<TabletMeta> tabletMetas = invertedIndex.getTabletMetaList(Lists.newArrayList(1L, 100L));
+        Assert.assertEquals(30, tabletMetas.get(0).getPartitionId());
+        Assert.assertEquals(TabletInvertedIndex.NOT_EXIST_TABLET_META, tabletMetas.get(1));
+    }
+
+    @Test
+    public void testDelete() {
+        invertedIndex.deleteReplica(3, 1);
+        Assert.assertNull(invertedIndex.getReplica(3, 1));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(301));
+        Assert.assertEquals(7, invertedIndex.getTabletNumByBackendId(1));
+        Assert.assertFalse(invertedIndex.getBackingReplicaMetaTable().contains(1L, 3L));
+
+        invertedIndex.deleteTablet(4);
+        Assert.assertNull(invertedIndex.getTabletMeta(4));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(402));
+        Assert.assertEquals(6, invertedIndex.getTabletIdsByBackendId(1).size());
+        Assert.assertEquals(7, invertedIndex.getTabletIdsByBackendId(2).size());
+
+        invertedIndex.clear();
+        Assert.assertTrue(invertedIndex.getTabletMetaMap().isEmpty());
+        Assert.assertTrue(invertedIndex.getReplicaToTabletMap().isEmpty());
+        Assert.assertEquals(0, invertedIndex.getTabletNumByBackendId(2));
+    }
+
+    @Test
+    public void testReplicaRowLayout() {
+        TabletInvertedIndex hashIndex = buildIndex(false);
+        Assert.assertTrue(invertedIndex.isCompactReplicaRow());
+        Assert.assertFalse(hashIndex.isCompactReplicaRow());
+        Assert.assertEquals(hashIndex.getReplicaMetaTable(), invertedIndex.getReplicaMetaTable());
+
+        // replace the replica on an existing backend, then remove replicas in the middle and at the end
+        Replica newReplica = new Replica(10002, 2, 1L, 0, 0L, 0, 0L, ReplicaState.NORMAL, 0, 0);
+        invertedIndex.addReplica(1, newReplica);
+        Assert.assertEquals(3, invertedIndex.getReplicasByTabletId(1).size());
+        Assert.assertSame(newReplica, invertedIndex.getReplica(1, 2));
+        invertedIndex.deleteReplica(1, 2);
+        invertedIndex.deleteReplica(1, 3);
+        Assert.assertEquals(1, invertedIndex.getReplicasByTabletId(1).size());
+        Assert.assertEquals(101, invertedIndex.getReplica(1, 1).getId());
+        invertedIndex.deleteReplica(1, 1);
+        Assert.assertTrue(invertedIndex.getReplicasByTabletId(1).isEmpty());
+
+        // the compact layout is always estimated to be smaller
+        Assert.assertTrue(invertedIndex.getEstimatedReplicaRowBytes(true) > 0);
+        Assert.assertTrue(invertedIndex.getEstimatedReplicaRowBytes(true)
+                < invertedIndex.getEstimatedReplicaRowBytes(false));
+        Assert.assertEquals(0, ReplicaRow.estimateHeapBytes(true, 0, 0));
+    }
+}
@@ -65,6 +65,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
@@ -319,6 +320,65 @@ public class RebalanceTest {
         Assert.assertEquals(needCheckTablets.size(), succeeded.get());
     }
 
+    @Test
+    public void testPlanRedundantTabletInSchedulerThread() {
+        boolean origDisableBalance = Config.disable_balance;
+        boolean origForceDrop = Config.enable_force_drop_redundant_replica;
+        Config.disable_balance = true;
+        // delete the redundant replica at once, instead of waiting for the watermark txn
+        Config.enable_force_drop_redundant_replica = true;
+        try {
+            TabletSchedulerStat stat = new TabletSchedulerStat();
+            TabletScheduler tabletScheduler = new TabletScheduler(catalog, systemInfoService, invertedIndex,
+                    stat, "");
+            // the rebalancer is not thread safe, it should only be called in the scheduler thread
+            Thread schedulerThread = Thread.currentThread();
+            List<Thread> callerThreads = Collections.synchronizedList(Lists.newArrayList());
+            Rebalancer rebalancer = new BeLoadRebalancer(systemInfoService, invertedIndex) {
+                @Override
+                public Long getToDeleteReplicaId(TabletSchedCtx tabletCtx) {
+                    callerThreads.add(Thread.currentThread());
+                    return tabletCtx.getTablet().getReplicaByBackendId(10004L).getId();
+                }
+            };
+            Deencapsulation.setField(tabletScheduler, "rebalancer", rebalancer);
+
+            // add a replica on be4(10004) to each tablet, so all tablets are redundant repair tablets,
+            // which are planned concurrently
+            Partition partition = olapTable.getPartition("p0");
+            MaterializedIndex baseIndex = partition.getBaseIndex();
+            int schemaHash = olapTable.getSchemaHashByIndexId(baseIndex.getId());
+            for (Tablet tablet : baseIndex.getTablets()) {
+                Replica replica = new Replica(tablet.getId() + 3, 10004L, Replica.ReplicaState.NORMAL, 1, schemaHash);
+                replica.setPathHash(10004L);
+                tablet.addReplica(replica, true);
+                invertedIndex.addReplica(tablet.getId(), replica);
+                TabletSchedCtx tabletCtx = new TabletSchedCtx(TabletSchedCtx.Type.REPAIR,
+                        SystemInfoService.DEFAULT_CLUSTER, db.getId(), olapTable.getId(), partition.getId(),
+                        baseIndex.getId(), tablet.getId(), ReplicaAllocation.DEFAULT_ALLOCATION,
+                        System.currentTimeMillis());
+                Assert.assertEquals(TabletScheduler.AddResult.ADDED, tabletScheduler.addTablet(tabletCtx, false));
+            }
+
+            tabletScheduler.runAfterCatalogReady();
+
+            // the replica chosen by rebalancer is deleted, and the rebalancer is only called in this thread
+            Assert.assertEquals(3, callerThreads.size());
+            callerThreads.forEach(thread -> Assert.assertSame(schedulerThread, thread));
+            for (Tablet tablet : baseIndex.getTablets()) {
+                Assert.assertNull(tablet.getReplicaByBackendId(10004L));
+                Assert.assertEquals(3, invertedIndex.getReplicasByTabletId(tablet.getId()).size());
+            }
+            Assert.assertEquals(0, tabletScheduler.getPendingNum());
+            // the deferred tablets are planned twice, but only counted once
+            Assert.assertEquals(3, stat.counterTabletScheduled.get());
+            Assert.assertEquals(3, stat.counterReplicaRedundantErr.get());
+        } finally {
+            Config.disable_balance = origDisableBalance;
+            Config.enable_force_drop_redundant_replica = origForceDrop;
+        }
+    }
+
     @Test
     public void testMoveInProgressMap() {
         Configurator.setLevel("org.apache.doris.clone.MovesInProgressCache", Level.DEBUG);
@@ -0,0 +1,221 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.clone;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.catalog.DataProperty;
+import org.apache.doris.catalog.Database;
+import org.apache.doris.catalog.HashDistributionInfo;
+import org.apache.doris.catalog.KeysType;
+import org.apache.doris.catalog.MaterializedIndex;
+import org.apache.doris.catalog.MaterializedIndex.IndexState;
+import org.apache.doris.catalog.OlapTable;
+import org.apache.doris.catalog.Partition;
+import org.apache.doris.catalog.RangePartitionInfo;
+import org.apache.doris.catalog.Replica;
+import org.apache.doris.catalog.Replica.ReplicaState;
+import org.apache.doris.catalog.ReplicaAllocation;
+import org.apache.doris.catalog.Tablet;
+import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletMeta;
+import org.apache.doris.common.Config;
+import org.apache.doris.common.jmockit.Deencapsulation;
+import org.apache.doris.datasource.InternalDataSource;
+import org.apache.doris.system.Backend;
+import org.apache.doris.system.SystemInfoService;
+import org.apache.doris.thrift.TStorageMedium;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+public class TabletCheckerTest {
+    @Mocked
+    private Catalog catalog;
+    @Mocked
+    private SystemInfoService infoService;
+    @Mocked
+    private TabletScheduler tabletScheduler;
+    @Mocked
+    private TabletInvertedIndex invertedIndex;
+    @Mocked
+    private InternalDataSource ds;
+
+    @After
+    public void tearDown() {
+        Config.enable_incremental_tablet_checker = false;
+    }
+
+    @Test
+    public void testMarkDirty() {
+        new Expectations() {
+            {
+                catalog.isMaster();
+                minTimes = 0;
+                result = true;
+
+                Catalog.getCurrentInvertedIndex();
+                minTimes = 0;
+                result = invertedIndex;
+
+                invertedIndex.getTabletIdsByBackendId(10001L);
+                minTimes = 0;
+                result = Lists.newArrayList(1L, 2L, 3L);
+            }
+        };
+
+        TabletChecker tabletChecker = new TabletChecker(catalog, infoService, tabletScheduler,
+                new TabletSchedulerStat());
+        // nothing is tracked if incremental check is disabled
+        Config.enable_incremental_tablet_checker = false;
+        tabletChecker.markTabletDirty(1L);
+        tabletChecker.markBackendDirty(10001L);
+        Assert.assertEquals(0, tabletChecker.getDirtyTabletNum());
+
+        Config.enable_incremental_tablet_checker = true;
+        tabletChecker.markTabletDirty(1L);
+        tabletChecker.markTabletDirty(4L);
+        Assert.assertEquals(2, tabletChecker.getDirtyTabletNum());
+        tabletChecker.markBackendDirty(10001L);
+        Assert.assertEquals(4, tabletChecker.getDirtyTabletNum());
+    }
+
+    @Test
+    public void testCheckDirtyTablets() {
+        Map<Long, Backend> backends = Maps.newHashMap();
+        for (long beId = 10001; beId <= 10003; beId++) {
+            Backend backend = new Backend(beId, "192.168.0." + beId, 9051);
+            backend.setAlive(true);
+            backend.setOwnerClusterName(SystemInfoService.DEFAULT_CLUSTER);
+            backends.put(beId, backend);
+        }
+
+        Database db = new Database(1, "db");
+        db.setClusterName(SystemInfoService.DEFAULT_CLUSTER);
+        OlapTable olapTable = new OlapTable(2, "tbl", Lists.newArrayList(), KeysType.DUP_KEYS,
+                new RangePartitionInfo(), new HashDistributionInfo());
+        MaterializedIndex index = new MaterializedIndex(4, IndexState.NORMAL);
+        Partition partition = new Partition(3, "p0", index, new HashDistributionInfo());
+        olapTable.addPartition(partition);
+        olapTable.getPartitionInfo().addPartition(partition.getId(), new DataProperty(TStorageMedium.HDD),
+                ReplicaAllocation.DEFAULT_ALLOCATION, false);
+        db.createTable(olapTable);
+
+        // tablet 100 and 101 are healthy, tablet 102 and 103 miss a replica
+        Map<Long, TabletMeta> tabletMetas = Maps.newHashMap();
+        for (long tabletId = 100; tabletId <= 103; tabletId++) {
+            TabletMeta tabletMeta = new TabletMeta(db.getId(), olapTable.getId(), partition.getId(), index.getId(),
+                    0, TStorageMedium.HDD);
+            Tablet tablet = new Tablet(tabletId);
+            index.addTablet(tablet, tabletMeta, true);
+            tabletMetas.put(tabletId, tabletMeta);
+            long replicaNum = tabletId < 102 ? 3 : 2;
+            for (long i = 0; i < replicaNum; i++) {
+                tablet.addReplica(new Replica(tabletId * 10 + i, 10001 + i, ReplicaState.NORMAL, 1, 0), true);
+            }
+            // make the unhealthy tablet ready to be repaired
+            tablet.setLastStatusCheckTime(1);
+        }
+
+        Set<Long> addedTabletIds = Sets.newHashSet();
+        new Expectations() {
+            {
+                catalog.isMaster();
+                minTimes = 0;
+                result = true;
+
+                catalog.getInternalDataSource();
+                minTimes = 0;
+                result = ds;
+
+                ds.getDbNullable(db.getId());
+                minTimes = 0;
+                result = db;
+
+                Catalog.getCurrentInvertedIndex();
+                minTimes = 0;
+                result = invertedIndex;
+
+                invertedIndex.getTabletMeta(anyLong);
+                minTimes = 0;
+                result = new Delegate() {
+                    TabletMeta getTabletMeta(long tabletId) {
+                        return tabletMetas.get(tabletId);
+                    }
+                };
+
+                infoService.getClusterBackendIds(anyString, anyBoolean);
+                minTimes = 0;
+                result = Lists.newArrayList(backends.keySet());
+
+                infoService.getBackend(anyLong);
+                minTimes = 0;
+                result = new Delegate() {
+                    Backend getBackend(long beId) {
+                        return backends.get(beId);
+                    }
+                };
+
+                tabletScheduler.addTablet((TabletSchedCtx) any, anyBoolean);
+                minTimes = 0;
+                result = new Delegate() {
+                    TabletScheduler.AddResult addTablet(TabletSchedCtx tabletCtx, boolean force) {
+                        addedTabletIds.add(tabletCtx.getTabletId());
+                        return TabletScheduler.AddResult.ADDED;
+                    }
+                };
+            }
+        };
+
+        Config.enable_incremental_tablet_checker = true;
+        TabletChecker tabletChecker = new TabletChecker(catalog, infoService, tabletScheduler,
+                new TabletSchedulerStat());
+        // the full check is done just now, so only the dirty tablets are checked in next round
+        Deencapsulation.setField(tabletChecker, "lastFullCheckTime", System.currentTimeMillis());
+
+        // tablet 999 has been dropped
+        tabletChecker.markTabletsDirty(Lists.newArrayList(100L, 102L, 999L));
+        Assert.assertEquals(3, tabletChecker.getDirtyTabletNum());
+        tabletChecker.runAfterCatalogReady();
+
+        // only the dirty unhealthy tablet is added to scheduler, the clean ones are not checked
+        Assert.assertEquals(Sets.newHashSet(102L), addedTabletIds);
+        Assert.assertEquals(0, tabletChecker.getDirtyTabletNum());
+        // the healthy dirty tablet is checked, while the clean one is not
+        Assert.assertTrue((long) Deencapsulation.getField(index.getTablet(100L), "lastStatusCheckTime") > 1);
+        Assert.assertEquals(1L, (long) Deencapsulation.getField(index.getTablet(101L), "lastStatusCheckTime"));
+
+        // nothing is checked if there is no dirty tablet
+        tabletChecker.runAfterCatalogReady();
+        Assert.assertEquals(Sets.newHashSet(102L), addedTabletIds);
+
+        tabletChecker.markTabletDirty(103L);
+        tabletChecker.runAfterCatalogReady();
+        Assert.assertEquals(Sets.newHashSet(102L, 103L), addedTabletIds);
+        Assert.assertEquals(0, tabletChecker.getDirtyTabletNum());
+    }
+}
@@ -319,7 +319,7 @@ public class TabletRepairAndBalanceTest {
 
         // wait all replica reallocating to correct backend
         checkTableReplicaAllocation(tbl);
-        Assert.assertEquals(90, replicaMetaTable.cellSet().size());
+        Assert.assertEquals(90, invertedIndex.getReplicaMetaTable().cellSet().size());
 
         // for now, tbl has 3 partitions:
         // p1: zone1: 1, zone2: 2
@@ -340,7 +340,7 @@ public class TabletRepairAndBalanceTest {
         Assert.assertEquals(tag2, be.getLocationTag());
         ExceptionChecker.expectThrows(UserException.class, () -> tbl.checkReplicaAllocation());
         checkTableReplicaAllocation(tbl);
-        Assert.assertEquals(90, replicaMetaTable.cellSet().size());
+        Assert.assertEquals(90, invertedIndex.getReplicaMetaTable().cellSet().size());
 
         // For now, Backends:
         // [0, 1]:      zone1
@@ -435,7 +435,7 @@ public class TabletRepairAndBalanceTest {
         ExceptionChecker.expectThrowsNoException(() -> dropTable(dropStmt1));
         ExceptionChecker.expectThrowsNoException(() -> dropTable(dropStmt2));
         ExceptionChecker.expectThrowsNoException(() -> dropTable(dropStmt3));
-        Assert.assertEquals(0, replicaMetaTable.size());
+        Assert.assertEquals(0, invertedIndex.getReplicaMetaTable().size());
 
         // set all backends' tag to default
         for (int i = 0; i < backends.size(); ++i) {
@@ -0,0 +1,72 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.clone;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.catalog.ReplicaAllocation;
+import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.clone.TabletSchedCtx.Type;
+import org.apache.doris.system.SystemInfoService;
+
+import com.google.common.collect.Lists;
+import mockit.Mocked;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TabletSchedulerTest {
+    @Mocked
+    private Catalog catalog;
+    @Mocked
+    private SystemInfoService infoService;
+    @Mocked
+    private TabletInvertedIndex invertedIndex;
+
+    @Test
+    public void testAddTabletConcurrently() throws InterruptedException {
+        TabletScheduler tabletScheduler = new TabletScheduler(catalog, infoService, invertedIndex,
+                new TabletSchedulerStat(), "");
+        AtomicInteger addedNum = new AtomicInteger(0);
+        List<Thread> threads = Lists.newArrayList();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (long tabletId = 0; tabletId < 100; tabletId++) {
+                    TabletSchedCtx tabletCtx = new TabletSchedCtx(Type.REPAIR, "default_cluster",
+                            1, 2, 3, 4, tabletId, ReplicaAllocation.DEFAULT_ALLOCATION, System.currentTimeMillis());
+                    if (tabletScheduler.addTablet(tabletCtx, false) == TabletScheduler.AddResult.ADDED) {
+                        addedNum.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // each tablet is added only once
+        Assert.assertEquals(100, addedNum.get());
+        Assert.assertEquals(100, tabletScheduler.getPendingNum());
+        Assert.assertEquals(100, tabletScheduler.getTotalNum());
+        Assert.assertTrue(tabletScheduler.containsTablet(99));
+    }
+}
@@ -0,0 +1,91 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.common.util;
+
+import org.apache.doris.common.AnalysisException;
+import org.apache.doris.common.Config;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+
+public class ProfileManagerTest {
+    @ClassRule
+    public static TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    private static File spillDir;
+
+    @BeforeClass
+    public static void setUp() {
+        // must be set before the ProfileManager is created
+        spillDir = tmpFolder.getRoot();
+        Config.profile_spill_dir = spillDir.getAbsolutePath();
+    }
+
+    private static RuntimeProfile createProfile(String queryId) {
+        RuntimeProfile profile = new RuntimeProfile("Query");
+        RuntimeProfile summaryProfile = new RuntimeProfile("Summary");
+        summaryProfile.addInfoString(ProfileManager.QUERY_ID, queryId);
+        summaryProfile.addInfoString(ProfileManager.QUERY_TYPE, "Query");
+        summaryProfile.addInfoString(ProfileManager.SQL_STATEMENT, "select " + queryId);
+        profile.addChild(summaryProfile);
+        profile.addChild(new RuntimeProfile("Execution Profile " + queryId));
+        return profile;
+    }
+
+    @Test
+    public void testSpill() throws AnalysisException {
+        int oldProfileNum = Config.max_query_profile_num;
+        int oldSpilledNum = Config.max_spilled_profile_num;
+        Config.max_query_profile_num = 2;
+        Config.max_spilled_profile_num = 3;
+        try {
+            ProfileManager profileManager = ProfileManager.getInstance();
+            for (int i = 0; i < 6; i++) {
+                profileManager.pushProfile(createProfile("q" + i));
+            }
+            // q0 is removed, q1 ~ q3 are spilled, q4 and q5 are in memory
+            List<List<String>> queries = profileManager.getAllQueries();
+            Assert.assertEquals(5, queries.size());
+            Assert.assertEquals("q5", queries.get(0).get(0));
+            Assert.assertEquals("q1", queries.get(4).get(0));
+            Assert.assertNull(profileManager.getProfile("q0"));
+            Assert.assertTrue(new File(spillDir, "profile.0.seg").exists());
+
+            Assert.assertEquals(createProfile("q1").toString(), profileManager.getProfile("q1"));
+            Assert.assertEquals(createProfile("q5").toString(), profileManager.getProfile("q5"));
+            Assert.assertNotNull(profileManager.getFragmentsAndInstances("q2"));
+
+            // the updated profile is back to memory and keeps its position
+            RuntimeProfile updated = createProfile("q1");
+            updated.addInfoString("updated", "true");
+            profileManager.pushProfile(updated);
+            queries = profileManager.getAllQueries();
+            Assert.assertEquals("q1", queries.get(queries.size() - 1).get(0));
+            Assert.assertEquals(updated.toString(), profileManager.getProfile("q1"));
+        } finally {
+            Config.max_query_profile_num = oldProfileNum;
+            Config.max_spilled_profile_num = oldSpilledNum;
+        }
+    }
+}
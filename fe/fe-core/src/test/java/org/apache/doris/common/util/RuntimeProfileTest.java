@@ -28,6 +28,10 @@ import com.google.common.collect.Sets;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -172,4 +176,33 @@ public class RuntimeProfileTest {
         profile.computeTimeInProfile();
         profile.prettyPrint(builder, "");
     }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        RuntimeProfile profile = new RuntimeProfile("root");
+        profile.addInfoString("key2", "value2");
+        profile.addInfoString("key1", "value1");
+        profile.getCounterTotalTime().setValue(3000000000L);
+        RuntimeProfile child = new RuntimeProfile("child");
+        child.getCounterTotalTime().setValue(1000000000L);
+        child.addCounter("counter1", TUnit.BYTES, "").setValue(1234567L);
+        child.addCounter("counter1Son", TUnit.UNIT, "counter1").setValue(3);
+        profile.addChild(child);
+        profile.addChild(new RuntimeProfile("child2"));
+        profile.computeTimeInProfile();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        profile.write(out);
+        out.flush();
+        RuntimeProfile readProfile = RuntimeProfile.read(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(profile.toString(), readProfile.toString());
+        Assert.assertEquals(2, readProfile.getChildList().size());
+        RuntimeProfile readChild = readProfile.getChildMap().get("child");
+        Assert.assertEquals(child.getLocalTimePercent(), readChild.getLocalTimePercent(), 0.001);
+        Assert.assertEquals(TUnit.BYTES, readChild.getCounterMap().get("counter1").getType());
+        Assert.assertEquals(1000000000L, readChild.getCounterTotalTime().getValue());
+    }
 }
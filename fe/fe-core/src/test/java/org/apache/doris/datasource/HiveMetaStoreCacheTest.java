@@ -0,0 +1,121 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.datasource;
+
+import org.apache.doris.common.DdlException;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import mockit.Expectations;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+import org.apache.hadoop.hive.metastore.HiveMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.thrift.TException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class HiveMetaStoreCacheTest {
+    private static final String TEXT_INPUT_FORMAT = "org.apache.hadoop.mapred.TextInputFormat";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mocked
+    private HiveMetaStoreClient client;
+
+    private HiveMetaStoreCache newCache() {
+        new MockUp<HiveMetaStoreClientPool>() {
+            @Mock
+            public <T> T execute(HiveMetaStoreClientPool.ClientAction<T> action) throws TException {
+                return action.run(client);
+            }
+        };
+        return new HiveMetaStoreCache(new HiveMetaStoreClientPool("thrift://127.0.0.1:9083", 1), Maps.newHashMap());
+    }
+
+    @Test
+    public void testTableCache() throws Exception {
+        Table table = new Table();
+        table.setDbName("db1");
+        table.setTableName("tbl1");
+        table.setSd(new StorageDescriptor());
+        new Expectations() {
+            {
+                client.getTable("db1", "tbl1");
+                result = table;
+                // loaded again after invalidation
+                times = 2;
+            }
+        };
+        HiveMetaStoreCache cache = newCache();
+        Assert.assertSame(table, cache.getTable("db1", "tbl1"));
+        Assert.assertSame(table, cache.getTable("db1", "tbl1"));
+        cache.invalidateTable("db1", "tbl1");
+        Assert.assertSame(table, cache.getTable("db1", "tbl1"));
+    }
+
+    @Test
+    public void testFileCache() throws Exception {
+        File dir = folder.newFolder("p1");
+        Files.write(new File(dir, "f1").toPath(), "a\nb\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(dir, "f2").toPath(), "c\n".getBytes(StandardCharsets.UTF_8));
+        HiveMetaStoreCache cache = newCache();
+        String location = dir.toURI().toString();
+        Assert.assertEquals(2, cache.getSplits(TEXT_INPUT_FORMAT, Lists.newArrayList(location)).size());
+        Assert.assertEquals(1, cache.getFileCacheSize());
+
+        // the new file is not seen until the listing is invalidated
+        Files.write(new File(dir, "f3").toPath(), "d\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(2, cache.getSplits(TEXT_INPUT_FORMAT, Lists.newArrayList(location)).size());
+        cache.invalidateAll();
+        Assert.assertEquals(0, cache.getFileCacheSize());
+        Assert.assertEquals(3, cache.getSplits(TEXT_INPUT_FORMAT, Lists.newArrayList(location)).size());
+    }
+
+    @Test
+    public void testFileCacheFailureNotCached() throws Exception {
+        File dir = folder.newFolder("p2");
+        Files.write(new File(dir, "f1").toPath(), "a\n".getBytes(StandardCharsets.UTF_8));
+        HiveMetaStoreCache cache = newCache();
+        String location = dir.toURI().toString();
+        String missingLocation = new File(folder.getRoot(), "missing").toURI().toString();
+        try {
+            cache.getSplits(TEXT_INPUT_FORMAT, Lists.newArrayList(location, missingLocation));
+            Assert.fail("listing a missing location should fail");
+        } catch (DdlException e) {
+            Assert.assertTrue(e.getMessage().contains("missing"));
+        }
+        // only the successful listing is cached
+        Assert.assertEquals(1, cache.getFileCacheSize());
+
+        // the location is listed again once it exists
+        File missingDir = folder.newFolder("missing");
+        Files.write(new File(missingDir, "f1").toPath(), "b\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(2, cache.getSplits(TEXT_INPUT_FORMAT, Lists.newArrayList(location, missingLocation))
+                .size());
+    }
+}
@@ -0,0 +1,197 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.journal.bdbje;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.common.Pair;
+import org.apache.doris.common.io.Text;
+import org.apache.doris.journal.JournalEntity;
+import org.apache.doris.persist.OperationType;
+
+import com.google.common.collect.Lists;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
+import mockit.Expectations;
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+public class BDBJEJournalTest { // CHECKSTYLE IGNORE THIS LINE: BDBJE should use uppercase
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mocked
+    private Catalog catalog;
+
+    private BDBJEJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        String bdbDir = folder.newFolder("bdb").getAbsolutePath();
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Pair<String, Integer> selfNode = Pair.create("127.0.0.1", port);
+
+        new Expectations() {
+            {
+                Catalog.getServingCatalog();
+                minTimes = 0;
+                result = catalog;
+
+                Catalog.getCurrentCatalog();
+                minTimes = 0;
+                result = catalog;
+
+                catalog.getBdbDir();
+                minTimes = 0;
+                result = bdbDir;
+
+                catalog.getSelfNode();
+                minTimes = 0;
+                result = selfNode;
+
+                catalog.getHelperNode();
+                minTimes = 0;
+                result = selfNode;
+
+                catalog.isElectable();
+                minTimes = 0;
+                result = true;
+
+                catalog.getReplayedJournalId();
+                minTimes = 0;
+                result = 0L;
+            }
+        };
+
+        journal = new BDBJEJournal("127.0.0.1_" + port);
+        journal.open();
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    public void testBatchWriteConsecutiveIds() throws IOException {
+        journal.write(OperationType.OP_SAVE_NEXTID, new Text("0"));
+        Assert.assertEquals(1, journal.getMaxJournalId());
+
+        journal.batchWrite(Lists.newArrayList(nextId("1"), nextId("2"), nextId("3")));
+        Assert.assertEquals(4, journal.getMaxJournalId());
+        for (long id = 2; id <= 4; id++) {
+            JournalEntity entity = journal.read(id);
+            Assert.assertNotNull(entity);
+            Assert.assertEquals(OperationType.OP_SAVE_NEXTID, entity.getOpCode());
+            Assert.assertEquals(String.valueOf(id - 1), entity.getData().toString());
+        }
+
+        // a batch of one goes through write() and the ids keep going after the batch
+        journal.batchWrite(Lists.newArrayList(nextId("4")));
+        journal.write(OperationType.OP_SAVE_NEXTID, new Text("5"));
+        Assert.assertEquals(6, journal.getMaxJournalId());
+        Assert.assertEquals("4", journal.read(5).getData().toString());
+        Assert.assertEquals("5", journal.read(6).getData().toString());
+    }
+
+    @Test
+    public void testBatchWriteRetryAfterFailedPut() throws IOException {
+        journal.write(OperationType.OP_SAVE_NEXTID, new Text("0"));
+
+        // fail the second put of the first attempt, after the first one already went into the transaction
+        new MockUp<Database>() {
+            private int puts = 0;
+
+            @Mock
+            public OperationStatus put(Invocation inv, Transaction txn, DatabaseEntry key, DatabaseEntry data) {
+                if (++puts == 2) {
+                    return OperationStatus.KEYEXIST;
+                }
+                return inv.proceed();
+            }
+        };
+
+        journal.batchWrite(Lists.newArrayList(nextId("1"), nextId("2"), nextId("3")));
+        Assert.assertEquals(4, journal.getMaxJournalId());
+        for (long id = 2; id <= 4; id++) {
+            Assert.assertEquals(String.valueOf(id - 1), journal.read(id).getData().toString());
+        }
+
+        journal.write(OperationType.OP_SAVE_NEXTID, new Text("4"));
+        Assert.assertEquals(5, journal.getMaxJournalId());
+        Assert.assertEquals("4", journal.read(5).getData().toString());
+    }
+
+    @Test
+    public void testBatchWriteAbortTimestamps() throws IOException {
+        journal.write(OperationType.OP_SAVE_NEXTID, new Text("0"));
+
+        // every attempt fails after its first put, so each transaction must be aborted
+        MockUp<Database> failingPut = new MockUp<Database>() {
+            private int puts = 0;
+
+            @Mock
+            public OperationStatus put(Invocation inv, Transaction txn, DatabaseEntry key, DatabaseEntry data) {
+                if (++puts % 2 == 0) {
+                    return OperationStatus.KEYEXIST;
+                }
+                return inv.proceed();
+            }
+        };
+        journal.batchWrite(Lists.newArrayList(timestamp(), timestamp()));
+        failingPut.tearDown();
+
+        Assert.assertEquals(1, journal.getMaxJournalId());
+        Assert.assertNull(journal.read(2));
+        Assert.assertNull(journal.read(3));
+
+        // the ids reserved by the failed timestamp batch are handed out again
+        journal.write(OperationType.OP_SAVE_NEXTID, new Text("1"));
+        Assert.assertEquals(2, journal.getMaxJournalId());
+        Assert.assertEquals("1", journal.read(2).getData().toString());
+    }
+
+    private static JournalEntity nextId(String value) {
+        JournalEntity entity = new JournalEntity();
+        entity.setOpCode(OperationType.OP_SAVE_NEXTID);
+        entity.setData(new Text(value));
+        return entity;
+    }
+
+    private static JournalEntity timestamp() {
+        JournalEntity entity = new JournalEntity();
+        entity.setOpCode(OperationType.OP_TIMESTAMP);
+        entity.setData(new Timestamp());
+        return entity;
+    }
+}
@@ -197,6 +197,65 @@ public class KafkaRoutineLoadJobTest {
         }
     }
 
+    @Test
+    public void testDivideRoutineLoadJobByLag(@Injectable RoutineLoadManager routineLoadManager,
+                                              @Mocked RoutineLoadDesc routineLoadDesc)
+            throws UserException {
+
+        Catalog catalog = Deencapsulation.newInstance(Catalog.class);
+
+        RoutineLoadJob routineLoadJob =
+                new KafkaRoutineLoadJob(1L, "kafka_routine_load_job", "default", 1L,
+                        1L, "127.0.0.1:9020", "topic1", UserIdentity.ADMIN);
+
+        new Expectations(catalog) {
+            {
+                catalog.getRoutineLoadManager();
+                minTimes = 0;
+                result = routineLoadManager;
+            }
+        };
+
+        RoutineLoadTaskScheduler routineLoadTaskScheduler = new RoutineLoadTaskScheduler(routineLoadManager);
+        Deencapsulation.setField(catalog, "routineLoadTaskScheduler", routineLoadTaskScheduler);
+
+        Deencapsulation.setField(routineLoadJob, "currentKafkaPartitions", Arrays.asList(1, 4, 6));
+        KafkaProgress kafkaProgress = new KafkaProgress();
+        kafkaProgress.addPartitionOffset(Pair.create(1, 0L));
+        kafkaProgress.addPartitionOffset(Pair.create(4, 0L));
+        kafkaProgress.addPartitionOffset(Pair.create(6, 0L));
+        Deencapsulation.setField(routineLoadJob, "progress", kafkaProgress);
+        Map<Integer, Long> latestOffsets = Maps.newConcurrentMap();
+        latestOffsets.put(1, 100L);
+        latestOffsets.put(4, 1000L);
+        latestOffsets.put(6, 500L);
+        Deencapsulation.setField(routineLoadJob, "cachedPartitionWithLatestOffsets", latestOffsets);
+        Assert.assertEquals(1600L, routineLoadJob.getTotalLag());
+
+        boolean origin = Config.enable_lag_aware_routine_load_scheduling;
+        Config.enable_lag_aware_routine_load_scheduling = true;
+        try {
+            routineLoadJob.divideRoutineLoadJob(2);
+        } finally {
+            Config.enable_lag_aware_routine_load_scheduling = origin;
+        }
+
+        // the most lagged partition 4 is assigned to a task alone
+        List<RoutineLoadTaskInfo> routineLoadTaskInfoList = Deencapsulation.getField(routineLoadJob, "routineLoadTaskInfoList");
+        Assert.assertEquals(2, routineLoadTaskInfoList.size());
+        for (RoutineLoadTaskInfo routineLoadTaskInfo : routineLoadTaskInfoList) {
+            KafkaTaskInfo kafkaTaskInfo = (KafkaTaskInfo) routineLoadTaskInfo;
+            if (kafkaTaskInfo.getPartitions().size() == 2) {
+                Assert.assertTrue(kafkaTaskInfo.getPartitions().contains(1));
+                Assert.assertTrue(kafkaTaskInfo.getPartitions().contains(6));
+            } else if (kafkaTaskInfo.getPartitions().size() == 1) {
+                Assert.assertTrue(kafkaTaskInfo.getPartitions().contains(4));
+            } else {
+                Assert.fail();
+            }
+        }
+    }
+
     @Test
     public void testProcessTimeOutTasks(@Injectable GlobalTransactionMgr globalTransactionMgr,
                                         @Injectable RoutineLoadManager routineLoadManager,
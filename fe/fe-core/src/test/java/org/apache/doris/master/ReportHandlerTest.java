@@ -0,0 +1,170 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.master;
+
+import org.apache.doris.common.jmockit.Deencapsulation;
+import org.apache.doris.thrift.TDisk;
+import org.apache.doris.thrift.TTablet;
+import org.apache.doris.thrift.TTaskType;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+public class ReportHandlerTest {
+    private ReportHandler reportHandler;
+
+    @Before
+    public void setUp() {
+        reportHandler = new ReportHandler();
+    }
+
+    // create a task report whose running tasks contain only seq, seq is passed to handler when the report is handled
+    private ReportHandler.ReportTask createTaskReport(long beId, long seq, Consumer<Long> handler) {
+        Map<TTaskType, Set<Long>> tasks = Maps.newHashMap();
+        tasks.put(TTaskType.CLONE, Sets.newHashSet(seq));
+        return reportHandler.new ReportTask(beId, tasks, null, null, 0) {
+            @Override
+            protected void exec() {
+                Map<TTaskType, Set<Long>> reportedTasks = Deencapsulation.getField(this, "tasks");
+                handler.accept(reportedTasks.get(TTaskType.CLONE).iterator().next());
+            }
+        };
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("wait timeout", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testReportsOfSameBackendInOrder() throws InterruptedException {
+        int backendNum = 4;
+        long reportNum = 50;
+        ConcurrentMap<Long, List<Long>> handledSeqs = Maps.newConcurrentMap();
+        Set<Long> handlingBackends = Sets.newConcurrentHashSet();
+        AtomicBoolean isHandledConcurrently = new AtomicBoolean(false);
+        for (long seq = 0; seq < reportNum; seq++) {
+            for (long beId = 0; beId < backendNum; beId++) {
+                long reportBeId = beId;
+                reportHandler.dispatch(createTaskReport(beId, seq, reportSeq -> {
+                    if (!handlingBackends.add(reportBeId)) {
+                        isHandledConcurrently.set(true);
+                    }
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    handledSeqs.computeIfAbsent(reportBeId, k -> Collections.synchronizedList(Lists.newArrayList()))
+                            .add(reportSeq);
+                    handlingBackends.remove(reportBeId);
+                }));
+            }
+        }
+
+        waitUntil(() -> handledSeqs.size() == backendNum && handledSeqs.values().stream()
+                .allMatch(seqs -> seqs.get(seqs.size() - 1) == reportNum - 1));
+        // reports of a backend are handled one by one, in the order they are received.
+        // some of them may be merged into a newer one, but the newest one is always handled.
+        Assert.assertFalse(isHandledConcurrently.get());
+        for (List<Long> seqs : handledSeqs.values()) {
+            for (int i = 1; i < seqs.size(); i++) {
+                Assert.assertTrue(seqs.get(i - 1) < seqs.get(i));
+            }
+        }
+        Assert.assertEquals(0, reportHandler.getQueueSize());
+    }
+
+    @Test
+    public void testMergeNewer() {
+        Map<TTaskType, Set<Long>> tasks = Maps.newHashMap();
+        Map<String, TDisk> disks = Maps.newHashMap();
+        ReportHandler.ReportTask reportTask = reportHandler.new ReportTask(1, tasks, disks, null, 0);
+
+        // only the reported parts of the newer report replace the older ones
+        Map<Long, TTablet> tablets = Maps.newHashMap();
+        reportTask.mergeNewer(reportHandler.new ReportTask(1, null, null, tablets, 10));
+        Assert.assertSame(tasks, Deencapsulation.getField(reportTask, "tasks"));
+        Assert.assertSame(disks, Deencapsulation.getField(reportTask, "disks"));
+        Assert.assertSame(tablets, Deencapsulation.getField(reportTask, "tablets"));
+        Assert.assertEquals(10L, (long) Deencapsulation.getField(reportTask, "reportVersion"));
+
+        Map<TTaskType, Set<Long>> newerTasks = Maps.newHashMap();
+        Map<String, TDisk> newerDisks = Maps.newHashMap();
+        reportTask.mergeNewer(reportHandler.new ReportTask(1, newerTasks, newerDisks, null, 20));
+        Assert.assertSame(newerTasks, Deencapsulation.getField(reportTask, "tasks"));
+        Assert.assertSame(newerDisks, Deencapsulation.getField(reportTask, "disks"));
+        Assert.assertSame(tablets, Deencapsulation.getField(reportTask, "tablets"));
+        // the report version belongs to the tablets
+        Assert.assertEquals(10L, (long) Deencapsulation.getField(reportTask, "reportVersion"));
+    }
+
+    @Test
+    public void testMergePendingReport() throws InterruptedException {
+        List<Long> handledSeqs = Collections.synchronizedList(Lists.newArrayList());
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch firstBlocker = new CountDownLatch(1);
+        reportHandler.dispatch(createTaskReport(1, 1, seq -> {
+            firstStarted.countDown();
+            try {
+                firstBlocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handledSeqs.add(seq);
+        }));
+        Assert.assertTrue(firstStarted.await(10, TimeUnit.SECONDS));
+        // the first report is being handled
+        Assert.assertEquals(0, reportHandler.getQueueSize());
+
+        // the second report is pending, and the third one is merged into it
+        reportHandler.dispatch(createTaskReport(1, 2, handledSeqs::add));
+        Assert.assertEquals(1, reportHandler.getQueueSize());
+        reportHandler.dispatch(createTaskReport(1, 3, handledSeqs::add));
+        Assert.assertEquals(1, reportHandler.getQueueSize());
+
+        // report of another backend is not merged
+        List<Long> otherHandledSeqs = Collections.synchronizedList(Lists.newArrayList());
+        reportHandler.dispatch(createTaskReport(2, 1, otherHandledSeqs::add));
+        waitUntil(() -> otherHandledSeqs.size() == 1);
+        Assert.assertEquals(1, reportHandler.getQueueSize());
+
+        firstBlocker.countDown();
+        waitUntil(() -> handledSeqs.size() == 2);
+        Assert.assertEquals(Lists.newArrayList(1L, 3L), handledSeqs);
+        Assert.assertEquals(0, reportHandler.getQueueSize());
+    }
+}
@@ -0,0 +1,131 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.mysql;
+
+import org.apache.doris.analysis.DateLiteral;
+import org.apache.doris.analysis.DecimalLiteral;
+import org.apache.doris.analysis.LargeIntLiteral;
+import org.apache.doris.analysis.LiteralExpr;
+import org.apache.doris.analysis.StringLiteral;
+import org.apache.doris.catalog.PrimitiveType;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.common.AnalysisException;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class MysqlBinaryProtocolTest {
+
+    @Test
+    public void testReadParam() throws AnalysisException {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt8(-10L);
+        serializer.writeInt4(100);
+        serializer.writeInt8(-1L);
+        serializer.writeLenEncodedString("it's");
+        serializer.writeInt1(7);
+        serializer.writeInt2(2022);
+        serializer.writeInt1(6);
+        serializer.writeInt1(1);
+        serializer.writeInt1(12);
+        serializer.writeInt1(30);
+        serializer.writeInt1(0);
+        serializer.writeLenEncodedString("1.50");
+        serializer.writeInt8(Double.doubleToLongBits(2.5));
+        ByteBuffer buffer = serializer.toByteBuffer();
+
+        LiteralExpr literal = MysqlBinaryProtocol.readParamAsLiteral(buffer, 8, false);
+        Assert.assertEquals(Type.BIGINT, literal.getType());
+        Assert.assertEquals(-10L, literal.getLongValue());
+        literal = MysqlBinaryProtocol.readParamAsLiteral(buffer, 3, true);
+        Assert.assertEquals(Type.BIGINT, literal.getType());
+        Assert.assertEquals(100L, literal.getLongValue());
+        literal = MysqlBinaryProtocol.readParamAsLiteral(buffer, 8, true);
+        Assert.assertTrue(literal instanceof LargeIntLiteral);
+        Assert.assertEquals("18446744073709551615", literal.getStringValue());
+        literal = MysqlBinaryProtocol.readParamAsLiteral(buffer, 253, false);
+        Assert.assertTrue(literal instanceof StringLiteral);
+        Assert.assertEquals("it's", literal.getStringValue());
+        literal = MysqlBinaryProtocol.readParamAsLiteral(buffer, 12, false);
+        Assert.assertTrue(literal instanceof DateLiteral);
+        Assert.assertEquals(Type.DATETIME, literal.getType());
+        Assert.assertEquals("2022-06-01 12:30:00", literal.getStringValue());
+        literal = MysqlBinaryProtocol.readParamAsLiteral(buffer, 246, false);
+        Assert.assertTrue(literal instanceof DecimalLiteral);
+        Assert.assertEquals(0, new BigDecimal("1.50").compareTo(((DecimalLiteral) literal).getValue()));
+        literal = MysqlBinaryProtocol.readParamAsLiteral(buffer, 5, false);
+        Assert.assertEquals(Type.DOUBLE, literal.getType());
+        Assert.assertEquals(2.5, literal.getDoubleValue(), 0.0);
+        Assert.assertEquals(0, buffer.remaining());
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testReadInvalidDecimalParam() throws AnalysisException {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeLenEncodedString("1 or 1=1");
+        MysqlBinaryProtocol.readParamAsLiteral(serializer.toByteBuffer(), 246, false);
+    }
+
+    @Test
+    public void testReadNonFiniteParam() {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt8(Double.doubleToLongBits(Double.NaN));
+        serializer.writeInt8(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+        serializer.writeInt4(Float.floatToIntBits(Float.POSITIVE_INFINITY));
+        ByteBuffer buffer = serializer.toByteBuffer();
+        int[] typeCodes = {5, 5, 4};
+        for (int typeCode : typeCodes) {
+            try {
+                MysqlBinaryProtocol.readParamAsLiteral(buffer, typeCode, false);
+                Assert.fail("non-finite value must be rejected");
+            } catch (AnalysisException e) {
+                Assert.assertTrue(e.getMessage().contains("Unsupported"));
+            }
+        }
+        Assert.assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void testToBinaryRow() {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeLenEncodedString("42");
+        serializer.writeNull();
+        serializer.writeLenEncodedString("2022-06-01");
+        serializer.writeLenEncodedString("abc");
+        ByteBuffer textRow = serializer.toByteBuffer();
+
+        ByteBuffer row = MysqlBinaryProtocol.toBinaryRow(serializer, textRow, Lists.newArrayList(
+                PrimitiveType.BIGINT, PrimitiveType.INT, PrimitiveType.DATE, PrimitiveType.VARCHAR));
+        // header
+        Assert.assertEquals(0x00, MysqlProto.readInt1(row));
+        // null bitmap, the second column is null, and the bitmap has an offset of 2
+        Assert.assertEquals(1 << 3, MysqlProto.readInt1(row));
+        Assert.assertEquals(42L, MysqlProto.readInt8(row));
+        Assert.assertEquals(4, MysqlProto.readInt1(row));
+        Assert.assertEquals(2022, MysqlProto.readInt2(row));
+        Assert.assertEquals(6, MysqlProto.readInt1(row));
+        Assert.assertEquals(1, MysqlProto.readInt1(row));
+        Assert.assertEquals("abc", new String(MysqlProto.readLenEncodedString(row), StandardCharsets.UTF_8));
+        Assert.assertEquals(0, row.remaining());
+    }
+}
@@ -24,10 +24,15 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 public class MysqlChannelTest {
     int packetId = 0;
@@ -296,4 +301,154 @@ public class MysqlChannelTest {
         Assert.fail("No Exception throws.");
     }
 
+    private void mockWriteTo(ByteArrayOutputStream out) throws IOException {
+        new Expectations() {
+            {
+                channel.write((ByteBuffer) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    int fakeWrite(ByteBuffer buffer) {
+                        int writeLen = buffer.remaining();
+                        while (buffer.hasRemaining()) {
+                            out.write(buffer.get());
+                        }
+                        return writeLen;
+                    }
+                };
+
+                channel.write((ByteBuffer[]) any, anyInt, anyInt);
+                minTimes = 0;
+                result = new Delegate() {
+                    long fakeWrite(ByteBuffer[] buffers, int offset, int length) {
+                        long writeLen = 0;
+                        for (int i = offset; i < offset + length; i++) {
+                            writeLen += buffers[i].remaining();
+                            while (buffers[i].hasRemaining()) {
+                                out.write(buffers[i].get());
+                            }
+                        }
+                        return writeLen;
+                    }
+                };
+            }
+        };
+    }
+
+    private static ByteBuffer makePacket(int len, int seed) {
+        byte[] buf = new byte[len];
+        for (int i = 0; i < len; ++i) {
+            buf[i] = (byte) ('a' + (i + seed) % 26);
+        }
+        return ByteBuffer.wrap(buf);
+    }
+
+    @Test
+    public void testSendPackets() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mockWriteTo(out);
+
+        List<ByteBuffer> packets = new ArrayList<>();
+        for (int i = 0; i < 300; ++i) {
+            packets.add(makePacket(1000 + i, i));
+        }
+        // larger than the pooled buffer
+        packets.add(makePacket(MysqlSendBufferPool.BUFFER_SIZE * 2 + 1, 0));
+
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        channel1.sendOnePacket(makePacket(10, 0));
+        channel1.sendPackets(packets);
+        channel1.sendAndFlush(makePacket(5, 0));
+
+        // should be the same as sending the packets one by one
+        MysqlSerializer expected = MysqlSerializer.newInstance();
+        List<ByteBuffer> allPackets = new ArrayList<>();
+        allPackets.add(makePacket(10, 0));
+        for (int i = 0; i < 300; ++i) {
+            allPackets.add(makePacket(1000 + i, i));
+        }
+        allPackets.add(makePacket(MysqlSendBufferPool.BUFFER_SIZE * 2 + 1, 0));
+        allPackets.add(makePacket(5, 0));
+        int seq = 0;
+        for (ByteBuffer packet : allPackets) {
+            expected.writeInt3(packet.remaining());
+            expected.writeInt1(seq++ & 0xFF);
+            expected.writeBytes(packet.array());
+        }
+        Assert.assertArrayEquals(expected.toArray(), out.toByteArray());
+    }
+
+    @Test
+    public void testCompressedProtocol() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mockWriteTo(out);
+
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        channel1.enableCompression();
+        channel1.setSequenceId(0);
+        channel1.sendAndFlush(makePacket(1000, 0));
+
+        // compressed header: compressed length, sequence id, uncompressed length
+        ByteBuffer sent = ByteBuffer.wrap(out.toByteArray());
+        int compressedLen = MysqlProto.readInt3(sent);
+        Assert.assertEquals(0, MysqlProto.readInt1(sent));
+        Assert.assertEquals(1004, MysqlProto.readInt3(sent));
+        Assert.assertEquals(compressedLen, sent.remaining());
+        Assert.assertTrue(compressedLen < 1004);
+
+        byte[] payload = new byte[1004];
+        Inflater inflater = new Inflater();
+        inflater.setInput(out.toByteArray(), 7, compressedLen);
+        Assert.assertEquals(1004, inflater.inflate(payload));
+        ByteBuffer packet = ByteBuffer.wrap(payload);
+        Assert.assertEquals(1000, MysqlProto.readInt3(packet));
+        Assert.assertEquals(0, MysqlProto.readInt1(packet));
+        Assert.assertEquals(makePacket(1000, 0), packet);
+
+        // read back what is sent
+        ByteBuffer source = ByteBuffer.wrap(out.toByteArray());
+        new Expectations() {
+            {
+                channel.read((ByteBuffer) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    int fakeRead(ByteBuffer buffer) {
+                        if (!source.hasRemaining()) {
+                            return -1;
+                        }
+                        int len = Math.min(buffer.remaining(), source.remaining());
+                        for (int i = 0; i < len; ++i) {
+                            buffer.put(source.get());
+                        }
+                        return len;
+                    }
+                };
+            }
+        };
+        channel1.setSequenceId(0);
+        ByteBuffer received = channel1.fetchOnePacket();
+        Assert.assertEquals(makePacket(1000, 0), received);
+    }
+
+    @Test
+    public void testCloseReleasesCompression() throws DataFormatException {
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        // closing a channel that never enabled compression is fine
+        channel1.close();
+
+        channel1 = new MysqlChannel(channel);
+        channel1.enableCompression();
+        channel1.close();
+        try {
+            channel1.deflater.deflate(new byte[1]);
+            Assert.fail("deflater should be ended");
+        } catch (NullPointerException e) {
+            // expected, the deflater is closed
+        }
+        try {
+            channel1.inflater.inflate(new byte[1]);
+            Assert.fail("inflater should be ended");
+        } catch (NullPointerException e) {
+            // expected, the inflater is closed
+        }
+    }
 }
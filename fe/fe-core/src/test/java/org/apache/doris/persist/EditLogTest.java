@@ -17,11 +17,24 @@
 
 package org.apache.doris.persist;
 
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.common.Config;
+import org.apache.doris.common.io.Writable;
+import org.apache.doris.journal.Journal;
+import org.apache.doris.journal.JournalCursor;
+import org.apache.doris.journal.JournalEntity;
+
+import com.google.common.collect.Lists;
+import mockit.Deencapsulation;
+import mockit.Mocked;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 public class EditLogTest {
     private String meta = "editLogTestDir/";
@@ -102,4 +115,130 @@ public class EditLogTest {
     public void test() {
 
     }
+
+    // records the written journals, each batch is slowed down so that concurrent writers are grouped
+    private static class RecordJournal implements Journal {
+        private final List<String> journals = Collections.synchronizedList(Lists.newArrayList());
+        private int batchNum = 0;
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void rollJournal() {
+        }
+
+        @Override
+        public long getMaxJournalId() {
+            return journals.size();
+        }
+
+        @Override
+        public long getMinJournalId() {
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public JournalEntity read(long journalId) {
+            return null;
+        }
+
+        @Override
+        public JournalCursor read(long fromKey, long toKey) {
+            return null;
+        }
+
+        @Override
+        public void write(short op, Writable writable) throws IOException {
+            batchWrite(Lists.newArrayList(newEntity(op, writable)));
+        }
+
+        @Override
+        public void batchWrite(List<JournalEntity> entities) throws IOException {
+            batchNum++;
+            for (JournalEntity entity : entities) {
+                journals.add(entity.getData().toString());
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void deleteJournals(long deleteJournalToId) {
+        }
+
+        @Override
+        public long getFinalizedJournalId() {
+            return 0;
+        }
+
+        @Override
+        public List<Long> getDatabaseNames() {
+            return null;
+        }
+
+        private static JournalEntity newEntity(short op, Writable writable) {
+            JournalEntity entity = new JournalEntity();
+            entity.setOpCode(op);
+            entity.setData(writable);
+            return entity;
+        }
+    }
+
+    @Test
+    public void testGroupCommit(@Mocked Catalog catalog) throws InterruptedException {
+        String journalType = Config.edit_log_type;
+        boolean groupCommit = Config.enable_edit_log_group_commit;
+        Config.edit_log_type = "local";
+        Config.enable_edit_log_group_commit = true;
+        try {
+            EditLog editLog = new EditLog("test");
+            RecordJournal journal = new RecordJournal();
+            Deencapsulation.setField(editLog, "journal", journal);
+
+            int threadNum = 8;
+            int journalNumPerThread = 20;
+            List<Thread> threads = Lists.newArrayList();
+            for (int i = 0; i < threadNum; i++) {
+                final int threadIdx = i;
+                threads.add(new Thread(() -> {
+                    for (int j = 0; j < journalNumPerThread; j++) {
+                        editLog.logSaveNextId(threadIdx * 1000 + j);
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            Assert.assertEquals(threadNum * journalNumPerThread, journal.journals.size());
+            Assert.assertEquals(threadNum * journalNumPerThread, editLog.getTxId());
+            Assert.assertTrue(journal.batchNum < threadNum * journalNumPerThread);
+            // journals of one thread are written in the order of calling
+            for (int i = 0; i < threadNum; i++) {
+                long last = -1;
+                for (String nextId : journal.journals) {
+                    long id = Long.parseLong(nextId);
+                    if (id / 1000 == i) {
+                        Assert.assertTrue(id > last);
+                        last = id;
+                    }
+                }
+            }
+        } finally {
+            Config.edit_log_type = journalType;
+            Config.enable_edit_log_group_commit = groupCommit;
+        }
+    }
 }
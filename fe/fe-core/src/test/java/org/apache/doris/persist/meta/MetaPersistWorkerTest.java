@@ -0,0 +1,83 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.persist.meta;
+
+import org.apache.doris.common.FeConstants;
+import org.apache.doris.meta.MetaContext;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class MetaPersistWorkerTest {
+
+    @Before
+    public void setUp() {
+        MetaContext metaContext = new MetaContext();
+        metaContext.setMetaVersion(FeConstants.meta_version);
+        metaContext.setThreadLocalInfo();
+    }
+
+    @After
+    public void tearDown() {
+        MetaContext.remove();
+    }
+
+    @Test
+    public void testRunAll() throws IOException {
+        List<Callable<Long>> tasks = Lists.newArrayList();
+        for (long i = 0; i < 10; i++) {
+            final long value = i;
+            tasks.add(() -> {
+                // meta context of the calling thread is visible to the workers
+                Assert.assertEquals(FeConstants.meta_version, MetaContext.get().getMetaVersion());
+                return value;
+            });
+        }
+        for (int parallelism : new int[] {1, 4}) {
+            List<Long> results = MetaPersistWorker.runAll("test", parallelism, tasks);
+            Assert.assertEquals(10, results.size());
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals(Long.valueOf(i), results.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testRunAllFailed() {
+        List<Callable<Long>> tasks = Lists.newArrayList();
+        tasks.add(() -> 1L);
+        tasks.add(() -> {
+            throw new IOException("bad module");
+        });
+        for (int parallelism : new int[] {1, 2}) {
+            try {
+                MetaPersistWorker.runAll("test", parallelism, tasks);
+                Assert.fail();
+            } catch (IOException e) {
+                Assert.assertEquals("bad module", e.getMessage());
+            }
+        }
+    }
+}
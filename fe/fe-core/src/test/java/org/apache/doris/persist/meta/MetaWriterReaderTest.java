@@ -0,0 +1,185 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.persist.meta;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.common.FeConstants;
+import org.apache.doris.common.io.CountingDataOutputStream;
+import org.apache.doris.meta.MetaContext;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import mockit.Mocked;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class MetaWriterReaderTest {
+    private static final int VALUE_NUM = 10000;
+
+    // module name -> values written by the module
+    private static final Map<String, List<Long>> WRITTEN_VALUES = Maps.newConcurrentMap();
+    // module name -> values read by the module
+    private static final Map<String, List<Long>> LOADED_VALUES = Maps.newConcurrentMap();
+    // names of modules in the order they are loaded
+    private static final List<String> LOADED_MODULES = Collections.synchronizedList(Lists.newArrayList());
+
+    @Mocked
+    private Catalog catalog;
+
+    private File metaDir;
+
+    @Before
+    public void setUp() throws IOException {
+        MetaContext metaContext = new MetaContext();
+        metaContext.setMetaVersion(FeConstants.meta_version);
+        metaContext.setThreadLocalInfo();
+        metaDir = Files.createTempDirectory("meta_writer_reader_test").toFile();
+
+        // "db" values are compressible, "transactionState" and "paloAuth" values are random
+        Random random = new Random(0);
+        WRITTEN_VALUES.put("db", Lists.newArrayList());
+        WRITTEN_VALUES.put("transactionState", Lists.newArrayList());
+        WRITTEN_VALUES.put("paloAuth", Lists.newArrayList());
+        for (long i = 0; i < VALUE_NUM; i++) {
+            WRITTEN_VALUES.get("db").add(i % 10);
+            WRITTEN_VALUES.get("transactionState").add(random.nextLong());
+            WRITTEN_VALUES.get("paloAuth").add(random.nextLong());
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        MetaContext.remove();
+        FileUtils.deleteDirectory(metaDir);
+    }
+
+    // Fake meta modules. Like the real ones, the checksum is xor of all written values.
+    public static long saveDb(CountingDataOutputStream dos, long checksum) throws IOException {
+        return saveValues("db", dos, checksum);
+    }
+
+    public static long loadDb(DataInputStream dis, long checksum) throws IOException {
+        return loadValues("db", dis, checksum);
+    }
+
+    public static long saveTransactionState(CountingDataOutputStream dos, long checksum) throws IOException {
+        return saveValues("transactionState", dos, checksum);
+    }
+
+    public static long loadTransactionState(DataInputStream dis, long checksum) throws IOException {
+        return loadValues("transactionState", dis, checksum);
+    }
+
+    public static long savePaloAuth(CountingDataOutputStream dos, long checksum) throws IOException {
+        return saveValues("paloAuth", dos, checksum);
+    }
+
+    public static long loadPaloAuth(DataInputStream dis, long checksum) throws IOException {
+        return loadValues("paloAuth", dis, checksum);
+    }
+
+    private static long saveValues(String name, CountingDataOutputStream dos, long checksum) throws IOException {
+        List<Long> values = WRITTEN_VALUES.get(name);
+        dos.writeInt(values.size());
+        for (long value : values) {
+            dos.writeLong(value);
+            checksum ^= value;
+        }
+        return checksum;
+    }
+
+    private static long loadValues(String name, DataInputStream dis, long checksum) throws IOException {
+        LOADED_MODULES.add(name);
+        int size = dis.readInt();
+        List<Long> values = Lists.newArrayList();
+        for (int i = 0; i < size; i++) {
+            long value = dis.readLong();
+            values.add(value);
+            checksum ^= value;
+        }
+        LOADED_VALUES.put(name, values);
+        return checksum;
+    }
+
+    private static MetaPersistMethod createModule(String name, String methodSuffix) throws NoSuchMethodException {
+        MetaPersistMethod module = new MetaPersistMethod(name);
+        module.writeMethod = MetaWriterReaderTest.class.getDeclaredMethod("save" + methodSuffix,
+                CountingDataOutputStream.class, long.class);
+        module.readMethod = MetaWriterReaderTest.class.getDeclaredMethod("load" + methodSuffix,
+                DataInputStream.class, long.class);
+        return module;
+    }
+
+    @Test
+    public void testWriteAndReadByModule() throws Exception {
+        // "db" and "transactionState" are loaded in order, "paloAuth" is loaded concurrently with them
+        List<MetaPersistMethod> modules = Lists.newArrayList(createModule("db", "Db"),
+                createModule("paloAuth", "PaloAuth"), createModule("transactionState", "TransactionState"));
+        Map<String, MetaPersistMethod> modulesMap = modules.stream()
+                .collect(Collectors.toMap(m -> m.name, m -> m));
+        long expectedChecksum = 0;
+        for (List<Long> values : WRITTEN_VALUES.values()) {
+            for (long value : values) {
+                expectedChecksum ^= value;
+            }
+        }
+
+        long uncompressedLength = 0;
+        for (boolean compress : new boolean[] {false, true}) {
+            for (int parallelism : new int[] {1, 4}) {
+                LOADED_VALUES.clear();
+                LOADED_MODULES.clear();
+                File imageFile = new File(metaDir, "image." + compress + "." + parallelism);
+                MetaWriter.writeByModule(imageFile, catalog, modules, compress, parallelism);
+                // the part files are removed
+                Assert.assertEquals(0, metaDir.listFiles(File::isDirectory).length);
+
+                MetaHeader metaHeader = MetaHeader.read(imageFile);
+                MetaFooter metaFooter = MetaFooter.read(imageFile);
+                Assert.assertEquals(compress ? Lists.newArrayList("db", "paloAuth", "transactionState")
+                        : Lists.newArrayList(), metaHeader.getCompressedModules());
+                Assert.assertEquals(Lists.newArrayList("header", "db", "paloAuth", "transactionState"),
+                        metaFooter.metaIndices.stream().map(i -> i.name).collect(Collectors.toList()));
+                Assert.assertEquals(expectedChecksum, metaFooter.checksum);
+                if (compress) {
+                    Assert.assertTrue(imageFile.length() < uncompressedLength);
+                } else {
+                    uncompressedLength = imageFile.length();
+                }
+
+                // readByModule checks the checksum of the loaded modules against the footer
+                MetaReader.readByModule(imageFile, catalog, metaHeader, metaFooter, modulesMap, parallelism);
+                Assert.assertEquals(WRITTEN_VALUES, LOADED_VALUES);
+                Assert.assertTrue(LOADED_MODULES.indexOf("db") < LOADED_MODULES.indexOf("transactionState"));
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Config;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class BackendLoadTrackerTest {
+    private int halfLifeSecond;
+
+    @Before
+    public void setUp() {
+        halfLifeSecond = Config.backend_load_decay_half_life_second;
+        // disable decay to make the load stable
+        Config.backend_load_decay_half_life_second = 0;
+        BackendLoadTracker.clear();
+    }
+
+    @After
+    public void tearDown() {
+        Config.backend_load_decay_half_life_second = halfLifeSecond;
+        BackendLoadTracker.clear();
+    }
+
+    @Test
+    public void testAddAndRelease() {
+        BackendLoadTracker.addLoad(1L, 10);
+        BackendLoadTracker.addLoad(1L, 5);
+        BackendLoadTracker.addLoad(2L, 3);
+        Assert.assertEquals(15, BackendLoadTracker.getLoad(1L), 0.001);
+        Assert.assertEquals(3, BackendLoadTracker.getLoad(2L), 0.001);
+        Assert.assertEquals(0, BackendLoadTracker.getLoad(3L), 0.001);
+
+        BackendLoadTracker.releaseLoad(1L, 10);
+        Assert.assertEquals(5, BackendLoadTracker.getLoad(1L), 0.001);
+        // release more than tracked, the load should not be negative
+        BackendLoadTracker.releaseLoad(2L, 10);
+        Assert.assertEquals(0, BackendLoadTracker.getLoad(2L), 0.001);
+
+        Map<Long, Double> loads = BackendLoadTracker.getLoads();
+        Assert.assertEquals(1, loads.size());
+        Assert.assertEquals(5, loads.get(1L), 0.001);
+    }
+
+    @Test
+    public void testFailureAndReset() {
+        BackendLoadTracker.addLoad(1L, 2);
+        BackendLoadTracker.addFailurePenalty(1L);
+        Assert.assertTrue(BackendLoadTracker.getLoad(1L) > 2);
+
+        BackendLoadTracker.resetLoad(1L);
+        Assert.assertEquals(0, BackendLoadTracker.getLoad(1L), 0.001);
+        Assert.assertTrue(BackendLoadTracker.getLoads().isEmpty());
+    }
+}
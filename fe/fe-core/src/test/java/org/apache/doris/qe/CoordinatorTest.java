@@ -27,6 +27,8 @@ import org.apache.doris.analysis.TupleId;
 import org.apache.doris.catalog.Catalog;
 import org.apache.doris.catalog.HashDistributionInfo;
 import org.apache.doris.catalog.OlapTable;
+import org.apache.doris.common.Config;
+import org.apache.doris.common.Reference;
 import org.apache.doris.common.jmockit.Deencapsulation;
 import org.apache.doris.persist.EditLog;
 import org.apache.doris.planner.DataPartition;
@@ -40,8 +42,12 @@ import org.apache.doris.planner.PlanNodeId;
 import org.apache.doris.planner.ScanNode;
 import org.apache.doris.service.FrontendOptions;
 import org.apache.doris.system.Backend;
+import org.apache.doris.thrift.TDescriptorTable;
+import org.apache.doris.thrift.TExecPlanFragmentParams;
 import org.apache.doris.thrift.TNetworkAddress;
 import org.apache.doris.thrift.TPartitionType;
+import org.apache.doris.thrift.TQueryGlobals;
+import org.apache.doris.thrift.TResourceInfo;
 import org.apache.doris.thrift.TScanRangeLocation;
 import org.apache.doris.thrift.TScanRangeLocations;
 import org.apache.doris.thrift.TScanRangeParams;
@@ -56,6 +62,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -648,6 +655,194 @@ public class CoordinatorTest extends Coordinator {
         Assert.assertTrue(hosts.size() == 3);
     }
 
+    @Test
+    public void testSelectBackendsByLoad() throws Exception {
+        Coordinator coordinator = new Coordinator(context, analyzer, originalPlanner);
+        List<TScanRangeLocation> locations = new ArrayList<>();
+        List<Backend> backends = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TScanRangeLocation location = new TScanRangeLocation();
+            location.backend_id = i;
+            location.server = new TNetworkAddress("0.0.0." + i, 9050);
+            locations.add(location);
+            Backend backend = new Backend(i, "0.0.0." + i, 9060);
+            backend.setAlive(true);
+            backend.setBePort(9050);
+            backends.add(backend);
+        }
+        ImmutableMap<Long, Backend> idToBackend =
+                new ImmutableMap.Builder<Long, Backend>()
+                    .put(0L, backends.get(0))
+                    .put(1L, backends.get(1))
+                    .put(2L, backends.get(2))
+                    .build();
+        Deencapsulation.setField(coordinator, "idToBackend", idToBackend);
+
+        // backend 0 is loaded by other queries, backend 1 is lightly loaded
+        Map<Long, Double> backendLoads = Maps.newHashMap();
+        backendLoads.put(0L, 10D);
+        backendLoads.put(1L, 1D);
+        Deencapsulation.setField(coordinator, "backendLoads", backendLoads);
+
+        HashMap<TNetworkAddress, Long> assignedBytesPerHost = Maps.newHashMap();
+        List<Long> selected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Reference<Long> backendIdRef = new Reference<>();
+            coordinator.selectBackendsByRoundRobin(locations, assignedBytesPerHost, backendIdRef);
+            selected.add(backendIdRef.getRef());
+        }
+        // cost of (be0, be1, be2): (10, 1, 0) -> (10, 1, 1) -> (10, 2, 1) -> (10, 2, 2)
+        Assert.assertEquals(Arrays.asList(2L, 1L, 2L, 1L), selected);
+    }
+
+    // create a coordinator with 2 fragment instances on backend 1, each of which has 2 scan ranges
+    private Coordinator createCoordinatorWithLoad() {
+        Coordinator coordinator = new Coordinator(context, analyzer, originalPlanner);
+        Backend backend = new Backend(1L, "0.0.0.1", 9060);
+        backend.setAlive(true);
+        backend.setBePort(9050);
+        Deencapsulation.setField(coordinator, "idToBackend", ImmutableMap.of(1L, backend));
+
+        TNetworkAddress host = new TNetworkAddress("0.0.0.1", 9050);
+        PlanFragmentId fragmentId = new PlanFragmentId(0);
+        FragmentExecParams params = new FragmentExecParams(null);
+        for (int i = 0; i < 2; i++) {
+            FInstanceExecParam instanceParam = new FInstanceExecParam(new TUniqueId(1, 3 + i), host, i, params);
+            instanceParam.perNodeScanRanges.put(0, Arrays.asList(new TScanRangeParams(), new TScanRangeParams()));
+            params.instanceExecParams.add(instanceParam);
+        }
+        Map<PlanFragmentId, FragmentExecParams> fragmentExecParamsMap =
+                Deencapsulation.getField(coordinator, "fragmentExecParamsMap");
+        fragmentExecParamsMap.put(fragmentId, params);
+
+        List<BackendExecState> backendExecStates = Deencapsulation.getField(coordinator, "backendExecStates");
+        for (int i = 0; i < 2; i++) {
+            BackendExecState execState = coordinator.new BackendExecState(fragmentId, i, 0,
+                    new TExecPlanFragmentParams(), ImmutableMap.of(host, 1L));
+            execState.addLoad();
+            backendExecStates.add(execState);
+        }
+        return coordinator;
+    }
+
+    @Test
+    public void testReleaseBackendLoad() throws Exception {
+        int halfLifeSecond = Config.backend_load_decay_half_life_second;
+        Config.backend_load_decay_half_life_second = 0;
+        BackendLoadTracker.clear();
+        try {
+            // released when the query returns all results, and at most once for each instance
+            Coordinator coordinator = createCoordinatorWithLoad();
+            Assert.assertEquals(4, BackendLoadTracker.getLoad(1L), 0.001);
+            List<BackendExecState> backendExecStates = Deencapsulation.getField(coordinator, "backendExecStates");
+            // the first instance reports done
+            Assert.assertTrue(backendExecStates.get(0).releaseLoad());
+            Assert.assertEquals(2, BackendLoadTracker.getLoad(1L), 0.001);
+            coordinator.releaseBackendLoads();
+            Assert.assertEquals(0, BackendLoadTracker.getLoad(1L), 0.001);
+            BackendLoadTracker.addLoad(1L, 1);
+            Assert.assertFalse(backendExecStates.get(0).releaseLoad());
+            coordinator.releaseBackendLoads();
+            Assert.assertEquals(1, BackendLoadTracker.getLoad(1L), 0.001);
+            BackendLoadTracker.clear();
+
+            // released when the query is cancelled
+            coordinator = createCoordinatorWithLoad();
+            coordinator.cancel();
+            Assert.assertEquals(0, BackendLoadTracker.getLoad(1L), 0.001);
+
+            // released when the query is unregistered, e.g. the BE does not report since profile is disabled
+            coordinator = createCoordinatorWithLoad();
+            TUniqueId queryId = new TUniqueId(100, 200);
+            QeProcessorImpl.INSTANCE.registerQuery(queryId, new QeProcessorImpl.QueryInfo(coordinator));
+            Assert.assertEquals(4, BackendLoadTracker.getLoad(1L), 0.001);
+            QeProcessorImpl.INSTANCE.unregisterQuery(queryId);
+            Assert.assertEquals(0, BackendLoadTracker.getLoad(1L), 0.001);
+        } finally {
+            Config.backend_load_decay_half_life_second = halfLifeSecond;
+            BackendLoadTracker.clear();
+        }
+    }
+
+    // create a param carrying all the fields which are shared by the fragment instances of a query
+    private TExecPlanFragmentParams createFullParams() {
+        TExecPlanFragmentParams params = new TExecPlanFragmentParams();
+        params.setDescTbl(new TDescriptorTable());
+        params.setCoord(new TNetworkAddress("127.0.0.1", 9020));
+        params.setQueryGlobals(new TQueryGlobals());
+        params.setResourceInfo(new TResourceInfo("root", "normal"));
+        return params;
+    }
+
+    private void assertFullParams(TExecPlanFragmentParams params) {
+        Assert.assertFalse(params.isIsSimplifiedParam());
+        Assert.assertTrue(params.isSetDescTbl());
+        Assert.assertTrue(params.isSetCoord());
+        Assert.assertTrue(params.isSetQueryGlobals());
+        Assert.assertTrue(params.isSetResourceInfo());
+    }
+
+    private void assertSimplifiedParams(TExecPlanFragmentParams params) {
+        Assert.assertTrue(params.isIsSimplifiedParam());
+        Assert.assertFalse(params.isSetDescTbl());
+        Assert.assertFalse(params.isSetCoord());
+        Assert.assertFalse(params.isSetQueryGlobals());
+        Assert.assertFalse(params.isSetResourceInfo());
+    }
+
+    @Test
+    public void testUnsetFieldsOfParamsInSameRpc() {
+        Coordinator coordinator = new Coordinator(context, analyzer, originalPlanner);
+        Map<Long, Backend> idToBackend = Maps.newHashMap();
+        Map<TNetworkAddress, Long> addressToBackendID = Maps.newHashMap();
+        for (long backendId = 1; backendId <= 3; backendId++) {
+            Backend backend = new Backend(backendId, "0.0.0." + backendId, 9060);
+            backend.setAlive(true);
+            backend.setBePort(9050);
+            idToBackend.put(backendId, backend);
+            addressToBackendID.put(new TNetworkAddress("0.0.0." + backendId, 9050), backendId);
+        }
+        Deencapsulation.setField(coordinator, "idToBackend", ImmutableMap.copyOf(idToBackend));
+
+        // 3 instances on backend 1, 1 instance on backend 2 and 2 instances on backend 3
+        long[] instanceBackendIds = {1L, 2L, 1L, 3L, 1L, 3L};
+        PlanFragmentId fragmentId = new PlanFragmentId(0);
+        FragmentExecParams fragmentParams = new FragmentExecParams(null);
+        for (int i = 0; i < instanceBackendIds.length; i++) {
+            TNetworkAddress host = new TNetworkAddress("0.0.0." + instanceBackendIds[i], 9050);
+            fragmentParams.instanceExecParams.add(
+                    new FInstanceExecParam(new TUniqueId(1, 3 + i), host, i, fragmentParams));
+        }
+        Map<PlanFragmentId, FragmentExecParams> fragmentExecParamsMap =
+                Deencapsulation.getField(coordinator, "fragmentExecParamsMap");
+        fragmentExecParamsMap.put(fragmentId, fragmentParams);
+
+        // the fragments have been sent to backend 3 by a previous rpc of the query
+        Set<Long> alreadySentBackendIds = Deencapsulation.getField(coordinator, "alreadySentBackendIds");
+        alreadySentBackendIds.add(3L);
+
+        Map<Long, BackendExecStates> beToExecStates = Maps.newLinkedHashMap();
+        List<BackendExecState> execStates = new ArrayList<>();
+        for (int i = 0; i < instanceBackendIds.length; i++) {
+            BackendExecState execState = coordinator.new BackendExecState(fragmentId, i, 0, createFullParams(),
+                    addressToBackendID);
+            execStates.add(execState);
+            beToExecStates.computeIfAbsent(instanceBackendIds[i],
+                    k -> coordinator.new BackendExecStates(k, execState.brpcAddress, false)).addState(execState);
+        }
+        for (BackendExecStates states : beToExecStates.values()) {
+            states.unsetFields();
+        }
+
+        // only the first params of each rpc carries the shared fields, unless they are already sent to the backend
+        assertFullParams(execStates.get(0).rpcParams);
+        assertFullParams(execStates.get(1).rpcParams);
+        assertSimplifiedParams(execStates.get(2).rpcParams);
+        assertSimplifiedParams(execStates.get(3).rpcParams);
+        assertSimplifiedParams(execStates.get(4).rpcParams);
+        assertSimplifiedParams(execStates.get(5).rpcParams);
+    }
+
     @Test
     public void testBucketShuffleWithUnaliveBackend()  {
         PlanFragmentId planFragmentId = new PlanFragmentId(1);
@@ -0,0 +1,100 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.analysis.IntLiteral;
+import org.apache.doris.analysis.NullLiteral;
+import org.apache.doris.analysis.PlaceHolderExpr;
+import org.apache.doris.analysis.SelectStmt;
+import org.apache.doris.analysis.StringLiteral;
+import org.apache.doris.common.AnalysisException;
+import org.apache.doris.common.UserException;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class PreparedStatementContextTest {
+
+    @Test
+    public void testBind() throws UserException {
+        PreparedStatementContext stmt = new PreparedStatementContext(1,
+                "select * from t where k1 = ? and k2 = '?' and `?` = ? /* ? */ and k3 in (?)", 0L);
+        Assert.assertEquals(3, stmt.getNumParams());
+        stmt.bind(Lists.newArrayList(new IntLiteral(1), new StringLiteral("it's"), new NullLiteral()));
+        Assert.assertEquals("select * from t where k1 = 1 and k2 = '?' and `?` = 'it\\'s' /* ? */ and k3 in (NULL)",
+                stmt.getBoundStmt());
+        List<PlaceHolderExpr> placeholders = Lists.newArrayList();
+        ((SelectStmt) stmt.getParsedStmt(0L)).getWhereClause().collect(PlaceHolderExpr.class, placeholders);
+        Assert.assertEquals(3, placeholders.size());
+        Assert.assertEquals(1L, placeholders.get(0).getLongValue());
+        Assert.assertEquals("it's", placeholders.get(1).getStringValue());
+        Assert.assertTrue(placeholders.get(2).getValue() instanceof NullLiteral);
+    }
+
+    @Test
+    public void testReparseAfterExecuted() throws UserException {
+        PreparedStatementContext stmt = new PreparedStatementContext(1, "select * from t1, t2 where k1 = ?", 0L);
+        stmt.bind(Lists.newArrayList(new IntLiteral(1)));
+        Object first = stmt.getParsedStmt(0L);
+        stmt.bind(Lists.newArrayList(new IntLiteral(2)));
+        // the plan is not cached, so the statement is parsed again instead of reusing the analyzed one
+        Assert.assertNotSame(first, stmt.getParsedStmt(0L));
+    }
+
+    @Test
+    public void testEscapedQuote() throws UserException {
+        PreparedStatementContext stmt = new PreparedStatementContext(1, "select 'it\\'s ?', ?", 0L);
+        Assert.assertEquals(1, stmt.getNumParams());
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testWrongParamNum() throws UserException {
+        PreparedStatementContext stmt = new PreparedStatementContext(1, "select ?", 0L);
+        stmt.bind(Lists.newArrayList());
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testMultiStmts() throws UserException {
+        new PreparedStatementContext(1, "select ?; select ?", 0L);
+    }
+
+    @Test
+    public void testPlanCacheable() throws UserException {
+        Assert.assertTrue(isPlanCacheable("select k1, k2 from db1.t where k1 = ? and k2 in (?, ?) order by k1"));
+        Assert.assertTrue(isPlanCacheable("select k1, sum(v) from t where k1 > ? group by k1"));
+        Assert.assertTrue(isPlanCacheable("select * from t"));
+
+        Assert.assertFalse(isPlanCacheable("select * from t where k1 = ? + 1"));
+        Assert.assertFalse(isPlanCacheable("select * from t where k1 = ? or k2 = ?"));
+        Assert.assertFalse(isPlanCacheable("select * from t where ? = k1"));
+        Assert.assertFalse(isPlanCacheable("select ? from t where k1 = ?"));
+        Assert.assertFalse(isPlanCacheable("select * from t1 join t2 on t1.k1 = t2.k1 where t1.k1 = ?"));
+        Assert.assertFalse(isPlanCacheable("select now(), k1 from t where k1 = ?"));
+        Assert.assertFalse(isPlanCacheable("select * from t where k1 in (select k1 from t2 where k2 = ?)"));
+        Assert.assertFalse(isPlanCacheable("select * from (select * from t) v where k1 = ?"));
+        Assert.assertFalse(isPlanCacheable("with v as (select * from t) select * from v where k1 = ?"));
+        Assert.assertFalse(isPlanCacheable("insert into t values (?)"));
+    }
+
+    private static boolean isPlanCacheable(String stmt) throws UserException {
+        return new PreparedStatementContext(1, stmt, 0L).isPlanCacheable();
+    }
+}
@@ -17,6 +17,8 @@
 
 package org.apache.doris.qe;
 
+import org.apache.doris.common.Config;
+
 import com.google.gson.Gson;
 import org.junit.Assert;
 import org.junit.Test;
@@ -64,4 +66,39 @@ public class QueryDetailQueueTest {
                               + "\"sql\":\"select * from table1 limit 1\"}]";
         Assert.assertEquals(jsonString, queryDetailString);
     }
+
+    @Test
+    public void testOrderAndCapacity() {
+        QueryDetailQueue.resetForTest(3);
+        try {
+            // events of concurrent queries may arrive out of order
+            long[] eventTimes = {100, 102, 101, 103};
+            for (int i = 0; i < eventTimes.length; i++) {
+                QueryDetailQueue.addOrUpdateQueryDetail(new QueryDetail(eventTimes[i], "q" + i, eventTimes[i], -1, -1,
+                        QueryDetail.QueryMemState.RUNNING, "", "select " + i));
+            }
+            // the oldest event is evicted
+            List<QueryDetail> queryDetails = QueryDetailQueue.getQueryDetails(0);
+            Assert.assertEquals(3, queryDetails.size());
+            Assert.assertEquals("q2", queryDetails.get(0).getQueryId());
+            Assert.assertEquals("q1", queryDetails.get(1).getQueryId());
+            Assert.assertEquals("q3", queryDetails.get(2).getQueryId());
+
+            queryDetails = QueryDetailQueue.getQueryDetails(101);
+            Assert.assertEquals(2, queryDetails.size());
+            Assert.assertEquals("q1", queryDetails.get(0).getQueryId());
+
+            // only the latest event of a query is returned
+            QueryDetail finished = new QueryDetail(104, "q1", 102, 104, 2, QueryDetail.QueryMemState.FINISHED, "",
+                    "select 1");
+            QueryDetailQueue.addOrUpdateQueryDetail(finished);
+            queryDetails = QueryDetailQueue.getQueryDetails(101);
+            Assert.assertEquals(2, queryDetails.size());
+            Assert.assertEquals("q3", queryDetails.get(0).getQueryId());
+            Assert.assertEquals("q1", queryDetails.get(1).getQueryId());
+            Assert.assertEquals(QueryDetail.QueryMemState.FINISHED, queryDetails.get(1).getState());
+        } finally {
+            QueryDetailQueue.resetForTest(Config.query_detail_capacity);
+        }
+    }
 }
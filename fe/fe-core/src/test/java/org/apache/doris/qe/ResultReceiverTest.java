@@ -0,0 +1,224 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Status;
+import org.apache.doris.proto.InternalService;
+import org.apache.doris.proto.Types;
+import org.apache.doris.rpc.BackendServiceProxy;
+import org.apache.doris.thrift.TNetworkAddress;
+import org.apache.doris.thrift.TResultBatch;
+import org.apache.doris.thrift.TUniqueId;
+
+import com.google.common.collect.Lists;
+import com.google.protobuf.ByteString;
+import mockit.Mock;
+import mockit.MockUp;
+import org.apache.thrift.TSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResultReceiverTest {
+    private static final int BATCH_NUM = 5;
+
+    private static InternalService.PFetchDataResult buildResult(long packetSeq) throws Exception {
+        InternalService.PFetchDataResult.Builder builder = InternalService.PFetchDataResult.newBuilder()
+                .setStatus(Types.PStatus.newBuilder().setStatusCode(0).build())
+                .setPacketSeq(packetSeq);
+        if (packetSeq >= BATCH_NUM) {
+            return builder.setEos(true).build();
+        }
+        TResultBatch batch = new TResultBatch();
+        batch.setRows(Lists.newArrayList(ByteBuffer.wrap(String.valueOf(packetSeq).getBytes())));
+        batch.setIsCompressed(false);
+        batch.setPacketSeq(packetSeq);
+        byte[] bytes = new TSerializer().serialize(batch);
+        return builder.setEos(false).setRowBatch(ByteString.copyFrom(bytes)).build();
+    }
+
+    /**
+     * A BE which serves the fetch requests in the given arrival order, and the requests not in the
+     * arrival order arrive in the sending order. Like the real BE, a packet seq is assigned to a request
+     * when it is served. A request waited by the receiver is served at once if the next request in the
+     * arrival order is not sent yet.
+     */
+    private static class FakeBackend {
+        private final LinkedList<Integer> arrivalOrder;
+        private final List<CompletableFuture<InternalService.PFetchDataResult>> requests = Lists.newArrayList();
+        private long nextPacketSeq = 0;
+
+        FakeBackend(Integer... arrivalOrder) {
+            this.arrivalOrder = Lists.newLinkedList(Arrays.asList(arrivalOrder));
+        }
+
+        synchronized Future<InternalService.PFetchDataResult> fetch() {
+            int requestIdx = requests.size();
+            CompletableFuture<InternalService.PFetchDataResult> future = new CompletableFuture<>();
+            requests.add(future);
+            return new Future<InternalService.PFetchDataResult>() {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    return future.cancel(mayInterruptIfRunning);
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return future.isCancelled();
+                }
+
+                @Override
+                public boolean isDone() {
+                    return future.isDone();
+                }
+
+                @Override
+                public InternalService.PFetchDataResult get() throws InterruptedException, ExecutionException {
+                    serve(requestIdx);
+                    return future.get();
+                }
+
+                @Override
+                public InternalService.PFetchDataResult get(long timeout, TimeUnit unit)
+                        throws InterruptedException, ExecutionException {
+                    return get();
+                }
+            };
+        }
+
+        private synchronized void serve(int requestIdx) throws ExecutionException {
+            try {
+                while (!requests.get(requestIdx).isDone()) {
+                    Integer next = arrivalOrder.peek();
+                    int servedIdx = requestIdx;
+                    if (next != null && next < requests.size()) {
+                        servedIdx = arrivalOrder.poll();
+                    }
+                    if (!requests.get(servedIdx).isDone()) {
+                        requests.get(servedIdx).complete(buildResult(nextPacketSeq++));
+                    }
+                }
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+        }
+    }
+
+    private static List<String> fetchAll(ResultReceiver receiver) throws Exception {
+        List<String> rows = Lists.newArrayList();
+        while (true) {
+            Status status = new Status();
+            RowBatch rowBatch = receiver.getNext(status);
+            Assert.assertTrue(status.ok());
+            if (rowBatch.getBatch() != null) {
+                for (ByteBuffer row : rowBatch.getBatch().getRows()) {
+                    byte[] bytes = new byte[row.remaining()];
+                    row.get(bytes);
+                    rows.add(new String(bytes));
+                }
+            }
+            if (rowBatch.isEos()) {
+                break;
+            }
+        }
+        Assert.assertNull(receiver.getNext(new Status()));
+        return rows;
+    }
+
+    @Test
+    public void testPrefetchReorderPackets() throws Exception {
+        // BE serves the waiting requests in the order they arrive, so the responses
+        // may not match the sending order: 0->1, 1->0, 2->3, 3->2, 4->eos, 5->4
+        final long[] requestToSeq = {1, 0, 3, 2, BATCH_NUM, 4};
+        AtomicInteger requestNum = new AtomicInteger(0);
+        new MockUp<BackendServiceProxy>() {
+            @Mock
+            public Future<InternalService.PFetchDataResult> fetchDataAsync(
+                    TNetworkAddress address, InternalService.PFetchDataRequest request) throws Exception {
+                int idx = requestNum.getAndIncrement();
+                long seq = idx < requestToSeq.length ? requestToSeq[idx] : BATCH_NUM;
+                return CompletableFuture.completedFuture(buildResult(seq));
+            }
+        };
+
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L,
+                new TNetworkAddress("127.0.0.1", 8060), System.currentTimeMillis() + 60000, 4);
+        Assert.assertEquals(Lists.newArrayList("0", "1", "2", "3", "4"), fetchAll(receiver));
+    }
+
+    @Test
+    public void testPrefetchConsecutiveReorderedPackets() throws Exception {
+        // request 2 arrives at BE before request 0, and then request 3 before request 1
+        FakeBackend backend = new FakeBackend(2, 0, 3, 1);
+        new MockUp<BackendServiceProxy>() {
+            @Mock
+            public Future<InternalService.PFetchDataResult> fetchDataAsync(
+                    TNetworkAddress address, InternalService.PFetchDataRequest request) throws Exception {
+                return backend.fetch();
+            }
+        };
+
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L,
+                new TNetworkAddress("127.0.0.1", 8060), System.currentTimeMillis() + 60000, 3);
+        Assert.assertEquals(Lists.newArrayList("0", "1", "2", "3", "4"), fetchAll(receiver));
+    }
+
+    @Test
+    public void testFetchWithoutPrefetch() throws Exception {
+        AtomicInteger requestNum = new AtomicInteger(0);
+        new MockUp<BackendServiceProxy>() {
+            @Mock
+            public Future<InternalService.PFetchDataResult> fetchDataAsync(
+                    TNetworkAddress address, InternalService.PFetchDataRequest request) throws Exception {
+                return CompletableFuture.completedFuture(buildResult(requestNum.getAndIncrement()));
+            }
+        };
+
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L,
+                new TNetworkAddress("127.0.0.1", 8060), System.currentTimeMillis() + 60000, 1);
+        Assert.assertEquals(Lists.newArrayList("0", "1", "2", "3", "4"), fetchAll(receiver));
+        Assert.assertEquals(BATCH_NUM + 1, requestNum.get());
+    }
+
+    @Test
+    public void testPrefetchErrorPacket() throws Exception {
+        new MockUp<BackendServiceProxy>() {
+            @Mock
+            public Future<InternalService.PFetchDataResult> fetchDataAsync(
+                    TNetworkAddress address, InternalService.PFetchDataRequest request) throws Exception {
+                // packet 0 is lost
+                return CompletableFuture.completedFuture(buildResult(100));
+            }
+        };
+
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L,
+                new TNetworkAddress("127.0.0.1", 8060), System.currentTimeMillis() + 60000, 4);
+        Status status = new Status();
+        Assert.assertNull(receiver.getNext(status));
+        Assert.assertFalse(status.ok());
+    }
+}
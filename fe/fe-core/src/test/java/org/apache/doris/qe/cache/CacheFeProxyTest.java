@@ -0,0 +1,144 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe.cache;
+
+import org.apache.doris.common.Status;
+import org.apache.doris.proto.InternalService;
+import org.apache.doris.proto.Types;
+
+import com.google.protobuf.ByteString;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CacheFeProxyTest {
+
+    private static class CountingProxy extends CacheProxy {
+        private int updateNum = 0;
+        private int fetchNum = 0;
+        private int clearNum = 0;
+
+        @Override
+        public void updateCache(InternalService.PUpdateCacheRequest request, int timeoutMs, Status status) {
+            updateNum++;
+        }
+
+        @Override
+        public InternalService.PFetchCacheResult fetchCache(InternalService.PFetchCacheRequest request,
+                                                            int timeoutMs, Status status) {
+            fetchNum++;
+            return InternalService.PFetchCacheResult.newBuilder()
+                    .setStatus(InternalService.PCacheStatus.CACHE_OK)
+                    .addValues(buildValue(request.getParams(0), 10))
+                    .build();
+        }
+
+        @Override
+        public void clearCache(InternalService.PClearCacheRequest clearRequest) {
+            clearNum++;
+        }
+    }
+
+    private static InternalService.PCacheParam buildParam(long version) {
+        return InternalService.PCacheParam.newBuilder()
+                .setPartitionKey(20200112L)
+                .setLastVersion(version)
+                .setLastVersionTime(1579053661000L)
+                .build();
+    }
+
+    private static InternalService.PCacheValue buildValue(InternalService.PCacheParam param, int rowSize) {
+        return InternalService.PCacheValue.newBuilder()
+                .setParam(param)
+                .setDataSize(rowSize)
+                .addRows(ByteString.copyFrom(new byte[rowSize]))
+                .build();
+    }
+
+    private static InternalService.PFetchCacheRequest buildFetchRequest(Types.PUniqueId sqlKey, long version) {
+        return InternalService.PFetchCacheRequest.newBuilder()
+                .setSqlKey(sqlKey)
+                .addParams(buildParam(version))
+                .build();
+    }
+
+    @Test
+    public void testFetchAndUpdate() {
+        CountingProxy backend = new CountingProxy();
+        CacheFeProxy.ResultStore store = new CacheFeProxy.ResultStore(1024 * 1024);
+        CacheFeProxy proxy = new CacheFeProxy(store, backend);
+        Types.PUniqueId sqlKey = CacheProxy.getMd5("SELECT 1");
+
+        // miss on fe, fetched from backend and kept on fe
+        Status status = new Status();
+        InternalService.PFetchCacheResult result = proxy.fetchCache(buildFetchRequest(sqlKey, 1), 1000, status);
+        Assert.assertEquals(InternalService.PCacheStatus.CACHE_OK, result.getStatus());
+        Assert.assertEquals(1, backend.fetchNum);
+        Assert.assertEquals(1, store.size());
+        Assert.assertTrue(store.getCachedBytes() > 0);
+
+        // hit on fe
+        result = proxy.fetchCache(buildFetchRequest(sqlKey, 1), 1000, status);
+        Assert.assertEquals(InternalService.PCacheStatus.CACHE_OK, result.getStatus());
+        Assert.assertEquals(1, backend.fetchNum);
+
+        // a new version of the partition must not hit the old result
+        proxy.fetchCache(buildFetchRequest(sqlKey, 2), 1000, status);
+        Assert.assertEquals(2, backend.fetchNum);
+
+        // update is kept on fe and forwarded to backend
+        InternalService.PUpdateCacheRequest updateRequest = InternalService.PUpdateCacheRequest.newBuilder()
+                .setSqlKey(sqlKey)
+                .setCacheType(InternalService.CacheType.SQL_CACHE)
+                .addValues(buildValue(buildParam(3), 10))
+                .build();
+        proxy.updateCache(updateRequest, 1000, status);
+        Assert.assertEquals(1, backend.updateNum);
+        result = proxy.fetchCache(buildFetchRequest(sqlKey, 3), 1000, status);
+        Assert.assertEquals(1, result.getValuesCount());
+        Assert.assertEquals(2, backend.fetchNum);
+
+        proxy.clearCache(InternalService.PClearCacheRequest.newBuilder().build());
+        Assert.assertEquals(1, backend.clearNum);
+        Assert.assertEquals(0, store.size());
+        Assert.assertEquals(0, store.getCachedBytes());
+    }
+
+    @Test
+    public void testEvictByBytes() {
+        CacheFeProxy.ResultStore store = new CacheFeProxy.ResultStore(4096);
+        Types.PUniqueId sqlKey = CacheProxy.getMd5("SELECT 1");
+
+        // larger than a quarter of the store
+        InternalService.PFetchCacheResult large = InternalService.PFetchCacheResult.newBuilder()
+                .setStatus(InternalService.PCacheStatus.CACHE_OK)
+                .addValues(buildValue(buildParam(1), 2048))
+                .build();
+        Assert.assertFalse(store.put(new CacheFeProxy.ResultKey(sqlKey, buildParam(1)), large));
+        Assert.assertEquals(0, store.size());
+
+        for (int i = 0; i < 100; i++) {
+            InternalService.PFetchCacheResult result = InternalService.PFetchCacheResult.newBuilder()
+                    .setStatus(InternalService.PCacheStatus.CACHE_OK)
+                    .addValues(buildValue(buildParam(i), 100))
+                    .build();
+            Assert.assertTrue(store.put(new CacheFeProxy.ResultKey(sqlKey, buildParam(i)), result));
+        }
+        Assert.assertTrue(store.size() < 100);
+        Assert.assertTrue(store.getCachedBytes() <= 4096);
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.doris.catalog.Table;
 import org.apache.doris.common.AnalysisException;
 import org.apache.doris.common.Config;
 import org.apache.doris.common.FeMetaVersion;
+import org.apache.doris.common.LabelAlreadyUsedException;
 import org.apache.doris.common.Pair;
 import org.apache.doris.common.UserException;
 import org.apache.doris.common.util.TimeUtils;
@@ -41,6 +42,11 @@ import org.junit.rules.ExpectedException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DatabaseTransactionMgrTest {
 
@@ -269,4 +275,110 @@ public class DatabaseTransactionMgrTest {
         Assert.assertEquals(3, masterDbTransMgr.getTransactionNum());
         Assert.assertNull(masterDbTransMgr.unprotectedGetTxnIdsByLabel(CatalogTestUtil.testTxnLabel1));
     }
+
+    @Test
+    public void testBeginTransactionConcurrently() throws InterruptedException {
+        FakeCatalog.setCatalog(masterCatalog);
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        TransactionState.TxnCoordinator beTransactionSource = new TransactionState.TxnCoordinator(
+                TransactionState.TxnSourceType.BE, "be1");
+        AtomicInteger successNum = new AtomicInteger(0);
+        AtomicInteger labelUsedNum = new AtomicInteger(0);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = Lists.newArrayList();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                // every thread begins a txn with the same label and a txn with its own label
+                for (String label : Lists.newArrayList("same_label", "label_" + Thread.currentThread().getId())) {
+                    try {
+                        masterTransMgr.beginTransaction(CatalogTestUtil.testDbId1,
+                                Lists.newArrayList(CatalogTestUtil.testTableId1), label, beTransactionSource,
+                                TransactionState.LoadJobSourceType.BACKEND_STREAMING,
+                                Config.stream_load_default_timeout_second);
+                        successNum.incrementAndGet();
+                    } catch (LabelAlreadyUsedException e) {
+                        labelUsedNum.incrementAndGet();
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // an assertion failed in other threads does not fail the test, so check the failures here
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+        // only one txn of "same_label" is begun
+        Assert.assertEquals(9, successNum.get());
+        Assert.assertEquals(7, labelUsedNum.get());
+        Assert.assertEquals(1, masterDbTransMgr.unprotectedGetTxnIdsByLabel("same_label").size());
+        Assert.assertEquals(2 + 9, masterDbTransMgr.getRunningTxnNums());
+        Assert.assertEquals(4 + 9, masterDbTransMgr.getTransactionNum());
+    }
+
+    @Test
+    public void testBeginTransactionConcurrentlyWithLimit() throws InterruptedException {
+        FakeCatalog.setCatalog(masterCatalog);
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        TransactionState.TxnCoordinator beTransactionSource = new TransactionState.TxnCoordinator(
+                TransactionState.TxnSourceType.BE, "be1");
+        int originRunningTxnNums = masterDbTransMgr.getRunningTxnNums();
+        int maxRunningTxnNum = Config.max_running_txn_num_per_db;
+        // allow 5 more running txns
+        Config.max_running_txn_num_per_db = originRunningTxnNums + 5;
+        try {
+            AtomicInteger successNum = new AtomicInteger(0);
+            AtomicInteger rejectedNum = new AtomicInteger(0);
+            Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Thread> threads = Lists.newArrayList();
+            for (int i = 0; i < 16; i++) {
+                String label = "limit_label_" + i;
+                threads.add(new Thread(() -> {
+                    try {
+                        startLatch.await();
+                        masterTransMgr.beginTransaction(CatalogTestUtil.testDbId1,
+                                Lists.newArrayList(CatalogTestUtil.testTableId1), label, beTransactionSource,
+                                TransactionState.LoadJobSourceType.BACKEND_STREAMING,
+                                Config.stream_load_default_timeout_second);
+                        successNum.incrementAndGet();
+                    } catch (BeginTransactionException e) {
+                        rejectedNum.incrementAndGet();
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }));
+            }
+            AtomicBoolean isRunning = new AtomicBoolean(true);
+            AtomicInteger maxObservedNum = new AtomicInteger(0);
+            Thread monitor = new Thread(() -> {
+                while (isRunning.get()) {
+                    maxObservedNum.accumulateAndGet(masterDbTransMgr.getRunningTxnNums(), Math::max);
+                }
+            });
+            monitor.start();
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            startLatch.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            isRunning.set(false);
+            monitor.join();
+
+            Assert.assertTrue(failures.toString(), failures.isEmpty());
+            Assert.assertEquals(5, successNum.get());
+            Assert.assertEquals(11, rejectedNum.get());
+            Assert.assertEquals(originRunningTxnNums + 5, masterDbTransMgr.getRunningTxnNums());
+            Assert.assertTrue(maxObservedNum.get() <= Config.max_running_txn_num_per_db);
+        } finally {
+            Config.max_running_txn_num_per_db = maxRunningTxnNum;
+        }
+    }
 }
@@ -0,0 +1,192 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.transaction;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.catalog.CatalogTestUtil;
+import org.apache.doris.catalog.FakeCatalog;
+import org.apache.doris.catalog.FakeEditLog;
+import org.apache.doris.catalog.Partition;
+import org.apache.doris.catalog.Table;
+import org.apache.doris.common.Config;
+import org.apache.doris.common.FeMetaVersion;
+import org.apache.doris.common.UserException;
+import org.apache.doris.common.jmockit.Deencapsulation;
+import org.apache.doris.meta.MetaContext;
+import org.apache.doris.task.AgentTaskExecutor;
+import org.apache.doris.task.AgentTaskQueue;
+import org.apache.doris.task.PublishVersionTask;
+import org.apache.doris.transaction.TransactionState.LoadJobSourceType;
+import org.apache.doris.transaction.TransactionState.TxnCoordinator;
+import org.apache.doris.transaction.TransactionState.TxnSourceType;
+
+import com.google.common.collect.Lists;
+import mockit.Mocked;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Map;
+
+public class PublishVersionDaemonTest {
+
+    private static FakeEditLog fakeEditLog;
+    private static FakeCatalog fakeCatalog;
+    private static FakeTransactionIDGenerator fakeTransactionIDGenerator;
+
+    // publish tasks are only recorded in the AgentTaskQueue, they are never sent to the backends
+    @Mocked
+    private AgentTaskExecutor agentTaskExecutor;
+
+    private Catalog catalog;
+    private GlobalTransactionMgr transMgr;
+    private PublishVersionDaemon daemon;
+    private long originalQuorumPublishWaitTime;
+
+    @Before
+    public void setUp() throws InstantiationException, IllegalAccessException, IllegalArgumentException,
+            InvocationTargetException, NoSuchMethodException, SecurityException {
+        fakeEditLog = new FakeEditLog();
+        fakeCatalog = new FakeCatalog();
+        fakeTransactionIDGenerator = new FakeTransactionIDGenerator();
+        catalog = CatalogTestUtil.createTestCatalog();
+        MetaContext metaContext = new MetaContext();
+        metaContext.setMetaVersion(FeMetaVersion.VERSION_CURRENT);
+        metaContext.setThreadLocalInfo();
+
+        transMgr = catalog.getGlobalTransactionMgr();
+        transMgr.setEditLog(catalog.getEditLog());
+        FakeCatalog.setCatalog(catalog);
+
+        daemon = new PublishVersionDaemon();
+        originalQuorumPublishWaitTime = Config.quorum_publish_wait_time_ms;
+    }
+
+    @After
+    public void tearDown() {
+        Config.quorum_publish_wait_time_ms = originalQuorumPublishWaitTime;
+        AgentTaskQueue.clearAllTasks();
+    }
+
+    // begin and commit a txn which loads data into the 3 replicas of the test tablet
+    private TransactionState commitTransaction() throws UserException {
+        long transactionId = transMgr.beginTransaction(CatalogTestUtil.testDbId1,
+                Lists.newArrayList(CatalogTestUtil.testTableId1), CatalogTestUtil.testTxnLabel1,
+                new TxnCoordinator(TxnSourceType.FE, "localfe"), LoadJobSourceType.FRONTEND,
+                Config.stream_load_default_timeout_second);
+        List<TabletCommitInfo> transTablets = Lists.newArrayList(
+                new TabletCommitInfo(CatalogTestUtil.testTabletId1, CatalogTestUtil.testBackendId1),
+                new TabletCommitInfo(CatalogTestUtil.testTabletId1, CatalogTestUtil.testBackendId2),
+                new TabletCommitInfo(CatalogTestUtil.testTabletId1, CatalogTestUtil.testBackendId3));
+        Table table = catalog.getInternalDataSource().getDbOrMetaException(CatalogTestUtil.testDbId1)
+                .getTableOrMetaException(CatalogTestUtil.testTableId1);
+        transMgr.commitTransaction(CatalogTestUtil.testDbId1, Lists.newArrayList(table), transactionId, transTablets);
+        TransactionState transactionState = transMgr.getTransactionState(CatalogTestUtil.testDbId1, transactionId);
+        Assert.assertEquals(TransactionStatus.COMMITTED, transactionState.getTransactionStatus());
+        return transactionState;
+    }
+
+    private void publishVersion() {
+        Deencapsulation.invoke(daemon, "publishVersion");
+    }
+
+    // send the publish tasks of the txn, and mark the tasks of the given backends as finished
+    private void sendAndFinishTasks(TransactionState transactionState, long... finishedBackendIds) {
+        publishVersion();
+        Map<Long, PublishVersionTask> tasks = transactionState.getPublishVersionTasks();
+        Assert.assertEquals(3, tasks.size());
+        for (long backendId : finishedBackendIds) {
+            tasks.get(backendId).setFinished(true);
+        }
+    }
+
+    // pretend that the publish tasks of the txn were sent a long time ago
+    private void elapseSinceSendTasks(TransactionState transactionState, long elapsedMs) {
+        Map<Long, Long> txnPublishStartTime = Deencapsulation.getField(daemon, "txnPublishStartTime");
+        txnPublishStartTime.put(transactionState.getTransactionId(), System.currentTimeMillis() - elapsedMs);
+    }
+
+    private long getVisibleVersion() throws UserException {
+        Partition partition = catalog.getInternalDataSource().getDbOrMetaException(CatalogTestUtil.testDbId1)
+                .getTableOrMetaException(CatalogTestUtil.testTableId1).getPartition(CatalogTestUtil.testPartition1);
+        return partition.getVisibleVersion();
+    }
+
+    @Test
+    public void testQuorumFinishAfterWaitTime() throws UserException {
+        Config.quorum_publish_wait_time_ms = 5000;
+        TransactionState transactionState = commitTransaction();
+        sendAndFinishTasks(transactionState, CatalogTestUtil.testBackendId1, CatalogTestUtil.testBackendId2);
+
+        elapseSinceSendTasks(transactionState, 10000);
+        publishVersion();
+        Assert.assertEquals(TransactionStatus.VISIBLE, transactionState.getTransactionStatus());
+        Assert.assertEquals(CatalogTestUtil.testStartVersion + 1, getVisibleVersion());
+        // the tasks of the visible txn are removed, the unfinished one included
+        PublishVersionTask unfinishedTask = transactionState.getPublishVersionTasks()
+                .get(CatalogTestUtil.testBackendId3);
+        Assert.assertFalse(unfinishedTask.isFinished());
+        Assert.assertNull(AgentTaskQueue.getTask(unfinishedTask.getBackendId(), unfinishedTask.getTaskType(),
+                unfinishedTask.getSignature()));
+    }
+
+    @Test
+    public void testNoQuorumFinishBeforeWaitTime() throws UserException {
+        Config.quorum_publish_wait_time_ms = 5000;
+        TransactionState transactionState = commitTransaction();
+        sendAndFinishTasks(transactionState, CatalogTestUtil.testBackendId1, CatalogTestUtil.testBackendId2);
+
+        publishVersion();
+        Assert.assertEquals(TransactionStatus.COMMITTED, transactionState.getTransactionStatus());
+        Assert.assertEquals(CatalogTestUtil.testStartVersion, getVisibleVersion());
+
+        // quorum finish is disabled by default, the txn waits for all tasks no matter how long it takes
+        Config.quorum_publish_wait_time_ms = -1;
+        elapseSinceSendTasks(transactionState, 10000);
+        publishVersion();
+        Assert.assertEquals(TransactionStatus.COMMITTED, transactionState.getTransactionStatus());
+        Assert.assertEquals(CatalogTestUtil.testStartVersion, getVisibleVersion());
+    }
+
+    @Test
+    public void testNoQuorumFinishWithoutQuorumReplicas() throws UserException {
+        Config.quorum_publish_wait_time_ms = 5000;
+        TransactionState transactionState = commitTransaction();
+        sendAndFinishTasks(transactionState, CatalogTestUtil.testBackendId1);
+
+        elapseSinceSendTasks(transactionState, 10000);
+        publishVersion();
+        Assert.assertEquals(TransactionStatus.COMMITTED, transactionState.getTransactionStatus());
+        Assert.assertEquals(CatalogTestUtil.testStartVersion, getVisibleVersion());
+
+        // once one more task is finished, the txn is finished in the next try after the wait time
+        transactionState.getPublishVersionTasks().get(CatalogTestUtil.testBackendId2).setFinished(true);
+        Map<Long, Long> txnLastQuorumFinishTime = Deencapsulation.getField(daemon, "txnLastQuorumFinishTime");
+        Assert.assertTrue(txnLastQuorumFinishTime.containsKey(transactionState.getTransactionId()));
+        publishVersion();
+        Assert.assertEquals(TransactionStatus.COMMITTED, transactionState.getTransactionStatus());
+
+        txnLastQuorumFinishTime.put(transactionState.getTransactionId(), System.currentTimeMillis() - 10000);
+        publishVersion();
+        Assert.assertEquals(TransactionStatus.VISIBLE, transactionState.getTransactionStatus());
+        Assert.assertEquals(CatalogTestUtil.testStartVersion + 1, getVisibleVersion());
+    }
+}
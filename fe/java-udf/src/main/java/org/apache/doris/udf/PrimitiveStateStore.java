@@ -0,0 +1,118 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.udf;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Keeps the fixed width states of a UDAF in one off-heap buffer instead of one java object per group.
+ * Every aggregate place of the backend is mapped to the offset of its state in the buffer, and the state
+ * is zero initialized when the place is first seen.
+ * The buffer may be reallocated when a new state is created, so getBuffer() must be called after
+ * getOrCreate() for all the places of a batch. Offsets stay valid until clear().
+ */
+class PrimitiveStateStore {
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final int stateSize;
+    private final Long2IntOpenHashMap placeToOffset = new Long2IntOpenHashMap();
+    private ByteBuffer buffer;
+    // bytes in use of the buffer
+    private int size = 0;
+
+    PrimitiveStateStore(int stateSize) {
+        if (stateSize <= 0) {
+            throw new IllegalArgumentException("invalid state size: " + stateSize);
+        }
+        this.stateSize = stateSize;
+        this.placeToOffset.defaultReturnValue(-1);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(INITIAL_CAPACITY, stateSize));
+    }
+
+    int getStateSize() {
+        return stateSize;
+    }
+
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    int getNumStates() {
+        return placeToOffset.size();
+    }
+
+    /**
+     * Returns the offset of the state of 'place', creates a zeroed state if it does not exist.
+     */
+    int getOrCreate(long place) {
+        int offset = placeToOffset.get(place);
+        if (offset >= 0) {
+            return offset;
+        }
+        if (buffer.capacity() - size < stateSize) {
+            grow();
+        }
+        offset = size;
+        size += stateSize;
+        // the buffer may be reused after clear(), so zero the state explicitly
+        for (int i = 0; i < stateSize; ++i) {
+            buffer.put(offset + i, (byte) 0);
+        }
+        placeToOffset.put(place, offset);
+        return offset;
+    }
+
+    /**
+     * Returns a copy of the state of 'place'.
+     */
+    byte[] serialize(long place) {
+        int offset = getOrCreate(place);
+        byte[] bytes = new byte[stateSize];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Drops all states, the memory is kept for reuse.
+     */
+    void clear() {
+        placeToOffset.clear();
+        size = 0;
+    }
+
+    private void grow() {
+        long newCapacity = Math.max(2L * buffer.capacity(), (long) size + stateSize);
+        if (newCapacity > Integer.MAX_VALUE) {
+            if ((long) size + stateSize > Integer.MAX_VALUE) {
+                throw new IllegalStateException("too many UDAF states: " + placeToOffset.size());
+            }
+            newCapacity = Integer.MAX_VALUE;
+        }
+        ByteBuffer newBuffer = ByteBuffer.allocateDirect((int) newCapacity);
+        ByteBuffer view = buffer.duplicate();
+        view.position(0);
+        view.limit(size);
+        newBuffer.put(view);
+        newBuffer.clear();
+        buffer = newBuffer;
+    }
+}
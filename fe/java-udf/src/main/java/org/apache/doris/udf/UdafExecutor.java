@@ -33,12 +33,14 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -57,6 +59,8 @@ public class UdafExecutor {
     public static final String UDAF_DESERIALIZE_FUNCTION = "deserialize";
     public static final String UDAF_MERGE_FUNCTION = "merge";
     public static final String UDAF_RESULT_FUNCTION = "getValue";
+    public static final String UDAF_BATCH_ADD_FUNCTION = "batchAdd";
+    public static final String UDAF_STATE_SIZE_FUNCTION = "stateSize";
     private static final Logger LOG = Logger.getLogger(UdafExecutor.class);
     private static final TBinaryProtocol.Factory PROTOCOL_FACTORY = new TBinaryProtocol.Factory();
     private final long inputBufferPtrs;
@@ -74,6 +78,23 @@ public class UdafExecutor {
     private JavaUdfDataType[] argTypes;
     private JavaUdfDataType retType;
 
+    // Set by init() if the UDAF has a batchAdd() with the signature
+    //   void batchAdd(int numRows, State[] states, A1[] arg1, byte[] arg1Nulls, ...)
+    // or, if it keeps its state in fixed width off-heap memory (see stateSize()),
+    //   void batchAdd(int numRows, ByteBuffer states, int[] stateOffsets, A1[] arg1, byte[] arg1Nulls, ...)
+    // where 'states[i]' (or the state at 'stateOffsets[i]' of 'states') belongs to row i.
+    private Method batchAddMethod;
+    // Not null if the UDAF declares 'int stateSize()', see PrimitiveStateStore.
+    private PrimitiveStateStore primitiveStates;
+    private Class<?> stateClass;
+    // Argument arrays reused among batches: the state array and a column and a null map for each argument.
+    private Object[] batchArgs;
+    private Object batchStates;
+    private Class<?>[] batchColumnClasses;
+    private Object[] batchColumns;
+    private byte[][] batchNullMaps;
+    private int batchCapacity = 0;
+
     /**
      * Constructor to create an object.
      */
@@ -134,6 +155,10 @@ public class UdafExecutor {
      * invoke add function, add row in loop [rowStart, rowEnd).
      */
     public void add(boolean isSinglePlace, long rowStart, long rowEnd) throws UdfRuntimeException {
+        if (batchAddMethod != null) {
+            batchAdd(isSinglePlace, rowStart, rowEnd);
+            return;
+        }
         try {
             long idx = rowStart;
             do {
@@ -155,6 +180,109 @@ public class UdafExecutor {
         }
     }
 
+    /**
+     * Invoke batchAdd() once for rows [rowStart, rowEnd). The columns are copied to primitive arrays
+     * and the state of every row is resolved from its place before the call.
+     */
+    private void batchAdd(boolean isSinglePlace, long rowStart, long rowEnd) throws UdfRuntimeException {
+        int numRows = (int) (rowEnd - rowStart);
+        if (numRows <= 0) {
+            return;
+        }
+        try {
+            ensureBatchCapacity(numRows);
+            long placesAddr = UdfUtils.UNSAFE.getLong(null, inputPlacesPtr);
+            int col = 0;
+            batchArgs[col++] = numRows;
+            if (primitiveStates != null) {
+                int[] offsets = (int[]) batchStates;
+                long lastPlace = 0;
+                for (int i = 0; i < numRows; ++i) {
+                    if (i > 0 && isSinglePlace) {
+                        offsets[i] = offsets[0];
+                        continue;
+                    }
+                    long place = UdfUtils.UNSAFE.getLong(null, placesAddr + 8L * (rowStart + i));
+                    // rows of the same group are usually adjacent
+                    offsets[i] = i > 0 && place == lastPlace ? offsets[i - 1] : primitiveStates.getOrCreate(place);
+                    lastPlace = place;
+                }
+                // fetch the buffer after all the states are created, creating a state may grow it
+                batchArgs[col++] = primitiveStates.getBuffer();
+                batchArgs[col++] = offsets;
+            } else {
+                Object[] states = (Object[]) batchStates;
+                long lastPlace = 0;
+                for (int i = 0; i < numRows; ++i) {
+                    if (i > 0 && isSinglePlace) {
+                        states[i] = states[0];
+                        continue;
+                    }
+                    long place = UdfUtils.UNSAFE.getLong(null, placesAddr + 8L * (rowStart + i));
+                    states[i] = i > 0 && place == lastPlace ? states[i - 1] : getOrCreateAggState(place);
+                    lastPlace = place;
+                }
+                batchArgs[col++] = states;
+            }
+            for (int i = 0; i < argTypes.length; ++i) {
+                long bufferAddr = UdfUtils.UNSAFE.getLong(null, UdfUtils.getAddressAtOffset(inputBufferPtrs, i));
+                UdfUtils.copyColumnToArray(bufferAddr, rowStart, numRows, argTypes[i], batchColumns[i]);
+                batchArgs[col++] = batchColumns[i];
+                long nullMapAddr = UdfUtils.UNSAFE.getLong(null, UdfUtils.getAddressAtOffset(inputNullsPtrs, i));
+                if (nullMapAddr == -1) {
+                    batchArgs[col++] = null;
+                } else {
+                    UdfUtils.copyMemory(null, nullMapAddr + rowStart, batchNullMaps[i], UdfUtils.BYTE_ARRAY_OFFSET,
+                            numRows);
+                    batchArgs[col++] = batchNullMaps[i];
+                }
+            }
+            batchAddMethod.invoke(udaf, batchArgs);
+            if (primitiveStates == null) {
+                // do not keep states alive after they are destroyed
+                Arrays.fill((Object[]) batchStates, 0, numRows, null);
+            }
+        } catch (Exception e) {
+            throw new UdfRuntimeException("UDAF failed to batch add: ", e);
+        }
+    }
+
+    private void ensureBatchCapacity(int numRows) {
+        if (numRows <= batchCapacity) {
+            return;
+        }
+        int capacity = Math.max(numRows, batchCapacity * 2);
+        batchStates = primitiveStates != null ? new int[capacity] : Array.newInstance(stateClass, capacity);
+        for (int i = 0; i < argTypes.length; ++i) {
+            batchColumns[i] = Array.newInstance(batchColumnClasses[i], capacity);
+            batchNullMaps[i] = new byte[capacity];
+        }
+        batchCapacity = capacity;
+    }
+
+    private Object getOrCreateAggState(long place) throws UdfRuntimeException {
+        Object state = stateObjMap.get(place);
+        if (state == null) {
+            state = createAggState();
+            stateObjMap.put(place, state);
+        }
+        return state;
+    }
+
+    /**
+     * Returns true if the UDAF is driven by batchAdd().
+     */
+    public boolean isBatchAdd() {
+        return batchAddMethod != null;
+    }
+
+    /**
+     * Returns true if the UDAF keeps its states in fixed width off-heap memory.
+     */
+    public boolean isPrimitiveState() {
+        return primitiveStates != null;
+    }
+
     /**
      * invoke user create function to get obj.
      */
@@ -170,6 +298,10 @@ public class UdafExecutor {
      * invoke destroy before colse. Here we destroy all data at once
      */
     public void destroy() throws UdfRuntimeException {
+        if (primitiveStates != null) {
+            primitiveStates.clear();
+            return;
+        }
         try {
             for (Object obj : stateObjMap.values()) {
                 allMethods.get(UDAF_DESTROY_FUNCTION).invoke(udaf, obj);
@@ -184,6 +316,9 @@ public class UdafExecutor {
      * invoke serialize function and return byte[] to backends.
      */
     public byte[] serialize(long place) throws UdfRuntimeException {
+        if (primitiveStates != null) {
+            return primitiveStates.serialize(place);
+        }
         try {
             Object[] args = new Object[2];
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -201,6 +336,16 @@ public class UdafExecutor {
      * here call deserialize first, and call merge.
      */
     public void merge(long place, byte[] data) throws UdfRuntimeException {
+        if (primitiveStates != null) {
+            try {
+                int offset = primitiveStates.getOrCreate(place);
+                allMethods.get(UDAF_MERGE_FUNCTION).invoke(udaf, primitiveStates.getBuffer(), offset,
+                        ByteBuffer.wrap(data), 0);
+                return;
+            } catch (Exception e) {
+                throw new UdfRuntimeException("UDAF failed to merge: ", e);
+            }
+        }
         try {
             Object[] args = new Object[2];
             ByteArrayInputStream bins = new ByteArrayInputStream(data);
@@ -222,6 +367,11 @@ public class UdafExecutor {
      */
     public boolean getValue(long row, long place) throws UdfRuntimeException {
         try {
+            if (primitiveStates != null) {
+                int offset = primitiveStates.getOrCreate(place);
+                return storeUdfResult(allMethods.get(UDAF_RESULT_FUNCTION).invoke(udaf, primitiveStates.getBuffer(),
+                        offset), row);
+            }
             return storeUdfResult(allMethods.get(UDAF_RESULT_FUNCTION).invoke(udaf, stateObjMap.get((Long) place)),
                     row);
         } catch (Exception e) {
@@ -471,6 +621,8 @@ public class UdafExecutor {
                 switch (methods[idx].getName()) {
                     case UDAF_DESTROY_FUNCTION:
                     case UDAF_CREATE_FUNCTION:
+                    case UDAF_BATCH_ADD_FUNCTION:
+                    case UDAF_STATE_SIZE_FUNCTION:
                     case UDAF_MERGE_FUNCTION:
                     case UDAF_SERIALIZE_FUNCTION:
                     case UDAF_DESERIALIZE_FUNCTION: {
@@ -514,6 +666,7 @@ public class UdafExecutor {
                         break;
                 }
             }
+            initBatchAdd(udfPath, parameterTypes);
             if (idx == methods.length) {
                 return;
             }
@@ -523,6 +676,8 @@ public class UdafExecutor {
                     .append(Joiner.on("\n    ").join(signatures));
             throw new UdfRuntimeException(sb.toString());
 
+        } catch (UdfRuntimeException e) {
+            throw e;
         } catch (MalformedURLException e) {
             throw new UdfRuntimeException("Unable to load jar.", e);
         } catch (SecurityException e) {
@@ -537,4 +692,63 @@ public class UdafExecutor {
             throw new UdfRuntimeException("Unable to call create UDAF instance.", e);
         }
     }
+
+    /**
+     * Check the optional batchAdd() and stateSize() of the UDAF. Only columns of fixed length primitive
+     * types are supported by batchAdd(). A UDAF with a primitive state must provide a valid batchAdd(),
+     * while a UDAF with object states falls back to add() if its batchAdd() does not match.
+     */
+    private void initBatchAdd(String udfPath, Type... parameterTypes) throws Exception {
+        Method sizeMethod = allMethods.get(UDAF_STATE_SIZE_FUNCTION);
+        int stateSize = sizeMethod == null ? 0 : (int) sizeMethod.invoke(udaf);
+        Method m = allMethods.get(UDAF_BATCH_ADD_FUNCTION);
+        if (sizeMethod != null && (stateSize <= 0 || m == null)) {
+            throw new UdfRuntimeException(udfPath + " declares " + UDAF_STATE_SIZE_FUNCTION + "() = " + stateSize
+                    + ", a positive state size and " + UDAF_BATCH_ADD_FUNCTION + "() are required");
+        }
+        if (m == null) {
+            return;
+        }
+        Class<?>[] methodTypes = m.getParameterTypes();
+        int argStart;
+        boolean valid;
+        if (sizeMethod != null) {
+            argStart = 3;
+            valid = methodTypes.length == argStart + 2 * parameterTypes.length && methodTypes[0] == int.class
+                    && methodTypes[1] == ByteBuffer.class && methodTypes[2] == int[].class;
+        } else {
+            argStart = 2;
+            valid = methodTypes.length == argStart + 2 * parameterTypes.length && methodTypes[0] == int.class
+                    && methodTypes[1].isArray() && !methodTypes[1].getComponentType().isPrimitive();
+        }
+        JavaUdfDataType[] batchArgTypes = new JavaUdfDataType[parameterTypes.length];
+        for (int i = 0; valid && i < parameterTypes.length; ++i) {
+            batchArgTypes[i] = UdfUtils.getBatchColumnType(methodTypes[argStart + 2 * i],
+                    methodTypes[argStart + 2 * i + 1], parameterTypes[i]);
+            valid = batchArgTypes[i] != null;
+        }
+        if (!valid) {
+            if (sizeMethod != null) {
+                throw new UdfRuntimeException("Unable to find " + UDAF_BATCH_ADD_FUNCTION
+                        + " function with the correct signature for primitive state: " + m.toGenericString());
+            }
+            LOG.debug("ignore " + UDAF_BATCH_ADD_FUNCTION + " function with incompatible signature: "
+                    + m.toGenericString());
+            return;
+        }
+        batchAddMethod = m;
+        argTypes = batchArgTypes;
+        if (sizeMethod != null) {
+            primitiveStates = new PrimitiveStateStore(stateSize);
+        } else {
+            stateClass = methodTypes[1].getComponentType();
+        }
+        batchArgs = new Object[methodTypes.length];
+        batchColumnClasses = new Class<?>[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            batchColumnClasses[i] = methodTypes[argStart + 2 * i].getComponentType();
+        }
+        batchColumns = new Object[parameterTypes.length];
+        batchNullMaps = new byte[parameterTypes.length][];
+    }
 }
@@ -30,6 +30,7 @@ import org.apache.thrift.TException;
 import org.apache.thrift.protocol.TBinaryProtocol;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
@@ -47,6 +48,11 @@ public class UdfExecutor {
 
     // By convention, the function in the class must be called evaluate()
     public static final String UDF_FUNCTION_NAME = "evaluate";
+    // Optional vectorized function, evaluates a whole batch over primitive arrays:
+    //   void batchEvaluate(int numRows, R[] result, byte[] resultNulls, A1[] arg1, byte[] arg1Nulls, ...)
+    // R and A are the primitive types of the return and argument types. A null map is null if the
+    // column is not nullable, otherwise 1 means the value of that row is null.
+    public static final String UDF_BATCH_FUNCTION_NAME = "batchEvaluate";
 
     // Object to deserialize ctor params from BE.
     private static final TBinaryProtocol.Factory PROTOCOL_FACTORY =
@@ -57,6 +63,8 @@ public class UdfExecutor {
     private Method method;
     // setup by init() and cleared by close()
     private URLClassLoader classLoader;
+    // setup by init() if the udf has a batchEvaluate() matching the function, cleared by close()
+    private Method batchMethod;
 
     // Return and argument types of the function inferred from the udf method signature.
     // The JavaUdfDataType enum maps it to corresponding primitive type.
@@ -81,6 +89,13 @@ public class UdfExecutor {
     // inputArgs_[i] is either inputObjects[i] or null
     private Object[] inputArgs;
 
+    // Arguments of batchEvaluate(): numRows, result column, result null map, then column and null map
+    // of each argument. The column buffers are reused across batches and only grow.
+    private Object[] batchArgs;
+    private Object[] batchColumns;
+    private byte[][] batchNullMaps;
+    private int batchCapacity = 0;
+
     private long outputOffset;
     private long rowIdx;
 
@@ -227,6 +242,7 @@ public class UdfExecutor {
         // We are now un-usable (because the class loader has been
         // closed), so null out method_ and classLoader_.
         method = null;
+        batchMethod = null;
         classLoader = null;
     }
 
@@ -236,6 +252,14 @@ public class UdfExecutor {
      */
     public void evaluate() throws UdfRuntimeException {
         int batchSize = UdfUtils.UNSAFE.getInt(null, batchSizePtr);
+        if (batchMethod != null) {
+            evaluateBatch(batchSize);
+            return;
+        }
+        if (inputObjects == null) {
+            inputObjects = new Object[argTypes.length];
+            inputArgs = new Object[argTypes.length];
+        }
         try {
             if (retType.equals(JavaUdfDataType.STRING) || retType.equals(JavaUdfDataType.VARCHAR)
                     || retType.equals(JavaUdfDataType.CHAR)) {
@@ -294,10 +318,75 @@ public class UdfExecutor {
         }
     }
 
+    /**
+     * Evaluates the whole batch with one call of batchEvaluate(). Input columns are copied to the reused
+     * primitive arrays in bulk, and so is the result column.
+     */
+    private void evaluateBatch(int batchSize) throws UdfRuntimeException {
+        if (batchSize == 0) {
+            return;
+        }
+        ensureBatchCapacity(batchSize);
+        batchArgs[0] = batchSize;
+        for (int i = 0; i < argTypes.length; ++i) {
+            int col = i + 1;
+            long bufferAddr = UdfUtils.UNSAFE.getLong(null, UdfUtils.getAddressAtOffset(inputBufferPtrs, i));
+            UdfUtils.copyColumnToArray(bufferAddr, 0, batchSize, argTypes[i], batchColumns[col]);
+            long nullAddr = UdfUtils.UNSAFE.getLong(null, UdfUtils.getAddressAtOffset(inputNullsPtrs, i));
+            if (nullAddr == -1) {
+                batchArgs[2 * col + 2] = null;
+            } else {
+                UdfUtils.copyMemory(null, nullAddr, batchNullMaps[col], UdfUtils.BYTE_ARRAY_OFFSET, batchSize);
+                batchArgs[2 * col + 2] = batchNullMaps[col];
+            }
+        }
+        long outputNullAddr = UdfUtils.UNSAFE.getLong(null, outputNullPtr);
+        if (outputNullAddr == -1) {
+            batchArgs[2] = null;
+        } else {
+            Arrays.fill(batchNullMaps[0], 0, batchSize, (byte) 0);
+            batchArgs[2] = batchNullMaps[0];
+        }
+
+        try {
+            batchMethod.invoke(udf, batchArgs);
+        } catch (Exception e) {
+            throw new UdfRuntimeException("UDF::batchEvaluate() ran into a problem.", e);
+        }
+
+        UdfUtils.copyMemory(batchColumns[0], UdfUtils.UNSAFE.arrayBaseOffset(batchColumns[0].getClass()), null,
+                UdfUtils.UNSAFE.getLong(null, outputBufferPtr), (long) batchSize * retType.getLen());
+        if (outputNullAddr != -1) {
+            UdfUtils.copyMemory(batchNullMaps[0], UdfUtils.BYTE_ARRAY_OFFSET, null, outputNullAddr, batchSize);
+        }
+    }
+
+    private void ensureBatchCapacity(int batchSize) {
+        if (batchSize <= batchCapacity) {
+            return;
+        }
+        Class<?>[] paramTypes = batchMethod.getParameterTypes();
+        int numColumns = argTypes.length + 1;
+        batchColumns = new Object[numColumns];
+        batchNullMaps = new byte[numColumns][];
+        batchArgs = new Object[paramTypes.length];
+        for (int col = 0; col < numColumns; ++col) {
+            // column of the result or argument is at 2 * col + 1, followed by its null map
+            batchColumns[col] = Array.newInstance(paramTypes[2 * col + 1].getComponentType(), batchSize);
+            batchNullMaps[col] = new byte[batchSize];
+            batchArgs[2 * col + 1] = batchColumns[col];
+        }
+        batchCapacity = batchSize;
+    }
+
     public Method getMethod() {
         return method;
     }
 
+    public boolean isBatchEvaluate() {
+        return batchMethod != null;
+    }
+
     // Sets the result object 'obj' into the outputBufferPtr and outputNullPtr_
     private boolean storeUdfResult(Object obj, long row) throws UdfRuntimeException {
         if (obj == null) {
@@ -432,9 +521,6 @@ public class UdfExecutor {
     // Preallocate the input objects that will be passed to the underlying UDF.
     // These objects are allocated once and reused across calls to evaluate()
     private void allocateInputObjects(long row) throws UdfRuntimeException {
-        inputObjects = new Object[argTypes.length];
-        inputArgs = new Object[argTypes.length];
-
         for (int i = 0; i < argTypes.length; ++i) {
             switch (argTypes[i]) {
                 case BOOLEAN:
@@ -519,6 +605,33 @@ public class UdfExecutor {
         }
     }
 
+    /**
+     * Use 'm' as batchEvaluate() if its signature matches the function, only fixed length primitive
+     * types are supported.
+     */
+    private boolean setBatchMethod(Method m, Type funcRetType, Type... parameterTypes) {
+        Class<?>[] methodTypes = m.getParameterTypes();
+        if (methodTypes.length != 3 + 2 * parameterTypes.length || methodTypes[0] != int.class) {
+            return false;
+        }
+        JavaUdfDataType batchRetType = UdfUtils.getBatchColumnType(methodTypes[1], methodTypes[2], funcRetType);
+        if (batchRetType == null) {
+            return false;
+        }
+        JavaUdfDataType[] batchArgTypes = new JavaUdfDataType[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            batchArgTypes[i] = UdfUtils.getBatchColumnType(methodTypes[2 * i + 3], methodTypes[2 * i + 4],
+                    parameterTypes[i]);
+            if (batchArgTypes[i] == null) {
+                return false;
+            }
+        }
+        batchMethod = m;
+        retType = batchRetType;
+        argTypes = batchArgTypes;
+        return true;
+    }
+
     private void init(String jarPath, String udfPath, Type funcRetType, Type... parameterTypes)
             throws UdfRuntimeException {
         ArrayList<String> signatures = Lists.newArrayList();
@@ -537,6 +650,16 @@ public class UdfExecutor {
             Constructor<?> ctor = c.getConstructor();
             udf = ctor.newInstance();
             Method[] methods = c.getMethods();
+            for (Method m : methods) {
+                if (!m.getName().equals(UDF_BATCH_FUNCTION_NAME)) {
+                    continue;
+                }
+                signatures.add(m.toGenericString());
+                if (setBatchMethod(m, funcRetType, parameterTypes)) {
+                    LOG.debug("Loaded vectorized UDF '" + udfPath + "' from " + jarPath);
+                    return;
+                }
+            }
             for (Method m : methods) {
                 // By convention, the udf must contain the function "evaluate"
                 if (!m.getName().equals(UDF_FUNCTION_NAME)) {
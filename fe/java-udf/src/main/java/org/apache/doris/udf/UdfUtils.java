@@ -163,6 +163,38 @@ public class UdfUtils {
         return new Pair<Boolean, JavaUdfDataType[]>(true, inputArgTypes);
     }
 
+    /**
+     * Returns the type of a column of batchEvaluate() or batchAdd(), which is passed as a primitive array
+     * followed by its null map. Returns null if it is not compatible with 'type'.
+     */
+    public static JavaUdfDataType getBatchColumnType(Class<?> columnType, Class<?> nullMapType, Type type) {
+        if (!columnType.isArray() || !columnType.getComponentType().isPrimitive() || nullMapType != byte[].class) {
+            return null;
+        }
+        JavaUdfDataType javaType = JavaUdfDataType.getType(columnType.getComponentType());
+        switch (javaType) {
+            case BOOLEAN:
+            case TINYINT:
+            case SMALLINT:
+            case INT:
+            case BIGINT:
+            case FLOAT:
+            case DOUBLE:
+                return javaType.getPrimitiveType() == type.getPrimitiveType().toThrift() ? javaType : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Copy 'numRows' values of a fixed length column from the backend, starting at 'rowStart', to 'array'.
+     */
+    public static void copyColumnToArray(long columnAddr, long rowStart, int numRows, JavaUdfDataType type,
+            Object array) {
+        copyMemory(null, columnAddr + rowStart * type.getLen(), array, UNSAFE.arrayBaseOffset(array.getClass()),
+                (long) numRows * type.getLen());
+    }
+
     /**
      * input is a 64bit num from backend, and then get year, month, day, hour, minus, second by the order of bits.
      */
@@ -0,0 +1,31 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.udf;
+
+public class BatchAddUdf {
+    public void batchEvaluate(int numRows, int[] result, byte[] resultNulls, int[] a, byte[] aNulls,
+            int[] b, byte[] bNulls) {
+        for (int i = 0; i < numRows; i++) {
+            if ((aNulls != null && aNulls[i] == 1) || (bNulls != null && bNulls[i] == 1)) {
+                resultNulls[i] = 1;
+            } else {
+                result[i] = a[i] + b[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.udf;
+
+import java.nio.ByteBuffer;
+
+public class PrimitiveSumUdaf {
+    public int stateSize() {
+        return 8;
+    }
+
+    public void batchAdd(int numRows, ByteBuffer states, int[] stateOffsets, int[] values, byte[] valueNulls) {
+        for (int i = 0; i < numRows; ++i) {
+            if (valueNulls == null || valueNulls[i] == 0) {
+                states.putLong(stateOffsets[i], states.getLong(stateOffsets[i]) + values[i]);
+            }
+        }
+    }
+
+    public void merge(ByteBuffer states, int offset, ByteBuffer other, int otherOffset) {
+        states.putLong(offset, states.getLong(offset) + other.getLong(otherOffset));
+    }
+
+    public Long getValue(ByteBuffer states, int offset) {
+        return states.getLong(offset);
+    }
+}
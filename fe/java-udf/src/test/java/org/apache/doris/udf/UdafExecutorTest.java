@@ -0,0 +1,119 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.udf;
+
+import org.apache.doris.thrift.TAggregateFunction;
+import org.apache.doris.thrift.TFunction;
+import org.apache.doris.thrift.TFunctionBinaryType;
+import org.apache.doris.thrift.TFunctionName;
+import org.apache.doris.thrift.TJavaUdfExecutorCtorParams;
+import org.apache.doris.thrift.TPrimitiveType;
+import org.apache.doris.thrift.TScalarType;
+import org.apache.doris.thrift.TTypeDesc;
+import org.apache.doris.thrift.TTypeNode;
+import org.apache.doris.thrift.TTypeNodeType;
+
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class UdafExecutorTest {
+
+    @Test
+    public void testPrimitiveStateUdaf() throws Exception {
+        TFunction fn = new TFunction();
+        fn.binary_type = TFunctionBinaryType.JAVA_UDF;
+        TTypeNode retNode = new TTypeNode(TTypeNodeType.SCALAR);
+        retNode.scalar_type = new TScalarType(TPrimitiveType.BIGINT);
+        TTypeDesc retDesc = new TTypeDesc(Collections.singletonList(retNode));
+        fn.ret_type = retDesc;
+        TTypeNode argNode = new TTypeNode(TTypeNodeType.SCALAR);
+        argNode.scalar_type = new TScalarType(TPrimitiveType.INT);
+        fn.arg_types = Arrays.asList(new TTypeDesc(Collections.singletonList(argNode)));
+        TAggregateFunction aggregateFunction = new TAggregateFunction(retDesc);
+        aggregateFunction.symbol = "org.apache.doris.udf.PrimitiveSumUdaf";
+        fn.aggregate_fn = aggregateFunction;
+        fn.name = new TFunctionName("PrimitiveSum");
+
+        int numRows = 10;
+        int numGroups = 3;
+        long inputBufferPtr = UdfUtils.UNSAFE.allocateMemory(8);
+        long inputNullPtr = UdfUtils.UNSAFE.allocateMemory(8);
+        long inputBuffer = UdfUtils.UNSAFE.allocateMemory(4 * numRows);
+        long inputNull = UdfUtils.UNSAFE.allocateMemory(numRows);
+        UdfUtils.UNSAFE.putLong(inputBufferPtr, inputBuffer);
+        UdfUtils.UNSAFE.putLong(inputNullPtr, inputNull);
+        // row i belongs to the group of place 'i % numGroups + 1', rows 0 and 5 are null
+        long inputPlacesPtr = UdfUtils.UNSAFE.allocateMemory(8);
+        long inputPlaces = UdfUtils.UNSAFE.allocateMemory(8 * numRows);
+        UdfUtils.UNSAFE.putLong(inputPlacesPtr, inputPlaces);
+        long[] expected = new long[numGroups];
+        for (int i = 0; i < numRows; i++) {
+            UdfUtils.UNSAFE.putInt(inputBuffer + 4 * i, i);
+            UdfUtils.UNSAFE.putByte(inputNull + i, i % 5 == 0 ? (byte) 1 : (byte) 0);
+            UdfUtils.UNSAFE.putLong(inputPlaces + 8 * i, i % numGroups + 1);
+            if (i % 5 != 0) {
+                expected[i % numGroups] += i;
+            }
+        }
+
+        long outputBufferPtr = UdfUtils.UNSAFE.allocateMemory(8);
+        long outputNullPtr = UdfUtils.UNSAFE.allocateMemory(8);
+        long outputBuffer = UdfUtils.UNSAFE.allocateMemory(8 * numGroups);
+        long outputNull = UdfUtils.UNSAFE.allocateMemory(numGroups);
+        UdfUtils.UNSAFE.putLong(outputBufferPtr, outputBuffer);
+        UdfUtils.UNSAFE.putLong(outputNullPtr, outputNull);
+
+        TJavaUdfExecutorCtorParams params = new TJavaUdfExecutorCtorParams();
+        params.setFn(fn);
+        params.setInputBufferPtrs(inputBufferPtr);
+        params.setInputNullsPtrs(inputNullPtr);
+        params.setInputOffsetsPtrs(0);
+        params.setInputPlacesPtr(inputPlacesPtr);
+        params.setOutputBufferPtr(outputBufferPtr);
+        params.setOutputNullPtr(outputNullPtr);
+        TSerializer serializer = new TSerializer(new TBinaryProtocol.Factory());
+
+        UdafExecutor executor = new UdafExecutor(serializer.serialize(params));
+        assert (executor.isBatchAdd());
+        assert (executor.isPrimitiveState());
+
+        // two batches, then merge the serialized state of place 1 into place 2
+        executor.add(false, 0, 4);
+        executor.add(false, 4, numRows);
+        byte[] state = executor.serialize(1);
+        assert (state.length == 8);
+        executor.merge(2, state);
+        for (int i = 0; i < numGroups; i++) {
+            executor.getValue(i, i + 1);
+        }
+        assert (UdfUtils.UNSAFE.getLong(outputBuffer) == expected[0]);
+        assert (UdfUtils.UNSAFE.getLong(outputBuffer + 8) == expected[0] + expected[1]);
+        assert (UdfUtils.UNSAFE.getLong(outputBuffer + 16) == expected[2]);
+
+        // a single place aggregates all the rows
+        executor.destroy();
+        executor.add(true, 0, numRows);
+        executor.getValue(0, 1);
+        assert (UdfUtils.UNSAFE.getLong(outputBuffer) == expected[0] + expected[1] + expected[2]);
+        executor.close();
+    }
+}
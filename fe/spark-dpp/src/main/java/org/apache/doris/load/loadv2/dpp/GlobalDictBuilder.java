@@ -19,19 +19,24 @@ package org.apache.doris.load.loadv2.dpp;
 
 import org.apache.commons.collections.map.MultiValueMap;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.sql.AnalysisException;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
 import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.catalog.Column;
+import org.apache.spark.sql.functions;
 import org.apache.spark.sql.types.DataTypes;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
+import org.apache.spark.storage.StorageLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -59,12 +64,24 @@ import java.util.stream.Collectors;
  *      GlobalDictBuilder.buildGlobalDict()
  *  step4, encode intermediate hive table with global dict
  *      GlobalDictBuilder.encodeDorisIntermediateHiveTable()
+ *
+ *  If the build mode is BUILD_MODE_SPARK, step1 to step4 are replaced with
+ *      GlobalDictBuilder.createHiveIntermediateTable(false)
+ *      GlobalDictBuilder.buildGlobalDictAndEncodeInSpark()
  */
 
 public class GlobalDictBuilder {
 
     protected static final Logger LOG = LoggerFactory.getLogger(GlobalDictBuilder.class);
 
+    // spark conf to specify the build mode of global dict
+    public static final String BUILD_MODE_CONF = "spark.doris.global.dict.build.mode";
+    // build global dict by a chain of hive sql, each step writes and rescans an intermediate hive table
+    public static final String BUILD_MODE_HIVE = "hive";
+    // build global dict and encode source rows with spark datasets,
+    // only the new dict values and the encoded intermediate hive table are written
+    public static final String BUILD_MODE_SPARK = "spark";
+
     // name of the column in doris table which need to build global dict
     // for example: some dict columns a,b,c
     // case 1: all dict columns has no relation, then the map is as below
@@ -135,6 +152,12 @@ public class GlobalDictBuilder {
     }
 
     public void createHiveIntermediateTable() throws AnalysisException {
+        createHiveIntermediateTable(true);
+    }
+
+    // if 'insertSourceData' is false, only create the intermediate hive table,
+    // and the data will be written by buildGlobalDictAndEncodeInSpark()
+    public void createHiveIntermediateTable(boolean insertSourceData) throws AnalysisException {
         Map<String, String> sourceHiveTableColumn = spark.catalog()
                 .listColumns(sourceHiveDBTableName)
                 .collectAsList()
@@ -158,8 +181,10 @@ public class GlobalDictBuilder {
         // create IntermediateHiveTable
         spark.sql(getCreateIntermediateHiveTableSql());
 
-        // insert data to IntermediateHiveTable
-        spark.sql(getInsertIntermediateHiveTableSql());
+        if (insertSourceData) {
+            // insert data to IntermediateHiveTable
+            spark.sql(getInsertIntermediateHiveTableSql());
+        }
     }
 
     public void extractDistinctColumn() {
@@ -186,28 +211,7 @@ public class GlobalDictBuilder {
         for (Object distinctColumnNameOrigin : dictColumn.keySet()) {
             String distinctColumnNameTmp = distinctColumnNameOrigin.toString();
             globalDictBuildWorkers.add(() -> {
-                // get global dict max value
-                List<Row> maxGlobalDictValueRow
-                        = spark.sql(getMaxGlobalDictValueSql(distinctColumnNameTmp)).collectAsList();
-                if (maxGlobalDictValueRow.size() == 0) {
-                    throw new RuntimeException(String.format("get max dict value failed: %s", distinctColumnNameTmp));
-                }
-
-                long maxDictValue = 0;
-                long minDictValue = 0;
-                Row row = maxGlobalDictValueRow.get(0);
-                if (row != null && row.get(0) != null) {
-                    maxDictValue = (long) row.get(0);
-                    minDictValue = (long) row.get(1);
-                }
-                LOG.info(" column " + distinctColumnNameTmp + " 's max value in dict is "
-                        + maxDictValue + ", min value is " + minDictValue);
-                // maybe never happened, but we need detect it
-                if (minDictValue < 0) {
-                    throw new RuntimeException(String.format(" column %s 's cardinality has exceed bigint's max value",
-                            distinctColumnNameTmp));
-                }
-
+                long maxDictValue = getMaxGlobalDictValue(distinctColumnNameTmp);
                 if (veryHighCardinalityColumn.contains(distinctColumnNameTmp)
                         && veryHighCardinalityColumnSplitNum > 1) {
                     // split distinct key first and then encode with count
@@ -222,6 +226,133 @@ public class GlobalDictBuilder {
         submitWorker(globalDictBuildWorkers);
     }
 
+    /**
+     * Build global dict and encode source hive table in spark, without writing and rescanning
+     * the intermediate tables of each step in BUILD_MODE_HIVE.
+     *  1. scan the source hive table once and persist it
+     *  2. for each dict column, get the distinct values which are not in global dict yet,
+     *     and assign dense ids to them with zipWithIndex, which is computed by partitions in parallel
+     *  3. append the new dict values to global dict table, the existing ones are not rewritten
+     *  4. encode the persisted source rows with global dict and write them to the intermediate hive table
+     */
+    public void buildGlobalDictAndEncodeInSpark() {
+        // create global dict hive table
+        spark.sql(getCreateGlobalDictHiveTableSql());
+
+        Dataset<Row> sourceData = spark.sql(getSelectSourceHiveTableSql())
+                .persist(StorageLevel.MEMORY_AND_DISK_SER());
+        try {
+            List<GlobalDictBuildWorker> workerList = new ArrayList<>();
+            for (Object column : dictColumn.keySet()) {
+                String distinctColumnName = column.toString();
+                workerList.add(() -> appendNewDictValue(sourceData, distinctColumnName));
+            }
+            submitWorker(workerList);
+
+            String encodedDataView = dorisIntermediateHiveTable + "_encoded";
+            encodeSourceData(sourceData).createOrReplaceTempView(encodedDataView);
+            spark.sql("insert overwrite table " + dorisIntermediateHiveTable + " select * from " + encodedDataView);
+        } finally {
+            sourceData.unpersist();
+        }
+    }
+
+    private void appendNewDictValue(Dataset<Row> sourceData, String distinctColumnName) {
+        long maxDictValue = getMaxGlobalDictValue(distinctColumnName);
+        Dataset<Row> dictKey = spark.sql("select dict_key as " + getDictKeyAlias(distinctColumnName)
+                + " from " + globalDictTableName + " where dict_column='" + distinctColumnName + "'");
+        Dataset<Row> distinctValue = sourceData.select(functions.col(distinctColumnName).as("dict_key"))
+                .where(functions.col("dict_key").isNotNull())
+                .distinct();
+        Dataset<Row> newDistinctValue = distinctValue.join(dictKey,
+                distinctValue.col("dict_key").equalTo(dictKey.col(getDictKeyAlias(distinctColumnName))), "left_anti");
+        // like row_number() in BUILD_MODE_HIVE, the new dict values start from maxDictValue + 1.
+        // zipWithIndex only counts the rows of each partition first, instead of sorting all rows in one task.
+        JavaRDD<Row> newDictValue = newDistinctValue.toJavaRDD().zipWithIndex()
+                .map(t -> RowFactory.create(t._1().getString(0), t._2() + maxDictValue + 1));
+
+        String newDictView = String.format("%s_new_dict_%s", globalDictTableName, distinctColumnName);
+        spark.createDataFrame(newDictValue, getGlobalDictSchema()).createOrReplaceTempView(newDictView);
+        spark.sql("insert into table " + globalDictTableName
+                + " partition(dict_column='" + distinctColumnName + "') "
+                + " select dict_key,dict_value from " + newDictView);
+    }
+
+    // replace the value of dict columns in source data with the value in global dict, like
+    // getEncodeDorisIntermediateHiveTableSql(), and keep the columns in the order of intermediate hive table
+    private Dataset<Row> encodeSourceData(Dataset<Row> sourceData) {
+        Dataset<Row> encodedData = sourceData;
+        Map<String, String> childToDictColumn = new HashMap<>();
+        for (Object column : dictColumn.keySet()) {
+            String distinctColumnName = column.toString();
+            Collection<?> childColumns = dictColumn.getCollection(distinctColumnName);
+            if (childColumns != null) {
+                for (Object childColumn : childColumns) {
+                    if (childColumn != null) {
+                        childToDictColumn.put(childColumn.toString(), distinctColumnName);
+                    }
+                }
+            }
+
+            Dataset<Row> dict = spark.sql("select dict_key as " + getDictKeyAlias(distinctColumnName)
+                    + ", dict_value as " + getDictValueAlias(distinctColumnName)
+                    + " from " + globalDictTableName + " where dict_column='" + distinctColumnName + "'");
+            if (mapSideJoinColumns.contains(distinctColumnName)) {
+                dict = functions.broadcast(dict);
+            }
+            encodedData = encodedData.join(dict, encodedData.col(distinctColumnName)
+                    .equalTo(dict.col(getDictKeyAlias(distinctColumnName))), "left_outer");
+        }
+
+        List<org.apache.spark.sql.Column> columns = new ArrayList<>();
+        for (String columnName : dorisOlapTableColumnList) {
+            org.apache.spark.sql.Column column;
+            if (dictColumn.containsKey(columnName)) {
+                column = functions.col(getDictValueAlias(columnName));
+            } else if (childToDictColumn.containsKey(columnName)) {
+                column = functions.when(functions.col(columnName).isNull(), null)
+                        .otherwise(functions.col(getDictValueAlias(childToDictColumn.get(columnName))));
+            } else {
+                columns.add(functions.col(columnName));
+                continue;
+            }
+            // dict columns are string type in intermediate hive table
+            columns.add(column.cast(DataTypes.StringType).as(columnName));
+        }
+        return encodedData.select(columns.toArray(new org.apache.spark.sql.Column[0]));
+    }
+
+    private String getDictKeyAlias(String distinctColumnName) {
+        return "__dict_key_" + distinctColumnName;
+    }
+
+    private String getDictValueAlias(String distinctColumnName) {
+        return "__dict_value_" + distinctColumnName;
+    }
+
+    private long getMaxGlobalDictValue(String distinctColumnName) {
+        List<Row> maxGlobalDictValueRow = spark.sql(getMaxGlobalDictValueSql(distinctColumnName)).collectAsList();
+        if (maxGlobalDictValueRow.size() == 0) {
+            throw new RuntimeException(String.format("get max dict value failed: %s", distinctColumnName));
+        }
+
+        long maxDictValue = 0;
+        long minDictValue = 0;
+        Row row = maxGlobalDictValueRow.get(0);
+        if (row != null && row.get(0) != null) {
+            maxDictValue = (long) row.get(0);
+            minDictValue = (long) row.get(1);
+        }
+        LOG.info(" column " + distinctColumnName + " 's max value in dict is "
+                + maxDictValue + ", min value is " + minDictValue);
+        // maybe never happened, but we need detect it
+        if (minDictValue < 0) {
+            throw new RuntimeException(String.format(" column %s 's cardinality has exceed bigint's max value",
+                    distinctColumnName));
+        }
+        return maxDictValue;
+    }
+
     // encode dorisIntermediateHiveTable's distinct column
     public void encodeDorisIntermediateHiveTable() {
         for (Object distinctColumnObj : dictColumn.keySet()) {
@@ -262,6 +393,28 @@ public class GlobalDictBuilder {
         return sql.toString();
     }
 
+    // same as the select part of getInsertIntermediateHiveTableSql(), with dict columns cast to string
+    private String getSelectSourceHiveTableSql() {
+        Set<String> allDictColumn = new HashSet<>();
+        allDictColumn.addAll(dictColumn.keySet());
+        allDictColumn.addAll(dictColumn.values());
+        StringBuilder sql = new StringBuilder();
+        sql.append("select ");
+        dorisOlapTableColumnList.stream().forEach(columnName -> {
+            if (allDictColumn.contains(columnName)) {
+                sql.append("cast(").append(columnName).append(" as string) as ").append(columnName).append(" ,");
+            } else {
+                sql.append(columnName).append(" ,");
+            }
+        });
+        sql.deleteCharAt(sql.length() - 1)
+                .append(" from ").append(sourceHiveDBTableName);
+        if (!StringUtils.isEmpty(sourceHiveFilter)) {
+            sql.append(" where ").append(sourceHiveFilter);
+        }
+        return sql.toString();
+    }
+
     private String getCreateDistinctKeyTableSql() {
         return "create table if not exists " + distinctKeyTableName
                 + "(dict_key string) partitioned by (dict_column string) stored as sequencefile ";
@@ -335,6 +488,13 @@ public class GlobalDictBuilder {
         return distinctValueSchema;
     }
 
+    private StructType getGlobalDictSchema() {
+        List<StructField> fieldList = new ArrayList<>();
+        fieldList.add(DataTypes.createStructField("dict_key", DataTypes.StringType, false));
+        fieldList.add(DataTypes.createStructField("dict_value", DataTypes.LongType, false));
+        return DataTypes.createStructType(fieldList);
+    }
+
     private double[] getRandomSplitWeights() {
         double[] weights = new double[veryHighCardinalityColumnSplitNum];
         double weight = 1 / Double.parseDouble(String.valueOf(veryHighCardinalityColumnSplitNum));
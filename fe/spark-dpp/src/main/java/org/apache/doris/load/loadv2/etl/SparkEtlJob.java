@@ -205,10 +205,18 @@ public class SparkEtlJob {
                     mapSideJoinColumns, sourceHiveDBTableName, sourceHiveFilter, dorisHiveDB, distinctKeyTableName,
                     globalDictTableName, dorisIntermediateHiveTable, buildConcurrency, veryHighCardinalityColumn,
                     veryHighCardinalityColumnSplitNum, spark);
-            globalDictBuilder.createHiveIntermediateTable();
-            globalDictBuilder.extractDistinctColumn();
-            globalDictBuilder.buildGlobalDict();
-            globalDictBuilder.encodeDorisIntermediateHiveTable();
+            String buildMode = spark.conf().get(GlobalDictBuilder.BUILD_MODE_CONF,
+                    GlobalDictBuilder.BUILD_MODE_HIVE);
+            LOG.info("global dict build mode: " + buildMode);
+            if (GlobalDictBuilder.BUILD_MODE_SPARK.equalsIgnoreCase(buildMode)) {
+                globalDictBuilder.createHiveIntermediateTable(false);
+                globalDictBuilder.buildGlobalDictAndEncodeInSpark();
+            } else {
+                globalDictBuilder.createHiveIntermediateTable();
+                globalDictBuilder.extractDistinctColumn();
+                globalDictBuilder.buildGlobalDict();
+                globalDictBuilder.encodeDorisIntermediateHiveTable();
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -27,6 +27,24 @@ public class BrokerConfig extends ConfigBase {
     
     @ConfField
     public static int hdfs_write_buffer_size_kb = 1024;
+
+    // max number of read buffers cached for reuse, each of them is hdfs_read_buffer_size_kb
+    @ConfField
+    public static int hdfs_read_buffer_pool_size = 64;
+
+    // if true, the next chunk of a file will be read in background when the file is read sequentially
+    @ConfField
+    public static boolean enable_hdfs_read_ahead = false;
+
+    @ConfField
+    public static int hdfs_read_ahead_size_kb = 8192;
+
+    @ConfField
+    public static int hdfs_read_ahead_thread_num = 16;
+
+    // interval of logging the read throughput of broker, 0 means disabled
+    @ConfField
+    public static int read_metrics_log_interval_seconds = 60;
     
     @ConfField
     public static int client_expire_seconds = 300;
@@ -64,11 +64,16 @@ public class ClientContextManager {
     
     public synchronized void putNewInputStream(String clientId, TBrokerFD fd, FSDataInputStream fsDataInputStream, 
             BrokerFileSystem brokerFileSystem) {
+        putNewInputStream(clientId, fd, fsDataInputStream, brokerFileSystem, null);
+    }
+
+    public synchronized void putNewInputStream(String clientId, TBrokerFD fd, FSDataInputStream fsDataInputStream,
+            BrokerFileSystem brokerFileSystem, ReadAheadBuffer readAheadBuffer) {
         if (!clientContexts.containsKey(clientId)) {
             clientContexts.putIfAbsent(clientId, new ClientResourceContext(clientId));
         }
         ClientResourceContext clientContext = clientContexts.get(clientId);
-        clientContext.putInputStream(fd, fsDataInputStream, brokerFileSystem);
+        clientContext.putInputStream(fd, fsDataInputStream, brokerFileSystem, readAheadBuffer);
         fdToClientMap.putIfAbsent(fd, clientId);
     }
     
@@ -82,6 +87,20 @@ public class ClientContextManager {
         FSDataInputStream fsDataInputStream = clientContext.getInputStream(fd);
         return fsDataInputStream;
     }
+
+    // return null if read ahead is not enabled for the fd
+    public synchronized ReadAheadBuffer getReadAheadBuffer(TBrokerFD fd) {
+        String clientId = fdToClientMap.get(fd);
+        if (clientId == null) {
+            return null;
+        }
+        ClientResourceContext clientContext = clientContexts.get(clientId);
+        if (clientContext == null) {
+            return null;
+        }
+        BrokerInputStream brokerInputStream = clientContext.inputStreams.get(fd);
+        return brokerInputStream == null ? null : brokerInputStream.readAheadBuffer;
+    }
     
     public synchronized FSDataOutputStream getFsDataOutputStream(TBrokerFD fd) {
         String clientId = fdToClientMap.get(fd);
@@ -103,6 +122,9 @@ public class ClientContextManager {
         BrokerInputStream brokerInputStream = clientContext.inputStreams.remove(fd);
         try {
             if (brokerInputStream != null) {
+                if (brokerInputStream.readAheadBuffer != null) {
+                    brokerInputStream.readAheadBuffer.close();
+                }
                 brokerInputStream.inputStream.close();
             }
         } catch (Exception e) {
@@ -175,10 +197,14 @@ public class ClientContextManager {
         
         private final FSDataInputStream inputStream;
         private final BrokerFileSystem brokerFileSystem;
+        // null if read ahead is not enabled
+        private final ReadAheadBuffer readAheadBuffer;
         
-        public BrokerInputStream(FSDataInputStream inputStream, BrokerFileSystem brokerFileSystem) {
+        public BrokerInputStream(FSDataInputStream inputStream, BrokerFileSystem brokerFileSystem,
+                ReadAheadBuffer readAheadBuffer) {
             this.inputStream = inputStream;
             this.brokerFileSystem = brokerFileSystem;
+            this.readAheadBuffer = readAheadBuffer;
             this.brokerFileSystem.updateLastUpdateAccessTime();
         }
         
@@ -206,8 +232,9 @@ public class ClientContextManager {
             this.lastPingTimestamp = System.currentTimeMillis();
         }
         
-        public void putInputStream(TBrokerFD fd, FSDataInputStream inputStream, BrokerFileSystem fileSystem) {
-            inputStreams.putIfAbsent(fd, new BrokerInputStream(inputStream, fileSystem));
+        public void putInputStream(TBrokerFD fd, FSDataInputStream inputStream, BrokerFileSystem fileSystem,
+                ReadAheadBuffer readAheadBuffer) {
+            inputStreams.putIfAbsent(fd, new BrokerInputStream(inputStream, fileSystem, readAheadBuffer));
         }
         
         public void putOutputStream(TBrokerFD fd, FSDataOutputStream outputStream, BrokerFileSystem fileSystem) {
@@ -17,12 +17,14 @@
 
 package org.apache.doris.broker.hdfs;
 
+import org.apache.doris.common.BrokerPerfMonitor;
 import org.apache.doris.common.WildcardURI;
 import org.apache.doris.thrift.TBrokerFD;
 import org.apache.doris.thrift.TBrokerFileStatus;
 import org.apache.doris.thrift.TBrokerOperationStatusCode;
 
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.CommonConfigurationKeysPublic;
@@ -56,9 +58,13 @@ import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public class FileSystemManager {
 
@@ -114,13 +120,33 @@ public class FileSystemManager {
     
     private ConcurrentHashMap<FileSystemIdentity, BrokerFileSystem> cachedFileSystem;
     private ClientContextManager clientContextManager;
+
+    private ReadBufferPool readBufferPool;
+    // the following are only used when read ahead is enabled
+    private ReadBufferPool readAheadBufferPool;
+    private ExecutorService readAheadPool;
     
     public FileSystemManager() {
         cachedFileSystem = new ConcurrentHashMap<>();
         clientContextManager = new ClientContextManager(handleManagementPool);
         readBufferSize = BrokerConfig.hdfs_read_buffer_size_kb << 10;
         writeBufferSize = BrokerConfig.hdfs_write_buffer_size_kb << 10;
+        readBufferPool = new ReadBufferPool(readBufferSize, BrokerConfig.hdfs_read_buffer_pool_size);
+        if (BrokerConfig.enable_hdfs_read_ahead) {
+            // the read ahead size should not be less than the read buffer size
+            int readAheadSize = Math.max(BrokerConfig.hdfs_read_ahead_size_kb << 10, readBufferSize);
+            readAheadBufferPool = new ReadBufferPool(readAheadSize, BrokerConfig.hdfs_read_buffer_pool_size);
+            int threadNum = BrokerConfig.hdfs_read_ahead_thread_num;
+            // read ahead requests exceeding the queue size will be rejected and skipped
+            readAheadPool = new ThreadPoolExecutor(threadNum, threadNum, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(threadNum * 4),
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("hdfs-read-ahead-%d").build());
+        }
         handleManagementPool.schedule(new FileSystemExpirationChecker(), 0, TimeUnit.SECONDS);
+        if (BrokerConfig.read_metrics_log_interval_seconds > 0) {
+            handleManagementPool.schedule(new ReadMetricsReporter(),
+                    BrokerConfig.read_metrics_log_interval_seconds, TimeUnit.SECONDS);
+        }
     }
 
     private static String preparePrincipal(String originalPrincipal) throws UnknownHostException {
@@ -733,7 +759,11 @@ public class FileSystemManager {
             fsDataInputStream.seek(startOffset);
             UUID uuid = UUID.randomUUID();
             TBrokerFD fd = parseUUIDToFD(uuid);
-            clientContextManager.putNewInputStream(clientId, fd, fsDataInputStream, fileSystem);
+            ReadAheadBuffer readAheadBuffer = null;
+            if (readAheadPool != null) {
+                readAheadBuffer = new ReadAheadBuffer(fsDataInputStream, readAheadBufferPool, readAheadPool);
+            }
+            clientContextManager.putNewInputStream(clientId, fd, fsDataInputStream, fileSystem, readAheadBuffer);
             return fd;
         } catch (IOException e) {
             logger.error("errors while open path", e);
@@ -744,54 +774,58 @@ public class FileSystemManager {
     }
     
     public ByteBuffer pread(TBrokerFD fd, long offset, long length) {
+        ByteBuffer[] result = new ByteBuffer[1];
+        pread(fd, offset, length, data -> {
+            byte[] buf = new byte[data.remaining()];
+            data.get(buf);
+            result[0] = ByteBuffer.wrap(buf);
+        });
+        return result[0];
+    }
+
+    /**
+     * Read at most 'length' bytes at 'offset' and pass them to 'consumer'.
+     * The data passed to consumer is only valid in consumer, because the buffer will be reused after it.
+     * Positional read is used, so that reads of the same fd do not need to lock the stream and seek.
+     */
+    public void pread(TBrokerFD fd, long offset, long length, Consumer<ByteBuffer> consumer) {
+        if (offset < 0) {
+            throw new BrokerException(TBrokerOperationStatusCode.INVALID_INPUT_OFFSET,
+                    "invalid read offset {}", offset);
+        }
         FSDataInputStream fsDataInputStream = clientContextManager.getFsDataInputStream(fd);
-        synchronized (fsDataInputStream) {
-            long currentStreamOffset;
-            try {
-                currentStreamOffset = fsDataInputStream.getPos();
-            } catch (IOException e) {
-                logger.error("errors while get file pos from output stream", e);
-                throw new BrokerException(TBrokerOperationStatusCode.TARGET_STORAGE_SERVICE_ERROR,
-                        "errors while get file pos from output stream");
-            }
-            if (currentStreamOffset != offset) {
-                // it's ok, when reading some format like parquet, it is not a sequential read
-                logger.debug("invalid offset, current read offset is "
-                        + currentStreamOffset + " is not equal to request offset "
-                        + offset + " seek to it");
-                try {
-                    fsDataInputStream.seek(offset);
-                } catch (IOException e) {
-                    throw new BrokerException(TBrokerOperationStatusCode.INVALID_INPUT_OFFSET,
-                            e, "current read offset {} is not equal to {}, and could not seek to it",
-                            currentStreamOffset, offset);
-                }
-            }
+        ReadAheadBuffer readAheadBuffer = clientContextManager.getReadAheadBuffer(fd);
+        int requestLength = (int) Math.min(length, readBufferSize);
+        long startTime = System.nanoTime();
+
+        int readLength = -1;
+        if (readAheadBuffer != null) {
+            readLength = readAheadBuffer.read(offset, requestLength, consumer);
+        }
+        if (readLength < 0) {
             // Avoid using the ByteBuffer based read for Hadoop because some FSDataInputStream
             // implementations are not ByteBufferReadable,
             // See https://issues.apache.org/jira/browse/HADOOP-14603
-            byte[] buf;
-            if (length > readBufferSize) {
-                buf = new byte[readBufferSize];
-            } else {
-                buf = new byte[(int) length];
-            }
+            byte[] buf = readBufferPool.acquire();
             try {
-                int readLength = readBytesFully(fsDataInputStream, buf);
-                if (readLength < 0) {
-                    throw new BrokerException(TBrokerOperationStatusCode.END_OF_FILE,
-                            "end of file reached");
-                }
+                readLength = preadFully(fsDataInputStream, offset, buf, requestLength);
                 if (logger.isDebugEnabled()) {
-                    logger.debug("read buffer from input stream, buffer size:" + buf.length + ", read length:" + readLength);
+                    logger.debug("read buffer from input stream, request length:" + requestLength
+                            + ", read length:" + readLength);
                 }
-                return ByteBuffer.wrap(buf, 0, readLength);
+                consumer.accept(ByteBuffer.wrap(buf, 0, readLength));
             } catch (IOException e) {
                 logger.error("errors while read data from stream", e);
                 throw new BrokerException(TBrokerOperationStatusCode.TARGET_STORAGE_SERVICE_ERROR,
-                        e, "errors while write data to output stream");
+                        e, "errors while read data from stream");
+            } finally {
+                readBufferPool.release(buf);
+            }
+            if (readAheadBuffer != null) {
+                readAheadBuffer.onDirectRead(offset, readLength, requestLength);
             }
         }
+        BrokerPerfMonitor.updateRead(readLength, System.nanoTime() - startTime);
     }
     
     public void seek(TBrokerFD fd, long offset) {
@@ -883,11 +917,12 @@ public class FileSystemManager {
         return new TBrokerFD(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
     }
 
-    private int readBytesFully(FSDataInputStream is, byte[] dest) throws IOException {
+    // read 'length' bytes at 'position' of the stream without changing the position of the stream.
+    // return the length of read data, which is less than 'length' only if the end of file is reached.
+    static int preadFully(FSDataInputStream is, long position, byte[] dest, int length) throws IOException {
         int readLength = 0;
-        while (readLength < dest.length) {
-            int availableReadLength = dest.length - readLength;
-            int n = is.read(dest, readLength, availableReadLength);
+        while (readLength < length) {
+            int n = is.read(position + readLength, dest, readLength, length - readLength);
             if (n <= 0) {
                 break;
             }
@@ -895,6 +930,44 @@ public class FileSystemManager {
         }
         return readLength;
     }
+
+    // log the read throughput of broker periodically
+    class ReadMetricsReporter implements Runnable {
+        private long lastReportTime = System.currentTimeMillis();
+        private long lastRequestNum = 0;
+        private long lastBytes = 0;
+        private long lastTimeNanos = 0;
+        private long lastReadAheadHitBytes = 0;
+
+        @Override
+        public void run() {
+            try {
+                long now = System.currentTimeMillis();
+                long requestNum = BrokerPerfMonitor.getReadRequestNum();
+                long bytes = BrokerPerfMonitor.getReadBytes();
+                long timeNanos = BrokerPerfMonitor.getReadTimeNanos();
+                long readAheadHitBytes = BrokerPerfMonitor.getReadAheadHitBytes();
+                if (requestNum > lastRequestNum) {
+                    long intervalMs = Math.max(1, now - lastReportTime);
+                    logger.info("read metrics in last " + intervalMs / 1000 + " seconds: requests: "
+                            + (requestNum - lastRequestNum) + ", bytes: " + (bytes - lastBytes)
+                            + ", throughput: " + (bytes - lastBytes) * 1000 / intervalMs / 1024 + " KB/s"
+                            + ", avg latency: " + (timeNanos - lastTimeNanos) / (requestNum - lastRequestNum) / 1000
+                            + " us, read ahead hit bytes: " + (readAheadHitBytes - lastReadAheadHitBytes)
+                            + ", pooled read buffers: " + readBufferPool.getPooledNum());
+                }
+                lastReportTime = now;
+                lastRequestNum = requestNum;
+                lastBytes = bytes;
+                lastTimeNanos = timeNanos;
+                lastReadAheadHitBytes = readAheadHitBytes;
+            } catch (Throwable t) {
+                logger.error("errors while report read metrics", t);
+            } finally {
+                handleManagementPool.schedule(this, BrokerConfig.read_metrics_log_interval_seconds, TimeUnit.SECONDS);
+            }
+        }
+    }
     
     class FileSystemExpirationChecker implements Runnable {
         @Override
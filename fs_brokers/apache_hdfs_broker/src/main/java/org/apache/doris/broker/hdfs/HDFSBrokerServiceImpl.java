@@ -44,7 +44,6 @@ import org.apache.doris.thrift.TPaloBrokerService;
 import org.apache.log4j.Logger;
 import org.apache.thrift.TException;
 
-import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -154,8 +153,9 @@ public class HDFSBrokerServiceImpl implements TPaloBrokerService.Iface {
         Stopwatch stopwatch = BrokerPerfMonitor.startWatch();
         TBrokerReadResponse response = new TBrokerReadResponse();
         try {
-            ByteBuffer readBuf = fileSystemManager.pread(request.fd, request.offset, request.length);
-            response.setData(readBuf);
+            // the read buffer is reused after pread() returns,
+            // it is safe because the generated setData() copies the content of the buffer.
+            fileSystemManager.pread(request.fd, request.offset, request.length, response::setData);
             response.setOpStatus(generateOKStatus());
         } catch (BrokerException e) {
             logger.warn("failed to pread: " + request.fd, e);
@@ -0,0 +1,149 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.broker.hdfs;
+
+import org.apache.doris.common.BrokerPerfMonitor;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * ReadAheadBuffer reads the next chunk of a file in background when the file is read sequentially,
+ * so that the following read requests of the same fd can be served from memory.
+ * All methods are synchronized, so that a chunk will not be released while it is being consumed.
+ */
+public class ReadAheadBuffer {
+
+    private static Logger logger = Logger.getLogger(ReadAheadBuffer.class.getName());
+
+    private final FSDataInputStream inputStream;
+    private final ReadBufferPool bufferPool;
+    private final ExecutorService executor;
+
+    // end offset of the last read request, used to detect sequential read
+    private long lastReadEnd = -1;
+    // the chunk which is being read or has been read in background
+    private long chunkOffset = -1;
+    private byte[] chunk = null;
+    private Future<Integer> chunkFuture = null;
+    private boolean closed = false;
+
+    public ReadAheadBuffer(FSDataInputStream inputStream, ReadBufferPool bufferPool, ExecutorService executor) {
+        this.inputStream = inputStream;
+        this.bufferPool = bufferPool;
+        this.executor = executor;
+    }
+
+    /**
+     * Pass at most 'length' bytes at 'offset' to 'consumer' if they have been read ahead.
+     * The data passed to consumer is only valid in consumer.
+     * Return the length of data passed to consumer, or -1 if the data at 'offset' is not read ahead.
+     */
+    public synchronized int read(long offset, int length, Consumer<ByteBuffer> consumer) {
+        if (closed || chunkFuture == null || offset < chunkOffset || offset >= chunkOffset + chunk.length) {
+            return -1;
+        }
+        int chunkLength;
+        try {
+            chunkLength = chunkFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discardChunk();
+            return -1;
+        } catch (ExecutionException e) {
+            logger.warn("errors while read ahead at offset " + chunkOffset, e.getCause());
+            discardChunk();
+            return -1;
+        }
+        if (offset >= chunkOffset + chunkLength) {
+            return -1;
+        }
+
+        int pos = (int) (offset - chunkOffset);
+        int readLength = Math.min(length, chunkLength - pos);
+        consumer.accept(ByteBuffer.wrap(chunk, pos, readLength));
+        BrokerPerfMonitor.updateReadAheadHit(readLength);
+        lastReadEnd = offset + readLength;
+        if (pos + readLength == chunkLength) {
+            // the whole chunk is consumed, read the next one unless the end of file is reached
+            boolean eof = chunkLength < chunk.length;
+            discardChunk();
+            if (!eof) {
+                startReadAhead(lastReadEnd);
+            }
+        }
+        return readLength;
+    }
+
+    /**
+     * Called after 'readLength' bytes at 'offset' are read from the input stream directly.
+     * Start to read ahead if this is a sequential read and the end of file is not reached.
+     */
+    public synchronized void onDirectRead(long offset, int readLength, int requestLength) {
+        boolean sequential = offset == lastReadEnd;
+        lastReadEnd = offset + readLength;
+        if (closed || !sequential || readLength < requestLength) {
+            return;
+        }
+        if (chunkFuture != null && chunkOffset == lastReadEnd) {
+            return;
+        }
+        discardChunk();
+        startReadAhead(lastReadEnd);
+    }
+
+    public synchronized void close() {
+        closed = true;
+        discardChunk();
+    }
+
+    private void startReadAhead(long offset) {
+        final byte[] buffer = bufferPool.acquire();
+        try {
+            chunkFuture = executor.submit(() -> FileSystemManager.preadFully(inputStream, offset, buffer,
+                    buffer.length));
+            chunk = buffer;
+            chunkOffset = offset;
+        } catch (RejectedExecutionException e) {
+            // too many read ahead requests, just skip it
+            logger.debug("read ahead request is rejected, offset: " + offset);
+            bufferPool.release(buffer);
+        }
+    }
+
+    private void discardChunk() {
+        if (chunkFuture != null) {
+            if (chunkFuture.isDone() && !chunkFuture.isCancelled()) {
+                bufferPool.release(chunk);
+            } else {
+                // the chunk may still be written by the read ahead task, leave it to GC
+                chunkFuture.cancel(false);
+            }
+        }
+        chunkFuture = null;
+        chunk = null;
+        chunkOffset = -1;
+    }
+}
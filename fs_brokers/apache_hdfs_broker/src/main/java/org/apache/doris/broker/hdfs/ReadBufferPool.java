@@ -0,0 +1,66 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.broker.hdfs;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of byte arrays with the same size, to avoid allocating a large buffer for each read request.
+ * A buffer must not be used any more after it is released.
+ */
+public class ReadBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooledNum;
+    private final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledNum = new AtomicInteger(0);
+
+    public ReadBufferPool(int bufferSize, int maxPooledNum) {
+        this.bufferSize = bufferSize;
+        this.maxPooledNum = maxPooledNum;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            return new byte[bufferSize];
+        }
+        pooledNum.decrementAndGet();
+        return buffer;
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer == null || buffer.length != bufferSize) {
+            return;
+        }
+        // the pooled num may exceed the max num a little under concurrency, it does not matter
+        if (pooledNum.get() < maxPooledNum) {
+            pooledNum.incrementAndGet();
+            buffers.offer(buffer);
+        }
+    }
+
+    public int getPooledNum() {
+        return pooledNum.get();
+    }
+}
@@ -19,11 +19,45 @@ package org.apache.doris.common;
 
 import com.google.common.base.Stopwatch;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 public class BrokerPerfMonitor {
 
+    // cumulative read statistics of broker
+    private static final AtomicLong readRequestNum = new AtomicLong(0);
+    private static final AtomicLong readBytes = new AtomicLong(0);
+    private static final AtomicLong readTimeNanos = new AtomicLong(0);
+    private static final AtomicLong readAheadHitBytes = new AtomicLong(0);
+
     public static Stopwatch startWatch() {
         Stopwatch stopwatch = Stopwatch.createUnstarted();
         stopwatch.start();
         return stopwatch;
     }
+
+    public static void updateRead(long bytes, long timeNanos) {
+        readRequestNum.incrementAndGet();
+        readBytes.addAndGet(bytes);
+        readTimeNanos.addAndGet(timeNanos);
+    }
+
+    public static void updateReadAheadHit(long bytes) {
+        readAheadHitBytes.addAndGet(bytes);
+    }
+
+    public static long getReadRequestNum() {
+        return readRequestNum.get();
+    }
+
+    public static long getReadBytes() {
+        return readBytes.get();
+    }
+
+    public static long getReadTimeNanos() {
+        return readTimeNanos.get();
+    }
+
+    public static long getReadAheadHitBytes() {
+        return readAheadHitBytes.get();
+    }
 }
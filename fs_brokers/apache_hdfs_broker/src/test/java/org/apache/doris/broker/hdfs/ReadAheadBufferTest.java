@@ -0,0 +1,81 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.broker.hdfs;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ReadAheadBufferTest {
+
+    private static final int FILE_SIZE = 3000;
+
+    @Test
+    public void testSequentialRead() throws IOException {
+        File file = File.createTempFile("read_ahead", ".dat");
+        file.deleteOnExit();
+        byte[] content = new byte[FILE_SIZE];
+        for (int i = 0; i < FILE_SIZE; i++) {
+            content[i] = (byte) i;
+        }
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ReadBufferPool bufferPool = new ReadBufferPool(1024, 4);
+        FSDataInputStream in = FileSystem.getLocal(new Configuration()).open(new Path(file.getAbsolutePath()));
+        ReadAheadBuffer readAheadBuffer = new ReadAheadBuffer(in, bufferPool, executor);
+        try {
+            // nothing is read ahead before the file is read sequentially
+            Assert.assertEquals(-1, readAheadBuffer.read(0, 512, data -> Assert.fail()));
+            readAheadBuffer.onDirectRead(0, 512, 512);
+            Assert.assertEquals(-1, readAheadBuffer.read(512, 512, data -> Assert.fail()));
+            readAheadBuffer.onDirectRead(512, 512, 512);
+
+            // [1024, 2048) is read ahead
+            Assert.assertEquals(512, readAheadBuffer.read(1024, 512, data -> assertContent(content, 1024, data)));
+            Assert.assertEquals(512, readAheadBuffer.read(1536, 1024, data -> assertContent(content, 1536, data)));
+            // [2048, 3000) is read ahead after the previous chunk is consumed
+            Assert.assertEquals(952, readAheadBuffer.read(2048, 1024, data -> assertContent(content, 2048, data)));
+            // end of file
+            Assert.assertEquals(-1, readAheadBuffer.read(3000, 1024, data -> Assert.fail()));
+        } finally {
+            readAheadBuffer.close();
+            in.close();
+            executor.shutdown();
+        }
+    }
+
+    private static void assertContent(byte[] content, int offset, ByteBuffer data) {
+        int length = data.remaining();
+        for (int i = 0; i < length; i++) {
+            Assert.assertEquals(content[offset + i], data.get());
+        }
+    }
+}